@@ -24,10 +24,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.olingo.odata2.annotation.processor.core.datasource.DataSource;
 import org.apache.olingo.odata2.annotation.processor.core.datasource.DataSource.BinaryData;
@@ -87,7 +90,10 @@ import org.apache.olingo.odata2.api.uri.NavigationSegment;
 import org.apache.olingo.odata2.api.uri.PathInfo;
 import org.apache.olingo.odata2.api.uri.UriParser;
 import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.BinaryOperator;
 import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
+import org.apache.olingo.odata2.api.uri.expression.EqualityDisjunctionVisitor;
+import org.apache.olingo.odata2.api.uri.expression.EqualityDisjunctionVisitor.EqualityDisjunction;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.LiteralExpression;
@@ -747,7 +753,7 @@ public class ListsProcessor extends DataSourceProcessor {
     final String mimeType = binaryData.getMimeType() == null ?
         HttpContentType.APPLICATION_OCTET_STREAM : binaryData.getMimeType();
 
-    return ODataResponse.fromResponse(EntityProvider.writeBinary(mimeType, binaryData.getData())).eTag(
+    return ODataResponse.fromResponse(writeBinaryData(mimeType, binaryData)).eTag(
         constructETag(entitySet, data)).build();
   }
 
@@ -857,7 +863,7 @@ public class ListsProcessor extends DataSourceProcessor {
 
     ODataResponse response;
     if (type == EdmSimpleTypeKind.Binary.getEdmSimpleTypeInstance()) {
-      response = EntityProvider.writeBinary(((BinaryData) data).getMimeType(), ((BinaryData) data).getData());
+      response = writeBinaryData(((BinaryData) data).getMimeType(), (BinaryData) data);
     } else {
       final String value = type.valueToString(data, EdmLiteralKind.DEFAULT, null);
       response = EntityProvider.writeText(value == null ? "" : value);
@@ -865,6 +871,22 @@ public class ListsProcessor extends DataSourceProcessor {
     return ODataResponse.fromResponse(response).build();
   }
 
+  /**
+   * Writes the binary data without reading streamed content into memory.
+   */
+  private static ODataResponse writeBinaryData(final String mimeType, final BinaryData binaryData)
+      throws EntityProviderException {
+    if (binaryData.getFile() != null) {
+      return EntityProvider.writeBinaryFile(mimeType, binaryData.getFile());
+    } else if (binaryData.getChannel() != null) {
+      return EntityProvider.writeBinaryChannel(mimeType, binaryData.getChannel());
+    } else if (binaryData.isStreamed()) {
+      return EntityProvider.writeBinaryStream(mimeType, binaryData.getStream());
+    } else {
+      return EntityProvider.writeBinary(mimeType, binaryData.getData());
+    }
+  }
+
   private static Map<String, Object> mapKey(final List<KeyPredicate> keys) throws EdmException {
     Map<String, Object> keyMap = new HashMap<String, Object>();
     for (final KeyPredicate key : keys) {
@@ -1182,10 +1204,11 @@ public class ListsProcessor extends DataSourceProcessor {
     final int timingHandle = context.startRuntimeMeasurement(getClass().getSimpleName(), "applySystemQueryOptions");
 
     if (filter != null) {
+      final Disjunctions disjunctions = new Disjunctions(filter);
       // Remove all elements the filter does not apply for.
       // A for-each loop would not work with "remove", see Java documentation.
       for (Iterator<T> iterator = data.iterator(); iterator.hasNext();) {
-        if (!appliesFilter(iterator.next(), filter)) {
+        if (!appliesFilter(iterator.next(), filter, disjunctions)) {
           iterator.remove();
         }
       }
@@ -1233,8 +1256,8 @@ public class ListsProcessor extends DataSourceProcessor {
         try {
           int result = 0;
           for (final OrderExpression expression : orderBy.getOrders()) {
-            String first = evaluateExpression(entity1, expression.getExpression());
-            String second = evaluateExpression(entity2, expression.getExpression());
+            String first = evaluateExpression(entity1, expression.getExpression(), null);
+            String second = evaluateExpression(entity2, expression.getExpression(), null);
 
             if (first != null && second != null) {
               result = first.compareTo(second);
@@ -1274,11 +1297,17 @@ public class ListsProcessor extends DataSourceProcessor {
   }
 
   private <T> boolean appliesFilter(final T data, final FilterExpression filter) throws ODataException {
+    return appliesFilter(data, filter, filter == null ? null : new Disjunctions(filter));
+  }
+
+  private <T> boolean appliesFilter(final T data, final FilterExpression filter,
+      final Disjunctions disjunctions) throws ODataException {
     ODataContext context = getContext();
     final int timingHandle = context.startRuntimeMeasurement(getClass().getSimpleName(), "appliesFilter");
 
     try {
-      return data != null && (filter == null || evaluateExpression(data, filter.getExpression()).equals("true"));
+      return data != null
+          && (filter == null || evaluateExpression(data, filter.getExpression(), disjunctions).equals("true"));
     } catch (final RuntimeException e) {
       return false;
     } finally {
@@ -1286,11 +1315,12 @@ public class ListsProcessor extends DataSourceProcessor {
     }
   }
 
-  private <T> String evaluateExpression(final T data, final CommonExpression expression) throws ODataException {
+  private <T> String evaluateExpression(final T data, final CommonExpression expression,
+      final Disjunctions disjunctions) throws ODataException {
     switch (expression.getKind()) {
     case UNARY:
       final UnaryExpression unaryExpression = (UnaryExpression) expression;
-      final String operand = evaluateExpression(data, unaryExpression.getOperand());
+      final String operand = evaluateExpression(data, unaryExpression.getOperand(), disjunctions);
 
       switch (unaryExpression.getOperator()) {
       case NOT:
@@ -1303,9 +1333,16 @@ public class ListsProcessor extends DataSourceProcessor {
 
     case BINARY:
       final BinaryExpression binaryExpression = (BinaryExpression) expression;
+      final EqualityDisjunction disjunction = binaryExpression.getOperator() == BinaryOperator.OR
+          && disjunctions != null ? disjunctions.visitor.getDisjunction(binaryExpression) : null;
+      if (disjunction != null) {
+        final String value = evaluateExpression(data, disjunction.getOperand(), disjunctions);
+        return Boolean.toString(value != null
+            && getDisjunctionValues(data, disjunction, disjunctions).contains(value));
+      }
       final EdmSimpleType type = (EdmSimpleType) binaryExpression.getLeftOperand().getEdmType();
-      final String left = evaluateExpression(data, binaryExpression.getLeftOperand());
-      final String right = evaluateExpression(data, binaryExpression.getRightOperand());
+      final String left = evaluateExpression(data, binaryExpression.getLeftOperand(), disjunctions);
+      final String right = evaluateExpression(data, binaryExpression.getRightOperand(), disjunctions);
 
       switch (binaryExpression.getOperator()) {
       case ADD:
@@ -1437,11 +1474,11 @@ public class ListsProcessor extends DataSourceProcessor {
 
     case METHOD:
       final MethodExpression methodExpression = (MethodExpression) expression;
-      final String first = evaluateExpression(data, methodExpression.getParameters().get(0));
+      final String first = evaluateExpression(data, methodExpression.getParameters().get(0), disjunctions);
       final String second = methodExpression.getParameterCount() > 1 ?
-          evaluateExpression(data, methodExpression.getParameters().get(1)) : "";
+          evaluateExpression(data, methodExpression.getParameters().get(1), disjunctions) : "";
       final String third = methodExpression.getParameterCount() > 2 ?
-          evaluateExpression(data, methodExpression.getParameters().get(2)) : "";
+          evaluateExpression(data, methodExpression.getParameters().get(2), disjunctions) : "";
 
       switch (methodExpression.getMethod()) {
       case ENDSWITH:
@@ -1493,6 +1530,19 @@ public class ListsProcessor extends DataSourceProcessor {
     }
   }
 
+  private <T> Set<String> getDisjunctionValues(final T data, final EqualityDisjunction disjunction,
+      final Disjunctions disjunctions) throws ODataException {
+    Set<String> values = disjunctions.values.get(disjunction);
+    if (values == null) {
+      values = new HashSet<String>();
+      for (final LiteralExpression literal : disjunction.getLiterals()) {
+        values.add(evaluateExpression(data, literal, disjunctions));
+      }
+      disjunctions.values.put(disjunction, values);
+    }
+    return values;
+  }
+
   private <T> String getSkipToken(final EdmEntitySet entitySet, final T data) throws ODataException {
     String skipToken = "";
     for (final EdmProperty property : entitySet.getEntityType().getKeyProperties()) {
@@ -1677,4 +1727,18 @@ public class ListsProcessor extends DataSourceProcessor {
     }
     return BatchResponsePart.responses(responses).changeSet(true).build();
   }
+
+  /**
+   * Chains of equality comparisons joined by "or" in a filter, evaluated by set lookup.
+   * Created for each evaluation of a filter, as the processor is shared between requests.
+   */
+  private static final class Disjunctions {
+    private final EqualityDisjunctionVisitor visitor = new EqualityDisjunctionVisitor();
+    private final Map<EqualityDisjunction, Set<String>> values =
+        new IdentityHashMap<EqualityDisjunction, Set<String>>();
+
+    private Disjunctions(final FilterExpression filter) throws ODataException {
+      filter.accept(visitor);
+    }
+  }
 }
@@ -18,13 +18,23 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.annotation.processor.core.datasource;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.olingo.odata2.annotation.processor.core.util.AnnotationRuntimeException;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
+import org.apache.olingo.odata2.api.ep.EntityProvider;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
 import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
@@ -173,10 +183,18 @@ public interface DataSource {
       ODataApplicationException;
 
   /**
-   * Container to store binary data (as byte array) and the associated MIME type.
+   * <p>Container to store binary data and the associated MIME type.</p>
+   * <p>The binary data is either held as byte array or provided as stream, channel or file
+   * (see {@link #fromStream}, {@link #fromChannel} and {@link #fromFile}); in the latter cases
+   * the content is streamed into the response without buffering it in memory.
+   * Media uploads are still handed over as byte array; {@link #getData()} reads streamed content
+   * completely on first access.</p>
    */
   public class BinaryData {
-    private final byte[] data;
+    private byte[] data;
+    private InputStream stream;
+    private ReadableByteChannel channel;
+    private File file;
     private final String mimeType;
 
     public BinaryData(final byte[] data, final String mimeType) {
@@ -184,17 +202,107 @@ public interface DataSource {
       this.mimeType = mimeType;
     }
 
+    private BinaryData(final String mimeType) {
+      this.mimeType = mimeType;
+    }
+
+    /**
+     * Creates binary data whose content is provided by the given stream.
+     * @param stream the content (closed after it has been consumed)
+     * @param mimeType the MIME type
+     * @return the binary data
+     */
+    public static BinaryData fromStream(final InputStream stream, final String mimeType) {
+      BinaryData binaryData = new BinaryData(mimeType);
+      binaryData.stream = stream;
+      return binaryData;
+    }
+
+    /**
+     * Creates binary data whose content is provided by the given channel.
+     * @param channel the content (closed after it has been consumed)
+     * @param mimeType the MIME type
+     * @return the binary data
+     */
+    public static BinaryData fromChannel(final ReadableByteChannel channel, final String mimeType) {
+      BinaryData binaryData = new BinaryData(mimeType);
+      binaryData.channel = channel;
+      return binaryData;
+    }
+
+    /**
+     * Creates binary data whose content is the content of the given file.
+     * @param file the file
+     * @param mimeType the MIME type
+     * @return the binary data
+     */
+    public static BinaryData fromFile(final File file, final String mimeType) {
+      BinaryData binaryData = new BinaryData(mimeType);
+      binaryData.file = file;
+      return binaryData;
+    }
+
+    /**
+     * Returns the content as byte array; streamed content is read completely (only once).
+     * @return the content or <code>null</code>
+     */
     public byte[] getData() {
+      if (data == null && isStreamed()) {
+        try {
+          data = EntityProvider.readBinary(getStream());
+        } catch (final EntityProviderException e) {
+          throw new AnnotationRuntimeException("Unable to read binary data.", e);
+        }
+        stream = null;
+        channel = null;
+        file = null;
+      }
       return data;
     }
 
+    /**
+     * Returns the content as stream, independent of how it has been provided.
+     * @return the content or <code>null</code>
+     */
+    public InputStream getStream() {
+      if (stream != null) {
+        return stream;
+      } else if (channel != null) {
+        return Channels.newInputStream(channel);
+      } else if (file != null) {
+        try {
+          return new FileInputStream(file);
+        } catch (final FileNotFoundException e) {
+          throw new AnnotationRuntimeException("Unable to read binary data.", e);
+        }
+      } else {
+        return data == null ? null : new ByteArrayInputStream(data);
+      }
+    }
+
+    /**
+     * @return <code>true</code> if the content is provided as stream, channel, or file
+     * and has not been read into memory
+     */
+    public boolean isStreamed() {
+      return stream != null || channel != null || file != null;
+    }
+
+    public ReadableByteChannel getChannel() {
+      return channel;
+    }
+
+    public File getFile() {
+      return file;
+    }
+
     public String getMimeType() {
       return mimeType;
     }
 
     @Override
     public String toString() {
-      return "data=" + Arrays.toString(data) + ", mimeType=" + mimeType;
+      return "data=" + (isStreamed() ? "<streamed>" : Arrays.toString(data)) + ", mimeType=" + mimeType;
     }
   }
 }
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChange;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChangeJournal;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * This class provides a thread bound container for the changes written within a change set.
+ * While a change set is processed, the JPA processor collects the changes of its create, update, and delete
+ * requests here instead of appending them to the {@link JPAChangeJournal} right away. The changes are appended
+ * to the journal when the change set is committed and dropped when it is rolled back, so that delta requests
+ * never report changes that did not become persistent.
+ * 
+ */
+public final class ODataJPAChangeJournalContext {
+
+  private static final ThreadLocal<List<PendingChange>> pendingChanges = new ThreadLocal<List<PendingChange>>();
+
+  /**
+   * Supplies the key of a changed entity. Keys generated by the database are only known after the entity has
+   * been written, so the key of a change collected within a change set is determined when the change set is
+   * committed.
+   */
+  public interface KeyProvider {
+    /**
+     * @return the key of the changed entity as map of key property names to values
+     * @throws ODataJPARuntimeException
+     */
+    public Map<String, Object> getKey() throws ODataJPARuntimeException;
+  }
+
+  private static final class PendingChange {
+    private final JPAChangeJournal changeJournal;
+    private final String entitySetName;
+    private final KeyProvider keyProvider;
+    private final JPAChange.ChangeType changeType;
+
+    private PendingChange(final JPAChangeJournal changeJournal, final String entitySetName,
+        final KeyProvider keyProvider, final JPAChange.ChangeType changeType) {
+      this.changeJournal = changeJournal;
+      this.entitySetName = entitySetName;
+      this.keyProvider = keyProvider;
+      this.changeType = changeType;
+    }
+  }
+
+  private ODataJPAChangeJournalContext() {}
+
+  /**
+   * Starts collecting the changes of the current thread; called when the transaction of a change set begins.
+   */
+  public static void begin() {
+    pendingChanges.set(new ArrayList<PendingChange>());
+  }
+
+  /**
+   * @return <code>true</code> if changes of the current thread are collected until the change set is committed
+   */
+  public static boolean isActive() {
+    return pendingChanges.get() != null;
+  }
+
+  /**
+   * Collects a change to be appended to the given journal on commit. Without an active change set
+   * the change is appended to the journal immediately.
+   * @param changeJournal the journal
+   * @param entitySetName the name of the entity set of the changed entity
+   * @param keyProvider supplies the key of the changed entity
+   * @param changeType the type of the change
+   * @throws ODataJPARuntimeException if the key cannot be determined
+   */
+  public static void append(final JPAChangeJournal changeJournal, final String entitySetName,
+      final KeyProvider keyProvider, final JPAChange.ChangeType changeType) throws ODataJPARuntimeException {
+    final List<PendingChange> changes = pendingChanges.get();
+    if (changes == null) {
+      changeJournal.append(entitySetName, keyProvider.getKey(), changeType);
+    } else {
+      changes.add(new PendingChange(changeJournal, entitySetName, keyProvider, changeType));
+    }
+  }
+
+  /**
+   * Appends the collected changes to their journals in the order they were made and stops collecting;
+   * called after the transaction of the change set has been committed, so that generated keys are known.
+   * @throws ODataJPARuntimeException if the key of a changed entity cannot be determined
+   */
+  public static void commit() throws ODataJPARuntimeException {
+    final List<PendingChange> changes = pendingChanges.get();
+    pendingChanges.remove();
+    if (changes != null) {
+      for (PendingChange change : changes) {
+        change.changeJournal.append(change.entitySetName, change.keyProvider.getKey(), change.changeType);
+      }
+    }
+  }
+
+  /**
+   * Drops the collected changes and stops collecting; called when the change set is rolled back or has failed.
+   */
+  public static void rollback() {
+    pendingChanges.remove();
+  }
+}
@@ -24,7 +24,9 @@ import javax.persistence.EntityManagerFactory;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChangeJournal;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmExtension;
 
 /**
@@ -234,6 +236,133 @@ public interface ODataJPAContext {
    */
   public JPAPaging getPaging();
 
+  /**
+   * The method sets the row count estimator which is consulted for <code>$count</code> requests
+   * on entity sets without <code>$filter</code>; <code>$inlinecount</code> is always counted exactly
+   * @param estimator an instance of type
+   * {@link org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator} or <code>null</code>
+   * for exact counts
+   */
+  public void setRowCountEstimator(JPARowCountEstimator estimator);
+
+  /**
+   * The method returns the row count estimator
+   * @return an instance of type {@link org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator}
+   * or <code>null</code>
+   */
+  public JPARowCountEstimator getRowCountEstimator();
+
+  /**
+   * The method sets the scope in which results of function imports declared cacheable with
+   * {@link org.apache.olingo.odata2.api.annotation.edm.EdmFunctionImport#cacheTimeToLive()} are shared, for
+   * example the authenticated user or the tenant of the request. The scope must implement
+   * <code>equals</code> and <code>hashCode</code>.
+   * @param scope the scope or <code>null</code> to share results between requests with the same
+   * <code>Authorization</code> header
+   */
+  public void setFunctionResultScope(Object scope);
+
+  /**
+   * The method returns the scope in which results of cacheable function imports are shared
+   * @return the scope or <code>null</code>
+   */
+  public Object getFunctionResultScope();
+
+  /**
+   * The method enables reading entity sets requested with <code>$select</code> as projection on the selected,
+   * key and concurrency properties instead of reading the complete JPA entities. The JPA processor then returns
+   * property value maps instead of JPA entities for such requests.
+   * <p>The values are the persistent attribute values selected by the query; the getter methods of the JPA
+   * entities are not called. Do not enable projections if getters transform the values they return.
+   * @param selectProjection <code>true</code> to enable projections; default is <code>false</code>
+   */
+  public void setSelectProjection(boolean selectProjection);
+
+  /**
+   * The method returns whether entity sets requested with <code>$select</code> are read as projection
+   * @return <code>true</code> if projections are enabled
+   */
+  public boolean isSelectProjection();
+
+  /**
+   * The method enables the evaluation of <code>If-Match</code> and <code>If-None-Match</code> conditions on single
+   * entities before the request is processed. The JPA processor then reads the entity tag with a query on the
+   * properties with concurrency mode <code>Fixed</code>; unchanged entities are answered with
+   * "304 Not Modified" and failed conditions with "412 Precondition Failed".
+   * @param eTagPreconditionsEvaluated <code>true</code> to evaluate the conditions; default is <code>false</code>
+   */
+  public void setETagPreconditionsEvaluated(boolean eTagPreconditionsEvaluated);
+
+  /**
+   * The method returns whether <code>If-Match</code> and <code>If-None-Match</code> conditions are evaluated
+   * before the request is processed
+   * @return <code>true</code> if the conditions are evaluated
+   */
+  public boolean isETagPreconditionsEvaluated();
+
+  /**
+   * The method sets the change journal used for <code>$deltatoken</code> requests on entity sets without
+   * {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneEntityListener}. The JPA processor appends
+   * the changes of its create, update, and delete requests to the journal.
+   * @param changeJournal an instance of type {@link org.apache.olingo.odata2.jpa.processor.api.access.JPAChangeJournal}
+   * or <code>null</code>
+   */
+  public void setChangeJournal(JPAChangeJournal changeJournal);
+
+  /**
+   * The method returns the change journal
+   * @return an instance of type {@link org.apache.olingo.odata2.jpa.processor.api.access.JPAChangeJournal}
+   * or <code>null</code>
+   */
+  public JPAChangeJournal getChangeJournal();
+
+  /**
+   * The method enables deferring the flushes of create, update, and delete requests within a change set to the
+   * commit of the change set. The entity manager then also does not flush before queries, so that the persistence
+   * provider can write all changes at once and group them in JDBC batches if configured to do so. Constraint
+   * violations are then reported for the change set as a whole instead of for the failing request, and queries
+   * within the change set do not see the changes of its preceding requests. Changes are still flushed before a
+   * request that refers to a preceding request by its Content-ID, and after the creation of an entity whose key is
+   * generated by an identity column, so that the key is available for the response.
+   * @param changeSetFlushDeferred <code>true</code> to defer flushes; default is <code>false</code>
+   */
+  public void setChangeSetFlushDeferred(boolean changeSetFlushDeferred);
+
+  /**
+   * The method returns whether flushes within change sets are deferred to the commit of the change set
+   * @return <code>true</code> if flushes are deferred
+   */
+  public boolean isChangeSetFlushDeferred();
+
+  /**
+   * The method sets the number of <code>$expand</code> levels the JPA processor loads ahead of serialization.
+   * Each navigation property of such a level is read for all entities of the level with one query joining it with
+   * <code>LEFT OUTER JOIN FETCH</code>, instead of one lazy load per entity. Deeper levels are loaded lazily.
+   * @param depth the number of levels; default is <code>0</code>, which loads all expanded navigation properties
+   * lazily
+   */
+  public void setExpandFetchDepth(int depth);
+
+  /**
+   * The method returns the number of <code>$expand</code> levels loaded ahead of serialization
+   * @return the number of levels
+   */
+  public int getExpandFetchDepth();
+
+  /**
+   * The method sets the number of navigation properties per <code>$expand</code> level the JPA processor loads
+   * ahead of serialization; further navigation properties of the level are loaded lazily
+   * @param breadth the number of navigation properties per level; default is no limit
+   */
+  public void setExpandFetchBreadth(int breadth);
+
+  /**
+   * The method returns the number of navigation properties per <code>$expand</code> level loaded ahead of
+   * serialization
+   * @return the number of navigation properties per level
+   */
+  public int getExpandFetchBreadth();
+
   /**
    * The method returns the ODataJPATransaction.
    * @return ODataJPATransaction
@@ -27,10 +27,13 @@ import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.feature.ETagSupport;
 import org.apache.olingo.odata2.api.uri.PathInfo;
+import org.apache.olingo.odata2.api.uri.PathSegment;
 import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetCountUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityLinkUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksUriInfo;
@@ -38,11 +41,15 @@ import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetFunctionImportUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAETagReader;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+
+public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor implements ETagSupport {
 
   public ODataJPADefaultProcessor(final ODataJPAContext oDataJPAContext) {
     super(oDataJPAContext);
@@ -78,6 +85,16 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
     return oDataResponse;
   }
 
+  @Override
+  public String readETag(final GetEntityUriInfo uriParserResultView) throws ODataException {
+    if (!oDataJPAContext.isETagPreconditionsEvaluated() || !(jpaProcessor instanceof JPAETagReader)) {
+      return null;
+    }
+    // the entity manager is not closed; the JPA processor continues with it to process the request
+    oDataJPAContext.setODataContext(getContext());
+    return ((JPAETagReader) jpaProcessor).readETag(uriParserResultView);
+  }
+
   @Override
   public ODataResponse countEntitySet(final GetEntitySetCountUriInfo uriParserResultView, final String contentType)
       throws ODataException {
@@ -92,6 +109,20 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
     return oDataResponse;
   }
 
+  @Override
+  public ODataResponse countEntityLinks(final GetEntitySetLinksCountUriInfo uriParserResultView,
+      final String contentType) throws ODataException {
+    ODataResponse oDataResponse = null;
+    try {
+      oDataJPAContext.setODataContext(getContext());
+      long jpaEntityCount = jpaProcessor.process(uriParserResultView);
+      oDataResponse = responseBuilder.build(jpaEntityCount);
+    } finally {
+      close();
+    }
+    return oDataResponse;
+  }
+
   @Override
   public ODataResponse existsEntity(final GetEntityCountUriInfo uriInfo, final String contentType)
       throws ODataException {
@@ -271,10 +302,23 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
   public BatchResponsePart executeChangeSet(final BatchHandler handler, final List<ODataRequest> requests)
       throws ODataException {
     List<ODataResponse> responses = new ArrayList<ODataResponse>();
+    EntityManager em = null;
+    FlushModeType flushMode = null;
     try {
       oDataJPAContext.getODataJPATransaction().begin();
+      ODataJPAChangeJournalContext.begin();
+      if (oDataJPAContext.isChangeSetFlushDeferred()) {
+        // no flushes before queries either; all changes are written at once on commit
+        em = oDataJPAContext.getEntityManager();
+        flushMode = em.getFlushMode();
+        em.setFlushMode(FlushModeType.COMMIT);
+      }
 
       for (ODataRequest request : requests) {
+        if (flushMode != null && isContentIdReference(request)) {
+          // a query finds the referenced entity of a preceding request only after it has been written
+          em.flush();
+        }
         oDataJPAContext.setODataContext(getContext());
         ODataResponse response = handler.handleRequest(request);
         if (response.getStatus().getStatusCode() >= HttpStatusCodes.BAD_REQUEST.getStatusCode()) {
@@ -287,12 +331,24 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
         responses.add(response);
       }
       oDataJPAContext.getODataJPATransaction().commit();
+      ODataJPAChangeJournalContext.commit();
 
       return BatchResponsePart.responses(responses).changeSet(true).build();
     } catch (Exception e) {
       throw new ODataException("Error on processing request content:" + e.getMessage(), e);
     } finally {
+      // changes of a change set that was not committed never reach the change journal
+      ODataJPAChangeJournalContext.rollback();
+      if (flushMode != null && em.isOpen()) {
+        em.setFlushMode(flushMode);
+      }
       close(true);
     }
   }
-}
\ No newline at end of file
+
+  private static boolean isContentIdReference(final ODataRequest request) {
+    final PathInfo pathInfo = request.getPathInfo();
+    final List<PathSegment> segments = pathInfo == null ? null : pathInfo.getODataSegments();
+    return segments != null && !segments.isEmpty() && segments.get(0).getPath().startsWith("$");
+  }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api.access;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An entry of a {@link JPAChangeJournal}.
+ * 
+ * 
+ */
+public final class JPAChange {
+
+  /**
+   * Types of changes
+   */
+  public enum ChangeType {
+    CREATE, UPDATE, DELETE
+  }
+
+  private final long sequenceNumber;
+  private final String entitySetName;
+  private final Map<String, Object> key;
+  private final ChangeType changeType;
+
+  /**
+   * @param sequenceNumber the sequence number of the change in the journal
+   * @param entitySetName the name of the entity set of the changed entity
+   * @param key the key of the changed entity as map of key property names to values
+   * @param changeType the type of the change
+   */
+  public JPAChange(final long sequenceNumber, final String entitySetName, final Map<String, Object> key,
+      final ChangeType changeType) {
+    this.sequenceNumber = sequenceNumber;
+    this.entitySetName = entitySetName;
+    this.key = Collections.unmodifiableMap(key);
+    this.changeType = changeType;
+  }
+
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  public String getEntitySetName() {
+    return entitySetName;
+  }
+
+  public Map<String, Object> getKey() {
+    return key;
+  }
+
+  public ChangeType getChangeType() {
+    return changeType;
+  }
+}
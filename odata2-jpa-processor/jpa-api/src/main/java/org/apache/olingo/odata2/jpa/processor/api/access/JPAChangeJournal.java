@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api.access;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A change journal is an append-only sequence of changes (entity set, key, change type, sequence number)
+ * of the entities of a service. With a change journal the JPA processor answers <code>$deltatoken</code> requests
+ * from the journal entries after the sequence number contained in the token, so the effort of a delta request
+ * depends on the number of changes and not on the number of entities.
+ * <p>The JPA processor appends the changes of its own create, update, and delete requests; changes made by other
+ * applications can be appended as well, e.g., by an implementation reading a journal table filled by
+ * database triggers.
+ * The journal is set into the {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext};
+ * as it holds state across requests, the same instance should be used for all requests of a service.
+ * 
+ * 
+ */
+public interface JPAChangeJournal {
+
+  /**
+   * The method appends a change to the journal and assigns the next sequence number to it.
+   * 
+   * @param entitySetName
+   * the name of the entity set of the changed entity
+   * @param key
+   * the key of the changed entity as map of key property names to values
+   * @param changeType
+   * the type of the change
+   */
+  public void append(String entitySetName, Map<String, Object> key, JPAChange.ChangeType changeType);
+
+  /**
+   * The method returns the sequence number of the latest change in the journal. A delta token containing this
+   * number covers all changes appended later.
+   * 
+   * @return the latest sequence number
+   */
+  public long getLatestSequenceNumber();
+
+  /**
+   * The method returns the changes of an entity set after the given sequence number in ascending order.
+   * 
+   * @param entitySetName
+   * the name of the entity set
+   * @param afterSequenceNumber
+   * the sequence number of the last change known to the client
+   * @return the changes or <code>null</code> if the journal no longer contains all changes after the
+   * given sequence number; the complete entity set has to be read then
+   */
+  public List<JPAChange> getChanges(String entitySetName, long afterSequenceNumber);
+}
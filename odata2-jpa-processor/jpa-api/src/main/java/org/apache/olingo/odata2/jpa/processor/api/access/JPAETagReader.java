@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api.access;
+
+import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * A {@link JPAProcessor} implementing this interface can read the entity tag of an entity without reading the
+ * whole JPA entity. {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPADefaultProcessor} uses it to evaluate
+ * <code>If-Match</code> and <code>If-None-Match</code> conditions before the request is processed if this is
+ * enabled in the {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext}.
+ * 
+ * 
+ */
+public interface JPAETagReader {
+
+  /**
+   * Reads the entity tag of an Entity. The method only selects the properties
+   * with concurrency mode <code>Fixed</code> instead of the whole JPA entity.
+   * 
+   * @param requestView
+   * OData request for reading an entity
+   * @return entity tag in the format of the HTTP ETag header or <code>null</code> if the
+   * entity has no entity tag, does not exist, or the entity tag could not be determined
+   * @throws ODataJPAModelException
+   * @throws ODataJPARuntimeException
+   */
+  public String readETag(GetEntityUriInfo requestView)
+      throws ODataJPAModelException, ODataJPARuntimeException;
+}
@@ -26,6 +26,7 @@ import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityLinkUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetCountUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
@@ -147,6 +148,19 @@ public interface JPAProcessor {
   public <T> List<T> process(GetEntitySetLinksUriInfo uriParserResultView)
       throws ODataJPAModelException, ODataJPARuntimeException;
 
+  /**
+   * The method processes OData requests for counting the links of an entity set
+   * (<code>$links/$count</code>) and returns the number of links.
+   * 
+   * @param uriParserResultView
+   * OData request for Entity Set Links Count URI
+   * @return number of links
+   * @throws ODataJPAModelException
+   * @throws ODataJPARuntimeException
+   */
+  public long process(GetEntitySetLinksCountUriInfo uriParserResultView)
+      throws ODataJPAModelException, ODataJPARuntimeException;
+
   /**
    * Processes OData request for creating Entity. The method returns an Object
    * which is created. A Null reference implies object was not created.
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api.access;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+
+/**
+ * A row count estimator supplies the number of entities of an entity set for <code>$count</code> requests
+ * without <code>$filter</code>, for example from database statistics or from previously counted values.
+ * Exact counts on huge tables can so be avoided. The estimator is never consulted for
+ * <code>$inlinecount=allpages</code>; the count sent with the entries is always exact.
+ * The estimator is set into the {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext};
+ * as it typically holds state across requests, the same instance should be used for all requests of a service.
+ * 
+ * 
+ */
+public interface JPARowCountEstimator {
+
+  /**
+   * The method returns the (estimated) number of entities of the given entity set.
+   * 
+   * @param entitySet
+   * the entity set to be counted
+   * @return the number of entities or <code>null</code> if the exact number has to be counted on the database
+   */
+  public Long getRowCount(EdmEntitySet entitySet);
+
+  /**
+   * The method is called with the exact number of entities of the given entity set
+   * whenever it has been counted on the database.
+   * 
+   * @param entitySet
+   * the counted entity set
+   * @param rowCount
+   * the exact number of entities
+   */
+  public void setRowCount(EdmEntitySet entitySet, long rowCount);
+}
@@ -21,6 +21,7 @@ package org.apache.olingo.odata2.jpa.processor.api.factory;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAEdmMappingModelAccess;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAProcessor;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmModelView;
 
@@ -73,4 +74,14 @@ public interface JPAAccessFactory {
    * @return an instance of type {@link org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping}
    */
   public JPAEdmMapping getJPAEdmMappingInstance();
+
+  /**
+   * The method returns a row count estimator which caches the exact counts of entity sets
+   * for the given time. The same instance should be set into the OData JPA Context of all requests.
+   * 
+   * @param maxStaleness
+   * maximum age of a cached count in milliseconds
+   * @return an instance of type {@link org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator}
+   */
+  public JPARowCountEstimator getJPARowCountCache(long maxStaleness);
 }
@@ -115,6 +115,7 @@ public class JPQLStatement {
     public static final String AND = "AND";
     public static final String NOT = "NOT";
     public static final String OR = "OR";
+    public static final String IN = "IN";
 
   }
 
@@ -126,6 +127,7 @@ public class JPQLStatement {
     public static final String LEFT_OUTER_JOIN = "LEFT OUTER JOIN";
     public static final String OUTER = "OUTER";
     public static final String JOIN = "JOIN";
+    public static final String FETCH = "FETCH";
     public static final String ORDERBY = "ORDER BY";
     public static final String COUNT = "COUNT";
     public static final String OFFSET = ".000";
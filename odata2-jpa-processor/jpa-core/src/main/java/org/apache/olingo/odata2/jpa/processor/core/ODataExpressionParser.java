@@ -23,6 +23,7 @@ import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
 import org.apache.olingo.odata2.api.uri.KeyPredicate;
 import org.apache.olingo.odata2.api.uri.expression.*;
+import org.apache.olingo.odata2.api.uri.expression.EqualityDisjunctionVisitor.EqualityDisjunction;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
 
@@ -41,6 +42,8 @@ public class ODataExpressionParser {
 
   public static final String EMPTY = ""; //$NON-NLS-1$
   public static final ThreadLocal<Integer> methodFlag = new ThreadLocal<Integer>();
+  /** Maximum number of values in one JPQL IN predicate; longer lists are split (some databases allow 1000 only) */
+  public static final int MAX_IN_LIST_SIZE = 1000;
 
   /**
    * This method returns the parsed where condition corresponding to the filter input in the user query.
@@ -53,10 +56,15 @@ public class ODataExpressionParser {
 
   public static String parseToJPAWhereExpression(final CommonExpression whereExpression, final String tableAlias)
       throws ODataException {
+    return parseToJPAWhereExpression(whereExpression, tableAlias, null);
+  }
+
+  private static String parseToJPAWhereExpression(final CommonExpression whereExpression, final String tableAlias,
+      final EqualityDisjunctionVisitor disjunctions) throws ODataException {
     switch (whereExpression.getKind()) {
     case UNARY:
       final UnaryExpression unaryExpression = (UnaryExpression) whereExpression;
-      final String operand = parseToJPAWhereExpression(unaryExpression.getOperand(), tableAlias);
+      final String operand = parseToJPAWhereExpression(unaryExpression.getOperand(), tableAlias, disjunctions);
 
       switch (unaryExpression.getOperator()) {
       case NOT:
@@ -73,9 +81,19 @@ public class ODataExpressionParser {
       }
 
     case FILTER:
-      return parseToJPAWhereExpression(((FilterExpression) whereExpression).getExpression(), tableAlias);
+      // Chains of equality comparisons joined by "or" are rendered as IN predicates.
+      final EqualityDisjunctionVisitor visitor = new EqualityDisjunctionVisitor();
+      whereExpression.accept(visitor);
+      return parseToJPAWhereExpression(((FilterExpression) whereExpression).getExpression(), tableAlias,
+          visitor.hasDisjunctions() ? visitor : null);
     case BINARY:
       final BinaryExpression binaryExpression = (BinaryExpression) whereExpression;
+      if (disjunctions != null && binaryExpression.getOperator() == BinaryOperator.OR) {
+        final EqualityDisjunction disjunction = disjunctions.getDisjunction(binaryExpression);
+        if (disjunction != null) {
+          return parseToJPAInExpression(disjunction, tableAlias);
+        }
+      }
       MethodOperator operator = null;
       if (binaryExpression.getLeftOperand().getKind() == ExpressionKind.METHOD) {
         operator = ((MethodExpression) binaryExpression.getLeftOperand()).getMethod();
@@ -86,8 +104,8 @@ public class ODataExpressionParser {
           methodFlag.set(1);
         }
       }
-      final String left = parseToJPAWhereExpression(binaryExpression.getLeftOperand(), tableAlias);
-      final String right = parseToJPAWhereExpression(binaryExpression.getRightOperand(), tableAlias);
+      final String left = parseToJPAWhereExpression(binaryExpression.getLeftOperand(), tableAlias, disjunctions);
+      final String right = parseToJPAWhereExpression(binaryExpression.getRightOperand(), tableAlias, disjunctions);
 
       // Special handling for STARTSWITH and ENDSWITH method expression
       if (operator != null && (operator == MethodOperator.STARTSWITH || operator == MethodOperator.ENDSWITH)) {
@@ -178,13 +196,13 @@ public class ODataExpressionParser {
 
     case METHOD:
       final MethodExpression methodExpression = (MethodExpression) whereExpression;
-      String first = parseToJPAWhereExpression(methodExpression.getParameters().get(0), tableAlias);
+      String first = parseToJPAWhereExpression(methodExpression.getParameters().get(0), tableAlias, disjunctions);
       String second =
           methodExpression.getParameterCount() > 1 ? parseToJPAWhereExpression(methodExpression.getParameters().get(1),
-              tableAlias) : null;
+              tableAlias, disjunctions) : null;
       String third =
           methodExpression.getParameterCount() > 2 ? parseToJPAWhereExpression(methodExpression.getParameters().get(2),
-              tableAlias) : null;
+              tableAlias, disjunctions) : null;
 
       switch (methodExpression.getMethod()) {
       case SUBSTRING:
@@ -222,6 +240,33 @@ public class ODataExpressionParser {
     }
   }
 
+  /**
+   * This method renders a disjunction of equality comparisons as IN predicate; lists longer than
+   * {@link #MAX_IN_LIST_SIZE} are split into several IN predicates joined by OR.
+   */
+  private static String parseToJPAInExpression(final EqualityDisjunction disjunction, final String tableAlias)
+      throws ODataException {
+    final String operand = parseToJPAWhereExpression(disjunction.getOperand(), tableAlias, null);
+    final List<LiteralExpression> literals = disjunction.getLiterals();
+    StringBuilder inExpression = new StringBuilder();
+    inExpression.append(JPQLStatement.DELIMITER.PARENTHESIS_LEFT);
+    for (int index = 0; index < literals.size(); index++) {
+      if (index % MAX_IN_LIST_SIZE == 0) {
+        if (index > 0) {
+          inExpression.append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT).append(JPQLStatement.DELIMITER.SPACE)
+              .append(JPQLStatement.Operator.OR).append(JPQLStatement.DELIMITER.SPACE);
+        }
+        inExpression.append(operand).append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.IN)
+            .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.DELIMITER.PARENTHESIS_LEFT);
+      } else {
+        inExpression.append(JPQLStatement.DELIMITER.COMMA).append(JPQLStatement.DELIMITER.SPACE);
+      }
+      inExpression.append(parseToJPAWhereExpression(literals.get(index), tableAlias, null));
+    }
+    inExpression.append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT).append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT);
+    return inExpression.toString();
+  }
+
   /**
    * This method escapes the wildcards
    * @param first
@@ -26,7 +26,9 @@ import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChangeJournal;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmExtension;
 
 public class ODataJPAContextImpl implements ODataJPAContext {
@@ -41,6 +43,14 @@ public class ODataJPAContextImpl implements ODataJPAContext {
   private JPAEdmExtension jpaEdmExtension;
   private int pageSize = 0;
   private JPAPaging jpaPaging;
+  private JPARowCountEstimator rowCountEstimator;
+  private Object functionResultScope;
+  private boolean selectProjection = false;
+  private boolean eTagPreconditionsEvaluated = false;
+  private JPAChangeJournal changeJournal;
+  private boolean changeSetFlushDeferred = false;
+  private int expandFetchDepth = 0;
+  private int expandFetchBreadth = Integer.MAX_VALUE;
   private static final ThreadLocal<ODataContext> oDataContextThreadLocal = new ThreadLocal<ODataContext>();
   private boolean defaultNaming = true;
   private ODataJPATransaction transaction = null;
@@ -169,6 +179,86 @@ public class ODataJPAContextImpl implements ODataJPAContext {
     return jpaPaging;
   }
 
+  @Override
+  public void setRowCountEstimator(final JPARowCountEstimator estimator) {
+    rowCountEstimator = estimator;
+  }
+
+  @Override
+  public JPARowCountEstimator getRowCountEstimator() {
+    return rowCountEstimator;
+  }
+
+  @Override
+  public void setFunctionResultScope(final Object scope) {
+    functionResultScope = scope;
+  }
+
+  @Override
+  public Object getFunctionResultScope() {
+    return functionResultScope;
+  }
+
+  @Override
+  public void setSelectProjection(final boolean selectProjection) {
+    this.selectProjection = selectProjection;
+  }
+
+  @Override
+  public boolean isSelectProjection() {
+    return selectProjection;
+  }
+
+  @Override
+  public void setETagPreconditionsEvaluated(final boolean eTagPreconditionsEvaluated) {
+    this.eTagPreconditionsEvaluated = eTagPreconditionsEvaluated;
+  }
+
+  @Override
+  public boolean isETagPreconditionsEvaluated() {
+    return eTagPreconditionsEvaluated;
+  }
+
+  @Override
+  public void setChangeJournal(final JPAChangeJournal changeJournal) {
+    this.changeJournal = changeJournal;
+  }
+
+  @Override
+  public JPAChangeJournal getChangeJournal() {
+    return changeJournal;
+  }
+
+  @Override
+  public void setChangeSetFlushDeferred(final boolean changeSetFlushDeferred) {
+    this.changeSetFlushDeferred = changeSetFlushDeferred;
+  }
+
+  @Override
+  public boolean isChangeSetFlushDeferred() {
+    return changeSetFlushDeferred;
+  }
+
+  @Override
+  public void setExpandFetchDepth(final int depth) {
+    expandFetchDepth = depth;
+  }
+
+  @Override
+  public int getExpandFetchDepth() {
+    return expandFetchDepth;
+  }
+
+  @Override
+  public void setExpandFetchBreadth(final int breadth) {
+    expandFetchBreadth = breadth;
+  }
+
+  @Override
+  public int getExpandFetchBreadth() {
+    return expandFetchBreadth;
+  }
+
   @Override
   public ODataJPATransaction getODataJPATransaction() {
     if (transaction == null) {
@@ -68,6 +68,7 @@ import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAEntityParser;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAPage;
 import org.apache.olingo.odata2.jpa.processor.core.callback.JPAExpandCallBack;
 import org.apache.olingo.odata2.jpa.processor.core.callback.JPATombstoneCallBack;
 
@@ -93,7 +94,12 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
       List<Map<String, Object>> edmEntityList = null;
       JPAEntityParser jpaResultParser = new JPAEntityParser();
       final List<SelectItem> selectedItems = resultsView.getSelect();
-      if (selectedItems != null && selectedItems.size() > 0) {
+      if (isProjection(oDataJPAContext)) {
+        edmEntityList = new ArrayList<Map<String, Object>>();
+        for (Object row : jpaEntities) {
+          edmEntityList.add((Map<String, Object>) row);
+        }
+      } else if (selectedItems != null && selectedItems.size() > 0) {
         edmEntityList =
             jpaResultParser.parse2EdmEntityList(jpaEntities, buildSelectItemList(selectedItems, edmEntityType));
       } else {
@@ -481,7 +487,12 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
     ODataContext context = odataJPAContext.getODataContext();
 
     Integer count = null;
-    if (resultsView.getInlineCount() != null) {
+    JPAPaging paging = odataJPAContext.getPaging();
+    if (resultsView.getInlineCount() == InlineCount.ALLPAGES
+        && paging instanceof JPAPage && ((JPAPage) paging).getInlineCount() != null) {
+      // counted on the database; the entities are already restricted to $skip and $top
+      count = ((JPAPage) paging).getInlineCount();
+    } else if (resultsView.getInlineCount() != null) {
       if ((resultsView.getSkip() != null || resultsView.getTop() != null)) {
         // when $skip and/or $top is present with $inlinecount
         count = getInlineCountForNonFilterQueryEntitySet(edmEntityList, resultsView);
@@ -497,7 +508,6 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
 
       entityFeedPropertiesBuilder =
           EntityProviderWriteProperties.serviceRoot(pathInfo.getServiceRoot());
-      JPAPaging paging = odataJPAContext.getPaging();
       if (odataJPAContext.getPageSize() > 0 && paging != null && paging.getNextPage() > 0) {
         String nextLink =
             serviceRoot.relativize(pathInfo.getRequestUri()).toString();
@@ -520,7 +530,7 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
       String deltaToken = ODataJPATombstoneContext.getDeltaToken();
       if (deltaToken != null) {
         callBackMap.put(TombstoneCallback.CALLBACK_KEY_TOMBSTONE, new JPATombstoneCallBack(serviceRoot.toString(),
-            resultsView, deltaToken));
+            resultsView, deltaToken, ODataJPATombstoneContext.getDeletedEntries()));
       }
 
       entityFeedPropertiesBuilder.callbacks(callBackMap);
@@ -638,6 +648,15 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
     return selectPropertyList;
   }
 
+  /*
+   * The JPA processor returns property value maps instead of JPA entities if $select has been read as projection;
+   * it marks the page of such a read accordingly
+   */
+  private static boolean isProjection(final ODataJPAContext odataJPAContext) {
+    final JPAPaging paging = odataJPAContext.getPaging();
+    return paging instanceof JPAPage && ((JPAPage) paging).isProjection();
+  }
+
   private static List<EdmNavigationProperty> constructListofNavProperty(
       final List<ArrayList<NavigationPropertySegment>> expandList) {
     List<EdmNavigationProperty> navigationPropertyList = new ArrayList<EdmNavigationProperty>();
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChange;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChange.ChangeType;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChangeJournal;
+
+/**
+ * Change journal kept in memory. For each entity set the latest changes up to a maximum number are retained;
+ * delta tokens older than the retained changes require a complete read of the entity set.
+ * Changes made by other applications or by other instances of the service are not visible in this journal.
+ */
+public class JPAChangeJournalCache implements JPAChangeJournal {
+
+  private final int maxChangesPerEntitySet;
+  private final Map<String, EntitySetJournal> journals = new HashMap<String, EntitySetJournal>();
+  // Sequence numbers start with the current time so that they are higher than the ones of earlier instances,
+  // whose changes are unknown to this journal.
+  private final long initialSequenceNumber = System.currentTimeMillis() * 1000;
+  private long sequenceNumber = initialSequenceNumber;
+
+  private class EntitySetJournal {
+    private final List<JPAChange> changes = new ArrayList<JPAChange>();
+    // the highest sequence number up to which changes of this entity set are no longer retained
+    private long truncatedSequenceNumber = initialSequenceNumber;
+  }
+
+  /**
+   * @param maxChangesPerEntitySet maximum number of changes retained for each entity set
+   */
+  public JPAChangeJournalCache(final int maxChangesPerEntitySet) {
+    this.maxChangesPerEntitySet = maxChangesPerEntitySet;
+  }
+
+  @Override
+  public synchronized void append(final String entitySetName, final Map<String, Object> key,
+      final ChangeType changeType) {
+    EntitySetJournal journal = journals.get(entitySetName);
+    if (journal == null) {
+      journal = new EntitySetJournal();
+      journals.put(entitySetName, journal);
+    }
+    journal.changes.add(new JPAChange(++sequenceNumber, entitySetName, new HashMap<String, Object>(key),
+        changeType));
+    if (journal.changes.size() > maxChangesPerEntitySet) {
+      // Remove the older half at once so that appending stays cheap on average.
+      final List<JPAChange> removed = journal.changes.subList(0, journal.changes.size() - maxChangesPerEntitySet / 2);
+      journal.truncatedSequenceNumber = removed.get(removed.size() - 1).getSequenceNumber();
+      removed.clear();
+    }
+  }
+
+  @Override
+  public synchronized long getLatestSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  @Override
+  public synchronized List<JPAChange> getChanges(final String entitySetName, final long afterSequenceNumber) {
+    final EntitySetJournal journal = journals.get(entitySetName);
+    if (afterSequenceNumber < (journal == null ? initialSequenceNumber : journal.truncatedSequenceNumber)) {
+      return null;
+    }
+    if (journal == null) {
+      return new ArrayList<JPAChange>();
+    }
+    // binary search for the first change after the given sequence number
+    int low = 0;
+    int high = journal.changes.size();
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (journal.changes.get(middle).getSequenceNumber() <= afterSequenceNumber) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return new ArrayList<JPAChange>(journal.changes.subList(low, journal.changes.size()));
+  }
+}
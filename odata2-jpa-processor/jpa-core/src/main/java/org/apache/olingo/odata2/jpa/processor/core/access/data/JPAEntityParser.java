@@ -166,6 +166,39 @@ public final class JPAEntityParser {
     return parse2EdmPropertyValueMap(jpaEntity, getEdmProperties(structuralType));
   }
 
+  /**
+   * Converts a result row of a projection query into a property value map. The row is a single value or
+   * an array of values in the order of the given properties; values are converted as for JPA entities.
+   */
+  public static HashMap<String, Object> parseProjectionRow(final Object row,
+      final List<EdmProperty> selectPropertyList) throws ODataJPARuntimeException {
+    final Object[] values = selectPropertyList.size() == 1 ? new Object[] { row } : (Object[]) row;
+    HashMap<String, Object> edmEntity = new HashMap<String, Object>();
+    try {
+      for (int i = 0; i < values.length; i++) {
+        edmEntity.put(selectPropertyList.get(i).getName(), getProjectedValue(values[i]));
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    }
+    return edmEntity;
+  }
+
+  private static Object getProjectedValue(final Object value) throws ODataJPARuntimeException {
+    if (value instanceof char[]) {
+      return String.valueOf((char[]) value);
+    } else if (value instanceof Character[]) {
+      return toString((Character[]) value);
+    } else if (value instanceof Character) {
+      return ((Character) value).charValue() == '\u0000' ? null : value.toString();
+    } else if (value instanceof Blob) {
+      return getBytes((Blob) value);
+    } else if (value instanceof Clob) {
+      return getString((Clob) value);
+    }
+    return value;
+  }
+
   public final HashMap<String, Object> parse2EdmNavigationValueMap(
       final Object jpaEntity, final List<EdmNavigationProperty> navigationPropertyList)
       throws ODataJPARuntimeException {
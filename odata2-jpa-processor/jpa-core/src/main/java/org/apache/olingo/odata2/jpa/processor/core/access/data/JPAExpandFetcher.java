@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
+
+/**
+ * Loads the navigation properties requested with <code>$expand</code> for read JPA entities ahead of serialization.
+ * Each navigation property of an expand level is read for all entities of the level with one query joining it with
+ * <code>LEFT OUTER JOIN FETCH</code>; the entity manager then serves the navigation without further queries.
+ * One query per navigation property avoids the row multiplication of joining several collections at once.
+ * Levels beyond the maximum depth and navigation properties beyond the maximum breadth are loaded lazily.
+ */
+class JPAExpandFetcher {
+
+  private static final String JPA_ALIAS = "E1";
+  private static final int MAX_KEYS_PER_QUERY = 500;
+
+  private final EntityManager em;
+  private final int maxDepth;
+  private final int maxBreadth;
+  private final JPAEntityParser parser = new JPAEntityParser();
+
+  JPAExpandFetcher(final EntityManager em, final int maxDepth, final int maxBreadth) {
+    this.em = em;
+    this.maxDepth = maxDepth;
+    this.maxBreadth = maxBreadth;
+  }
+
+  void fetch(final List<Object> entities, final EdmEntityType entityType,
+      final List<ArrayList<NavigationPropertySegment>> expand) throws EdmException, ODataJPARuntimeException {
+    if (entities != null && expand != null && !expand.isEmpty()) {
+      fetch(entities, entityType, new ArrayList<List<NavigationPropertySegment>>(expand), 0);
+    }
+  }
+
+  private void fetch(final Collection<Object> entities, final EdmEntityType entityType,
+      final List<List<NavigationPropertySegment>> paths, final int level)
+      throws EdmException, ODataJPARuntimeException {
+    if (level >= maxDepth || entities.isEmpty()) {
+      return;
+    }
+    // the expand paths continuing on this level, grouped by their navigation property
+    Map<String, List<List<NavigationPropertySegment>>> pathsByNavigation =
+        new LinkedHashMap<String, List<List<NavigationPropertySegment>>>();
+    for (List<NavigationPropertySegment> path : paths) {
+      if (path.size() > level) {
+        final String name = path.get(level).getNavigationProperty().getName();
+        List<List<NavigationPropertySegment>> group = pathsByNavigation.get(name);
+        if (group == null) {
+          group = new ArrayList<List<NavigationPropertySegment>>();
+          pathsByNavigation.put(name, group);
+        }
+        group.add(path);
+      }
+    }
+    int breadth = 0;
+    for (List<List<NavigationPropertySegment>> group : pathsByNavigation.values()) {
+      if (breadth++ >= maxBreadth) {
+        break;
+      }
+      final NavigationPropertySegment segment = group.get(0).get(level);
+      final EdmNavigationProperty navigationProperty = segment.getNavigationProperty();
+      // the navigation is only followed if a level below is fetched, otherwise it is left to serialization
+      if (fetch(entities, entityType, navigationProperty) && level + 1 < maxDepth) {
+        fetch(getTargets(entities, navigationProperty), segment.getTargetEntitySet().getEntityType(), group,
+            level + 1);
+      }
+    }
+  }
+
+  /*
+   * Reads the navigation property for all given entities.
+   * Entity types with composite keys and virtually accessed navigation properties are left to lazy loading;
+   * then false is returned so that the levels below are not fetched either.
+   */
+  private boolean fetch(final Collection<Object> entities, final EdmEntityType entityType,
+      final EdmNavigationProperty navigationProperty) throws EdmException, ODataJPARuntimeException {
+    final List<EdmProperty> keyProperties = entityType.getKeyProperties();
+    final EdmMapping mapping = entityType.getMapping();
+    final EdmMapping navigationMapping = navigationProperty.getMapping();
+    if (keyProperties.size() != 1 || keyProperties.get(0).getMapping() == null
+        || mapping == null || !(navigationMapping instanceof JPAEdmMapping)
+        || ((JPAEdmMapping) navigationMapping).isVirtualAccess()) {
+      return false;
+    }
+    final EdmProperty keyProperty = keyProperties.get(0);
+    Set<Object> keys = new LinkedHashSet<Object>();
+    for (Object entity : entities) {
+      keys.add(parser.parse2EdmPropertyValueMap(entity, keyProperties).get(keyProperty.getName()));
+    }
+
+    StringBuilder jpqlQuery = new StringBuilder();
+    jpqlQuery.append(JPQLStatement.KEYWORD.SELECT_DISTINCT).append(JPQLStatement.DELIMITER.SPACE).append(JPA_ALIAS)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.KEYWORD.FROM)
+        .append(JPQLStatement.DELIMITER.SPACE).append(mapping.getInternalName())
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPA_ALIAS)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.KEYWORD.LEFT_OUTER_JOIN)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.KEYWORD.FETCH)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPA_ALIAS).append(JPQLStatement.DELIMITER.PERIOD)
+        .append(navigationMapping.getInternalName())
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.KEYWORD.WHERE)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPA_ALIAS).append(JPQLStatement.DELIMITER.PERIOD)
+        .append(keyProperty.getMapping().getInternalName())
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.IN)
+        .append(JPQLStatement.DELIMITER.SPACE).append("?1");
+    final String jpql = jpqlQuery.toString();
+    final List<Object> keyList = new ArrayList<Object>(keys);
+    for (int start = 0; start < keyList.size(); start += MAX_KEYS_PER_QUERY) {
+      Query query = em.createQuery(jpql);
+      query.setParameter(1,
+          new ArrayList<Object>(keyList.subList(start, Math.min(start + MAX_KEYS_PER_QUERY, keyList.size()))));
+      // the entities are already managed; reading them again initializes the joined navigation
+      query.getResultList();
+    }
+    return true;
+  }
+
+  /* The distinct entities the navigation property leads to from the given entities */
+  private Collection<Object> getTargets(final Collection<Object> entities,
+      final EdmNavigationProperty navigationProperty) throws EdmException, ODataJPARuntimeException {
+    List<Object> targets = new ArrayList<Object>();
+    Set<Object> distinctTargets = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    final List<EdmNavigationProperty> navigationProperties = Collections.singletonList(navigationProperty);
+    for (Object entity : entities) {
+      final Object target = parser.parse2EdmNavigationValueMap(entity, navigationProperties)
+          .get(navigationProperty.getName());
+      if (target instanceof Collection) {
+        for (Object item : (Collection<?>) target) {
+          addTarget(targets, distinctTargets, item);
+        }
+      } else {
+        addTarget(targets, distinctTargets, target);
+      }
+    }
+    return targets;
+  }
+
+  private static void addTarget(final List<Object> targets, final Set<Object> distinctTargets, final Object target) {
+    if (target != null && distinctTargets.add(target)) {
+      targets.add(target);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Results of function imports declared cacheable with
+ * {@link org.apache.olingo.odata2.api.annotation.edm.EdmFunctionImport#cacheTimeToLive()}.
+ * Results are kept per persistence unit, caller scope, function, and parameter values up to a maximum number of
+ * results, the least recently used results are dropped first. Concurrent calls with the same parameters execute the
+ * function only once; the other callers wait for its result.
+ */
+class JPAFunctionResultCache {
+
+  private final Map<FunctionCall, CachedResult> results;
+
+  JPAFunctionResultCache(final int maxResults) {
+    results = new LinkedHashMap<FunctionCall, CachedResult>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<FunctionCall, CachedResult> eldest) {
+        return size() > maxResults;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached result of the function call or executes the function.
+   * @param persistenceUnitName name of the persistence unit the function works on
+   * @param scope scope of the caller, e.g., user or tenant, in which results are shared; may be <code>null</code>
+   * @param function the function
+   * @param arguments the function's arguments
+   * @param timeToLive time in milliseconds the result is kept
+   * @param execution executes the function
+   * @return the result, shared between all callers
+   * @throws ODataJPARuntimeException if the function failed
+   */
+  List<Object> getResult(final String persistenceUnitName, final Object scope, final Method function,
+      final Object[] arguments, final long timeToLive, final Callable<List<Object>> execution)
+      throws ODataJPARuntimeException {
+    final FunctionCall call = new FunctionCall(persistenceUnitName, scope, function, arguments);
+    CachedResult result;
+    boolean execute = false;
+    synchronized (results) {
+      result = results.get(call);
+      if (result == null || result.isExpired()) {
+        result = new CachedResult(new FutureTask<List<Object>>(execution));
+        results.put(call, result);
+        execute = true;
+      }
+    }
+
+    if (execute) {
+      result.task.run();
+      final long now = System.currentTimeMillis();
+      result.expiresAt = timeToLive > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeToLive;
+    }
+    try {
+      return result.task.get();
+    } catch (ExecutionException e) {
+      synchronized (results) {
+        if (results.get(call) == result) {
+          results.remove(call);
+        }
+      }
+      final Throwable cause = e.getCause();
+      if (cause instanceof ODataJPARuntimeException) {
+        throw (ODataJPARuntimeException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL
+          .addContent(cause.getMessage()), cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL
+          .addContent(e.getMessage()), e);
+    }
+  }
+
+  private static final class CachedResult {
+    private final FutureTask<List<Object>> task;
+    // set once the result is there; until then the result is not expired
+    private volatile long expiresAt = Long.MAX_VALUE;
+
+    private CachedResult(final FutureTask<List<Object>> task) {
+      this.task = task;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() > expiresAt;
+    }
+  }
+
+  private static final class FunctionCall {
+    private final String persistenceUnitName;
+    private final Object scope;
+    private final Method function;
+    private final Object[] arguments;
+
+    private FunctionCall(final String persistenceUnitName, final Object scope, final Method function,
+        final Object[] arguments) {
+      this.persistenceUnitName = persistenceUnitName;
+      this.scope = scope;
+      this.function = function;
+      this.arguments = arguments == null ? new Object[0] : arguments.clone();
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = persistenceUnitName == null ? 0 : persistenceUnitName.hashCode();
+      hash = 31 * hash + (scope == null ? 0 : scope.hashCode());
+      return 31 * (31 * hash + function.hashCode()) + Arrays.deepHashCode(arguments);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object) {
+        return true;
+      }
+      if (!(object instanceof FunctionCall)) {
+        return false;
+      }
+      final FunctionCall other = (FunctionCall) object;
+      return (persistenceUnitName == null ? other.persistenceUnitName == null
+          : persistenceUnitName.equals(other.persistenceUnitName))
+          && (scope == null ? other.scope == null : scope.equals(other.scope))
+          && function.equals(other.function)
+          && Arrays.deepEquals(arguments, other.arguments);
+    }
+  }
+}
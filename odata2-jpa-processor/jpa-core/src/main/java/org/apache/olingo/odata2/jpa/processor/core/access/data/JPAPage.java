@@ -31,6 +31,8 @@ public class JPAPage implements JPAPaging {
   private int startPage;
   private int nextPage;
   private List<Object> pagedEntries;
+  private Integer inlineCount;
+  private boolean projection;
 
   protected JPAPage(final int startPage, final int nextPage, final List<Object> pagedEntities, final int pageSize) {
     this.pageSize = pageSize;
@@ -39,6 +41,18 @@ public class JPAPage implements JPAPaging {
     pagedEntries = pagedEntities;
   }
 
+  protected JPAPage(final int startPage, final int nextPage, final List<Object> pagedEntities, final int pageSize,
+      final Integer inlineCount) {
+    this(startPage, nextPage, pagedEntities, pageSize);
+    this.inlineCount = inlineCount;
+  }
+
+  protected JPAPage(final int startPage, final int nextPage, final List<Object> pagedEntities, final int pageSize,
+      final Integer inlineCount, final boolean projection) {
+    this(startPage, nextPage, pagedEntities, pageSize, inlineCount);
+    this.projection = projection;
+  }
+
   @Override
   public int getPageSize() {
     return pageSize;
@@ -59,6 +73,23 @@ public class JPAPage implements JPAPaging {
     return startPage;
   }
 
+  /**
+   * Returns the number of all entities matching the query, counted on the database,
+   * if $inlinecount=allpages has been requested; otherwise <code>null</code>.
+   * In the first case $skip and $top are already applied to the paged entities.
+   */
+  public Integer getInlineCount() {
+    return inlineCount;
+  }
+
+  /**
+   * Returns whether the paged entities are property value maps read by a projection for $select
+   * instead of JPA entities.
+   */
+  public boolean isProjection() {
+    return projection;
+  }
+
   public static class JPAPageBuilder {
 
     private int pageSize;
@@ -70,6 +101,8 @@ public class JPAPage implements JPAPaging {
     private Query query;
     private List<Object> entities;
     private List<Object> pagedEntities;
+    private Integer inlineCount;
+    private boolean projection;
 
     private static class TopSkip {
       public int top;
@@ -106,7 +139,7 @@ public class JPAPage implements JPAPaging {
         pagedEntities.add(entities.get(i++));
       }
       formulateNextPage();
-      return new JPAPage(startPage, nextPage, pagedEntities, pageSize);
+      return new JPAPage(startPage, nextPage, pagedEntities, pageSize, inlineCount, projection);
     }
 
     @SuppressWarnings("unchecked")
@@ -116,7 +149,7 @@ public class JPAPage implements JPAPaging {
       query.setMaxResults(topSkip.top);
       pagedEntities = query.getResultList();
       formulateNextPage();
-      return new JPAPage(startPage, nextPage, pagedEntities, pageSize);
+      return new JPAPage(startPage, nextPage, pagedEntities, pageSize, inlineCount, projection);
     }
 
     private TopSkip formulateTopSkip() {
@@ -203,9 +236,19 @@ public class JPAPage implements JPAPaging {
       return this;
     }
 
+    public JPAPageBuilder inlineCount(final long inlineCount) {
+      this.inlineCount = inlineCount > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) inlineCount;
+      return this;
+    }
+
     public JPAPageBuilder entities(final List<Object> result) {
       entities = result;
       return this;
     }
+
+    public JPAPageBuilder projection(final boolean projection) {
+      this.projection = projection;
+      return this;
+    }
   }
 }
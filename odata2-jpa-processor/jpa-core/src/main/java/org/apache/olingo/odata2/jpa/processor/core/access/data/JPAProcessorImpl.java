@@ -19,52 +19,83 @@
 package org.apache.olingo.odata2.jpa.processor.core.access.data;
 
 import java.io.InputStream;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.persistence.EntityManager;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.NoResultException;
+import javax.persistence.NonUniqueResultException;
 import javax.persistence.Query;
+import javax.persistence.metamodel.SingularAttribute;
 
+import org.apache.olingo.odata2.api.annotation.edm.EdmFunctionImport;
 import org.apache.olingo.odata2.api.commons.InlineCount;
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
 import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
+import org.apache.olingo.odata2.api.uri.SelectItem;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityLinkUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetCountUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetFunctionImportUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAChangeJournalContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneEntityListener;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChange;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChangeJournal;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAFunction;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAMethodContext;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAETagReader;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAProcessor;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
 import org.apache.olingo.odata2.jpa.processor.core.ODataEntityParser;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAPage.JPAPageBuilder;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAQueryBuilder.JPAQueryInfo;
 
-public class JPAProcessorImpl implements JPAProcessor {
+public class JPAProcessorImpl implements JPAProcessor, JPAETagReader {
 
   private static final String DELTATOKEN = "!deltatoken";
+  private static final String JPA_ALIAS = "E1";
+  private static final int MAX_KEYS_PER_QUERY = 100;
+  private static final int MAX_CACHED_FUNCTION_RESULTS = 256;
+  private static final JPAFunctionResultCache FUNCTION_RESULTS =
+      new JPAFunctionResultCache(MAX_CACHED_FUNCTION_RESULTS);
   ODataJPAContext oDataJPAContext;
   EntityManager em;
 
@@ -74,39 +105,66 @@ public class JPAProcessorImpl implements JPAProcessor {
   }
 
   /* Process Function Import Request */
-  @SuppressWarnings("unchecked")
   @Override
   public List<Object> process(final GetFunctionImportUriInfo uriParserResultView)
       throws ODataJPAModelException, ODataJPARuntimeException {
 
-    JPAMethodContext jpaMethodContext = JPAMethodContext.createBuilder(
+    final JPAMethodContext jpaMethodContext = JPAMethodContext.createBuilder(
         JPQLContextType.FUNCTION, uriParserResultView).build();
-
-    List<Object> resultObj = null;
-
+    final JPAFunction jpaFunction = jpaMethodContext.getJPAFunctionList().get(0);
+    final boolean isCollection;
+    final boolean isEntityResult;
     try {
+      isCollection = uriParserResultView.getFunctionImport().getReturnType()
+          .getMultiplicity().equals(EdmMultiplicity.MANY);
+      isEntityResult = uriParserResultView.getFunctionImport().getReturnType().getType().getKind()
+          == EdmTypeKind.ENTITY;
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    }
 
-      JPAFunction jpaFunction = jpaMethodContext.getJPAFunctionList()
-          .get(0);
-      Method method = jpaFunction.getFunction();
-      Object[] args = jpaFunction.getArguments();
+    final Method method = jpaFunction.getFunction();
+    final EdmFunctionImport annotation = method.getAnnotation(EdmFunctionImport.class);
+    // entities are managed by the entity manager of the request which read them and are never shared
+    if (annotation == null || annotation.cacheTimeToLive() <= 0 || isEntityResult) {
+      return invoke(method, jpaMethodContext.getEnclosingObject(), jpaFunction.getArguments(), isCollection);
+    }
+    final List<Object> result = FUNCTION_RESULTS.getResult(oDataJPAContext.getPersistenceUnitName(),
+        getFunctionResultScope(), method, jpaFunction.getArguments(), annotation.cacheTimeToLive(),
+        new Callable<List<Object>>() {
+          @Override
+          public List<Object> call() throws ODataJPARuntimeException {
+            return invoke(method, jpaMethodContext.getEnclosingObject(), jpaFunction.getArguments(), isCollection);
+          }
+        });
+    // the result is shared between calls; hand out a copy of the list
+    return result == null ? null : new ArrayList<Object>(result);
+  }
 
-      if (uriParserResultView.getFunctionImport().getReturnType()
-          .getMultiplicity().equals(EdmMultiplicity.MANY)) {
+  private Object getFunctionResultScope() {
+    final Object scope = oDataJPAContext.getFunctionResultScope();
+    if (scope == null && oDataJPAContext.getODataContext() != null) {
+      return oDataJPAContext.getODataContext().getRequestHeader(HttpHeaders.AUTHORIZATION);
+    }
+    return scope;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> invoke(final Method method, final Object enclosingObject, final Object[] args,
+      final boolean isCollection) throws ODataJPARuntimeException {
+    List<Object> resultObj = null;
 
-        resultObj = (List<Object>) method.invoke(
-            jpaMethodContext.getEnclosingObject(), args);
+    try {
+      if (isCollection) {
+        resultObj = (List<Object>) method.invoke(enclosingObject, args);
       } else {
         resultObj = new ArrayList<Object>();
-        Object result = method.invoke(
-            jpaMethodContext.getEnclosingObject(), args);
+        Object result = method.invoke(enclosingObject, args);
         resultObj.add(result);
       }
 
-    } catch (EdmException e) {
-      throw ODataJPARuntimeException
-          .throwException(ODataJPARuntimeException.GENERAL
-              .addContent(e.getMessage()), e);
     } catch (IllegalAccessException e) {
       throw ODataJPARuntimeException
           .throwException(ODataJPARuntimeException.GENERAL
@@ -144,8 +202,6 @@ public class JPAProcessorImpl implements JPAProcessor {
     try {
       JPAEdmMapping mapping = (JPAEdmMapping) uriParserResultView.getTargetEntitySet().getEntityType().getMapping();
       JPAQueryBuilder queryBuilder = new JPAQueryBuilder(oDataJPAContext);
-      JPAQueryInfo queryInfo = queryBuilder.build(uriParserResultView);
-      Query query = queryInfo.getQuery();
       ODataJPATombstoneEntityListener listener =
           queryBuilder.getODataJPATombstoneEntityListener((UriInfo) uriParserResultView);
       Map<String, String> customQueryOptions = uriParserResultView.getCustomQueryOptions();
@@ -153,7 +209,29 @@ public class JPAProcessorImpl implements JPAProcessor {
       if (customQueryOptions != null) {
         deltaToken = uriParserResultView.getCustomQueryOptions().get(DELTATOKEN);
       }
-      if (deltaToken != null) {
+      final JPAChangeJournal changeJournal = listener == null ? getChangeJournal(uriParserResultView) : null;
+      if (changeJournal != null) {
+        // taken before reading so that changes committed meanwhile are delivered again with the next delta
+        final long latestSequenceNumber = changeJournal.getLatestSequenceNumber();
+        ODataJPATombstoneContext.setDeltaToken(String.valueOf(latestSequenceNumber));
+        final List<Object> changedEntities =
+            readChanges(changeJournal, deltaToken, latestSequenceNumber, uriParserResultView);
+        if (changedEntities != null) {
+          final List<Object> changedPage = handlePaging(changedEntities, uriParserResultView);
+          fetchExpanded(changedPage, (UriInfo) uriParserResultView);
+          return changedPage;
+        }
+      }
+      final List<EdmProperty> projectedProperties = getProjectedProperties(uriParserResultView);
+      if (projectedProperties != null) {
+        final Query projectionQuery = queryBuilder.build(uriParserResultView, projectedProperties);
+        if (projectionQuery != null) {
+          return readProjection(projectionQuery, projectedProperties, uriParserResultView, hasNoAllPages);
+        }
+      }
+      JPAQueryInfo queryInfo = queryBuilder.build(uriParserResultView);
+      Query query = queryInfo.getQuery();
+      if (deltaToken != null && changeJournal == null) {
         ODataJPATombstoneContext.setDeltaToken(deltaToken);
       }
       if (listener != null && (!queryInfo.isTombstoneQuery() && listener.isTombstoneSupported())) {
@@ -161,12 +239,17 @@ public class JPAProcessorImpl implements JPAProcessor {
         List<Object> deltaResult =
             (List<Object>) ODataJPATombstoneContext.getDeltaResult(((EdmMapping) mapping).getInternalName());
         result = handlePaging(deltaResult, uriParserResultView);
+      } else if (listener == null && !hasNoAllPages && uriParserResultView instanceof GetEntitySetCountUriInfo) {
+        // $inlinecount=allpages: count on the database and read only the requested page
+        final long count = getExactCount((GetEntitySetCountUriInfo) uriParserResultView);
+        result = handlePaging(query, uriParserResultView, count, false);
       } else {
-        result = handlePaging(query, uriParserResultView);
+        result = handlePaging(query, uriParserResultView, null, false);
       }
       if (listener != null && listener.isTombstoneSupported()) {
         ODataJPATombstoneContext.setDeltaToken(listener.generateDeltaToken((List<Object>) result, query));
       }
+      fetchExpanded(result, (UriInfo) uriParserResultView);
       return result == null ? new ArrayList<Object>() : result;
     } catch (EdmException e) {
       throw ODataJPARuntimeException.throwException(
@@ -180,11 +263,273 @@ public class JPAProcessorImpl implements JPAProcessor {
     }
   }
 
+  /*
+   * The change journal answering delta requests on the given entity set, if any.
+   * Requests via navigation or with $filter are always read completely since the journal
+   * only knows which entities of the set changed, not whether they match.
+   */
+  private JPAChangeJournal getChangeJournal(final GetEntitySetUriInfo uriParserResultView) {
+    final JPAChangeJournal changeJournal = oDataJPAContext.getChangeJournal();
+    if (changeJournal == null || uriParserResultView.getFilter() != null
+        || !uriParserResultView.getNavigationSegments().isEmpty()) {
+      return null;
+    }
+    return changeJournal;
+  }
+
+  /*
+   * Reads the entities changed since the given delta token and records the deleted ones as tombstones.
+   * Returns null if the token is missing or no longer covered by the journal; then a complete read is needed.
+   */
+  private List<Object> readChanges(final JPAChangeJournal changeJournal, final String deltaToken,
+      final long latestSequenceNumber, final GetEntitySetUriInfo uriParserResultView)
+      throws EdmException, ODataJPARuntimeException {
+    if (deltaToken == null) {
+      return null;
+    }
+    long afterSequenceNumber;
+    try {
+      afterSequenceNumber = Long.parseLong(deltaToken);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    if (afterSequenceNumber > latestSequenceNumber) {
+      return null;
+    }
+    final EdmEntitySet entitySet = uriParserResultView.getTargetEntitySet();
+    final List<JPAChange> changes = changeJournal.getChanges(entitySet.getName(), afterSequenceNumber);
+    if (changes == null) {
+      return null;
+    }
+
+    // only the last change of each entity counts
+    Map<Map<String, Object>, JPAChange> lastChanges = new LinkedHashMap<Map<String, Object>, JPAChange>();
+    for (JPAChange change : changes) {
+      if (change.getSequenceNumber() <= latestSequenceNumber) {
+        lastChanges.remove(change.getKey());
+        lastChanges.put(change.getKey(), change);
+      }
+    }
+    List<Map<String, Object>> deletedKeys = new ArrayList<Map<String, Object>>();
+    List<Map<String, Object>> changedKeys = new ArrayList<Map<String, Object>>();
+    for (JPAChange change : lastChanges.values()) {
+      if (change.getChangeType() == JPAChange.ChangeType.DELETE) {
+        deletedKeys.add(change.getKey());
+      } else {
+        changedKeys.add(change.getKey());
+      }
+    }
+    ODataJPATombstoneContext.setDeletedEntries(deletedKeys);
+
+    List<Object> result = new ArrayList<Object>();
+    for (int start = 0; start < changedKeys.size(); start += MAX_KEYS_PER_QUERY) {
+      result.addAll(readByKeys(entitySet.getEntityType(),
+          changedKeys.subList(start, Math.min(start + MAX_KEYS_PER_QUERY, changedKeys.size()))));
+    }
+    return result;
+  }
+
+  /* Reads the entities with the given keys; entities not found are skipped. */
+  @SuppressWarnings("unchecked")
+  private List<Object> readByKeys(final EdmEntityType entityType, final List<Map<String, Object>> keys)
+      throws EdmException {
+    final List<EdmProperty> keyProperties = entityType.getKeyProperties();
+    final EdmMapping mapping = entityType.getMapping();
+    final String jpaEntityName =
+        mapping == null || mapping.getInternalName() == null ? entityType.getName() : mapping.getInternalName();
+    StringBuilder jpqlQuery = new StringBuilder();
+    jpqlQuery.append(JPQLStatement.KEYWORD.SELECT).append(JPQLStatement.DELIMITER.SPACE).append(JPA_ALIAS)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.KEYWORD.FROM)
+        .append(JPQLStatement.DELIMITER.SPACE).append(jpaEntityName)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPA_ALIAS)
+        .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.KEYWORD.WHERE);
+    List<Object> parameters = new ArrayList<Object>();
+    for (Map<String, Object> key : keys) {
+      if (!parameters.isEmpty()) {
+        jpqlQuery.append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.OR);
+      }
+      jpqlQuery.append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.DELIMITER.PARENTHESIS_LEFT);
+      boolean first = true;
+      for (EdmProperty keyProperty : keyProperties) {
+        if (!first) {
+          jpqlQuery.append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.AND)
+              .append(JPQLStatement.DELIMITER.SPACE);
+        }
+        first = false;
+        parameters.add(key.get(keyProperty.getName()));
+        final EdmMapping keyMapping = keyProperty.getMapping();
+        jpqlQuery.append(JPA_ALIAS).append(JPQLStatement.DELIMITER.PERIOD)
+            .append(keyMapping == null || keyMapping.getInternalName() == null ?
+                keyProperty.getName() : keyMapping.getInternalName()) // internal name of embedded keys is a path
+            .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.EQ)
+            .append(JPQLStatement.DELIMITER.SPACE).append('?').append(parameters.size());
+      }
+      jpqlQuery.append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT);
+    }
+    Query query = em.createQuery(JPQLMemberNormalizer.normalize(em, jpqlQuery.toString()));
+    for (int i = 0; i < parameters.size(); i++) {
+      query.setParameter(i + 1, parameters.get(i));
+    }
+    return query.getResultList();
+  }
+
+  /*
+   * Properties read by a projection for $select: the selected, the key and the concurrency properties.
+   * Returns null if projections are disabled or the complete entities are needed.
+   */
+  private List<EdmProperty> getProjectedProperties(final GetEntitySetUriInfo uriParserResultView)
+      throws EdmException {
+    final List<SelectItem> selectItems = uriParserResultView.getSelect();
+    if (selectItems == null || selectItems.isEmpty()
+        || (uriParserResultView.getExpand() != null && !uriParserResultView.getExpand().isEmpty())
+        || !oDataJPAContext.isSelectProjection()) {
+      return null;
+    }
+    final EdmEntityType entityType = uriParserResultView.getTargetEntitySet().getEntityType();
+    if (entityType.hasStream() || isVirtualAccess(entityType.getMapping())) {
+      return null;
+    }
+
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    for (SelectItem selectItem : selectItems) {
+      if (selectItem.isStar() || !selectItem.getNavigationPropertySegments().isEmpty()) {
+        return null;
+      }
+      if (!properties.contains(selectItem.getProperty())) {
+        properties.add(selectItem.getProperty());
+      }
+    }
+    for (EdmProperty keyProperty : entityType.getKeyProperties()) {
+      if (!properties.contains(keyProperty)) {
+        properties.add(keyProperty);
+      }
+    }
+    for (String propertyName : entityType.getPropertyNames()) {
+      EdmProperty property = (EdmProperty) entityType.getProperty(propertyName);
+      if (property.getFacets() != null && property.getFacets().getConcurrencyMode() == EdmConcurrencyMode.Fixed
+          && !properties.contains(property)) {
+        properties.add(property);
+      }
+    }
+
+    for (EdmProperty property : properties) {
+      if (property.getType().getKind() != EdmTypeKind.SIMPLE || isVirtualAccess(property.getMapping())) {
+        return null;
+      }
+    }
+    return properties;
+  }
+
+  private static boolean isVirtualAccess(final EdmMapping mapping) {
+    return mapping instanceof JPAEdmMapping && ((JPAEdmMapping) mapping).isVirtualAccess();
+  }
+
+  /* Reads the rows of a projection query as property value maps */
+  private List<Object> readProjection(final Query query, final List<EdmProperty> projectedProperties,
+      final GetEntitySetUriInfo uriParserResultView, final boolean hasNoAllPages)
+      throws ODataJPAModelException, ODataJPARuntimeException {
+    List<Object> rows = null;
+    if (!hasNoAllPages && uriParserResultView instanceof GetEntitySetCountUriInfo) {
+      final long count = getExactCount((GetEntitySetCountUriInfo) uriParserResultView);
+      rows = handlePaging(query, uriParserResultView, count, true);
+    } else {
+      rows = handlePaging(query, uriParserResultView, null, true);
+    }
+
+    List<Object> result = new ArrayList<Object>();
+    if (rows != null) {
+      for (Object row : rows) {
+        result.add(JPAEntityParser.parseProjectionRow(row, projectedProperties));
+      }
+    }
+    return result;
+  }
+
   /* Process Get Entity Request (Read) */
   @Override
   public <T> Object process(GetEntityUriInfo uriParserResultView)
       throws ODataJPAModelException, ODataJPARuntimeException {
-    return readEntity(new JPAQueryBuilder(oDataJPAContext).build(uriParserResultView));
+    final Object entity = readEntity(new JPAQueryBuilder(oDataJPAContext).build(uriParserResultView));
+    if (entity != null) {
+      try {
+        fetchExpanded(Collections.singletonList(entity), (UriInfo) uriParserResultView);
+      } catch (EdmException e) {
+        throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
+      }
+    }
+    return entity;
+  }
+
+  /* Loads the navigation properties requested with $expand ahead of serialization, if configured */
+  private void fetchExpanded(final List<Object> entities, final UriInfo uriInfo)
+      throws EdmException, ODataJPARuntimeException {
+    final int depth = oDataJPAContext.getExpandFetchDepth();
+    if (depth > 0 && entities != null && !entities.isEmpty()) {
+      new JPAExpandFetcher(em, depth, oDataJPAContext.getExpandFetchBreadth())
+          .fetch(entities, uriInfo.getTargetEntitySet().getEntityType(), uriInfo.getExpand());
+    }
+  }
+
+  /* Process Entity Tag Request (Projection on the Concurrency Properties) */
+  @Override
+  public String readETag(final GetEntityUriInfo uriParserResultView)
+      throws ODataJPAModelException, ODataJPARuntimeException {
+    try {
+      final EdmEntityType entityType = uriParserResultView.getTargetEntitySet().getEntityType();
+      List<EdmProperty> eTagProperties = new ArrayList<EdmProperty>();
+      for (String propertyName : entityType.getPropertyNames()) {
+        EdmProperty property = (EdmProperty) entityType.getProperty(propertyName);
+        if (property.getFacets() != null && property.getFacets().getConcurrencyMode() == EdmConcurrencyMode.Fixed
+            && property.getType() instanceof EdmSimpleType) {
+          eTagProperties.add(property);
+        }
+      }
+      if (eTagProperties.isEmpty()) {
+        return null;
+      }
+
+      Query query = new JPAQueryBuilder(oDataJPAContext).build(uriParserResultView, eTagProperties);
+      if (query == null) {
+        return null;
+      }
+      Object result = readEntity(query);
+      if (result == null) {
+        return null;
+      }
+      Object[] values = eTagProperties.size() == 1 ? new Object[] { result } : (Object[]) result;
+
+      // same format as the entity tag created by the entity provider
+      StringBuilder eTag = new StringBuilder();
+      for (int i = 0; i < values.length; i++) {
+        EdmProperty property = eTagProperties.get(i);
+        String value = ((EdmSimpleType) property.getType())
+            .valueToString(normalizeETagValue(values[i]), EdmLiteralKind.DEFAULT, property.getFacets());
+        if (value == null) {
+          return null;
+        }
+        if (i > 0) {
+          eTag.append(Edm.DELIMITER);
+        }
+        eTag.append(value);
+      }
+      return "W/\"" + eTag + "\"";
+    } catch (EdmSimpleTypeException e) {
+      return null;
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(
+          ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    }
+  }
+
+  private static Object normalizeETagValue(final Object value) {
+    if (value instanceof char[]) {
+      return String.valueOf((char[]) value);
+    } else if (value instanceof Character[]) {
+      return JPAEntityParser.toString((Character[]) value);
+    } else if (value instanceof Character) {
+      return value.toString();
+    }
+    return value;
   }
 
   /* Process $count for Get Entity Set Request */
@@ -193,13 +538,26 @@ public class JPAProcessorImpl implements JPAProcessor {
       throws ODataJPAModelException, ODataJPARuntimeException {
 
     JPAQueryBuilder queryBuilder = new JPAQueryBuilder(oDataJPAContext);
-    Query query = queryBuilder.build(resultsView);
-    List<?> resultList = query.getResultList();
-    if (resultList != null && resultList.size() == 1) {
-      return Long.valueOf(resultList.get(0).toString());
+    final JPARowCountEstimator estimator = oDataJPAContext.getRowCountEstimator();
+    final boolean isEstimable = estimator != null && isEstimableCount(queryBuilder, resultsView);
+    if (isEstimable) {
+      final Long rowCount = estimator.getRowCount(resultsView.getTargetEntitySet());
+      if (rowCount != null) {
+        return rowCount.longValue();
+      }
     }
 
-    return 0;
+    final long count = getCount(queryBuilder.build(resultsView));
+    if (isEstimable) {
+      estimator.setRowCount(resultsView.getTargetEntitySet(), count);
+    }
+    return count;
+  }
+
+  /* Exact count for $inlinecount=allpages; the row count estimator is consulted for $count requests only */
+  private long getExactCount(final GetEntitySetCountUriInfo resultsView)
+      throws ODataJPAModelException, ODataJPARuntimeException {
+    return getCount(new JPAQueryBuilder(oDataJPAContext).build(resultsView));
   }
 
   /* Process $count for Get Entity Request */
@@ -207,12 +565,51 @@ public class JPAProcessorImpl implements JPAProcessor {
   public long process(final GetEntityCountUriInfo resultsView) throws ODataJPAModelException, ODataJPARuntimeException {
 
     JPAQueryBuilder queryBuilder = new JPAQueryBuilder(oDataJPAContext);
-    Query query = queryBuilder.build(resultsView);
-    List<?> resultList = query.getResultList();
-    if (resultList != null && resultList.size() == 1) {
-      return Long.valueOf(resultList.get(0).toString());
+    return getCount(queryBuilder.build(resultsView));
+  }
+
+  /* Process $count for Get Entity Set Links Request */
+  @Override
+  public long process(final GetEntitySetLinksCountUriInfo resultsView)
+      throws ODataJPAModelException, ODataJPARuntimeException {
+    return process((GetEntitySetCountUriInfo) resultsView);
+  }
+
+  /*
+   * The count of all entities of an entity set requested with $count may be estimated; a filter, a navigation,
+   * paging, or an application-defined query needs the exact count.
+   */
+  private boolean isEstimableCount(final JPAQueryBuilder queryBuilder,
+      final GetEntitySetCountUriInfo resultsView) {
+    if (resultsView.getFilter() != null || resultsView.getTop() != null || resultsView.getSkip() != null
+        || (resultsView.getNavigationSegments() != null && !resultsView.getNavigationSegments().isEmpty())
+        || !(resultsView instanceof UriInfo) || !((UriInfo) resultsView).isCount()) {
+      return false;
+    }
+    try {
+      return queryBuilder.getODataJPAQueryEntityListener((UriInfo) resultsView) == null;
+    } catch (EdmException e) {
+      return false;
+    } catch (InstantiationException e) {
+      return false;
+    } catch (IllegalAccessException e) {
+      return false;
+    }
+  }
+
+  private long getCount(final Query query) throws ODataJPARuntimeException {
+    final Object count;
+    try {
+      count = query.getSingleResult();
+    } catch (NoResultException e) {
+      return 0;
+    } catch (NonUniqueResultException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
     }
-    return 0;
+    if (count instanceof Number) {
+      return ((Number) count).longValue();
+    }
+    return count == null ? 0 : Long.valueOf(count.toString());
   }
 
   /* Process Create Entity Request */
@@ -257,10 +654,16 @@ public class JPAProcessorImpl implements JPAProcessor {
 
       boolean isLocalTransaction = setTransaction();
       em.remove(selectedObject);
-      em.flush();
+      flush(isLocalTransaction);
       if (isLocalTransaction) {
         oDataJPAContext.getODataJPATransaction().commit();
       }
+      try {
+        recordChange(uriParserResultView.getTargetEntitySet(), selectedObject, JPAChange.ChangeType.DELETE);
+      } catch (EdmException e) {
+        throw ODataJPARuntimeException.throwException(
+            ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+      }
     }
     return selectedObject;
   }
@@ -339,7 +742,12 @@ public class JPAProcessorImpl implements JPAProcessor {
       if (em.contains(jpaEntity)) {
         if (isLocalTransaction) {
           oDataJPAContext.getODataJPATransaction().commit();
+        } else if (isKeyGeneratedOnInsert(jpaEntity)) {
+          // identity columns are assigned when the entity is written; the response and
+          // later requests of the change set need the key
+          em.flush();
         }
+        recordChange(oDataEntitySet, jpaEntity, JPAChange.ChangeType.CREATE);
         return jpaEntity;
       }
     } catch (ODataBadRequestException e) {
@@ -379,10 +787,11 @@ public class JPAProcessorImpl implements JPAProcessor {
       } else {
         return null;
       }
-      em.flush();
+      flush(isLocalTransaction);
       if (isLocalTransaction) {
         oDataJPAContext.getODataJPATransaction().commit();
       }
+      recordChange(oDataEntitySet, jpaEntity, JPAChange.ChangeType.UPDATE);
     } catch (ODataBadRequestException e) {
       throw ODataJPARuntimeException.throwException(
           ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
@@ -393,6 +802,53 @@ public class JPAProcessorImpl implements JPAProcessor {
     return jpaEntity;
   }
 
+  /*
+   * Flushes the changes of a single request. Within a change set with deferred flushes
+   * they are written together at the commit of the change set.
+   */
+  private void flush(final boolean isLocalTransaction) {
+    if (isLocalTransaction || !oDataJPAContext.isChangeSetFlushDeferred()) {
+      em.flush();
+    }
+  }
+
+  /*
+   * Checks whether the key of the entity is generated by an identity column of the database
+   */
+  private boolean isKeyGeneratedOnInsert(final Object jpaEntity) {
+    for (SingularAttribute<?, ?> attribute : em.getMetamodel().entity(jpaEntity.getClass())
+        .getSingularAttributes()) {
+      if (attribute.isId() && attribute.getJavaMember() instanceof AnnotatedElement) {
+        final GeneratedValue generatedValue =
+            ((AnnotatedElement) attribute.getJavaMember()).getAnnotation(GeneratedValue.class);
+        if (generatedValue != null && generatedValue.strategy() == GenerationType.IDENTITY) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Records a written entity in the change journal, if one is configured. Within a change set the change
+   * is collected and only appended when the change set is committed; its key is read from the entity then,
+   * as keys generated by the database are not known before.
+   */
+  private void recordChange(final EdmEntitySet entitySet, final Object jpaEntity,
+      final JPAChange.ChangeType changeType) throws EdmException, ODataJPARuntimeException {
+    final JPAChangeJournal changeJournal = oDataJPAContext.getChangeJournal();
+    if (changeJournal != null) {
+      final List<EdmProperty> keyProperties = entitySet.getEntityType().getKeyProperties();
+      ODataJPAChangeJournalContext.append(changeJournal, entitySet.getName(),
+          new ODataJPAChangeJournalContext.KeyProvider() {
+            @Override
+            public Map<String, Object> getKey() throws ODataJPARuntimeException {
+              return new JPAEntityParser().parse2EdmPropertyValueMap(jpaEntity, keyProperties);
+            }
+          }, changeType);
+    }
+  }
+
   private Object deleteLink(final DeleteUriInfo uriParserResultView) throws ODataJPARuntimeException {
     JPALink link = new JPALink(oDataJPAContext);
     link.delete(uriParserResultView);
@@ -416,6 +872,9 @@ public class JPAProcessorImpl implements JPAProcessor {
 
     if (uriParserResultView.getTop() != null && uriParserResultView.getInlineCount() == null) {
       pageBuilder.top(uriParserResultView.getTop().intValue());
+    } else if (oDataJPAContext.getPageSize() <= 0) {
+      // without server side paging the page holds all entities
+      pageBuilder.top(result.size());
     }
 
     JPAPage page = pageBuilder.build();
@@ -424,27 +883,39 @@ public class JPAProcessorImpl implements JPAProcessor {
     return page.getPagedEntities();
   }
 
-  private List<Object> handlePaging(final Query query, final GetEntitySetUriInfo uriParserResultView) {
+  /*
+   * Reads the requested page of the query. With an inline count counted on the database, $skip and $top
+   * are applied to the query and $top=0 reads nothing; otherwise the response builder applies them
+   * in case of $inlinecount. A projection page holds property value maps instead of JPA entities.
+   */
+  private List<Object> handlePaging(final Query query, final GetEntitySetUriInfo uriParserResultView,
+      final Long inlineCount, final boolean projection) {
 
     JPAPageBuilder pageBuilder = new JPAPageBuilder();
     pageBuilder.pageSize(oDataJPAContext.getPageSize())
-        .query(query)
-        .skipToken(uriParserResultView.getSkipToken());
+        .skipToken(uriParserResultView.getSkipToken())
+        .projection(projection);
 
-    // $top/$skip with $inlinecount case handled in response builder to avoid multiple DB call
-    if (uriParserResultView.getSkip() != null && uriParserResultView.getInlineCount() == null) {
+    final boolean isPagedOnQuery = inlineCount != null || uriParserResultView.getInlineCount() == null;
+    if (inlineCount != null) {
+      pageBuilder.inlineCount(inlineCount.longValue());
+    }
+    if (uriParserResultView.getSkip() != null && isPagedOnQuery) {
       pageBuilder.skip(uriParserResultView.getSkip().intValue());
     }
-
-    if (uriParserResultView.getTop() != null && uriParserResultView.getInlineCount() == null) {
+    if (uriParserResultView.getTop() != null && isPagedOnQuery) {
       pageBuilder.top(uriParserResultView.getTop().intValue());
     }
+    if (inlineCount != null && uriParserResultView.getTop() != null && uriParserResultView.getTop().intValue() == 0) {
+      pageBuilder.entities(new ArrayList<Object>());
+    } else {
+      pageBuilder.query(query);
+    }
 
     JPAPage page = pageBuilder.build();
     oDataJPAContext.setPaging(page);
 
     return page.getPagedEntities();
-
   }
 
   private boolean setTransaction() {
@@ -18,18 +18,14 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.jpa.processor.core.access.data;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
-import javax.persistence.metamodel.Attribute;
-import javax.persistence.metamodel.EntityType;
 
 import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
@@ -44,8 +40,11 @@ import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelExcepti
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLSelectContextView;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLSelectSingleContextView;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
+import org.apache.olingo.odata2.jpa.processor.core.ODataExpressionParser;
 
 public class JPAQueryBuilder {
 
@@ -104,6 +103,43 @@ public class JPAQueryBuilder {
     return query;
   }
 
+  /**
+   * Builds a query for the entity addressed by the URI which only selects the given properties.
+   * Returns <code>null</code> if the query for the entity is built by a query extension listener.
+   */
+  public Query build(GetEntityUriInfo uriInfo, List<EdmProperty> selectedProperties)
+      throws ODataJPARuntimeException {
+    Query query = null;
+    try {
+      if (getODataJPAQueryEntityListener((UriInfo) uriInfo) == null) {
+        query = buildProjectionQuery((UriInfo) uriInfo, UriInfoType.GetEntity, selectedProperties);
+      }
+    } catch (Exception e) {
+      throw ODataJPARuntimeException.throwException(
+          ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
+    }
+    return query;
+  }
+
+  /**
+   * Builds a query for the entity set addressed by the URI which only selects the given properties;
+   * each result row holds the property values in the order of the given properties.
+   * Returns <code>null</code> if the query for the entity set is built by a tombstone listener.
+   */
+  public Query build(GetEntitySetUriInfo uriInfo, List<EdmProperty> selectedProperties)
+      throws ODataJPARuntimeException {
+    Query query = null;
+    try {
+      if (getODataJPATombstoneEntityListener((UriInfo) uriInfo) == null) {
+        query = buildProjectionQuery((UriInfo) uriInfo, UriInfoType.GetEntitySet, selectedProperties);
+      }
+    } catch (Exception e) {
+      throw ODataJPARuntimeException.throwException(
+          ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
+    }
+    return query;
+  }
+
   public Query build(GetEntitySetCountUriInfo uriInfo) throws ODataJPARuntimeException {
     Query query = null;
     try {
@@ -180,11 +216,33 @@ public class JPAQueryBuilder {
     JPQLContext jpqlContext = buildJPQLContext(contextType, uriParserResultView);
     JPQLStatement jpqlStatement = JPQLStatement.createBuilder(jpqlContext).build();
 
-    return em.createQuery(normalizeMembers(em, jpqlStatement.toString()));
+    return em.createQuery(JPQLMemberNormalizer.normalize(em, jpqlStatement.toString()));
   }
 
   
 
+  private Query buildProjectionQuery(final UriInfo uriInfo, final UriInfoType type,
+      final List<EdmProperty> selectedProperties) throws EdmException, ODataJPAModelException,
+      ODataJPARuntimeException {
+    JPQLContextType contextType = determineJPQLContextType(uriInfo, type);
+    JPQLContext jpqlContext = buildJPQLContext(contextType, uriInfo);
+    String jpqlQuery = JPQLStatement.createBuilder(jpqlContext).build().toString();
+
+    ArrayList<String> selectedFields = new ArrayList<String>();
+    for (EdmProperty property : selectedProperties) {
+      selectedFields.add(property.getMapping() == null ? property.getName() : property.getMapping()
+          .getInternalName());
+    }
+    String alias = jpqlContext instanceof JPQLSelectSingleContextView ?
+        ((JPQLSelectSingleContextView) jpqlContext).getSelectExpression() :
+        ((JPQLSelectContextView) jpqlContext).getSelectExpression();
+    jpqlQuery = JPQLStatement.KEYWORD.SELECT + JPQLStatement.DELIMITER.SPACE
+        + ODataExpressionParser.parseToJPASelectExpression(alias, selectedFields)
+        + jpqlQuery.substring(jpqlQuery.indexOf(
+            JPQLStatement.DELIMITER.SPACE + JPQLStatement.KEYWORD.FROM + JPQLStatement.DELIMITER.SPACE));
+    return em.createQuery(JPQLMemberNormalizer.normalize(em, jpqlQuery));
+  }
+
   public ODataJPAQueryExtensionEntityListener getODataJPAQueryEntityListener(UriInfo uriInfo) throws EdmException,
       InstantiationException, IllegalAccessException {
     ODataJPAQueryExtensionEntityListener queryListener = null;
@@ -238,139 +296,6 @@ public class JPAQueryBuilder {
     return contextType;
   }
 
-  private static final Pattern NORMALIZATION_NEEDED_PATTERN = Pattern.compile(".*[\\s(](\\S+\\.\\S+\\.\\S+).*");
-  private static final Pattern VALUE_NORM_PATTERN = Pattern.compile("(?:^|\\s)'([^'](\\S+\\.\\S+\\.\\S+)')");
-  private static final Pattern JOIN_ALIAS_PATTERN = Pattern.compile(".*\\sJOIN\\s(\\S*\\s\\S*).*");
-
-  private static String normalizeMembers(EntityManager em, String jpqlQuery) {  
-    
-    //check if clause values are string with x.y.z format
-    //starting with quotes;
-    String query = checkConditionValues(jpqlQuery);
-    // check if normalization is needed (if query contains "x.y.z" elements
-    // starting with space or parenthesis)
-    Matcher normalizationNeededMatcher = NORMALIZATION_NEEDED_PATTERN.matcher(query);
-    if (!normalizationNeededMatcher.find()) {
-      return jpqlQuery;
-    }
-
-    if (containsEmbeddedAttributes(em, jpqlQuery)) {
-      return jpqlQuery;
-    }
-    
-    String normalizedJpqlQuery = jpqlQuery;
-    Map<String, String> joinAliases = new HashMap<String, String>();
-
-    // collect information about existing joins/aliases
-    Matcher joinAliasMatcher = JOIN_ALIAS_PATTERN.matcher(normalizedJpqlQuery);
-    if (joinAliasMatcher.find()) {
-      for (int i = 1; i <= joinAliasMatcher.groupCount(); i++) {
-        String[] joinAlias = joinAliasMatcher.group(i).split(String.valueOf(JPQLStatement.DELIMITER.SPACE));
-        joinAliases.put(joinAlias[0], joinAlias[1]);
-      }
-    }
-    // normalize query
-    boolean normalizationNeeded = true;
-    while (normalizationNeeded) {
-      String membershipToNormalize = normalizationNeededMatcher.group(1);
-
-      // get member info
-      String memberInfo = membershipToNormalize.substring(0,
-          ordinalIndexOf(membershipToNormalize, JPQLStatement.DELIMITER.PERIOD, 1));
-
-      String alias;
-      if (joinAliases.containsKey(memberInfo)) {
-        // use existing alias
-        alias = joinAliases.get(memberInfo);
-      } else {
-        // create new join/alias
-        alias = "R" + (joinAliases.size() + 1);
-
-        int joinInsertPosition = normalizedJpqlQuery.indexOf(JPQLStatement.KEYWORD.WHERE);
-        if (joinInsertPosition == -1) {
-          joinInsertPosition = normalizedJpqlQuery.indexOf(JPQLStatement.KEYWORD.ORDERBY);
-        }
-        normalizedJpqlQuery = normalizedJpqlQuery.substring(0, joinInsertPosition) + JPQLStatement.KEYWORD.JOIN
-            + JPQLStatement.DELIMITER.SPACE + memberInfo + JPQLStatement.DELIMITER.SPACE + alias
-            + JPQLStatement.DELIMITER.SPACE + normalizedJpqlQuery.substring(joinInsertPosition);
-
-        joinAliases.put(memberInfo, alias);
-      }
-
-      // use alias
-      normalizedJpqlQuery = normalizedJpqlQuery.replaceAll(memberInfo + "\\" + JPQLStatement.DELIMITER.PERIOD,
-          alias + JPQLStatement.DELIMITER.PERIOD);
-      //check for values like "x.y.z"
-      query = checkConditionValues(normalizedJpqlQuery);
-      // check if further normalization is needed
-      normalizationNeededMatcher = NORMALIZATION_NEEDED_PATTERN.matcher(query);
-      normalizationNeeded = normalizationNeededMatcher.find();
-    }
-    
-    // add distinct to avoid duplicates in result set
-    return normalizedJpqlQuery.replaceFirst(
-        JPQLStatement.KEYWORD.SELECT + JPQLStatement.DELIMITER.SPACE,
-        JPQLStatement.KEYWORD.SELECT_DISTINCT + JPQLStatement.DELIMITER.SPACE);
-  }
-
-  /**
-   * Check if the statement contains string values having x.y.z kind of format
-   * It will replace those values with parameters before checking for normalization 
-   * and later added back
-   * */
-  private static String checkConditionValues(String jpqlQuery) {
-    int i=0;
-    StringBuffer query= new StringBuffer();
-    query.append(jpqlQuery);
-    Matcher valueMatcher = VALUE_NORM_PATTERN.matcher(query);
-    while (valueMatcher.find()) {
-      String val = valueMatcher.group();
-      int index = query.indexOf(val);
-      String var = "["+ ++i +"] ";
-      query.replace(index, index + val.length(), var);
-      valueMatcher = VALUE_NORM_PATTERN.matcher(query);
-    }
-    return query.toString();
-  }
-
-  /**
-   * Verify via {@link EntityManager} if one of the attributes of the selected entity
-   * contains a embedded attribute.
-   * Return true if at least one embedded attribute is found or false if non embedded
-   * attribute is found.
-   *
-   * @param em according entity manager
-   * @param jpqlQuery query to verify
-   * @return true if at least one embedded attribute is found or false if non embedded
-   * attribute is found.
-   */
-  private static boolean containsEmbeddedAttributes(EntityManager em, String jpqlQuery) {
-    Set<EntityType<?>> types = em.getMetamodel().getEntities();
-    int pos = jpqlQuery.indexOf("FROM ") + 5;
-    int lastpos = jpqlQuery.indexOf(" ", pos);
-    final String queriedEntity = jpqlQuery.substring(pos, lastpos);
-    for (EntityType<?> type : types) {
-      if(queriedEntity.equals(type.getName())) {
-        Set<Attribute<?, ?>> attributes = (Set<Attribute<?, ?>>) type.getAttributes();
-        for (Attribute<?, ?> attribute : attributes) {
-          if(jpqlQuery.contains(attribute.getName()) &&
-            attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED) {
-            return true;
-          }
-        }
-      }
-    }
-    return false;
-  }
-
-  private static int ordinalIndexOf(String str, char s, int n) {
-    int pos = str.indexOf(s, 0);
-    while (n-- > 0 && pos != -1) {
-      pos = str.indexOf(s, pos + 1);
-    }
-    return pos;
-  }
-
   final class JPAQueryInfo {
     private Query query = null;
     private boolean isTombstoneQuery = false;
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator;
+
+/**
+ * Row count estimator which remembers the exact counts of entity sets for a limited time.
+ * Within that staleness bound a <code>$count</code> request is answered without a database query.
+ */
+public class JPARowCountCache implements JPARowCountEstimator {
+
+  private final long maxStaleness;
+  private final ConcurrentMap<String, RowCount> rowCounts = new ConcurrentHashMap<String, RowCount>();
+
+  private static class RowCount {
+    private final long count;
+    private final long timestamp;
+
+    private RowCount(final long count, final long timestamp) {
+      this.count = count;
+      this.timestamp = timestamp;
+    }
+  }
+
+  /**
+   * @param maxStaleness maximum age of a cached count in milliseconds
+   */
+  public JPARowCountCache(final long maxStaleness) {
+    this.maxStaleness = maxStaleness;
+  }
+
+  @Override
+  public Long getRowCount(final EdmEntitySet entitySet) {
+    final String key = getKey(entitySet);
+    if (key != null) {
+      final RowCount rowCount = rowCounts.get(key);
+      if (rowCount != null) {
+        if (System.currentTimeMillis() - rowCount.timestamp <= maxStaleness) {
+          return rowCount.count;
+        }
+        rowCounts.remove(key, rowCount);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void setRowCount(final EdmEntitySet entitySet, final long rowCount) {
+    final String key = getKey(entitySet);
+    if (key != null) {
+      rowCounts.put(key, new RowCount(rowCount, System.currentTimeMillis()));
+    }
+  }
+
+  private static String getKey(final EdmEntitySet entitySet) {
+    try {
+      return entitySet.getEntityContainer().getName() + "." + entitySet.getName();
+    } catch (EdmException e) {
+      return null;
+    }
+  }
+}
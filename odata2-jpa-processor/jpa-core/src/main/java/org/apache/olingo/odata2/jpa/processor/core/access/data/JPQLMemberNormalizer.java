@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+
+/**
+ * Normalizes member paths with more than one navigation step (like <code>E1.customer.name</code>)
+ * in a generated JPQL statement into explicit joins (<code>JOIN E1.customer R1</code> and <code>R1.name</code>).
+ * The statement is tokenized in a single pass; string literals are left untouched.
+ */
+final class JPQLMemberNormalizer {
+
+  /** Names of the embedded attributes per entity name, cached per metamodel. */
+  private static final Map<Metamodel, Map<String, Set<String>>> EMBEDDED_ATTRIBUTES =
+      new WeakHashMap<Metamodel, Map<String, Set<String>>>();
+
+  private static final String ALIAS_PREFIX = "R";
+
+  private final String jpql;
+  /** start and end positions of member paths with at least two periods */
+  private final List<int[]> memberPaths = new ArrayList<int[]>();
+  /** existing and new joins: joined path to alias */
+  private final Map<String, String> joinAliases = new HashMap<String, String>();
+  private final Map<String, String> newJoins = new LinkedHashMap<String, String>();
+  private final Set<String> names = new HashSet<String>();
+  private String fromEntityName;
+  private int joinInsertPosition = -1;
+  private int aliasCounter = 0;
+
+  private JPQLMemberNormalizer(final String jpql) {
+    this.jpql = jpql;
+  }
+
+  /**
+   * Returns the statement with all multi-level member paths replaced by joins, selecting distinct results,
+   * or the unchanged statement if no normalization is needed or the queried entity has embedded attributes.
+   */
+  static String normalize(final EntityManager em, final String jpql) {
+    JPQLMemberNormalizer normalizer = new JPQLMemberNormalizer(jpql);
+    normalizer.scan();
+    if (normalizer.memberPaths.isEmpty() || normalizer.containsEmbeddedAttributes(em)) {
+      return jpql;
+    }
+    return normalizer.rewrite();
+  }
+
+  private void scan() {
+    final int length = jpql.length();
+    String previousWord = null;
+    String joinPath = null;
+    int index = 0;
+    while (index < length) {
+      final char c = jpql.charAt(index);
+      if (c == '\'') {
+        // skip string literal; an escaped quote is read as two adjacent literals
+        final int end = jpql.indexOf('\'', index + 1);
+        index = end == -1 ? length : end + 1;
+        previousWord = null;
+      } else if (Character.isJavaIdentifierStart(c)) {
+        final int start = index;
+        int periods = 0;
+        while (index < length && (Character.isJavaIdentifierPart(jpql.charAt(index))
+            || (jpql.charAt(index) == JPQLStatement.DELIMITER.PERIOD
+            && index + 1 < length && Character.isJavaIdentifierStart(jpql.charAt(index + 1))))) {
+          if (jpql.charAt(index) == JPQLStatement.DELIMITER.PERIOD) {
+            periods++;
+          }
+          index++;
+        }
+        final String word = jpql.substring(start, index);
+        if (periods > 1) {
+          memberPaths.add(new int[] { start, index });
+        } else if (periods == 0) {
+          names.add(word);
+          if (joinPath != null) {
+            joinAliases.put(joinPath, word);
+          } else if (fromEntityName == null && JPQLStatement.KEYWORD.FROM.equals(previousWord)) {
+            fromEntityName = word;
+          } else if (joinInsertPosition == -1 && (JPQLStatement.KEYWORD.WHERE.equals(word)
+              || JPQLStatement.KEYWORD.ORDERBY.startsWith(word + JPQLStatement.DELIMITER.SPACE))) {
+            joinInsertPosition = start;
+          }
+        }
+        joinPath = periods == 1 && JPQLStatement.KEYWORD.JOIN.equals(previousWord) ? word : null;
+        previousWord = word;
+      } else if (Character.isDigit(c)) {
+        // numeric literal
+        while (index < length && (Character.isLetterOrDigit(jpql.charAt(index))
+            || jpql.charAt(index) == JPQLStatement.DELIMITER.PERIOD)) {
+          index++;
+        }
+      } else {
+        index++;
+      }
+    }
+  }
+
+  private boolean containsEmbeddedAttributes(final EntityManager em) {
+    if (fromEntityName == null) {
+      return false;
+    }
+    for (String attributeName : getEmbeddedAttributes(em.getMetamodel(), fromEntityName)) {
+      if (jpql.contains(attributeName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Set<String> getEmbeddedAttributes(final Metamodel metamodel, final String entityName) {
+    if (metamodel == null) {
+      return Collections.emptySet();
+    }
+    synchronized (EMBEDDED_ATTRIBUTES) {
+      Map<String, Set<String>> entities = EMBEDDED_ATTRIBUTES.get(metamodel);
+      if (entities == null) {
+        entities = new HashMap<String, Set<String>>();
+        for (EntityType<?> type : metamodel.getEntities()) {
+          Set<String> embeddedAttributes = new HashSet<String>();
+          for (Attribute<?, ?> attribute : type.getAttributes()) {
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED) {
+              embeddedAttributes.add(attribute.getName());
+            }
+          }
+          entities.put(type.getName(), embeddedAttributes);
+        }
+        EMBEDDED_ATTRIBUTES.put(metamodel, entities);
+      }
+      final Set<String> embeddedAttributes = entities.get(entityName);
+      return embeddedAttributes == null ? Collections.<String> emptySet() : embeddedAttributes;
+    }
+  }
+
+  private String rewrite() {
+    StringBuilder normalized = new StringBuilder(jpql.length() + 32 * memberPaths.size());
+    final int insertPosition = joinInsertPosition == -1 ? jpql.length() : joinInsertPosition;
+    List<String> replacements = new ArrayList<String>(memberPaths.size());
+    for (int[] memberPath : memberPaths) {
+      replacements.add(resolve(jpql.substring(memberPath[0], memberPath[1])));
+    }
+
+    int position = 0;
+    boolean joinsAppended = false;
+    for (int i = 0; i < memberPaths.size(); i++) {
+      final int[] memberPath = memberPaths.get(i);
+      if (!joinsAppended && memberPath[0] >= insertPosition) {
+        normalized.append(jpql, position, insertPosition);
+        appendJoins(normalized, insertPosition);
+        position = insertPosition;
+        joinsAppended = true;
+      }
+      normalized.append(jpql, position, memberPath[0]).append(replacements.get(i));
+      position = memberPath[1];
+    }
+    if (!joinsAppended) {
+      normalized.append(jpql, position, insertPosition);
+      appendJoins(normalized, insertPosition);
+      position = insertPosition;
+    }
+    normalized.append(jpql, position, jpql.length());
+
+    // add distinct to avoid duplicates in result set
+    final String select = JPQLStatement.KEYWORD.SELECT + JPQLStatement.DELIMITER.SPACE;
+    if (normalized.indexOf(select) == 0) {
+      normalized.replace(0, select.length(), JPQLStatement.KEYWORD.SELECT_DISTINCT + JPQLStatement.DELIMITER.SPACE);
+    }
+    return normalized.toString();
+  }
+
+  /** Returns the member path with one join per navigation step but the last one. */
+  private String resolve(final String memberPath) {
+    String[] segments = memberPath.split("\\" + JPQLStatement.DELIMITER.PERIOD);
+    String alias = segments[0];
+    for (int i = 1; i < segments.length - 1; i++) {
+      final String joinPath = alias + JPQLStatement.DELIMITER.PERIOD + segments[i];
+      String joinAlias = joinAliases.get(joinPath);
+      if (joinAlias == null) {
+        do {
+          joinAlias = ALIAS_PREFIX + ++aliasCounter;
+        } while (names.contains(joinAlias));
+        names.add(joinAlias);
+        joinAliases.put(joinPath, joinAlias);
+        newJoins.put(joinPath, joinAlias);
+      }
+      alias = joinAlias;
+    }
+    return alias + JPQLStatement.DELIMITER.PERIOD + segments[segments.length - 1];
+  }
+
+  private void appendJoins(final StringBuilder normalized, final int insertPosition) {
+    for (Map.Entry<String, String> join : newJoins.entrySet()) {
+      if (insertPosition == jpql.length()) {
+        normalized.append(JPQLStatement.DELIMITER.SPACE);
+      }
+      normalized.append(JPQLStatement.KEYWORD.JOIN).append(JPQLStatement.DELIMITER.SPACE)
+          .append(join.getKey()).append(JPQLStatement.DELIMITER.SPACE).append(join.getValue());
+      if (insertPosition < jpql.length()) {
+        normalized.append(JPQLStatement.DELIMITER.SPACE);
+      }
+    }
+  }
+}
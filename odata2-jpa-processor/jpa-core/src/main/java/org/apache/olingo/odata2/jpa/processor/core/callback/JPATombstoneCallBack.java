@@ -18,6 +18,9 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.jpa.processor.core.callback;
 
+import java.util.List;
+import java.util.Map;
+
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.ep.callback.TombstoneCallback;
 import org.apache.olingo.odata2.api.ep.callback.TombstoneCallbackResult;
@@ -29,12 +32,19 @@ public class JPATombstoneCallBack implements TombstoneCallback {
   private String baseUri;
   private String deltaTokenValue;
   private GetEntitySetUriInfo resultsView;
+  private List<Map<String, Object>> deletedEntries;
 
   public JPATombstoneCallBack(final String baseUri, final GetEntitySetUriInfo resultsView,
       final String deltaTokenValue) {
+    this(baseUri, resultsView, deltaTokenValue, null);
+  }
+
+  public JPATombstoneCallBack(final String baseUri, final GetEntitySetUriInfo resultsView,
+      final String deltaTokenValue, final List<Map<String, Object>> deletedEntries) {
     this.baseUri = baseUri;
     this.deltaTokenValue = deltaTokenValue;
     this.resultsView = resultsView;
+    this.deletedEntries = deletedEntries;
   }
 
   @Override
@@ -42,6 +52,7 @@ public class JPATombstoneCallBack implements TombstoneCallback {
     TombstoneCallbackResult jpaTombstoneCallBackResult = new TombstoneCallbackResult();
 
     jpaTombstoneCallBackResult.setDeltaLink(buildToken());
+    jpaTombstoneCallBackResult.setDeletedEntriesData(deletedEntries);
     return jpaTombstoneCallBackResult;
   }
 
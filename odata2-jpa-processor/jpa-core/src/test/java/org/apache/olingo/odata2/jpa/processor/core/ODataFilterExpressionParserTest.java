@@ -56,6 +56,11 @@ public class ODataFilterExpressionParserTest {
       "((E1.id >= '123') OR (E1.soId > 123L))" };
   private static final String[] EXPRESSION_MEMBER_OR = { "id lt '123' or oValue/Currency eq 'INR'",
       "((E1.id < '123') OR (E1.oValue.Currency = 'INR'))" };
+  private static final String[] EXPRESSION_IN = { "id eq '1' or id eq '2' or soId gt 3L or id eq '4'",
+      "(((E1.id IN ('1', '2')) OR (E1.soId > 3L)) OR (E1.id = '4'))" };
+  private static final String[] EXPRESSION_MEMBER_IN = {
+      "oValue/Currency eq 'INR' or (oValue/Currency eq 'EUR' or 'USD' eq oValue/Currency)",
+      "(E1.oValue.Currency IN ('EUR', 'USD', 'INR'))" };
   private static final String[] EXPRESSION_STARTS_WITH = { "startswith(oValue/Currency,'INR')",
       "E1.oValue.Currency LIKE CONCAT('INR','%') ESCAPE '\\'" };
   private static final String[] EXPRESSION_STARTS_WITH_EQUAL = { "startswith(oValue/Currency,'INR') eq true",
@@ -212,6 +217,23 @@ public class ODataFilterExpressionParserTest {
     assertEquals(EXPRESSION_MEMBER_OR[OUTPUT], parseWhereExpression(EXPRESSION_MEMBER_OR[INPUT], false));
   }
 
+  @Test
+  public void testEqualityDisjunctionAsIn() {
+    assertEquals(EXPRESSION_IN[OUTPUT], parseWhereExpression(EXPRESSION_IN[INPUT], false));
+    assertEquals(EXPRESSION_MEMBER_IN[OUTPUT], parseWhereExpression(EXPRESSION_MEMBER_IN[INPUT], false));
+  }
+
+  @Test
+  public void testEqualityDisjunctionSplit() {
+    StringBuilder input = new StringBuilder("soId eq 0L");
+    for (int i = 1; i <= ODataExpressionParser.MAX_IN_LIST_SIZE; i++) {
+      input.append(" or soId eq ").append(i).append('L');
+    }
+    final String output = parseWhereExpression(input.toString(), false);
+    assertTrue(output.startsWith("(E1.soId IN (0L, 1L, 2L, "));
+    assertTrue(output.endsWith(", 999L) OR E1.soId IN (1000L))"));
+  }
+
   @Test
   public void testNull() {
     assertEquals(EXPRESSION_NULL[OUTPUT], parseWhereExpression(EXPRESSION_NULL[INPUT], false));
@@ -27,6 +27,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -34,11 +35,15 @@ import java.util.Set;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
+import javax.persistence.FlushModeType;
 import javax.persistence.Query;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.Metamodel;
 
+import org.apache.olingo.odata2.api.batch.BatchHandler;
+import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.commons.InlineCount;
 import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
 import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
@@ -53,10 +58,12 @@ import org.apache.olingo.odata2.api.edm.EdmTypeKind;
 import org.apache.olingo.odata2.api.edm.EdmTyped;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
+import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.api.uri.KeyPredicate;
 import org.apache.olingo.odata2.api.uri.NavigationSegment;
 import org.apache.olingo.odata2.api.uri.PathInfo;
+import org.apache.olingo.odata2.api.uri.PathSegment;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
@@ -69,10 +76,13 @@ import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPADefaultProcessor;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAETagReader;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAProcessor;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
 import org.apache.olingo.odata2.jpa.processor.core.common.ODataJPATestConstants;
+import org.apache.olingo.odata2.jpa.processor.core.mock.JPAProcessorMockAbstract;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataContextMock;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataServiceMock;
 import org.apache.olingo.odata2.jpa.processor.core.mock.data.SalesOrderHeader;
@@ -177,6 +187,129 @@ public class ODataJPADefaultProcessorTest extends JPAEdmTestModelView {
     }
   }
 
+  @Test
+  public void testExecuteChangeSetWithDeferredFlush() throws Exception {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.getFlushMode()).andReturn(FlushModeType.AUTO);
+    em.setFlushMode(FlushModeType.COMMIT);
+    EasyMock.expect(em.isOpen()).andReturn(true).times(2);
+    em.setFlushMode(FlushModeType.AUTO);
+    em.close();
+    EasyMock.replay(em);
+    ODataJPATransaction transaction = EasyMock.createMock(ODataJPATransaction.class);
+    transaction.begin();
+    transaction.commit();
+    EasyMock.replay(transaction);
+    ODataContext context = EasyMock.createMock(ODataContext.class);
+    EasyMock.expect(context.isInBatchMode()).andStubReturn(true);
+    EasyMock.replay(context);
+    ODataJPAContext odataJPAContext = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(odataJPAContext.isChangeSetFlushDeferred()).andStubReturn(true);
+    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(odataJPAContext.getODataJPATransaction()).andStubReturn(transaction);
+    EasyMock.expect(odataJPAContext.getODataContext()).andStubReturn(context);
+    EasyMock.replay(odataJPAContext);
+    ODataRequest request = mockBatchRequest("SalesOrders");
+    BatchHandler handler = EasyMock.createMock(BatchHandler.class);
+    EasyMock.expect(handler.handleRequest(request))
+        .andReturn(ODataResponse.status(HttpStatusCodes.CREATED).build()).times(2);
+    EasyMock.replay(handler);
+
+    final BatchResponsePart responsePart = new ODataJPADefaultProcessor(odataJPAContext) { }
+        .executeChangeSet(handler, Arrays.asList(request, request));
+
+    assertTrue(responsePart.isChangeSet());
+    Assert.assertEquals(2, responsePart.getResponses().size());
+    EasyMock.verify(em, transaction, handler);
+  }
+
+  @Test
+  public void testExecuteChangeSetWithDeferredFlushFlushesBeforeContentIdReference() throws Exception {
+    EntityManager em = EasyMock.createStrictMock(EntityManager.class);
+    EasyMock.expect(em.getFlushMode()).andReturn(FlushModeType.AUTO);
+    em.setFlushMode(FlushModeType.COMMIT);
+    em.flush();
+    EasyMock.expect(em.isOpen()).andReturn(true);
+    em.setFlushMode(FlushModeType.AUTO);
+    EasyMock.expect(em.isOpen()).andReturn(true);
+    em.close();
+    EasyMock.replay(em);
+    ODataJPATransaction transaction = EasyMock.createNiceMock(ODataJPATransaction.class);
+    EasyMock.replay(transaction);
+    ODataContext context = EasyMock.createMock(ODataContext.class);
+    EasyMock.expect(context.isInBatchMode()).andStubReturn(true);
+    EasyMock.replay(context);
+    ODataJPAContext odataJPAContext = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(odataJPAContext.isChangeSetFlushDeferred()).andStubReturn(true);
+    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(odataJPAContext.getODataJPATransaction()).andStubReturn(transaction);
+    EasyMock.expect(odataJPAContext.getODataContext()).andStubReturn(context);
+    EasyMock.replay(odataJPAContext);
+    ODataRequest create = mockBatchRequest("SalesOrders");
+    ODataRequest reference = mockBatchRequest("$1");
+    BatchHandler handler = EasyMock.createMock(BatchHandler.class);
+    EasyMock.expect(handler.handleRequest(create)).andReturn(ODataResponse.status(HttpStatusCodes.CREATED).build());
+    EasyMock.expect(handler.handleRequest(reference))
+        .andReturn(ODataResponse.status(HttpStatusCodes.NO_CONTENT).build());
+    EasyMock.replay(handler);
+
+    new ODataJPADefaultProcessor(odataJPAContext) { }.executeChangeSet(handler, Arrays.asList(create, reference));
+
+    EasyMock.verify(em, handler);
+  }
+
+  private ODataRequest mockBatchRequest(final String firstSegment) {
+    PathSegment segment = EasyMock.createMock(PathSegment.class);
+    EasyMock.expect(segment.getPath()).andStubReturn(firstSegment);
+    EasyMock.replay(segment);
+    PathInfo pathInfo = EasyMock.createMock(PathInfo.class);
+    EasyMock.expect(pathInfo.getODataSegments()).andStubReturn(Arrays.asList(segment));
+    EasyMock.replay(pathInfo);
+    ODataRequest request = EasyMock.createMock(ODataRequest.class);
+    EasyMock.expect(request.getPathInfo()).andStubReturn(pathInfo);
+    EasyMock.replay(request);
+    return request;
+  }
+
+  @Test
+  public void readETagOnlyIfEnabled() throws Exception {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.replay(em);
+    ODataJPAContext odataJPAContext = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(em);
+    EasyMock.replay(odataJPAContext);
+    GetEntityUriInfo uriInfo = EasyMock.createMock(GetEntityUriInfo.class);
+    EasyMock.replay(uriInfo);
+
+    Assert.assertNull(new ODataJPADefaultProcessor(odataJPAContext) { }.readETag(uriInfo));
+    EasyMock.verify(em, uriInfo);
+  }
+
+  @Test
+  public void readETagKeepsEntityManagerOpen() throws Exception {
+    // the entity manager is a strict mock without expectations; closing it would fail
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.replay(em);
+    ODataJPAContext odataJPAContext = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(odataJPAContext.isETagPreconditionsEvaluated()).andStubReturn(true);
+    EasyMock.replay(odataJPAContext);
+    class ETagReadingProcessor extends JPAProcessorMockAbstract implements JPAETagReader {
+      @Override
+      public String readETag(final GetEntityUriInfo requestView) {
+        return "W/\"1\"";
+      }
+    }
+    final JPAProcessor eTagReader = new ETagReadingProcessor();
+
+    Assert.assertEquals("W/\"1\"", new ODataJPADefaultProcessor(odataJPAContext) {
+      {
+        jpaProcessor = eTagReader;
+      }
+    }.readETag(EasyMock.createMock(GetEntityUriInfo.class)));
+    EasyMock.verify(em);
+  }
+
   private PutMergePatchUriInfo getPutUriInfo() {
     return (PutMergePatchUriInfo) getDeletetUriInfo();
   }
@@ -327,6 +460,9 @@ public class ODataJPADefaultProcessorTest extends JPAEdmTestModelView {
   private ODataJPAContext getLocalmockODataJPAContext() {
     ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
     EasyMock.expect(odataJPAContext.getPageSize()).andReturn(0).anyTimes();
+    EasyMock.expect(odataJPAContext.getRowCountEstimator()).andStubReturn(null);
+    EasyMock.expect(odataJPAContext.getExpandFetchDepth()).andStubReturn(0);
+    EasyMock.expect(odataJPAContext.getChangeJournal()).andStubReturn(null);
     EasyMock.expect(odataJPAContext.getPersistenceUnitName()).andStubReturn("salesorderprocessing");
     EasyMock.expect(odataJPAContext.getEntityManagerFactory()).andStubReturn(mockEntityManagerFactory());
     EasyMock.expect(odataJPAContext.getODataJPATransaction()).andStubReturn(getLocalJpaTransaction());
@@ -401,7 +537,7 @@ public class ODataJPADefaultProcessorTest extends JPAEdmTestModelView {
 
   private Query getQueryForSelectCount() {
     Query query = EasyMock.createMock(Query.class);
-    EasyMock.expect(query.getResultList()).andStubReturn(getResultListForSelectCount());
+    EasyMock.expect(query.getSingleResult()).andStubReturn(Long.valueOf(11));
     EasyMock.replay(query);
     return query;
   }
@@ -412,12 +548,6 @@ public class ODataJPADefaultProcessorTest extends JPAEdmTestModelView {
     return list;
   }
 
-  private List<?> getResultListForSelectCount() {
-    List<Object> list = new ArrayList<Object>();
-    list.add(new Long(11));
-    return list;
-  }
-
   class Address {
     private String soId = "12";
 
@@ -20,6 +20,7 @@ package org.apache.olingo.odata2.jpa.processor.core;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -61,6 +62,7 @@ import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAResponseBuilder;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAPage.JPAPageBuilder;
 import org.apache.olingo.odata2.jpa.processor.core.common.ODataJPATestConstants;
 import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
 import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmTestModelView;
@@ -112,6 +114,30 @@ public class ODataJPAResponseBuilderTest extends JPAEdmTestModelView {
     }
   }
 
+  /*
+   * A count of the page is only sent if $inlinecount=allpages has been requested
+   */
+  @Test
+  public void testGetEntityProviderPropertiesInlineCountOfPage() throws Exception {
+    final JPAPaging page = new JPAPageBuilder().entities(new ArrayList<Object>()).inlineCount(42).build();
+    ODataJPAContext oDataJPAContext = EasyMock.createMock(ODataJPAContext.class);
+    EasyMock.expect(oDataJPAContext.getODataContext()).andStubReturn(getLocalODataContext());
+    EasyMock.expect(oDataJPAContext.getPageSize()).andStubReturn(0);
+    EasyMock.expect(oDataJPAContext.getPaging()).andStubReturn(page);
+    EasyMock.replay(oDataJPAContext);
+    Method method = ODataJPAResponseBuilderDefault.class.getDeclaredMethod("getEntityProviderProperties",
+        ODataJPAContext.class, GetEntitySetUriInfo.class, List.class);
+    method.setAccessible(true);
+
+    EntityProviderWriteProperties providerProperties = (EntityProviderWriteProperties) method.invoke(null,
+        oDataJPAContext, mockEntitySetUriInfoForInlineCount(InlineCount.ALLPAGES), new ArrayList<Object>());
+    assertEquals(Integer.valueOf(42), providerProperties.getInlineCount());
+
+    providerProperties = (EntityProviderWriteProperties) method.invoke(null,
+        oDataJPAContext, mockEntitySetUriInfoForInlineCount(InlineCount.NONE), new ArrayList<Object>());
+    assertNull(providerProperties.getInlineCount());
+  }
+
   /*
    * This Unit is supposed to test the building of Entity Provider Properties for read with $expand
    */
@@ -580,6 +606,17 @@ public class ODataJPAResponseBuilderTest extends JPAEdmTestModelView {
     return entitySetUriInfo;
   }
 
+  private GetEntitySetUriInfo mockEntitySetUriInfoForInlineCount(final InlineCount inlineCount) {
+    GetEntitySetUriInfo entitySetUriInfo = EasyMock.createMock(GetEntitySetUriInfo.class);
+    EasyMock.expect(entitySetUriInfo.getSelect()).andStubReturn(new ArrayList<SelectItem>());
+    EasyMock.expect(entitySetUriInfo.getExpand()).andStubReturn(getExpandList());
+    EasyMock.expect(entitySetUriInfo.getInlineCount()).andStubReturn(inlineCount);
+    EasyMock.expect(entitySetUriInfo.getSkip()).andStubReturn(null);
+    EasyMock.expect(entitySetUriInfo.getTop()).andStubReturn(null);
+    EasyMock.replay(entitySetUriInfo);
+    return entitySetUriInfo;
+  }
+
   private EdmEntitySet getTargetEntitySetForExpand() {
     EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
     try {
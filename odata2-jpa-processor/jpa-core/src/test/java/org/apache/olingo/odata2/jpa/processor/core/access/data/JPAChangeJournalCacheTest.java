@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChange;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChange.ChangeType;
+import org.junit.Test;
+
+public class JPAChangeJournalCacheTest {
+
+  @Test
+  public void changesAfterToken() {
+    JPAChangeJournalCache journal = new JPAChangeJournalCache(100);
+    final long token = journal.getLatestSequenceNumber();
+    assertTrue(journal.getChanges("SalesOrders", token).isEmpty());
+
+    journal.append("SalesOrders", key(1L), ChangeType.CREATE);
+    journal.append("SalesOrderItems", key(1L), ChangeType.CREATE);
+    journal.append("SalesOrders", key(2L), ChangeType.UPDATE);
+    journal.append("SalesOrders", key(1L), ChangeType.DELETE);
+
+    List<JPAChange> changes = journal.getChanges("SalesOrders", token);
+    assertEquals(3, changes.size());
+    assertEquals(key(1L), changes.get(0).getKey());
+    assertEquals(ChangeType.CREATE, changes.get(0).getChangeType());
+    assertEquals(ChangeType.UPDATE, changes.get(1).getChangeType());
+    assertEquals(ChangeType.DELETE, changes.get(2).getChangeType());
+    assertEquals("SalesOrders", changes.get(2).getEntitySetName());
+    assertEquals(journal.getLatestSequenceNumber(), changes.get(2).getSequenceNumber());
+
+    changes = journal.getChanges("SalesOrders", changes.get(1).getSequenceNumber());
+    assertEquals(1, changes.size());
+    assertEquals(ChangeType.DELETE, changes.get(0).getChangeType());
+    assertTrue(journal.getChanges("SalesOrders", journal.getLatestSequenceNumber()).isEmpty());
+    assertEquals(1, journal.getChanges("SalesOrderItems", token).size());
+  }
+
+  @Test
+  public void truncatedChanges() {
+    JPAChangeJournalCache journal = new JPAChangeJournalCache(4);
+    final long token = journal.getLatestSequenceNumber();
+    for (long id = 1; id <= 5; id++) {
+      journal.append("SalesOrders", key(id), ChangeType.UPDATE);
+    }
+
+    assertNull(journal.getChanges("SalesOrders", token));
+    final List<JPAChange> changes = journal.getChanges("SalesOrders", token + 3);
+    assertNotNull(changes);
+    assertEquals(2, changes.size());
+    assertEquals(key(4L), changes.get(0).getKey());
+    assertEquals(key(5L), changes.get(1).getKey());
+    assertTrue(journal.getChanges("SalesOrderItems", token).isEmpty());
+  }
+
+  @Test
+  public void tokenOfEarlierInstance() {
+    JPAChangeJournalCache journal = new JPAChangeJournalCache(100);
+    assertNull(journal.getChanges("SalesOrders", 0));
+    assertNull(journal.getChanges("SalesOrders", journal.getLatestSequenceNumber() - 1));
+  }
+
+  private static Map<String, Object> key(final Long id) {
+    return Collections.<String, Object> singletonMap("SoId", id);
+  }
+}
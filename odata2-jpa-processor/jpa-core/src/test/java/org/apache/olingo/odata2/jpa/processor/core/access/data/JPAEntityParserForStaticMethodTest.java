@@ -31,13 +31,19 @@ import java.lang.reflect.Method;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import javax.sql.rowset.serial.SerialBlob;
 import javax.sql.rowset.serial.SerialClob;
 import javax.sql.rowset.serial.SerialException;
 
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.core.common.ODataJPATestConstants;
+import org.easymock.EasyMock;
 import org.junit.Test;
 
 public class JPAEntityParserForStaticMethodTest {
@@ -62,6 +68,31 @@ public class JPAEntityParserForStaticMethodTest {
     assertEquals("A", JPAEntityParser.toString(input));
   }
 
+  @Test
+  public void testParseProjectionRow() throws Exception {
+    List<EdmProperty> properties = Arrays.asList(mockProperty("Id"), mockProperty("Code"), mockProperty("Text"),
+        mockProperty("Flag"));
+    Map<String, Object> row = JPAEntityParser.parseProjectionRow(new Object[] { 4711, new char[] { 'A', 'B' },
+        new SerialClob("text".toCharArray()), '\u0000' }, properties);
+    assertEquals(4, row.size());
+    assertEquals(4711, row.get("Id"));
+    assertEquals("AB", row.get("Code"));
+    assertEquals("text", row.get("Text"));
+    assertNull(row.get("Flag"));
+    assertTrue(row.containsKey("Flag"));
+
+    row = JPAEntityParser.parseProjectionRow(new Character[] { 'X' }, properties.subList(1, 2));
+    assertEquals(1, row.size());
+    assertEquals("X", row.get("Code"));
+  }
+
+  private EdmProperty mockProperty(final String name) throws EdmException {
+    EdmProperty property = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(property.getName()).andStubReturn(name);
+    EasyMock.replay(property);
+    return property;
+  }
+
   @Test
   public void testToCharacterArrayDefault() {
     String input = new String("AB");
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceUnitUtil;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.apache.olingo.odata2.jpa.processor.ref.model.SalesOrderHeader;
+import org.apache.olingo.odata2.jpa.processor.ref.model.SalesOrderItem;
+import org.apache.olingo.odata2.jpa.processor.ref.model.SalesOrderItemKey;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Fetches against the reference persistence unit, so that the join fetch is checked with a real JPA provider.
+ */
+public class JPAExpandFetcherPersistenceTest {
+
+  private static final String PERSISTENCE_UNIT_NAME = "salesorderprocessing";
+  private static final String ITEMS = "salesOrderItem";
+
+  private static EntityManagerFactory emf;
+  private EntityManager em;
+
+  @BeforeClass
+  public static void setUpPersistenceUnit() {
+    Map<String, String> properties = new HashMap<String, String>();
+    properties.put("javax.persistence.jdbc.url", "jdbc:hsqldb:mem:" + JPAExpandFetcherPersistenceTest.class.getName());
+    properties.put("eclipselink.logging.level", "OFF");
+    emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, properties);
+    EntityManager em = emf.createEntityManager();
+    em.getTransaction().begin();
+    em.persist(createSalesOrder(1L, 11L, 12L));
+    em.persist(createSalesOrder(2L, 21L));
+    em.getTransaction().commit();
+    em.close();
+  }
+
+  @AfterClass
+  public static void tearDownPersistenceUnit() {
+    emf.close();
+  }
+
+  @Before
+  public void setUp() {
+    // managed entities read by a new entity manager without their navigation loaded
+    emf.getCache().evictAll();
+    em = emf.createEntityManager();
+  }
+
+  @After
+  public void tearDown() {
+    em.close();
+    ODataJPATombstoneContext.cleanup();
+  }
+
+  @Test
+  public void fetchNavigationOfManagedEntities() throws Exception {
+    @SuppressWarnings("unchecked")
+    final List<Object> salesOrders =
+        em.createQuery("SELECT E1 FROM SalesOrderHeader E1 ORDER BY E1.soId").getResultList();
+    final PersistenceUnitUtil util = emf.getPersistenceUnitUtil();
+    for (Object salesOrder : salesOrders) {
+      assertFalse(util.isLoaded(salesOrder, ITEMS));
+    }
+
+    new JPAExpandFetcher(em, 1, Integer.MAX_VALUE).fetch(salesOrders, mockEntityType("SalesOrderHeader", "soId"),
+        expand(segment("SalesOrderLineItemDetails", ITEMS, mockEntityType("SalesOrderItem", "salesOrderItemKey"))));
+
+    for (Object salesOrder : salesOrders) {
+      assertTrue(util.isLoaded(salesOrder, ITEMS));
+    }
+    assertEquals(2, ((SalesOrderHeader) salesOrders.get(0)).getSalesOrderItem().size());
+    assertEquals(1, ((SalesOrderHeader) salesOrders.get(1)).getSalesOrderItem().size());
+  }
+
+  private static SalesOrderHeader createSalesOrder(final long soId, final long... liIds) {
+    SalesOrderHeader salesOrder = new SalesOrderHeader();
+    salesOrder.setSoId(soId);
+    for (long liId : liIds) {
+      SalesOrderItemKey key = new SalesOrderItemKey(liId);
+      key.setSoId(soId);
+      SalesOrderItem item = new SalesOrderItem();
+      item.setSalesOrderItemKey(key);
+      item.setSalesOrderHeader(salesOrder);
+      salesOrder.getSalesOrderItem().add(item);
+    }
+    return salesOrder;
+  }
+
+  private List<ArrayList<NavigationPropertySegment>> expand(final NavigationPropertySegment segment) {
+    List<ArrayList<NavigationPropertySegment>> expand = new ArrayList<ArrayList<NavigationPropertySegment>>();
+    expand.add(new ArrayList<NavigationPropertySegment>(Collections.singletonList(segment)));
+    return expand;
+  }
+
+  private NavigationPropertySegment segment(final String name, final String internalName,
+      final EdmEntityType targetType) throws EdmException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmNavigationProperty navigationProperty = EasyMock.createMock(EdmNavigationProperty.class);
+    EasyMock.expect(navigationProperty.getName()).andStubReturn(name);
+    EasyMock.expect(navigationProperty.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(navigationProperty);
+    EdmEntitySet targetEntitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(targetEntitySet.getEntityType()).andStubReturn(targetType);
+    EasyMock.replay(targetEntitySet);
+    NavigationPropertySegment segment = EasyMock.createMock(NavigationPropertySegment.class);
+    EasyMock.expect(segment.getNavigationProperty()).andStubReturn(navigationProperty);
+    EasyMock.expect(segment.getTargetEntitySet()).andStubReturn(targetEntitySet);
+    EasyMock.replay(segment);
+    return segment;
+  }
+
+  private EdmEntityType mockEntityType(final String name, final String keyInternalName) throws EdmException {
+    JPAEdmMappingImpl keyMapping = new JPAEdmMappingImpl();
+    keyMapping.setInternalName(keyInternalName);
+    EdmSimpleType keyType = EasyMock.createMock(EdmSimpleType.class);
+    EasyMock.expect(keyType.getKind()).andStubReturn(EdmTypeKind.SIMPLE);
+    EasyMock.replay(keyType);
+    EdmProperty keyProperty = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(keyProperty.getName()).andStubReturn("Id");
+    EasyMock.expect(keyProperty.getMapping()).andStubReturn(keyMapping);
+    EasyMock.expect(keyProperty.getType()).andStubReturn(keyType);
+    EasyMock.replay(keyProperty);
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(name);
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(keyProperty));
+    EasyMock.expect(entityType.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(entityType);
+    return entityType;
+  }
+}
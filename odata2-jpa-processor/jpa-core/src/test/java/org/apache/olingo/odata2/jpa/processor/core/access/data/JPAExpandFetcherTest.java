@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JPAExpandFetcherTest {
+
+  private static final String ORDER_ITEMS_QUERY =
+      "SELECT DISTINCT E1 FROM Order E1 LEFT OUTER JOIN FETCH E1.items WHERE E1.id IN ?1";
+  private static final String ORDER_CUSTOMER_QUERY =
+      "SELECT DISTINCT E1 FROM Order E1 LEFT OUTER JOIN FETCH E1.customer WHERE E1.id IN ?1";
+  private static final String ITEM_PRODUCT_QUERY =
+      "SELECT DISTINCT E1 FROM Item E1 LEFT OUTER JOIN FETCH E1.product WHERE E1.id IN ?1";
+
+  private EdmEntityType orderType;
+  private EdmEntityType itemType;
+  private EdmEntityType productType;
+  private List<Object> orders;
+
+  @Before
+  public void setUp() throws Exception {
+    orderType = mockEntityType("Order");
+    itemType = mockEntityType("Item");
+    productType = mockEntityType("Product");
+    orders = new ArrayList<Object>();
+    orders.add(new Order(1L, new Item(11L), new Item(12L)));
+    orders.add(new Order(2L, new Item(21L)));
+  }
+
+  @Test
+  public void fetchExpandLevels() throws Exception {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, ORDER_ITEMS_QUERY, Arrays.<Object> asList(1L, 2L));
+    expectQuery(em, ITEM_PRODUCT_QUERY, Arrays.<Object> asList(11L, 12L, 21L));
+    EasyMock.replay(em);
+
+    new JPAExpandFetcher(em, 2, Integer.MAX_VALUE).fetch(orders, orderType,
+        expand(Arrays.asList(segment("Items", "items", itemType), segment("Product", "product", productType))));
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void fetchUpToMaximumDepth() throws Exception {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, ORDER_ITEMS_QUERY, Arrays.<Object> asList(1L, 2L));
+    EasyMock.replay(em);
+
+    new JPAExpandFetcher(em, 1, Integer.MAX_VALUE).fetch(orders, orderType,
+        expand(Arrays.asList(segment("Items", "items", itemType), segment("Product", "product", productType))));
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void fetchUpToMaximumBreadth() throws Exception {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, ORDER_ITEMS_QUERY, Arrays.<Object> asList(1L, 2L));
+    EasyMock.replay(em);
+
+    new JPAExpandFetcher(em, 1, 1).fetch(orders, orderType,
+        expand(Collections.singletonList(segment("Items", "items", itemType)),
+            Collections.singletonList(segment("Customer", "customer", orderType))));
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void fetchSiblingsWithOneQueryEach() throws Exception {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, ORDER_ITEMS_QUERY, Arrays.<Object> asList(1L, 2L));
+    expectQuery(em, ORDER_CUSTOMER_QUERY, Arrays.<Object> asList(1L, 2L));
+    EasyMock.replay(em);
+
+    new JPAExpandFetcher(em, 1, Integer.MAX_VALUE).fetch(orders, orderType,
+        expand(Collections.singletonList(segment("Items", "items", itemType)),
+            Collections.singletonList(segment("Customer", "customer", orderType))));
+    EasyMock.verify(em);
+  }
+
+  private void expectQuery(final EntityManager em, final String jpql, final List<Object> keys) {
+    Query query = EasyMock.createNiceMock(Query.class);
+    EasyMock.expect(query.setParameter(1, keys)).andReturn(query);
+    EasyMock.expect(query.getResultList()).andReturn(new ArrayList<Object>());
+    EasyMock.replay(query);
+    EasyMock.expect(em.createQuery(jpql)).andReturn(query);
+  }
+
+  private List<ArrayList<NavigationPropertySegment>> expand(final List<?>... paths) {
+    List<ArrayList<NavigationPropertySegment>> expand = new ArrayList<ArrayList<NavigationPropertySegment>>();
+    for (List<?> path : paths) {
+      ArrayList<NavigationPropertySegment> segments = new ArrayList<NavigationPropertySegment>();
+      for (Object segment : path) {
+        segments.add((NavigationPropertySegment) segment);
+      }
+      expand.add(segments);
+    }
+    return expand;
+  }
+
+  private NavigationPropertySegment segment(final String name, final String internalName,
+      final EdmEntityType targetType) throws EdmException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmNavigationProperty navigationProperty = EasyMock.createMock(EdmNavigationProperty.class);
+    EasyMock.expect(navigationProperty.getName()).andStubReturn(name);
+    EasyMock.expect(navigationProperty.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(navigationProperty);
+    EdmEntitySet targetEntitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(targetEntitySet.getEntityType()).andStubReturn(targetType);
+    EasyMock.replay(targetEntitySet);
+    NavigationPropertySegment segment = EasyMock.createMock(NavigationPropertySegment.class);
+    EasyMock.expect(segment.getNavigationProperty()).andStubReturn(navigationProperty);
+    EasyMock.expect(segment.getTargetEntitySet()).andStubReturn(targetEntitySet);
+    EasyMock.replay(segment);
+    return segment;
+  }
+
+  private EdmEntityType mockEntityType(final String name) throws EdmException {
+    JPAEdmMappingImpl keyMapping = new JPAEdmMappingImpl();
+    keyMapping.setInternalName("id");
+    EdmSimpleType keyType = EasyMock.createMock(EdmSimpleType.class);
+    EasyMock.expect(keyType.getKind()).andStubReturn(EdmTypeKind.SIMPLE);
+    EasyMock.replay(keyType);
+    EdmProperty keyProperty = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(keyProperty.getName()).andStubReturn("Id");
+    EasyMock.expect(keyProperty.getMapping()).andStubReturn(keyMapping);
+    EasyMock.expect(keyProperty.getType()).andStubReturn(keyType);
+    EasyMock.replay(keyProperty);
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(name);
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(keyProperty));
+    EasyMock.expect(entityType.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(entityType);
+    return entityType;
+  }
+
+  public static class Order {
+    private final Long id;
+    private final List<Item> items;
+
+    public Order(final Long id, final Item... items) {
+      this.id = id;
+      this.items = Arrays.asList(items);
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public List<Item> getItems() {
+      return items;
+    }
+
+    public Order getCustomer() {
+      return null;
+    }
+  }
+
+  public static class Item {
+    private final Long id;
+
+    public Item(final Long id) {
+      this.id = id;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public Item getProduct() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.junit.Test;
+
+public class JPAFunctionResultCacheTest {
+
+  private final AtomicInteger executions = new AtomicInteger();
+
+  @Test
+  public void cachedResult() throws Exception {
+    JPAFunctionResultCache cache = new JPAFunctionResultCache(10);
+    final Method function = getFunction();
+
+    final List<Object> result = cache.getResult("pu", null, function, new Object[] { 1 }, 60000, count());
+    assertSame(result, cache.getResult("pu", null, function, new Object[] { 1 }, 60000, count()));
+    assertEquals(1, executions.get());
+
+    cache.getResult("pu", null, function, new Object[] { 2 }, 60000, count());
+    cache.getResult("other", null, function, new Object[] { 1 }, 60000, count());
+    cache.getResult("pu", "tenant", function, new Object[] { 1 }, 60000, count());
+    cache.getResult("pu", null, function, new Object[] { new byte[] { 1 } }, 60000, count());
+    cache.getResult("pu", null, function, new Object[] { new byte[] { 1 } }, 60000, count());
+    assertEquals(5, executions.get());
+  }
+
+  @Test
+  public void expiredResult() throws Exception {
+    JPAFunctionResultCache cache = new JPAFunctionResultCache(10);
+    cache.getResult("pu", null, getFunction(), null, 1, count());
+    Thread.sleep(5);
+    cache.getResult("pu", null, getFunction(), null, 1, count());
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void leastRecentlyUsedResultDropped() throws Exception {
+    JPAFunctionResultCache cache = new JPAFunctionResultCache(2);
+    cache.getResult("pu", null, getFunction(), new Object[] { 1 }, 60000, count());
+    cache.getResult("pu", null, getFunction(), new Object[] { 2 }, 60000, count());
+    cache.getResult("pu", null, getFunction(), new Object[] { 1 }, 60000, count());
+    cache.getResult("pu", null, getFunction(), new Object[] { 3 }, 60000, count());
+    assertEquals(3, executions.get());
+    cache.getResult("pu", null, getFunction(), new Object[] { 1 }, 60000, count());
+    assertEquals(3, executions.get());
+    cache.getResult("pu", null, getFunction(), new Object[] { 2 }, 60000, count());
+    assertEquals(4, executions.get());
+  }
+
+  @Test
+  public void failureNotCached() throws Exception {
+    JPAFunctionResultCache cache = new JPAFunctionResultCache(10);
+    final Callable<List<Object>> failing = new Callable<List<Object>>() {
+      @Override
+      public List<Object> call() throws ODataJPARuntimeException {
+        executions.incrementAndGet();
+        throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent("failed"), null);
+      }
+    };
+    for (int i = 0; i < 2; i++) {
+      try {
+        cache.getResult("pu", null, getFunction(), null, 60000, failing);
+        fail("Expected exception not thrown");
+      } catch (ODataJPARuntimeException e) {
+        assertEquals(ODataJPARuntimeException.GENERAL.getKey(), e.getMessageReference().getKey());
+      }
+    }
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void concurrentCallsExecuteOnce() throws Exception {
+    final JPAFunctionResultCache cache = new JPAFunctionResultCache(10);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Callable<List<Object>> blocking = new Callable<List<Object>>() {
+      @Override
+      public List<Object> call() throws Exception {
+        executions.incrementAndGet();
+        started.countDown();
+        release.await();
+        return new ArrayList<Object>(Arrays.asList("result"));
+      }
+    };
+    final List<List<Object>> results = new ArrayList<List<Object>>();
+    Thread first = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          List<Object> result = cache.getResult("pu", null, getFunction(), null, 60000, blocking);
+          synchronized (results) {
+            results.add(result);
+          }
+        } catch (ODataJPARuntimeException e) {
+          fail(e.getMessage());
+        }
+      }
+    });
+    first.start();
+    started.await();
+    Thread second = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          List<Object> result = cache.getResult("pu", null, getFunction(), null, 60000, blocking);
+          synchronized (results) {
+            results.add(result);
+          }
+        } catch (ODataJPARuntimeException e) {
+          fail(e.getMessage());
+        }
+      }
+    });
+    second.start();
+    release.countDown();
+    first.join();
+    second.join();
+
+    assertEquals(1, executions.get());
+    assertEquals(2, results.size());
+    assertSame(results.get(0), results.get(1));
+  }
+
+  private Callable<List<Object>> count() {
+    return new Callable<List<Object>>() {
+      @Override
+      public List<Object> call() {
+        return new ArrayList<Object>(Arrays.asList(executions.incrementAndGet()));
+      }
+    };
+  }
+
+  private static Method getFunction() {
+    try {
+      return JPAFunctionResultCacheTest.class.getDeclaredMethod("getFunction");
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
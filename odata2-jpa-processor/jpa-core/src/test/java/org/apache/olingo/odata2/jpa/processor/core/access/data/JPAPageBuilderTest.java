@@ -19,7 +19,10 @@
 package org.apache.olingo.odata2.jpa.processor.core.access.data;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -62,6 +65,18 @@ public class JPAPageBuilderTest {
     assertEquals(10, query.getMaxResults());
   }
 
+  @Test
+  public void testBuildProjection() {
+    JPAPage page = new JPAPageBuilder().query(mockQuery(false))
+        .pageSize(PAGE_SIZE)
+        .projection(true)
+        .build();
+    assertTrue(page.isProjection());
+
+    page = new JPAPageBuilder().query(mockQuery(false)).pageSize(PAGE_SIZE).build();
+    assertFalse(page.isProjection());
+  }
+
   @Test
   public void testBuildDefaultZeroPage() {
     JPAPageBuilder pageBuilder = new JPAPageBuilder();
@@ -216,6 +231,30 @@ public class JPAPageBuilderTest {
     assertEquals(5, query.getMaxResults());
   }
 
+  @Test
+  public void testBuildWithTopSkipInlineCount() {
+    JPAPageBuilder pageBuilder = new JPAPageBuilder();
+    Query query = mockQuery(false);
+
+    JPAPage page = pageBuilder.query(query)
+        .pageSize(0)
+        .skip(5)
+        .top(5)
+        .inlineCount(2000000L)
+        .build();
+
+    assertEquals(Integer.valueOf(2000000), page.getInlineCount());
+    assertEquals(5, query.getFirstResult());
+    assertEquals(5, query.getMaxResults());
+  }
+
+  @Test
+  public void testBuildWithoutInlineCount() {
+    JPAPage page = new JPAPageBuilder().query(mockQuery(false)).pageSize(PAGE_SIZE).build();
+
+    assertNull(page.getInlineCount());
+  }
+
   @Test
   public void testBuildWithTopExceeds() {
     JPAPageBuilder pageBuilder = new JPAPageBuilder();
@@ -0,0 +1,435 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.processor.ODataContext;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAChangeJournalContext;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAChange.ChangeType;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JPAProcessorImplDeltaTest {
+
+  private static final String ENTITY_SET_NAME = "Orders";
+
+  private JPAChangeJournalCache journal;
+  private long deltaToken;
+
+  @Before
+  public void setUp() {
+    journal = new JPAChangeJournalCache(100);
+    deltaToken = journal.getLatestSequenceNumber();
+    journal.append(ENTITY_SET_NAME, key(1L), ChangeType.CREATE);
+    journal.append(ENTITY_SET_NAME, key(2L), ChangeType.UPDATE);
+    journal.append(ENTITY_SET_NAME, key(3L), ChangeType.DELETE);
+    journal.append(ENTITY_SET_NAME, key(1L), ChangeType.UPDATE);
+    journal.append("Customers", key(4L), ChangeType.UPDATE);
+  }
+
+  @After
+  public void tearDown() {
+    ODataJPATombstoneContext.cleanup();
+  }
+
+  @Test
+  public void readChangedEntitiesByKey() throws Exception {
+    final List<Object> changedEntities = Arrays.<Object> asList(new Order(2L), new Order(1L));
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, "SELECT E1 FROM Order E1 WHERE (E1.id = ?1) OR (E1.id = ?2)", changedEntities);
+    EasyMock.replay(em);
+    Capture<JPAPaging> paging = new Capture<JPAPaging>();
+
+    List<Object> result = new JPAProcessorImpl(mockContext(em, 0, paging))
+        .process(mockUriInfo(mockEntityType("id"), String.valueOf(deltaToken)));
+
+    EasyMock.verify(em);
+    assertEquals(changedEntities, result);
+    assertEquals(changedEntities, paging.getValue().getPagedEntities());
+    assertEquals(Collections.singletonList(key(3L)), ODataJPATombstoneContext.getDeletedEntries());
+    assertEquals(String.valueOf(journal.getLatestSequenceNumber()), ODataJPATombstoneContext.getDeltaToken());
+  }
+
+  @Test
+  public void readChangedEntitiesOfKeyWithoutMapping() throws Exception {
+    final long token = journal.getLatestSequenceNumber();
+    journal.append(ENTITY_SET_NAME, key(5L), ChangeType.UPDATE);
+    final List<Object> changedEntities = Arrays.<Object> asList(new Order(5L));
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, "SELECT E1 FROM Order E1 WHERE (E1.Id = ?1)", changedEntities);
+    EasyMock.replay(em);
+
+    List<Object> result = new JPAProcessorImpl(mockContext(em, 0, new Capture<JPAPaging>()))
+        .process(mockUriInfo(mockEntityType(null), String.valueOf(token)));
+
+    EasyMock.verify(em);
+    assertEquals(changedEntities, result);
+    assertTrue(ODataJPATombstoneContext.getDeletedEntries().isEmpty());
+  }
+
+  @Test
+  public void pageChangedEntities() throws Exception {
+    final List<Object> changedEntities = Arrays.<Object> asList(new Order(2L), new Order(1L));
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, "SELECT E1 FROM Order E1 WHERE (E1.id = ?1) OR (E1.id = ?2)", changedEntities);
+    EasyMock.replay(em);
+    Capture<JPAPaging> paging = new Capture<JPAPaging>();
+
+    List<Object> result = new JPAProcessorImpl(mockContext(em, 1, paging))
+        .process(mockUriInfo(mockEntityType("id"), String.valueOf(deltaToken)));
+
+    assertEquals(Collections.singletonList(changedEntities.get(0)), result);
+    assertEquals(1, paging.getValue().getNextPage());
+  }
+
+  @Test
+  public void fetchExpandedOfChangedEntities() throws Exception {
+    final List<Object> changedEntities = Arrays.<Object> asList(new Order(2L), new Order(1L));
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    expectQuery(em, "SELECT E1 FROM Order E1 WHERE (E1.id = ?1) OR (E1.id = ?2)", changedEntities);
+    Query fetchQuery = EasyMock.createNiceMock(Query.class);
+    EasyMock.expect(fetchQuery.setParameter(1, Arrays.<Object> asList(2L, 1L))).andReturn(fetchQuery);
+    EasyMock.expect(fetchQuery.getResultList()).andReturn(changedEntities);
+    EasyMock.replay(fetchQuery);
+    EasyMock.expect(em.createQuery("SELECT DISTINCT E1 FROM Order E1 LEFT OUTER JOIN FETCH E1.customer "
+        + "WHERE E1.id IN ?1")).andReturn(fetchQuery);
+    EasyMock.replay(em);
+    ODataJPAContext context = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(context.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(context.getChangeJournal()).andStubReturn(journal);
+    EasyMock.expect(context.getExpandFetchDepth()).andStubReturn(1);
+    EasyMock.expect(context.getExpandFetchBreadth()).andStubReturn(Integer.MAX_VALUE);
+    EasyMock.replay(context);
+
+    final EdmEntityType entityType = mockEntityType("id");
+    new JPAProcessorImpl(context).process(mockUriInfo(entityType, String.valueOf(deltaToken),
+        Collections.singletonList(new ArrayList<NavigationPropertySegment>(
+            Collections.singletonList(mockSegment("Customer", "customer", entityType))))));
+
+    EasyMock.verify(em, fetchQuery);
+  }
+
+  @Test
+  public void publishChangesOfCommittedChangeSet() throws Exception {
+    final long token = journal.getLatestSequenceNumber();
+    ODataJPAChangeJournalContext.begin();
+    ODataJPAChangeJournalContext.append(journal, ENTITY_SET_NAME, keyProvider(6L), ChangeType.CREATE);
+    assertTrue(journal.getChanges(ENTITY_SET_NAME, token).isEmpty());
+    ODataJPAChangeJournalContext.commit();
+
+    assertEquals(1, journal.getChanges(ENTITY_SET_NAME, token).size());
+    assertEquals(key(6L), journal.getChanges(ENTITY_SET_NAME, token).get(0).getKey());
+  }
+
+  @Test
+  public void dropChangesOfRolledBackChangeSet() throws Exception {
+    final long token = journal.getLatestSequenceNumber();
+    ODataJPAChangeJournalContext.begin();
+    ODataJPAChangeJournalContext.append(journal, ENTITY_SET_NAME, keyProvider(6L), ChangeType.CREATE);
+    ODataJPAChangeJournalContext.rollback();
+    ODataJPAChangeJournalContext.commit();
+
+    assertTrue(journal.getChanges(ENTITY_SET_NAME, token).isEmpty());
+    // outside of change sets changes are appended right away
+    ODataJPAChangeJournalContext.append(journal, ENTITY_SET_NAME, keyProvider(7L), ChangeType.CREATE);
+    assertEquals(1, journal.getChanges(ENTITY_SET_NAME, token).size());
+  }
+
+  @Test
+  public void recordGeneratedKeyOfChangeSetOnCommit() throws Exception {
+    final long token = journal.getLatestSequenceNumber();
+    Capture<Object> persisted = new Capture<Object>();
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    em.persist(EasyMock.capture(persisted));
+    EasyMock.expect(em.contains(EasyMock.anyObject())).andReturn(true);
+    expectMetamodel(em, GeneratedKeyOrder.class);
+    EasyMock.replay(em);
+
+    ODataJPAChangeJournalContext.begin();
+    new JPAProcessorImpl(mockChangeSetContext(em)).process(mockPostUriInfo(GeneratedKeyOrder.class),
+        new HashMap<String, Object>());
+    // the database generates the key when the change set is written
+    ((GeneratedKeyOrder) persisted.getValue()).setId(8L);
+    ODataJPAChangeJournalContext.commit();
+
+    EasyMock.verify(em);
+    assertEquals(1, journal.getChanges(ENTITY_SET_NAME, token).size());
+    assertEquals(key(8L), journal.getChanges(ENTITY_SET_NAME, token).get(0).getKey());
+  }
+
+  @Test
+  public void flushIdentityGeneratedKeyWithinChangeSet() throws Exception {
+    final long token = journal.getLatestSequenceNumber();
+    final Capture<Object> persisted = new Capture<Object>();
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    em.persist(EasyMock.capture(persisted));
+    EasyMock.expect(em.contains(EasyMock.anyObject())).andReturn(true);
+    expectMetamodel(em, IdentityKeyOrder.class);
+    // the database generates the key when the entity is written
+    em.flush();
+    EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+      @Override
+      public Object answer() {
+        ((IdentityKeyOrder) persisted.getValue()).setId(9L);
+        return null;
+      }
+    });
+    EasyMock.replay(em);
+
+    ODataJPAChangeJournalContext.begin();
+    final Object created = new JPAProcessorImpl(mockChangeSetContext(em))
+        .process(mockPostUriInfo(IdentityKeyOrder.class), new HashMap<String, Object>());
+    assertEquals(Long.valueOf(9L), ((IdentityKeyOrder) created).getId());
+    ODataJPAChangeJournalContext.commit();
+
+    EasyMock.verify(em);
+    assertEquals(key(9L), journal.getChanges(ENTITY_SET_NAME, token).get(0).getKey());
+  }
+
+  private ODataJPAContext mockChangeSetContext(final EntityManager em) {
+    ODataJPATransaction transaction = EasyMock.createMock(ODataJPATransaction.class);
+    EasyMock.expect(transaction.isActive()).andStubReturn(true);
+    EasyMock.replay(transaction);
+    ODataContext odataContext = EasyMock.createMock(ODataContext.class);
+    EasyMock.expect(odataContext.getServiceFactory()).andStubReturn(EasyMock.createNiceMock(ODataServiceFactory.class));
+    EasyMock.replay(odataContext);
+    ODataJPAContext context = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(context.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(context.getChangeJournal()).andStubReturn(journal);
+    EasyMock.expect(context.getODataJPATransaction()).andStubReturn(transaction);
+    EasyMock.expect(context.getODataContext()).andStubReturn(odataContext);
+    EasyMock.replay(context);
+    return context;
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private void expectMetamodel(final EntityManager em, final Class<?> jpaType) throws NoSuchFieldException {
+    SingularAttribute idAttribute = EasyMock.createMock(SingularAttribute.class);
+    EasyMock.expect(idAttribute.isId()).andStubReturn(true);
+    EasyMock.expect(idAttribute.getJavaMember()).andStubReturn(jpaType.getDeclaredField("id"));
+    EasyMock.replay(idAttribute);
+    EntityType entityType = EasyMock.createMock(EntityType.class);
+    EasyMock.expect(entityType.getSingularAttributes()).andStubReturn(Collections.singleton(idAttribute));
+    EasyMock.replay(entityType);
+    Metamodel metamodel = EasyMock.createMock(Metamodel.class);
+    EasyMock.expect(metamodel.entity(jpaType)).andStubReturn(entityType);
+    EasyMock.replay(metamodel);
+    EasyMock.expect(em.getMetamodel()).andStubReturn(metamodel);
+  }
+
+  private void expectQuery(final EntityManager em, final String jpql, final List<Object> result) {
+    Query query = EasyMock.createNiceMock(Query.class);
+    EasyMock.expect(query.getResultList()).andReturn(result);
+    EasyMock.replay(query);
+    EasyMock.expect(em.createQuery(jpql)).andReturn(query);
+  }
+
+  private ODataJPAContext mockContext(final EntityManager em, final int pageSize, final Capture<JPAPaging> paging) {
+    ODataJPAContext context = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(context.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(context.getPageSize()).andStubReturn(pageSize);
+    EasyMock.expect(context.getChangeJournal()).andStubReturn(journal);
+    context.setPaging(EasyMock.capture(paging));
+    EasyMock.expectLastCall().anyTimes();
+    EasyMock.replay(context);
+    return context;
+  }
+
+  private GetEntitySetUriInfo mockUriInfo(final EdmEntityType entityType, final String token) throws EdmException {
+    return mockUriInfo(entityType, token, null);
+  }
+
+  private GetEntitySetUriInfo mockUriInfo(final EdmEntityType entityType, final String token,
+      final List<ArrayList<NavigationPropertySegment>> expand) throws EdmException {
+    EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(entitySet.getName()).andStubReturn(ENTITY_SET_NAME);
+    EasyMock.expect(entitySet.getEntityType()).andStubReturn(entityType);
+    EasyMock.replay(entitySet);
+    Map<String, String> customQueryOptions = new HashMap<String, String>();
+    customQueryOptions.put("!deltatoken", token);
+    UriInfo uriInfo = EasyMock.createNiceMock(UriInfo.class);
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(entitySet);
+    EasyMock.expect(uriInfo.getCustomQueryOptions()).andStubReturn(customQueryOptions);
+    EasyMock.expect(uriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.expect(uriInfo.getExpand()).andStubReturn(expand);
+    EasyMock.replay(uriInfo);
+    return uriInfo;
+  }
+
+  private EdmEntityType mockEntityType(final String keyInternalName) throws EdmException {
+    JPAEdmMappingImpl keyMapping = null;
+    if (keyInternalName != null) {
+      keyMapping = new JPAEdmMappingImpl();
+      keyMapping.setInternalName(keyInternalName);
+    }
+    EdmSimpleType keyType = EasyMock.createMock(EdmSimpleType.class);
+    EasyMock.expect(keyType.getKind()).andStubReturn(EdmTypeKind.SIMPLE);
+    EasyMock.replay(keyType);
+    EdmProperty keyProperty = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(keyProperty.getName()).andStubReturn("Id");
+    EasyMock.expect(keyProperty.getMapping()).andStubReturn(keyMapping);
+    EasyMock.expect(keyProperty.getType()).andStubReturn(keyType);
+    EasyMock.replay(keyProperty);
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName("Order");
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(keyProperty));
+    EasyMock.expect(entityType.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(entityType);
+    return entityType;
+  }
+
+  private PostUriInfo mockPostUriInfo(final Class<?> jpaType) throws EdmException {
+    JPAEdmMappingImpl keyMapping = new JPAEdmMappingImpl();
+    keyMapping.setInternalName("id");
+    EdmSimpleType keyType = EasyMock.createMock(EdmSimpleType.class);
+    EasyMock.expect(keyType.getKind()).andStubReturn(EdmTypeKind.SIMPLE);
+    EasyMock.replay(keyType);
+    EdmProperty keyProperty = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(keyProperty.getName()).andStubReturn("Id");
+    EasyMock.expect(keyProperty.getMapping()).andStubReturn(keyMapping);
+    EasyMock.expect(keyProperty.getType()).andStubReturn(keyType);
+    EasyMock.replay(keyProperty);
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(jpaType.getSimpleName());
+    mapping.setJPAType(jpaType);
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getMapping()).andStubReturn(mapping);
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(keyProperty));
+    EasyMock.expect(entityType.getKeyPropertyNames()).andStubReturn(Collections.singletonList("Id"));
+    EasyMock.expect(entityType.getPropertyNames()).andStubReturn(Collections.<String> emptyList());
+    EasyMock.expect(entityType.getNavigationPropertyNames()).andStubReturn(Collections.<String> emptyList());
+    EasyMock.replay(entityType);
+    EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(entitySet.getName()).andStubReturn(ENTITY_SET_NAME);
+    EasyMock.expect(entitySet.getEntityType()).andStubReturn(entityType);
+    EasyMock.replay(entitySet);
+    UriInfo uriInfo = EasyMock.createNiceMock(UriInfo.class);
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(entitySet);
+    EasyMock.replay(uriInfo);
+    return uriInfo;
+  }
+
+  private NavigationPropertySegment mockSegment(final String name, final String internalName,
+      final EdmEntityType targetType) throws EdmException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmNavigationProperty navigationProperty = EasyMock.createMock(EdmNavigationProperty.class);
+    EasyMock.expect(navigationProperty.getName()).andStubReturn(name);
+    EasyMock.expect(navigationProperty.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(navigationProperty);
+    EdmEntitySet targetEntitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(targetEntitySet.getEntityType()).andStubReturn(targetType);
+    EasyMock.replay(targetEntitySet);
+    NavigationPropertySegment segment = EasyMock.createMock(NavigationPropertySegment.class);
+    EasyMock.expect(segment.getNavigationProperty()).andStubReturn(navigationProperty);
+    EasyMock.expect(segment.getTargetEntitySet()).andStubReturn(targetEntitySet);
+    EasyMock.replay(segment);
+    return segment;
+  }
+
+  private static Map<String, Object> key(final long id) {
+    return Collections.<String, Object> singletonMap("Id", id);
+  }
+
+  private static ODataJPAChangeJournalContext.KeyProvider keyProvider(final long id) {
+    return new ODataJPAChangeJournalContext.KeyProvider() {
+      @Override
+      public Map<String, Object> getKey() {
+        return key(id);
+      }
+    };
+  }
+
+  public static class Order {
+    private final Long id;
+
+    public Order(final Long id) {
+      this.id = id;
+    }
+
+    public Long getId() {
+      return id;
+    }
+  }
+
+  public static class GeneratedKeyOrder {
+    private Long id;
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(final Long id) {
+      this.id = id;
+    }
+  }
+
+  public static class IdentityKeyOrder {
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(final Long id) {
+      this.id = id;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.odata2.api.annotation.edm.EdmFunctionImport;
+import org.apache.olingo.odata2.api.annotation.edm.EdmFunctionImport.ReturnType;
+import org.apache.olingo.odata2.api.annotation.edm.EdmFunctionImport.ReturnType.Type;
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmLiteral;
+import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
+import org.apache.olingo.odata2.api.edm.EdmParameter;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmType;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
+import org.apache.olingo.odata2.api.edm.provider.Mapping;
+import org.apache.olingo.odata2.api.processor.ODataContext;
+import org.apache.olingo.odata2.api.uri.info.GetFunctionImportUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JPAProcessorImplFunctionTest {
+
+  private static int calls;
+
+  @Before
+  public void setUp() {
+    calls = 0;
+  }
+
+  @Test
+  public void cachedResultSharedWithinScope() throws Exception {
+    final String function = "cachedSimple";
+    final List<Object> first = process(context("pu-simple", "alice", null), function, EdmTypeKind.SIMPLE);
+    assertEquals(first, process(context("pu-simple", "alice", null), function, EdmTypeKind.SIMPLE));
+    assertEquals(1, calls);
+
+    process(context("pu-simple", "bob", null), function, EdmTypeKind.SIMPLE);
+    assertEquals(2, calls);
+  }
+
+  @Test
+  public void cachedResultSharedPerAuthorization() throws Exception {
+    final String function = "cachedSimple";
+    process(context("pu-authorization", null, "Basic YWxpY2U6"), function, EdmTypeKind.SIMPLE);
+    process(context("pu-authorization", null, "Basic YWxpY2U6"), function, EdmTypeKind.SIMPLE);
+    assertEquals(1, calls);
+
+    process(context("pu-authorization", null, "Basic Ym9iOg=="), function, EdmTypeKind.SIMPLE);
+    assertEquals(2, calls);
+  }
+
+  @Test
+  public void entityResultNotCached() throws Exception {
+    process(context("pu-entity", "alice", null), "cachedEntity", EdmTypeKind.ENTITY);
+    process(context("pu-entity", "alice", null), "cachedEntity", EdmTypeKind.ENTITY);
+    assertEquals(2, calls);
+  }
+
+  private List<Object> process(final ODataJPAContext context, final String functionName,
+      final EdmTypeKind returnTypeKind) throws Exception {
+    return new JPAProcessorImpl(context).process(uriInfo(functionName, returnTypeKind));
+  }
+
+  private ODataJPAContext context(final String persistenceUnitName, final Object scope,
+      final String authorization) {
+    ODataContext odataContext = EasyMock.createNiceMock(ODataContext.class);
+    EasyMock.expect(odataContext.getRequestHeader(HttpHeaders.AUTHORIZATION)).andStubReturn(authorization);
+    EasyMock.replay(odataContext);
+
+    ODataJPAContext context = EasyMock.createNiceMock(ODataJPAContext.class);
+    EasyMock.expect(context.getPersistenceUnitName()).andStubReturn(persistenceUnitName);
+    EasyMock.expect(context.getFunctionResultScope()).andStubReturn(scope);
+    EasyMock.expect(context.getODataContext()).andStubReturn(odataContext);
+    EasyMock.replay(context);
+    return context;
+  }
+
+  private GetFunctionImportUriInfo uriInfo(final String functionName, final EdmTypeKind returnTypeKind)
+      throws EdmException {
+    JPAEdmMappingImpl parameterMapping = new JPAEdmMappingImpl();
+    parameterMapping.setJPAType(String.class);
+    EdmParameter parameter = EasyMock.createMock(EdmParameter.class);
+    EasyMock.expect(parameter.getMapping()).andStubReturn(parameterMapping);
+    EasyMock.expect(parameter.getFacets()).andStubReturn(null);
+    EasyMock.replay(parameter);
+
+    EdmType type = EasyMock.createMock(EdmType.class);
+    EasyMock.expect(type.getKind()).andStubReturn(returnTypeKind);
+    EasyMock.replay(type);
+    EdmTyped returnType = EasyMock.createMock(EdmTyped.class);
+    EasyMock.expect(returnType.getMultiplicity()).andStubReturn(EdmMultiplicity.ONE);
+    EasyMock.expect(returnType.getType()).andStubReturn(type);
+    EasyMock.replay(returnType);
+
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setJPAType(Functions.class);
+    ((Mapping) mapping).setInternalName(functionName);
+    org.apache.olingo.odata2.api.edm.EdmFunctionImport functionImport =
+        EasyMock.createMock(org.apache.olingo.odata2.api.edm.EdmFunctionImport.class);
+    EasyMock.expect(functionImport.getMapping()).andStubReturn(mapping);
+    EasyMock.expect(functionImport.getParameterNames()).andStubReturn(Collections.singletonList("Name"));
+    EasyMock.expect(functionImport.getParameter("Name")).andStubReturn(parameter);
+    EasyMock.expect(functionImport.getReturnType()).andStubReturn(returnType);
+    EasyMock.replay(functionImport);
+
+    GetFunctionImportUriInfo uriInfo = EasyMock.createMock(GetFunctionImportUriInfo.class);
+    EasyMock.expect(uriInfo.getFunctionImport()).andStubReturn(functionImport);
+    EasyMock.expect(uriInfo.getFunctionImportParameters()).andStubReturn(Collections.singletonMap("Name",
+        new EdmLiteral(EdmSimpleTypeKind.String.getEdmSimpleTypeInstance(), "x")));
+    EasyMock.replay(uriInfo);
+    return uriInfo;
+  }
+
+  public static class Functions {
+
+    @EdmFunctionImport(returnType = @ReturnType(type = Type.SIMPLE), cacheTimeToLive = 60000)
+    public String cachedSimple(final String name) {
+      return name + ++calls;
+    }
+
+    @EdmFunctionImport(returnType = @ReturnType(type = Type.ENTITY), cacheTimeToLive = 60000)
+    public Object cachedEntity(final String name) {
+      calls++;
+      return new Object();
+    }
+  }
+}
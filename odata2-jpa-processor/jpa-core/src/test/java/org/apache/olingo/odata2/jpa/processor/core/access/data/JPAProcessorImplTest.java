@@ -34,6 +34,7 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
+import javax.persistence.NonUniqueResultException;
 import javax.persistence.Parameter;
 import javax.persistence.Query;
 import javax.persistence.TemporalType;
@@ -69,10 +70,12 @@ import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
+import org.apache.olingo.odata2.jpa.processor.api.access.JPARowCountEstimator;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.core.common.ODataJPATestConstants;
 import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
@@ -128,6 +131,72 @@ public class JPAProcessorImplTest {
     }
   }
 
+  @Test
+  public void testProcessGetEntitySetUriInfoTopZeroWithInlineCount() throws Exception {
+    Capture<JPAPaging> paging = new Capture<JPAPaging>();
+    objJPAProcessorImpl = new JPAProcessorImpl(getLocalmockODataJPAContext(paging));
+
+    UriInfo objUriInfo = EasyMock.createMock(UriInfo.class);
+    EasyMock.expect(objUriInfo.getStartEntitySet()).andStubReturn(getLocalEdmEntitySet());
+    EasyMock.expect(objUriInfo.getTargetEntitySet()).andStubReturn(getLocalEdmEntitySet());
+    EasyMock.expect(objUriInfo.getSelect()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getExpand()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getOrderBy()).andStubReturn(getOrderByExpression());
+    EasyMock.expect(objUriInfo.getTop()).andStubReturn(0);
+    EasyMock.expect(objUriInfo.getSkip()).andStubReturn(getSkip());
+    EasyMock.expect(objUriInfo.getSkipToken()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getInlineCount()).andStubReturn(InlineCount.ALLPAGES);
+    EasyMock.expect(objUriInfo.getFilter()).andStubReturn(getFilter());
+    EasyMock.expect(objUriInfo.getFunctionImport()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getCustomQueryOptions()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.replay(objUriInfo);
+
+    Assert.assertTrue(objJPAProcessorImpl.process((GetEntitySetUriInfo) objUriInfo).isEmpty());
+    // the count queried on the database is written as inline count of the empty page
+    Assert.assertEquals(Integer.valueOf(11), ((JPAPage) paging.getValue()).getInlineCount());
+    Assert.assertTrue(paging.getValue().getPagedEntities().isEmpty());
+  }
+
+  @Test
+  public void testProcessCountWithRowCountEstimator() throws Exception {
+    JPARowCountEstimator estimator = EasyMock.createMock(JPARowCountEstimator.class);
+    EasyMock.expect(estimator.getRowCount(EasyMock.anyObject(EdmEntitySet.class))).andReturn(Long.valueOf(42));
+    EasyMock.replay(estimator);
+    objJPAProcessorImpl = new JPAProcessorImpl(
+        getLocalmockODataJPAContext(new Capture<JPAPaging>(), estimator, getLocalEntityManager()));
+
+    Assert.assertEquals(42, objJPAProcessorImpl.process((GetEntitySetCountUriInfo) getCountUriInfo(true, null)));
+    EasyMock.verify(estimator);
+  }
+
+  @Test
+  public void testProcessInlineCountWithoutRowCountEstimator() throws Exception {
+    // the estimator must not be called for $inlinecount=allpages
+    JPARowCountEstimator estimator = EasyMock.createMock(JPARowCountEstimator.class);
+    EasyMock.replay(estimator);
+    Capture<JPAPaging> paging = new Capture<JPAPaging>();
+    objJPAProcessorImpl = new JPAProcessorImpl(getLocalmockODataJPAContext(paging, estimator, getLocalEntityManager()));
+
+    Assert.assertTrue(objJPAProcessorImpl.process((GetEntitySetUriInfo) getCountUriInfo(false, 0)).isEmpty());
+    Assert.assertEquals(Integer.valueOf(11), ((JPAPage) paging.getValue()).getInlineCount());
+    Assert.assertEquals(11, objJPAProcessorImpl.process((GetEntitySetCountUriInfo) getCountUriInfo(false, null)));
+    EasyMock.verify(estimator);
+  }
+
+  @Test(expected = ODataJPARuntimeException.class)
+  public void testProcessCountNotUnique() throws Exception {
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.getSingleResult()).andThrow(new NonUniqueResultException());
+    EasyMock.replay(query);
+    EntityManager em = EasyMock.createNiceMock(EntityManager.class);
+    EasyMock.expect(em.createQuery("SELECT COUNT ( E1 ) FROM SalesOrderHeaders E1")).andStubReturn(query);
+    EasyMock.replay(em);
+    objJPAProcessorImpl = new JPAProcessorImpl(getLocalmockODataJPAContext(new Capture<JPAPaging>(), null, em));
+
+    objJPAProcessorImpl.process(getEntitySetCountUriInfo());
+  }
+
   @Test
   public void testProcessDeleteUriInfo() {
     try {
@@ -222,6 +291,26 @@ public class JPAProcessorImplTest {
     return objUriInfo;
   }
 
+  private UriInfo getCountUriInfo(final boolean count, final Integer top) {
+    UriInfo objUriInfo = EasyMock.createMock(UriInfo.class);
+    EasyMock.expect(objUriInfo.getStartEntitySet()).andStubReturn(getLocalEdmEntitySet());
+    EasyMock.expect(objUriInfo.getTargetEntitySet()).andStubReturn(getLocalEdmEntitySet());
+    EasyMock.expect(objUriInfo.getSelect()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getExpand()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getOrderBy()).andStubReturn(getOrderByExpression());
+    EasyMock.expect(objUriInfo.getTop()).andStubReturn(top);
+    EasyMock.expect(objUriInfo.getSkip()).andStubReturn(getSkip());
+    EasyMock.expect(objUriInfo.getSkipToken()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getInlineCount()).andStubReturn(count ? InlineCount.NONE : InlineCount.ALLPAGES);
+    EasyMock.expect(objUriInfo.isCount()).andStubReturn(count);
+    EasyMock.expect(objUriInfo.getFilter()).andStubReturn(getFilter());
+    EasyMock.expect(objUriInfo.getFunctionImport()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getCustomQueryOptions()).andStubReturn(null);
+    EasyMock.expect(objUriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.replay(objUriInfo);
+    return objUriInfo;
+  }
+
   /**
    * @return
    * @throws EdmException
@@ -285,15 +374,27 @@ public class JPAProcessorImplTest {
   }
 
   private ODataJPAContext getLocalmockODataJPAContext() {
+    return getLocalmockODataJPAContext(new Capture<JPAPaging>());
+  }
+
+  private ODataJPAContext getLocalmockODataJPAContext(final Capture<JPAPaging> paging) {
+    return getLocalmockODataJPAContext(paging, null, getLocalEntityManager());
+  }
+
+  private ODataJPAContext getLocalmockODataJPAContext(final Capture<JPAPaging> paging,
+      final JPARowCountEstimator estimator, final EntityManager em) {
     ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
     EasyMock.expect(odataJPAContext.getPersistenceUnitName()).andStubReturn("salesorderprocessing");
     EasyMock.expect(odataJPAContext.getEntityManagerFactory()).andStubReturn(mockEntityManagerFactory());
     EasyMock.expect(odataJPAContext.getODataJPATransaction()).andStubReturn(getLocalJpaTransaction());
     EasyMock.expect(odataJPAContext.getODataContext()).andStubReturn(getLocalODataContext());
-    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(getLocalEntityManager());
+    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(em);
     EasyMock.expect(odataJPAContext.getPageSize()).andReturn(10).anyTimes();
-    odataJPAContext.setPaging(EasyMock.isA(JPAPaging.class));
-    EasyMock.expectLastCall();
+    EasyMock.expect(odataJPAContext.getRowCountEstimator()).andStubReturn(estimator);
+    EasyMock.expect(odataJPAContext.getExpandFetchDepth()).andStubReturn(0);
+    EasyMock.expect(odataJPAContext.getChangeJournal()).andStubReturn(null);
+    odataJPAContext.setPaging(EasyMock.capture(paging));
+    EasyMock.expectLastCall().anyTimes();
     EasyMock.replay(odataJPAContext);
     return odataJPAContext;
   }
@@ -518,7 +619,7 @@ public class JPAProcessorImplTest {
 
   private Query getQueryForSelectCount() {
     Query query = EasyMock.createMock(Query.class);
-    EasyMock.expect(query.getResultList()).andStubReturn(getResultListForSelectCount());
+    EasyMock.expect(query.getSingleResult()).andStubReturn(Long.valueOf(11));
     EasyMock.replay(query);
     return query;
   }
@@ -529,12 +630,6 @@ public class JPAProcessorImplTest {
     return list;
   }
 
-  private List<?> getResultListForSelectCount() {
-    List<Object> list = new ArrayList<Object>();
-    list.add(new Long(11));
-    return list;
-  }
-
   private class Address {
     private String soId = "12";
 
@@ -20,6 +20,7 @@ package org.apache.olingo.odata2.jpa.processor.core.access.data;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -55,6 +56,7 @@ import org.apache.olingo.odata2.jpa.processor.core.common.ODataJPATestConstants;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataContextMock;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataJPAContextMock;
 import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
@@ -221,6 +223,51 @@ public class JPAQueryBuilderTest {
     }
   }
   
+  @Test
+  public void buildGetEntitySetProjectionTest() throws Exception {
+    Capture<String> jpql = new Capture<String>();
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.getMetamodel()).andStubReturn(null);
+    EasyMock.expect(em.createQuery(EasyMock.capture(jpql))).andReturn(EasyMock.createMock(Query.class));
+    ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
+    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(odataJPAContext.getPageSize()).andStubReturn(0);
+    EasyMock.replay(em, odataJPAContext);
+
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName("SalesOrderHeader");
+    EdmEntityType edmEntityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(edmEntityType.getMapping()).andStubReturn(mapping);
+    EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
+    UriInfo uriInfo = EasyMock.createNiceMock(UriInfo.class);
+    EasyMock.expect(uriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.replay(edmEntityType, edmEntitySet, uriInfo);
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    properties.add(mockProperty("soId"));
+    properties.add(mockProperty("buyerName"));
+
+    assertNotNull(new JPAQueryBuilder(odataJPAContext).build((GetEntitySetUriInfo) uriInfo, properties));
+    assertEquals("SELECT E1.soId, E1.buyerName FROM SalesOrderHeader E1", jpql.getValue());
+  }
+
+  @Test
+  public void buildGetEntitySetProjectionWithListenerTest() throws Exception {
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    properties.add(mockProperty("soId"));
+    assertNull(builder.build((GetEntitySetUriInfo) mockURIInfoWithListener(false), properties));
+  }
+
+  private EdmProperty mockProperty(final String internalName) throws EdmException {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmProperty property = EasyMock.createMock(EdmProperty.class);
+    EasyMock.expect(property.getMapping()).andStubReturn(mapping);
+    EasyMock.replay(property);
+    return property;
+  }
+
   private UriInfo mockURIInfoWithListener(boolean isNavigationEnabled) throws EdmException {
     UriInfo uriInfo = EasyMock.createMock(UriInfo.class);
     if (isNavigationEnabled) {
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPARowCountCacheTest {
+
+  @Test
+  public void cachedRowCount() throws Exception {
+    JPARowCountCache cache = new JPARowCountCache(60000);
+    EdmEntitySet entitySet = mockEntitySet("SalesOrders");
+
+    assertNull(cache.getRowCount(entitySet));
+    cache.setRowCount(entitySet, 2000000);
+    assertEquals(Long.valueOf(2000000), cache.getRowCount(entitySet));
+    assertNull(cache.getRowCount(mockEntitySet("SalesOrderItems")));
+  }
+
+  @Test
+  public void staleRowCount() throws Exception {
+    JPARowCountCache cache = new JPARowCountCache(-1);
+    EdmEntitySet entitySet = mockEntitySet("SalesOrders");
+
+    cache.setRowCount(entitySet, 42);
+    assertNull(cache.getRowCount(entitySet));
+  }
+
+  private EdmEntitySet mockEntitySet(final String name) throws EdmException {
+    EdmEntityContainer container = EasyMock.createMock(EdmEntityContainer.class);
+    EasyMock.expect(container.getName()).andStubReturn("Container");
+    EasyMock.replay(container);
+    EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(entitySet.getName()).andStubReturn(name);
+    EasyMock.expect(entitySet.getEntityContainer()).andStubReturn(container);
+    EasyMock.replay(entitySet);
+    return entitySet;
+  }
+}
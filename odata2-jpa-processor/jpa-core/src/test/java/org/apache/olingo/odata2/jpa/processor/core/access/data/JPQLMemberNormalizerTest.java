@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPQLMemberNormalizerTest {
+
+  @Test
+  public void withoutMemberPaths() {
+    final String jpql = "SELECT E1 FROM Customer E1 WHERE E1.name = 'a.b.c' ORDER BY E1.id";
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.replay(em);
+    assertEquals(jpql, JPQLMemberNormalizer.normalize(em, jpql));
+  }
+
+  @Test
+  public void memberPath() {
+    assertEquals("SELECT DISTINCT E1 FROM Customer E1 JOIN E1.address R1 WHERE R1.city = 'E1.address.city'",
+        JPQLMemberNormalizer.normalize(mockEntityManager(null),
+            "SELECT E1 FROM Customer E1 WHERE E1.address.city = 'E1.address.city'"));
+  }
+
+  @Test
+  public void memberPathWithoutWhere() {
+    assertEquals("SELECT DISTINCT R1.city FROM Customer E1 JOIN E1.address R1",
+        JPQLMemberNormalizer.normalize(mockEntityManager(null), "SELECT E1.address.city FROM Customer E1"));
+  }
+
+  @Test
+  public void multiLevelMemberPaths() {
+    assertEquals("SELECT DISTINCT E1 FROM Customer E1 JOIN E1.order R1 JOIN R1.address R2 "
+        + "WHERE (R2.city = 'x' AND R1.id = 2) ORDER BY R2.zip",
+        JPQLMemberNormalizer.normalize(mockEntityManager(null),
+            "SELECT E1 FROM Customer E1 WHERE (E1.order.address.city = 'x' AND E1.order.id = 2)"
+                + " ORDER BY E1.order.address.zip"));
+  }
+
+  @Test
+  public void existingJoin() {
+    assertEquals("SELECT DISTINCT R1 FROM SalesOrderHeader E1 JOIN E1.items R1 JOIN E1.customer R2 "
+        + "JOIN R1.product R3 WHERE R2.name = 'x' ORDER BY R3.name, R1.id",
+        JPQLMemberNormalizer.normalize(mockEntityManager(null),
+            "SELECT R1 FROM SalesOrderHeader E1 JOIN E1.items R1 WHERE E1.customer.name = 'x'"
+                + " ORDER BY E1.items.product.name, R1.id"));
+  }
+
+  @Test
+  public void embeddedAttribute() {
+    final String jpql = "SELECT E1 FROM Employee E1 WHERE E1.location.city.name = 'x'";
+    assertEquals(jpql, JPQLMemberNormalizer.normalize(mockEntityManager("location"), jpql));
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private EntityManager mockEntityManager(final String embeddedAttributeName) {
+    Set attributes = new HashSet();
+    if (embeddedAttributeName != null) {
+      Attribute<?, ?> attribute = EasyMock.createMock(Attribute.class);
+      EasyMock.expect(attribute.getName()).andStubReturn(embeddedAttributeName);
+      EasyMock.expect(attribute.getPersistentAttributeType())
+          .andStubReturn(Attribute.PersistentAttributeType.EMBEDDED);
+      EasyMock.replay(attribute);
+      attributes.add(attribute);
+    }
+    EntityType<?> entityType = EasyMock.createMock(EntityType.class);
+    EasyMock.expect(entityType.getName()).andStubReturn("Employee");
+    EasyMock.expect(entityType.getAttributes()).andStubReturn(attributes);
+    EasyMock.replay(entityType);
+    Metamodel metamodel = EasyMock.createMock(Metamodel.class);
+    Set entities = Collections.singleton(entityType);
+    EasyMock.expect(metamodel.getEntities()).andStubReturn(entities);
+    EasyMock.replay(metamodel);
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.getMetamodel()).andStubReturn(metamodel);
+    EasyMock.replay(em);
+    return em;
+  }
+}
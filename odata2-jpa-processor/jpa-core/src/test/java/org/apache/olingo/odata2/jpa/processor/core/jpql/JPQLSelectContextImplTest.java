@@ -32,9 +32,11 @@ import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmMapping;
 import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.edm.EdmType;
+import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.uri.KeyPredicate;
 import org.apache.olingo.odata2.api.uri.SelectItem;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionVisitor;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
 import org.apache.olingo.odata2.api.uri.expression.OrderExpression;
@@ -350,6 +352,11 @@ public class JPQLSelectContextImplTest {
     EasyMock.expect(filterExpression.getKind()).andStubReturn(ExpressionKind.FILTER);
     EasyMock.expect(filterExpression.getExpression()).andStubReturn(
         getPropertyExpressionMockedObj(leftOperandExpKind, propertyName));
+    try {
+      EasyMock.expect(filterExpression.accept(EasyMock.isA(ExpressionVisitor.class))).andStubReturn(null);
+    } catch (ODataException e) {
+      fail(e.getMessage());
+    }
     EasyMock.replay(filterExpression);
     return filterExpression;
   }
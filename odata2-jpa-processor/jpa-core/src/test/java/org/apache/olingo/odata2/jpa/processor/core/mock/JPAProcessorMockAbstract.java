@@ -26,6 +26,7 @@ import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityLinkUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetCountUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksCountUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
@@ -83,6 +84,12 @@ public abstract class JPAProcessorMockAbstract implements JPAProcessor {
     return null;
   }
 
+  @Override
+  public long process(GetEntitySetLinksCountUriInfo uriParserResultView) throws ODataJPAModelException,
+      ODataJPARuntimeException {
+    return 0;
+  }
+
   @Override
   public Object process(PostUriInfo createView, InputStream content, String requestContentType)
       throws ODataJPAModelException, ODataJPARuntimeException {
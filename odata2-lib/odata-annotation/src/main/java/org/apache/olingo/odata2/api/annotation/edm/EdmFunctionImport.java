@@ -96,6 +96,18 @@ public @interface EdmFunctionImport {
    */
   HttpMethod httpMethod() default HttpMethod.GET;
 
+  /**
+   * Define how long (in milliseconds) the result of a call of this function import may be reused
+   * for calls with the same parameters instead of executing the function import again.
+   * Only function imports without side effects should be cached. Results are not shared between callers
+   * of different scopes (see the function result scope of the JPA processor), and results of function imports
+   * returning entities are never cached, as they are managed by the persistence context which read them.
+   * If not set the function import is executed on every call.
+   * 
+   * @return time to live of cached results in milliseconds; <code>0</code> for no caching
+   */
+  long cacheTimeToLive() default 0;
+
   /**
    * Defines additional documentation for this function import.
    * 
@@ -18,7 +18,9 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.api.ep;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 import java.util.Map;
 
@@ -34,8 +36,11 @@ import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.edm.provider.DataServices;
 import org.apache.olingo.odata2.api.edm.provider.Schema;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.EntryPublisher;
+import org.apache.olingo.odata2.api.ep.feed.FeedPageFetcher;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
@@ -135,6 +140,40 @@ public final class EntityProvider {
      */
     ODataResponse writeBinary(String mimeType, byte[] data) throws EntityProviderException;
 
+    /**
+     * Write binary content with content type header set to given <code>mime type</code> parameter.
+     * The content is not buffered but streamed from the given {@link InputStream} into the response.
+     * 
+     * @param mimeType mime type which is written and used as content type header information.
+     * @param data stream which is written to {@link ODataResponse}; it is closed after the response is written.
+     * @return response object resulting {@link ODataResponse} with written binary content.
+     * @throws EntityProviderException if writing of data (serialization) fails
+     */
+    ODataResponse writeBinaryStream(String mimeType, InputStream data) throws EntityProviderException;
+
+    /**
+     * Write binary content with content type header set to given <code>mime type</code> parameter.
+     * The content is streamed from the given channel; if it is a {@link java.nio.channels.FileChannel},
+     * the response supports byte ranges and may be transferred without copying it through the heap.
+     * 
+     * @param mimeType mime type which is written and used as content type header information.
+     * @param data channel which is written to {@link ODataResponse}; it is closed after the response is written.
+     * @return response object resulting {@link ODataResponse} with written binary content.
+     * @throws EntityProviderException if writing of data (serialization) fails
+     */
+    ODataResponse writeBinaryChannel(String mimeType, ReadableByteChannel data) throws EntityProviderException;
+
+    /**
+     * Write the content of the given file with content type header set to given <code>mime type</code> parameter.
+     * The response supports byte ranges and may be transferred without copying it through the heap.
+     * 
+     * @param mimeType mime type which is written and used as content type header information.
+     * @param file file whose content is written to {@link ODataResponse}.
+     * @return response object resulting {@link ODataResponse} with written binary content.
+     * @throws EntityProviderException if writing of data (serialization) fails
+     */
+    ODataResponse writeBinaryFile(String mimeType, File file) throws EntityProviderException;
+
     /**
      * Write given <code>data</code> (which is given in form of a {@link List} with a {@link Map} for each entity. Such
      * a {@link Map} contains all properties [as <code>property name</code> to <code>property value</code> mapping] for
@@ -154,6 +193,23 @@ public final class EntityProvider {
     ODataResponse writeFeed(String contentType, EdmEntitySet entitySet, List<Map<String, Object>> data,
         EntityProviderWriteProperties properties) throws EntityProviderException;
 
+    /**
+     * Write the entries delivered by the given <code>publisher</code> as feed in the specified
+     * format (given as <code>contentType</code>) based on given <code>entity data model for an entity set</code>.
+     * The content of the returned response is produced lazily while it is read; entries are requested from the
+     * publisher in small portions so that at most a few of them are held in memory at any time.
+     * 
+     * @param contentType format in which the feed should be written
+     * @param entitySet entity data model for given entity data set
+     * @param publisher source of the entries, each in form of a {@link Map} as for
+     * {@link #writeFeed(String, EdmEntitySet, List, EntityProviderWriteProperties)}
+     * @param properties additional properties necessary for writing of data
+     * @return resulting {@link ODataResponse} with the feed content as stream which must be closed after usage
+     * @throws EntityProviderException if the writer for the content type could not be created
+     */
+    ODataResponse writePublishedFeed(String contentType, EdmEntitySet entitySet, EntryPublisher publisher,
+        EntityProviderWriteProperties properties) throws EntityProviderException;
+
     /**
      * Write given <code>data</code> (which is given in form of a {@link Map} for which contains all properties
      * as <code>property name</code> to <code>property value</code> mapping) for the entry in the specified
@@ -275,6 +331,37 @@ public final class EntityProvider {
     ODataDeltaFeed readDeltaFeed(String contentType, EdmEntitySet entitySet, InputStream content,
         EntityProviderReadProperties properties) throws EntityProviderException;
 
+    /**
+     * Read (de-serialize) a (delta) data feed from <code>content</code> (as {@link InputStream}) in specified format
+     * (given as <code>contentType</code>) based on <code>entity data model</code> (given as {@link EdmEntitySet})
+     * entry by entry while the returned {@link ODataFeedStream} is iterated.
+     * 
+     * @param contentType format of content in the given input stream.
+     * @param entitySet entity data model for entity set to be read
+     * @param content feed data in form of an {@link InputStream} which contains the data in specified format
+     * @param properties additional properties necessary for reading content from {@link InputStream} into {@link Map}.
+     * @return an {@link ODataFeedStream} object which must be closed after usage
+     * @throws EntityProviderException if reading of data (de-serialization) fails
+     */
+    ODataFeedStream readFeedAsStream(String contentType, EdmEntitySet entitySet, InputStream content,
+        EntityProviderReadProperties properties) throws EntityProviderException;
+
+    /**
+     * Read (de-serialize) a feed and all further pages referenced by next links.
+     * 
+     * @param contentType format of content in the given input stream.
+     * @param entitySet entity data model for entity set to be read
+     * @param content first feed page in form of an {@link InputStream}
+     * @param properties additional properties necessary for reading content from {@link InputStream} into {@link Map}.
+     * @param fetcher retrieves the content of the further pages
+     * @param prefetchPages maximum number of pages read ahead (at least 1)
+     * @return an {@link ODataFeedStream} object over the entries of all pages which must be closed after usage
+     * @throws EntityProviderException if reading of data (de-serialization) fails
+     */
+    ODataFeedStream readPagedFeed(String contentType, EdmEntitySet entitySet, InputStream content,
+        EntityProviderReadProperties properties, FeedPageFetcher fetcher, int prefetchPages)
+        throws EntityProviderException;
+
     /**
      * Reads (de-serializes) data from <code>content</code> (as {@link InputStream})
      * in specified format (given as <code>contentType</code>) based on
@@ -566,6 +653,48 @@ public final class EntityProvider {
     return createEntityProvider().writeBinary(mimeType, data);
   }
 
+  /**
+   * Write binary content with content type header set to given <code>mime type</code> parameter.
+   * The content is not buffered but streamed from the given {@link InputStream} into the response.
+   * 
+   * @param mimeType mime type which is written and used as content type header information.
+   * @param data stream which is written to {@link ODataResponse}; it is closed after the response is written.
+   * @return response object resulting {@link ODataResponse} with written binary content.
+   * @throws EntityProviderException if writing of data (serialization) fails
+   */
+  public static ODataResponse writeBinaryStream(final String mimeType, final InputStream data)
+      throws EntityProviderException {
+    return createEntityProvider().writeBinaryStream(mimeType, data);
+  }
+
+  /**
+   * Write binary content with content type header set to given <code>mime type</code> parameter.
+   * The content is streamed from the given channel; if it is a {@link java.nio.channels.FileChannel},
+   * the response supports byte ranges and may be transferred without copying it through the heap.
+   * 
+   * @param mimeType mime type which is written and used as content type header information.
+   * @param data channel which is written to {@link ODataResponse}; it is closed after the response is written.
+   * @return response object resulting {@link ODataResponse} with written binary content.
+   * @throws EntityProviderException if writing of data (serialization) fails
+   */
+  public static ODataResponse writeBinaryChannel(final String mimeType, final ReadableByteChannel data)
+      throws EntityProviderException {
+    return createEntityProvider().writeBinaryChannel(mimeType, data);
+  }
+
+  /**
+   * Write the content of the given file with content type header set to given <code>mime type</code> parameter.
+   * The response supports byte ranges and may be transferred without copying it through the heap.
+   * 
+   * @param mimeType mime type which is written and used as content type header information.
+   * @param file file whose content is written to {@link ODataResponse}.
+   * @return response object resulting {@link ODataResponse} with written binary content.
+   * @throws EntityProviderException if writing of data (serialization) fails
+   */
+  public static ODataResponse writeBinaryFile(final String mimeType, final File file) throws EntityProviderException {
+    return createEntityProvider().writeBinaryFile(mimeType, file);
+  }
+
   /**
    * Write given <code>data</code> (which is given in form of a {@link List} with a {@link Map} for each entity. Such a
    * {@link Map} contains all properties [as <code>property name</code> to <code>property value</code> mapping] for the
@@ -588,6 +717,26 @@ public final class EntityProvider {
     return createEntityProvider().writeFeed(contentType, entitySet, data, properties);
   }
 
+  /**
+   * Write the entries delivered by the given <code>publisher</code> as feed in the specified
+   * format (given as <code>contentType</code>) based on given <code>entity data model for an entity set</code>.
+   * The content of the returned response is produced lazily while it is read; entries are requested from the
+   * publisher in small portions so that at most a few of them are held in memory at any time.
+   * 
+   * @param contentType format in which the feed should be written
+   * @param entitySet entity data model for given entity data set
+   * @param publisher source of the entries, each in form of a {@link Map} as for
+   * {@link #writeFeed(String, EdmEntitySet, List, EntityProviderWriteProperties)}
+   * @param properties additional properties necessary for writing of data
+   * @return resulting {@link ODataResponse} with the feed content as stream which must be closed after usage
+   * @throws EntityProviderException if the writer for the content type could not be created
+   */
+  public static ODataResponse writePublishedFeed(final String contentType, final EdmEntitySet entitySet,
+      final EntryPublisher publisher, final EntityProviderWriteProperties properties)
+      throws EntityProviderException {
+    return createEntityProvider().writePublishedFeed(contentType, entitySet, publisher, properties);
+  }
+
   /**
    * Write given <code>data</code> (which is given in form of a {@link Map} for which contains all properties
    * as <code>property name</code> to <code>property value</code> mapping) for the entry in the specified
@@ -727,6 +876,51 @@ public final class EntityProvider {
     return createEntityProvider().readDeltaFeed(contentType, entitySet, content, properties);
   }
 
+  /**
+   * Read (de-serialize) a (delta) data feed from <code>content</code> (as {@link InputStream}) in specified format
+   * (given as <code>contentType</code>) based on <code>entity data model</code> (given as {@link EdmEntitySet}).
+   * The entries are read one by one while the returned {@link ODataFeedStream} is iterated so that
+   * large feeds can be processed without holding all entries in memory.
+   * 
+   * @param contentType format of content in the given input stream.
+   * @param entitySet entity data model for entity set to be read
+   * @param content feed data in form of an {@link InputStream} which contains the data in specified format
+   * @param properties additional properties necessary for reading content from {@link InputStream} into {@link Map}.
+   * Must not be null.
+   * @return an {@link ODataFeedStream} object which must be closed after usage
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   */
+  public static ODataFeedStream readFeedAsStream(final String contentType, final EdmEntitySet entitySet,
+      final InputStream content, final EntityProviderReadProperties properties) throws EntityProviderException {
+    return createEntityProvider().readFeedAsStream(contentType, entitySet, content, properties);
+  }
+
+  /**
+   * Read (de-serialize) a feed from <code>content</code> and all further pages referenced by its next links.
+   * Pages are fetched with the given <code>fetcher</code> and read in a background thread, up to
+   * <code>prefetchPages</code> pages ahead of the entry the caller is processing.
+   * The entries of all pages are returned through one {@link ODataFeedStream}; its feed metadata contains
+   * the inline count of the first page and the next and delta link of the page which is currently iterated.
+   * The background thread waits for the caller until the stream is closed, unless a
+   * {@link EntityProviderReadProperties#getPageHandOverTimeout() page hand-over timeout} is set.
+   * 
+   * @param contentType format of content in the given input stream.
+   * @param entitySet entity data model for entity set to be read
+   * @param content first feed page in form of an {@link InputStream}
+   * @param properties additional properties necessary for reading content from {@link InputStream} into {@link Map}.
+   * Must not be null.
+   * @param fetcher retrieves the content of the pages referenced by next links
+   * @param prefetchPages maximum number of pages read ahead (at least 1)
+   * @return an {@link ODataFeedStream} object over the entries of all pages which must be closed after usage
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   */
+  public static ODataFeedStream readPagedFeed(final String contentType, final EdmEntitySet entitySet,
+      final InputStream content, final EntityProviderReadProperties properties, final FeedPageFetcher fetcher,
+      final int prefetchPages) throws EntityProviderException {
+    return createEntityProvider().readPagedFeed(contentType, entitySet, content, properties, fetcher,
+        prefetchPages);
+  }
+
   /**
    * Read (de-serialize) data from <code>content</code> (as {@link InputStream}) in specified format (given as
    * <code>contentType</code>)
@@ -53,6 +53,8 @@ public class EntityProviderReadProperties {
   final private Map<String, Object> typeMappings;
   /** whether the constraints expressed in properties' facets are validated */
   private boolean validatingFacets = true;
+  /** maximum time in milliseconds a paged feed stream waits for the caller to take a page; 0 for no limit */
+  private long pageHandOverTimeout;
 
   final private Map<String, String> validatedPrefix2NamespaceUri;
 
@@ -97,6 +99,19 @@ public class EntityProviderReadProperties {
     return validatingFacets;
   }
 
+  /**
+   * <p>Gets the maximum time in milliseconds the background thread of a paged feed stream waits for the caller
+   * to take the next page.</p>
+   * <p>If the caller neither takes a page nor closes the stream in time, the background thread stops reading
+   * and the caller gets an exception instead of the further pages. With <code>0</code>, the default, the
+   * background thread waits until the stream is closed.</p>
+   * @see EntityProvider#readPagedFeed(String, org.apache.olingo.odata2.api.edm.EdmEntitySet,
+   * java.io.InputStream, EntityProviderReadProperties, org.apache.olingo.odata2.api.ep.feed.FeedPageFetcher, int)
+   */
+  public long getPageHandOverTimeout() {
+    return pageHandOverTimeout;
+  }
+
   /**
    * Builder for {@link EntityProviderReadProperties}.
    */
@@ -111,6 +126,7 @@ public class EntityProviderReadProperties {
       addValidatedPrefixes(propertiesFrom.validatedPrefix2NamespaceUri);
       addTypeMappings(propertiesFrom.typeMappings);
       properties.validatingFacets = propertiesFrom.validatingFacets;
+      properties.pageHandOverTimeout = propertiesFrom.pageHandOverTimeout;
     }
 
     /**
@@ -147,6 +163,16 @@ public class EntityProviderReadProperties {
       return this;
     }
 
+    /**
+     * Sets the maximum time a paged feed stream waits for the caller to take the next page.
+     * @param pageHandOverTimeout time in milliseconds; <code>0</code> waits until the stream is closed
+     * @see EntityProviderReadProperties#getPageHandOverTimeout()
+     */
+    public EntityProviderReadPropertiesBuilder pageHandOverTimeout(final long pageHandOverTimeout) {
+      properties.pageHandOverTimeout = pageHandOverTimeout;
+      return this;
+    }
+
     public EntityProviderReadProperties build() {
       return properties;
     }
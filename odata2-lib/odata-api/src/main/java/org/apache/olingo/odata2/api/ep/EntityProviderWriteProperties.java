@@ -51,6 +51,7 @@ public class EntityProviderWriteProperties {
   private boolean includeMetadataInContentOnly = false;
   private boolean isDataBasedPropertySerialization = false;
   private boolean omitInlineForNullData = false;
+  private long publisherTimeout;
 
   private EntityProviderWriteProperties() {}
   
@@ -165,6 +166,15 @@ public class EntityProviderWriteProperties {
     return includeMetadataInContentOnly;
   }
 
+  /**
+   * Gets the maximum time in milliseconds to wait for the next signal of an entry publisher
+   * while a published feed is written.
+   * @return the timeout in milliseconds; <code>0</code> for the default timeout
+   */
+  public long getPublisherTimeout() {
+    return publisherTimeout;
+  }
+
   public static class ODataEntityProviderPropertiesBuilder {
     private final EntityProviderWriteProperties properties = new EntityProviderWriteProperties();
 
@@ -305,6 +315,17 @@ public class EntityProviderWriteProperties {
       return this;
     }
 
+    /**
+     * Sets the maximum time to wait for the next signal of an entry publisher while a published feed is written;
+     * if the publisher stays silent for longer, reading the feed content fails.
+     * @param publisherTimeout timeout in milliseconds; <code>0</code> for the default timeout
+     * @return the builder
+     */
+    public ODataEntityProviderPropertiesBuilder publisherTimeout(final long publisherTimeout) {
+      properties.publisherTimeout = publisherTimeout;
+      return this;
+    }
+
     public ODataEntityProviderPropertiesBuilder fromProperties(final EntityProviderWriteProperties properties) {
       this.properties.inlineCountType = properties.getInlineCountType();
       this.properties.inlineCount = properties.getInlineCount();
@@ -322,6 +343,7 @@ public class EntityProviderWriteProperties {
       this.properties.includeMetadataInContentOnly = properties.includeMetadataInContentOnly;
       this.properties.isDataBasedPropertySerialization = properties.isDataBasedPropertySerialization;
       this.properties.omitInlineForNullData = properties.omitInlineForNullData;
+      this.properties.publisherTimeout = properties.publisherTimeout;
       return this;
     }
 
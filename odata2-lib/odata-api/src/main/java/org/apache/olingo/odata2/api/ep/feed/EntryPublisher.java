@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.ep.feed;
+
+/**
+ * Source of the entries of a feed which are pushed asynchronously to a subscriber on demand.
+ * <p>The contract follows the Reactive Streams <code>Publisher</code>, so adapters to reactive libraries
+ * are straightforward: entries are only delivered after they have been requested
+ * with {@link EntrySubscription#request(long)}.</p>
+ * @see org.apache.olingo.odata2.api.ep.EntityProvider#writePublishedFeed
+ * 
+ */
+public interface EntryPublisher {
+
+  /**
+   * Starts the delivery of entries to the given subscriber;
+   * {@link EntrySubscriber#onSubscribe(EntrySubscription)} is called first.
+   * @param subscriber subscriber which receives the entries
+   */
+  void subscribe(EntrySubscriber subscriber);
+}
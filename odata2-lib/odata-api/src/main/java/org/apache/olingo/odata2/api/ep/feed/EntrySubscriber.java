@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.ep.feed;
+
+import java.util.Map;
+
+/**
+ * Receiver of the entries of an {@link EntryPublisher}.
+ * <p>The methods can be called from any thread but not concurrently.</p>
+ * 
+ */
+public interface EntrySubscriber {
+
+  /**
+   * Called once before any other method.
+   * @param subscription subscription used to request entries
+   */
+  void onSubscribe(EntrySubscription subscription);
+
+  /**
+   * Delivers one entry; never called more often than entries have been requested.
+   * @param entryData data of the entry as expected by the entity providers
+   */
+  void onNext(Map<String, Object> entryData);
+
+  /**
+   * Signals that the publisher failed; no further method is called.
+   * @param error the failure
+   */
+  void onError(Throwable error);
+
+  /**
+   * Signals that all entries have been delivered; no further method is called.
+   */
+  void onComplete();
+}
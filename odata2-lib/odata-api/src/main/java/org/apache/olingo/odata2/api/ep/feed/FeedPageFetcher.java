@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.ep.feed;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Retrieves the content of further feed pages for
+ * {@link org.apache.olingo.odata2.api.ep.EntityProvider#readPagedFeed}.
+ * <p>Implementations can use any HTTP client (or a local data source in tests).
+ * They are called from a background thread.</p>
+ * 
+ */
+public interface FeedPageFetcher {
+
+  /**
+   * Fetches the feed page referenced by a next link.
+   * @param nextLink the next link as found in the previous page (can be relative to the service root)
+   * @return the content of the page in the same format as the first page; it is closed after it has been read
+   * @throws IOException if the page could not be retrieved
+   */
+  InputStream fetchPage(String nextLink) throws IOException;
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.ep.feed;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+
+/**
+ * A feed which is read entry by entry while it is iterated instead of being read completely into memory.
+ * <p>Feed metadata which follows the entries in the content (e.g., the next link) is complete only
+ * after {@link #hasNext()} has returned <code>false</code>.
+ * The stream must be closed after usage; closing it also closes the underlying content.</p>
+ * 
+ */
+public interface ODataFeedStream extends Closeable {
+
+  /**
+   * Reads ahead up to the next entry of the feed, if any.
+   * @return <code>true</code> if there is a further entry
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   */
+  public boolean hasNext() throws EntityProviderException;
+
+  /**
+   * @return the next {@link ODataEntry} of the feed
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   * @throws java.util.NoSuchElementException if there is no further entry
+   */
+  public ODataEntry next() throws EntityProviderException;
+
+  /**
+   * @return {@link FeedMetadata} object with the metadata read so far
+   */
+  public FeedMetadata getFeedMetadata();
+
+  /**
+   * @return metadata of the deleted entries read so far
+   * @see ODataDeltaFeed#getDeletedEntries()
+   */
+  public List<DeletedEntryMetadata> getDeletedEntries();
+
+  /**
+   * Closes the stream and the underlying content.
+   * @throws IOException if closing fails
+   */
+  @Override
+  public void close() throws IOException;
+}
@@ -32,6 +32,8 @@ public abstract class ODataHttpException extends ODataMessageException {
 
   public static final MessageReference COMMON = createMessageReference(ODataHttpException.class, "COMMON");
 
+  private static final ThreadLocal<Boolean> STACK_TRACE_SUPPRESSED = new ThreadLocal<Boolean>();
+
   public ODataHttpException(final MessageReference messageReference, final HttpStatusCodes httpStatus) {
     this(messageReference, null, httpStatus);
   }
@@ -55,4 +57,42 @@ public abstract class ODataHttpException extends ODataMessageException {
   public HttpStatusCodes getHttpStatus() {
     return httpStatus;
   }
+
+  /**
+   * Suppresses or enables capturing the stack trace of {@link ODataHttpException}s for client errors
+   * (<code>4xx</code> status codes) created in the current thread.
+   * The library suppresses stack traces while handling requests which are not in debug mode:
+   * expected errors like <code>404 Not Found</code> are answered without stack trace anyway,
+   * and capturing it is the most expensive part of creating an exception.
+   * Exceptions for server errors like {@link ODataInternalServerErrorException} always keep their stack trace.
+   * @param suppressed <code>true</code> to suppress stack traces
+   * @return whether stack traces have been suppressed before
+   */
+  public static boolean suppressStackTrace(final boolean suppressed) {
+    final boolean previous = STACK_TRACE_SUPPRESSED.get() != null;
+    if (suppressed) {
+      STACK_TRACE_SUPPRESSED.set(Boolean.TRUE);
+    } else {
+      STACK_TRACE_SUPPRESSED.remove();
+    }
+    return previous;
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return STACK_TRACE_SUPPRESSED.get() == null || !isClientError() ? super.fillInStackTrace() : this;
+  }
+
+  // called from the constructor of Throwable, before the HTTP status is set
+  private boolean isClientError() {
+    return this instanceof ODataBadRequestException
+        || this instanceof ODataConflictException
+        || this instanceof ODataForbiddenException
+        || this instanceof ODataMethodNotAllowedException
+        || this instanceof ODataNotAcceptableException
+        || this instanceof ODataNotFoundException
+        || this instanceof ODataPreconditionFailedException
+        || this instanceof ODataPreconditionRequiredException
+        || this instanceof ODataUnsupportedMediaTypeException;
+  }
 }
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor;
+
+import java.util.Set;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+
+/**
+ * <p>Server-side cache for responses of idempotent <code>GET</code> requests.</p>
+ * <p>The cache is enabled by returning an instance of this interface from
+ * {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)}.
+ * Because the cache must survive a single request, the service factory should always return the same
+ * instance, e.g., one created once with
+ * {@link org.apache.olingo.odata2.api.rt.RuntimeDelegate#createResponseCache(long)}.</p>
+ * <p>The OData library looks up responses for <code>GET</code> requests on entity sets, entities,
+ * properties, and links before the request is dispatched to the processor, and stores successful responses
+ * together with the names of all entity sets the response depends on. Whenever a modifying request
+ * (also inside a change set of a batch request) is routed to an entity set or one of its associated
+ * entity sets, all responses depending on it are invalidated. Responses read while such a modification was
+ * in progress are not stored, as the generation of the entity sets has changed in the meantime.</p>
+ * <p>Responses are cached per authenticated user and <code>Authorization</code> header of the request;
+ * media resources are never cached.</p>
+ * <p>A processor can restrict caching to certain entity sets by implementing
+ * {@link org.apache.olingo.odata2.api.processor.feature.CacheableResponse CacheableResponse}.</p>
+ * <p>Implementations must be thread safe.</p>
+ */
+public interface ODataResponseCache extends ODataCallback {
+
+  /**
+   * Returns the cached response for the given key.
+   * @param key the normalized request key
+   * @return a new {@link ODataResponse} instance with its own entity stream, or <code>null</code>
+   */
+  ODataResponse get(String key);
+
+  /**
+   * Returns the current generation of the given entity sets, which changes whenever one of them is
+   * invalidated. It is taken before a response is read and passed to
+   * {@link #put(String, Set, long, ODataResponse, byte[])}.
+   * @param entitySetNames names of entity sets
+   * @return the generation
+   */
+  long getGeneration(Set<String> entitySetNames);
+
+  /**
+   * Stores a response unless one of the entity sets it depends on has been invalidated since the given
+   * generation was taken.
+   * @param key the normalized request key
+   * @param entitySetNames names of all entity sets the response depends on
+   * @param generation the generation of the entity sets taken before the response was read
+   * @param response the response (used for status and headers)
+   * @param body the content of the response
+   */
+  void put(String key, Set<String> entitySetNames, long generation, ODataResponse response, byte[] body);
+
+  /**
+   * Removes all responses which depend on the given entity set.
+   * @param entitySetName name of the entity set
+   */
+  void invalidate(String entitySetName);
+
+  /**
+   * Removes all responses.
+   */
+  void clear();
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor.feature;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.exception.ODataException;
+
+/**
+ * Data processor feature if the processor wants to control which responses are kept in the
+ * {@link org.apache.olingo.odata2.api.processor.ODataResponseCache ODataResponseCache}.
+ * Without this feature all cacheable responses are cached if a response cache is configured.
+ * 
+ */
+public interface CacheableResponse extends ODataProcessorFeature {
+
+  /**
+   * The OData library caches a response only if this method returns <code>true</code>
+   * for every entity set the response depends on.
+   * @param entitySet an entity set the response depends on
+   * @return <code>true</code> if responses for this entity set may be cached
+   * @throws ODataException
+   */
+  boolean isResponseCacheable(EdmEntitySet entitySet) throws ODataException;
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor.feature;
+
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
+
+/**
+ * Data processor feature if processor can determine the current entity tag (ETag) of an entity without reading
+ * the whole entity, e.g., with a query which only selects the properties with concurrency mode
+ * <code>Fixed</code>.
+ * <p>For requests to a single entity or to one of its properties with an <code>If-Match</code> or
+ * <code>If-None-Match</code> header the OData library then evaluates the conditions before the request is
+ * dispatched. If the entity is unchanged, a <code>GET</code> request results in a
+ * "304 Not Modified" response; failed conditions result in a "412 Precondition Failed" response.
+ * In both cases the processor method for reading or modifying the entity is not called.</p>
+ * 
+ */
+public interface ETagSupport extends ODataProcessorFeature {
+
+  /**
+   * Reads the current entity tag of the entity addressed by the request URI.
+   * @param uriInfo information about the request URI; target entity set, key predicates, and navigation
+   * segments identify the entity
+   * @return the entity tag in the format of the HTTP <code>ETag</code> header as the OData library creates it
+   * out of the concurrency properties (e.g., <code>W/"1"</code>), or <code>null</code> if it could not be
+   * determined; in this case the request is processed as usual
+   * @throws ODataException
+   */
+  public String readETag(GetEntityUriInfo uriInfo) throws ODataException;
+}
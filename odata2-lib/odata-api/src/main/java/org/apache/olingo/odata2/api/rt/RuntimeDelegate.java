@@ -26,6 +26,7 @@ import org.apache.olingo.odata2.api.client.batch.BatchChangeSet.BatchChangeSetBu
 import org.apache.olingo.odata2.api.client.batch.BatchChangeSetPart.BatchChangeSetPartBuilder;
 import org.apache.olingo.odata2.api.client.batch.BatchQueryPart.BatchQueryPartBuilder;
 import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmSimpleType;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeFacade;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
@@ -35,6 +36,7 @@ import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.exception.ODataMessageException;
 import org.apache.olingo.odata2.api.processor.ODataRequest.ODataRequestBuilder;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode.ExpandSelectTreeNodeBuilder;
 import org.apache.olingo.odata2.api.uri.UriParser;
@@ -91,11 +93,15 @@ public abstract class RuntimeDelegate {
 
     protected abstract Edm createEdm(EdmProvider provider);
 
+    protected abstract Edm createFrozenEdm(EdmProvider provider) throws EdmException;
+
     protected abstract EntityProviderInterface createEntityProvider();
 
     protected abstract ODataService createODataSingleProcessorService(EdmProvider provider,
         ODataSingleProcessor processor);
 
+    protected abstract ODataService createODataSingleProcessorService(Edm edm, ODataSingleProcessor processor);
+
     protected abstract EdmProvider createEdmProvider(InputStream metadataXml, boolean validate)
         throws EntityProviderException;
 
@@ -111,6 +117,8 @@ public abstract class RuntimeDelegate {
 
     public abstract ExpandSelectTreeNodeBuilder createExpandSelectTreeNodeBuilder();
 
+    protected abstract ODataResponseCache createResponseCache(long maximumBytes);
+
     /**
      * Extract message of {@link ODataMessageException} and return it as a string.
      * 
@@ -154,6 +162,18 @@ public abstract class RuntimeDelegate {
     return RuntimeDelegate.getInstance().createEdm(provider);
   }
 
+  /**
+   * Creates and returns an entity data model which has resolved all its elements from the provider
+   * in advance. The returned model does not call the provider anymore; it is read-only and can be
+   * shared between requests and threads.
+   * @param provider a provider implemented by the OData service
+   * @return an implementation object
+   * @throws EdmException if the provider could not deliver the complete metadata
+   */
+  public static Edm createFrozenEdm(final EdmProvider provider) throws EdmException {
+    return RuntimeDelegate.getInstance().createFrozenEdm(provider);
+  }
+
   /**
    * Returns an parser which can parse OData uris based on metadata.
    * @param edm metadata of the implemented service
@@ -182,6 +202,17 @@ public abstract class RuntimeDelegate {
     return RuntimeDelegate.getInstance().createODataSingleProcessorService(provider, processor);
   }
 
+  /**
+   * Creates and returns a single processor service for an existing entity data model,
+   * e.g., one created with {@link #createFrozenEdm(EdmProvider)} and shared between services.
+   * @param edm the entity data model of the OData service
+   * @param processor a single data processor implementation of the OData service
+   * @return a implementation object
+   */
+  public static ODataService createODataSingleProcessorService(final Edm edm, final ODataSingleProcessor processor) {
+    return RuntimeDelegate.getInstance().createODataSingleProcessorService(edm, processor);
+  }
+
   /**
    * Creates and returns an edm provider.
    * @param metadataXml a metadata xml input stream (means the metadata document)
@@ -226,6 +257,16 @@ public abstract class RuntimeDelegate {
     return RuntimeDelegate.getInstance().createExpandSelectTreeNodeBuilder();
   }
 
+  /**
+   * Creates a response cache which keeps responses up to the given total size
+   * (the least recently used responses are evicted first).
+   * @param maximumBytes maximum size of all cached responses in bytes, including an estimate for their headers
+   * @return an implementation object
+   */
+  public static ODataResponseCache createResponseCache(final long maximumBytes) {
+    return RuntimeDelegate.getInstance().createResponseCache(maximumBytes);
+  }
+
   /**
    * Extract message of {@link ODataMessageException} and return it as a string.
    * 
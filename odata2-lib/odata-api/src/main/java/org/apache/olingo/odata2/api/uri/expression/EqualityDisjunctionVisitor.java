@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.uri.expression;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmLiteral;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
+
+/**
+ * <p>Expression visitor detecting disjunctions of equality comparisons on the same property,
+ * e.g., <code>ID eq 1 or ID eq 2 or ID eq 3</code>.</p>
+ * <p>Such a disjunction is equivalent to a test whether the property value is contained in the set of the literals;
+ * processors can evaluate it with a single <code>IN</code> predicate or a hash-set lookup
+ * instead of evaluating the nested tree of <code>or</code> expressions term by term.</p>
+ * <p>After the visitor has been passed to {@link Visitable#accept(ExpressionVisitor)} of a filter expression,
+ * {@link #getDisjunction(CommonExpression)} returns the detected disjunction for the outermost <code>or</code>
+ * expression of each such chain; for all other expressions it returns <code>null</code>.
+ * Comparisons with the literal <code>null</code> are never part of a disjunction.</p>
+ */
+public class EqualityDisjunctionVisitor implements ExpressionVisitor {
+
+  private final Map<CommonExpression, EqualityDisjunction> disjunctions =
+      new IdentityHashMap<CommonExpression, EqualityDisjunction>();
+
+  /**
+   * Returns the detected disjunction of equality comparisons starting at the given expression.
+   * @param expression an <code>or</code> expression of the visited expression tree
+   * @return the disjunction or <code>null</code> if the expression is not the root of such a disjunction
+   */
+  public EqualityDisjunction getDisjunction(final CommonExpression expression) {
+    return disjunctions.get(expression);
+  }
+
+  /**
+   * @return <code>true</code> if at least one disjunction has been detected
+   */
+  public boolean hasDisjunctions() {
+    return !disjunctions.isEmpty();
+  }
+
+  @Override
+  public Object visitFilterExpression(final FilterExpression filterExpression, final String expressionString,
+      final Object expression) {
+    return null;
+  }
+
+  @Override
+  public Object visitBinary(final BinaryExpression binaryExpression, final BinaryOperator operator,
+      final Object leftSide, final Object rightSide) {
+    if (operator == BinaryOperator.EQ) {
+      if (leftSide instanceof Operand && rightSide instanceof LiteralExpression) {
+        return new EqualityDisjunction((Operand) leftSide, (LiteralExpression) rightSide);
+      } else if (leftSide instanceof LiteralExpression && rightSide instanceof Operand) {
+        return new EqualityDisjunction((Operand) rightSide, (LiteralExpression) leftSide);
+      }
+    } else if (operator == BinaryOperator.OR
+        && leftSide instanceof EqualityDisjunction && rightSide instanceof EqualityDisjunction) {
+      final EqualityDisjunction left = (EqualityDisjunction) leftSide;
+      final EqualityDisjunction right = (EqualityDisjunction) rightSide;
+      if (left.operand.path.equals(right.operand.path)) {
+        disjunctions.remove(left.root);
+        disjunctions.remove(right.root);
+        // Add the smaller list to the larger one so that long chains are merged in linear time.
+        final EqualityDisjunction merged = left.literals.size() >= right.literals.size() ?
+            left.merge(right, binaryExpression) : right.merge(left, binaryExpression);
+        disjunctions.put(binaryExpression, merged);
+        return merged;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Object visitOrderByExpression(final OrderByExpression orderByExpression, final String expressionString,
+      final List<Object> orders) {
+    return null;
+  }
+
+  @Override
+  public Object visitOrder(final OrderExpression orderExpression, final Object filterResult,
+      final SortOrder sortOrder) {
+    return null;
+  }
+
+  @Override
+  public Object visitLiteral(final LiteralExpression literal, final EdmLiteral edmLiteral) {
+    return literal.getEdmType() == EdmSimpleTypeKind.Null.getEdmSimpleTypeInstance() ? null : literal;
+  }
+
+  @Override
+  public Object visitMethod(final MethodExpression methodExpression, final MethodOperator method,
+      final List<Object> parameters) {
+    return null;
+  }
+
+  @Override
+  public Object visitMember(final MemberExpression memberExpression, final Object path, final Object property) {
+    return path instanceof Operand && property instanceof Operand ?
+        new Operand(memberExpression, ((Operand) path).path + '/' + ((Operand) property).path) : null;
+  }
+
+  @Override
+  public Object visitProperty(final PropertyExpression propertyExpression, final String uriLiteral,
+      final EdmTyped edmProperty) {
+    return new Operand(propertyExpression, propertyExpression.getPropertyName());
+  }
+
+  @Override
+  public Object visitUnary(final UnaryExpression unaryExpression, final UnaryOperator operator,
+      final Object operand) {
+    return null;
+  }
+
+  private static class Operand {
+    private final CommonExpression expression;
+    private final String path;
+
+    private Operand(final CommonExpression expression, final String path) {
+      this.expression = expression;
+      this.path = path;
+    }
+  }
+
+  /**
+   * A disjunction of equality comparisons of one property (or member path) with literals.
+   */
+  public static class EqualityDisjunction {
+    private final Operand operand;
+    private final List<LiteralExpression> literals;
+    private CommonExpression root;
+
+    private EqualityDisjunction(final Operand operand, final LiteralExpression literal) {
+      this.operand = operand;
+      literals = new ArrayList<LiteralExpression>();
+      literals.add(literal);
+    }
+
+    private EqualityDisjunction merge(final EqualityDisjunction other, final CommonExpression newRoot) {
+      literals.addAll(other.literals);
+      root = newRoot;
+      return this;
+    }
+
+    /**
+     * @return the compared property or member expression
+     */
+    public CommonExpression getOperand() {
+      return operand.expression;
+    }
+
+    /**
+     * @return the literals the operand is compared with; the order is not specified
+     */
+    public List<LiteralExpression> getLiterals() {
+      return Collections.unmodifiableList(literals);
+    }
+  }
+}
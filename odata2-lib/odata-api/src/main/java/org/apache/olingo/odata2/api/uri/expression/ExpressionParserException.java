@@ -37,6 +37,10 @@ public class ExpressionParserException extends ODataBadRequestException {
       ExpressionParserException.class, "TOKEN_UNDETERMINATED_STRING");
   public static final MessageReference INVALID_TRAILING_TOKEN_DETECTED_AFTER_PARSING = createMessageReference(
       ExpressionParserException.class, "INVALID_TRAILING_TOKEN_DETECTED_AFTER_PARSING");
+  public static final MessageReference EXPRESSION_TOO_LONG = createMessageReference(
+      ExpressionParserException.class, "EXPRESSION_TOO_LONG");
+  public static final MessageReference EXPRESSION_TOO_COMPLEX = createMessageReference(
+      ExpressionParserException.class, "EXPRESSION_TOO_COMPLEX");
 
   // parsing
   public static final MessageReference EXPRESSION_EXPECTED_AFTER_POS = createMessageReference(
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.uri.expression;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+
+/**
+ * <p>Limits for the parsing of <code>$filter</code> and <code>$orderby</code> expressions.</p>
+ * <p>Expressions exceeding the limits are rejected with an {@link ExpressionParserException} before
+ * or while they are parsed, so that overlong or overly complex expressions cannot use up server resources.
+ * The limits of a service are set by returning an instance of this class from
+ * {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)};
+ * otherwise the default limits apply.</p>
+ */
+public class ExpressionParserLimits implements ODataCallback {
+
+  /** Default maximum number of characters of an expression */
+  public static final int DEFAULT_MAX_EXPRESSION_LENGTH = 65536;
+  /** Default maximum number of nodes (operators, methods, properties, and literals) of an expression */
+  public static final int DEFAULT_MAX_NODE_COUNT = 10000;
+  /** Default maximum nesting depth of parentheses, method calls, and unary operators of an expression */
+  public static final int DEFAULT_MAX_NESTING_DEPTH = 100;
+
+  private final int maxExpressionLength;
+  private final int maxNodeCount;
+  private final int maxNestingDepth;
+
+  /**
+   * Creates limits with the default values.
+   */
+  public ExpressionParserLimits() {
+    this(DEFAULT_MAX_EXPRESSION_LENGTH, DEFAULT_MAX_NODE_COUNT, DEFAULT_MAX_NESTING_DEPTH);
+  }
+
+  /**
+   * Creates limits with the default maximum nesting depth.
+   * @param maxExpressionLength maximum number of characters of an expression
+   * @param maxNodeCount maximum number of nodes of the expression tree
+   */
+  public ExpressionParserLimits(final int maxExpressionLength, final int maxNodeCount) {
+    this(maxExpressionLength, maxNodeCount, DEFAULT_MAX_NESTING_DEPTH);
+  }
+
+  /**
+   * Creates limits.
+   * @param maxExpressionLength maximum number of characters of an expression
+   * @param maxNodeCount maximum number of nodes of the expression tree
+   * @param maxNestingDepth maximum nesting depth of parentheses, method calls, and unary operators
+   */
+  public ExpressionParserLimits(final int maxExpressionLength, final int maxNodeCount, final int maxNestingDepth) {
+    this.maxExpressionLength = maxExpressionLength;
+    this.maxNodeCount = maxNodeCount;
+    this.maxNestingDepth = maxNestingDepth;
+  }
+
+  /**
+   * @return maximum number of characters of an expression
+   */
+  public int getMaxExpressionLength() {
+    return maxExpressionLength;
+  }
+
+  /**
+   * @return maximum number of nodes of the expression tree
+   */
+  public int getMaxNodeCount() {
+    return maxNodeCount;
+  }
+
+  /**
+   * @return maximum nesting depth of parentheses, method calls, and unary operators
+   */
+  public int getMaxNestingDepth() {
+    return maxNestingDepth;
+  }
+}
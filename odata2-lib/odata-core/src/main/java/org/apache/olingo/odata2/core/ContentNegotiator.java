@@ -20,8 +20,11 @@ package org.apache.olingo.odata2.core;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
@@ -34,6 +37,8 @@ import org.apache.olingo.odata2.core.uri.UriType;
 
 /**
  * Handles content negotiation with handling of OData special cases.
+ * Negotiation results are memoized per combination of accept header values (or <code>$format</code>)
+ * and supported content types because clients usually send only a few distinct accept headers.
  */
 public class ContentNegotiator {
   private static final String URI_INFO_FORMAT_JSON = "json";
@@ -41,6 +46,17 @@ public class ContentNegotiator {
   private static final String URI_INFO_FORMAT_XML = "xml";
   static final String DEFAULT_CHARSET = "utf-8";
 
+  private static final int MAX_CACHED_NEGOTIATIONS = 256;
+  private static final Map<String, ContentType> NEGOTIATED_CONTENT_TYPES =
+      Collections.synchronizedMap(new LinkedHashMap<String, ContentType>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, ContentType> eldest) {
+          return size() > MAX_CACHED_NEGOTIATIONS;
+        }
+      });
+
   /**
    * Do the content negotiation for <code>accept header value</code> based on
    * requested content type (in HTTP accept header from {@link ODataRequest})
@@ -70,12 +86,33 @@ public class ContentNegotiator {
       return doContentNegotiationForAcceptHeader(Arrays.asList("*/*"), ContentType.create(supportedContentTypes));
     }
 
+    final String cacheKey = createCacheKey(odataRequest, uriInfo, supportedContentTypes);
+    ContentType contentType = NEGOTIATED_CONTENT_TYPES.get(cacheKey);
+    if (contentType == null) {
+      if (uriInfo.getFormat() == null) {
+        contentType = doContentNegotiationForAcceptHeader(odataRequest.getAcceptHeaders(), ContentType
+            .create(supportedContentTypes));
+      } else {
+        contentType = doContentNegotiationForFormat(uriInfo, ContentType.createAsCustom(supportedContentTypes));
+      }
+      NEGOTIATED_CONTENT_TYPES.put(cacheKey, contentType);
+    }
+    return contentType;
+  }
+
+  /**
+   * Creates the key for the memoized negotiation result; it contains all input the negotiation depends on.
+   * The URI type is only relevant for the mapping of <code>$format=atom</code>.
+   */
+  private static String createCacheKey(final ODataRequest odataRequest, final UriInfoImpl uriInfo,
+      final List<String> supportedContentTypes) {
+    StringBuilder key = new StringBuilder();
     if (uriInfo.getFormat() == null) {
-      return doContentNegotiationForAcceptHeader(odataRequest.getAcceptHeaders(), ContentType
-          .create(supportedContentTypes));
+      key.append(odataRequest.getAcceptHeaders());
     } else {
-      return doContentNegotiationForFormat(uriInfo, ContentType.createAsCustom(supportedContentTypes));
+      key.append("$format=").append(uriInfo.getFormat()).append(' ').append(uriInfo.getUriType());
     }
+    return key.append(' ').append(supportedContentTypes).toString();
   }
 
   private void validateNotNull(final ODataRequest odataRequest, final UriInfoImpl uriInfo,
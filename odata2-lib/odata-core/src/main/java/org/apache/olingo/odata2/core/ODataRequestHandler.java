@@ -18,10 +18,23 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.apache.olingo.odata2.api.ODataDebugResponseWrapperCallback;
 import org.apache.olingo.odata2.api.ODataService;
@@ -32,14 +45,18 @@ import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.commons.ODataHttpHeaders;
 import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
 import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmFacets;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
 import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
 import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.exception.ODataHttpException;
 import org.apache.olingo.odata2.api.exception.ODataMethodNotAllowedException;
+import org.apache.olingo.odata2.api.exception.ODataPreconditionFailedException;
 import org.apache.olingo.odata2.api.exception.ODataPreconditionRequiredException;
 import org.apache.olingo.odata2.api.exception.ODataUnsupportedMediaTypeException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
@@ -47,6 +64,9 @@ import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
+import org.apache.olingo.odata2.api.processor.feature.CacheableResponse;
+import org.apache.olingo.odata2.api.processor.feature.ETagSupport;
 import org.apache.olingo.odata2.api.processor.part.EntityLinkProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityLinksProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityMediaProcessor;
@@ -55,9 +75,12 @@ import org.apache.olingo.odata2.api.processor.part.EntitySetProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntitySimplePropertyValueProcessor;
 import org.apache.olingo.odata2.api.processor.part.FunctionImportProcessor;
 import org.apache.olingo.odata2.api.processor.part.FunctionImportValueProcessor;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
 import org.apache.olingo.odata2.api.uri.PathSegment;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionParserLimits;
 import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.commons.ContentType.ODataFormat;
 import org.apache.olingo.odata2.core.debug.ODataDebugResponseWrapper;
@@ -75,6 +98,7 @@ public class ODataRequestHandler {
   private final ODataServiceFactory serviceFactory;
   private final ODataService service;
   private final ODataContext context;
+  private Set<String> deferredInvalidations;
 
   public ODataRequestHandler(final ODataServiceFactory factory, final ODataService service,
       final ODataContext context) {
@@ -83,6 +107,16 @@ public class ODataRequestHandler {
     this.context = context;
   }
 
+  /**
+   * Collects the names of the entity sets whose cached responses a modifying request invalidates
+   * instead of invalidating them right away; used for the parts of a change set, which are committed
+   * only after all parts have been handled.
+   * @param entitySetNames the set the entity set names are added to
+   */
+  public void deferInvalidations(final Set<String> entitySetNames) {
+    deferredInvalidations = entitySetNames;
+  }
+
   /**
    * <p>Handles the {@link ODataRequest} in a way that it results in a corresponding {@link ODataResponse}.</p>
    * <p>This includes delegation of URI parsing and dispatching of the request internally.
@@ -91,12 +125,23 @@ public class ODataRequestHandler {
    * @return the corresponding result
    */
   public ODataResponse handle(final ODataRequest request) {
+    // expected errors are answered without stack trace unless debugging
+    final boolean stackTraceSuppressed = ODataHttpException.suppressStackTrace(!context.isInDebugMode());
+    try {
+      return handleRequest(request);
+    } finally {
+      ODataHttpException.suppressStackTrace(stackTraceSuppressed);
+    }
+  }
+
+  private ODataResponse handleRequest(final ODataRequest request) {
     UriInfoImpl uriInfo = null;
     Exception exception = null;
     ODataResponse odataResponse;
     final int timingHandle = context.startRuntimeMeasurement("ODataRequestHandler", "handle");
     try {
-      UriParser uriParser = new UriParserImpl(service.getEntityDataModel());
+      UriParser uriParser = new UriParserImpl(service.getEntityDataModel(),
+          serviceFactory == null ? null : serviceFactory.getCallback(ExpressionParserLimits.class));
       Dispatcher dispatcher = new Dispatcher(serviceFactory, service);
 
       final String serverDataServiceVersion = getServerDataServiceVersion();
@@ -126,28 +171,65 @@ public class ODataRequestHandler {
           context.getRequestHeader(HttpHeaders.IF_MODIFIED_SINCE),
           context.getRequestHeader(HttpHeaders.IF_UNMODIFIED_SINCE));
 
-      timingHandle2 = context.startRuntimeMeasurement("Dispatcher", "dispatch");
-      odataResponse =
-          dispatcher.dispatch(method, uriInfo, request.getBody(), request.getContentType(), acceptContentType
-              .toContentTypeString());
-      context.stopRuntimeMeasurement(timingHandle2);
+      final ODataResponseCache responseCache = getResponseCache(uriInfo);
+      Map<String, EdmEntitySet> dependentEntitySets = null;
+      String cacheKey = null;
+      long cacheGeneration = 0;
+      ODataResponse preparedResponse = null;
+      final String notModifiedETag = evaluateETag(method, uriInfo,
+          context.getRequestHeader(HttpHeaders.IF_MATCH),
+          context.getRequestHeader(HttpHeaders.IF_NONE_MATCH));
+      if (notModifiedETag != null) {
+        preparedResponse = ODataResponse.status(HttpStatusCodes.NOT_MODIFIED)
+            .eTag(notModifiedETag)
+            .header(ODataHttpHeaders.DATASERVICEVERSION, serverDataServiceVersion)
+            .build();
+      } else if (responseCache != null) {
+        dependentEntitySets = getDependentEntitySets(uriInfo, method != ODataHttpMethod.GET);
+        if (method != ODataHttpMethod.GET) {
+          invalidate(responseCache, dependentEntitySets.keySet());
+        } else if (isCacheable(uriInfo, dependentEntitySets)) {
+          cacheKey = createCacheKey(request, acceptContentType);
+          // taken before the read so that a concurrent modification prevents storing the response
+          cacheGeneration = responseCache.getGeneration(dependentEntitySets.keySet());
+          preparedResponse = responseCache.get(cacheKey);
+        }
+      }
 
-      ODataResponseBuilder extendedResponse = ODataResponse.fromResponse(odataResponse);
-      final UriType uriType = uriInfo.getUriType();
-      final String location =
-          (method == ODataHttpMethod.POST && (uriType == UriType.URI1 || uriType == UriType.URI6B)) ? odataResponse
-              .getIdLiteral() : null;
-      final HttpStatusCodes s = getStatusCode(odataResponse, method, uriType);
-      extendedResponse = extendedResponse.idLiteral(location).status(s);
+      if (preparedResponse == null) {
+        timingHandle2 = context.startRuntimeMeasurement("Dispatcher", "dispatch");
+        odataResponse =
+            dispatcher.dispatch(method, uriInfo, request.getBody(), request.getContentType(), acceptContentType
+                .toContentTypeString());
+        context.stopRuntimeMeasurement(timingHandle2);
+
+        ODataResponseBuilder extendedResponse = ODataResponse.fromResponse(odataResponse);
+        final UriType uriType = uriInfo.getUriType();
+        final String location =
+            (method == ODataHttpMethod.POST && (uriType == UriType.URI1 || uriType == UriType.URI6B)) ? odataResponse
+                .getIdLiteral() : null;
+        final HttpStatusCodes s = getStatusCode(odataResponse, method, uriType);
+        extendedResponse = extendedResponse.idLiteral(location).status(s);
+
+        if (!odataResponse.containsHeader(ODataHttpHeaders.DATASERVICEVERSION)) {
+          extendedResponse = extendedResponse.header(ODataHttpHeaders.DATASERVICEVERSION, serverDataServiceVersion);
+        }
+        if (!HttpStatusCodes.NO_CONTENT.equals(s) && !odataResponse.containsHeader(HttpHeaders.CONTENT_TYPE)) {
+          extendedResponse.header(HttpHeaders.CONTENT_TYPE, acceptContentType.toContentTypeString());
+        }
 
-      if (!odataResponse.containsHeader(ODataHttpHeaders.DATASERVICEVERSION)) {
-        extendedResponse = extendedResponse.header(ODataHttpHeaders.DATASERVICEVERSION, serverDataServiceVersion);
-      }
-      if (!HttpStatusCodes.NO_CONTENT.equals(s) && !odataResponse.containsHeader(HttpHeaders.CONTENT_TYPE)) {
-        extendedResponse.header(HttpHeaders.CONTENT_TYPE, acceptContentType.toContentTypeString());
-      }
+        odataResponse = extendedResponse.build();
 
-      odataResponse = extendedResponse.build();
+        if (cacheKey != null) {
+          odataResponse = cacheResponse(responseCache, cacheKey, dependentEntitySets.keySet(), cacheGeneration,
+              odataResponse);
+        } else if (responseCache != null && method != ODataHttpMethod.GET) {
+          // invalidate again to drop responses cached while the modification was in progress
+          invalidate(responseCache, dependentEntitySets.keySet());
+        }
+      } else {
+        odataResponse = preparedResponse;
+      }
     } catch (final Exception e) {
       exception = e;
       odataResponse = new ODataExceptionWrapper(context, request.getQueryParameters(), request.getAcceptHeaders())
@@ -169,6 +251,184 @@ public class ODataRequestHandler {
     }
   }
 
+  /**
+   * Returns the response cache of the service factory if the requested resource is based on entity sets
+   * (function imports, metadata, service document, and batch requests are never cached).
+   */
+  private ODataResponseCache getResponseCache(final UriInfoImpl uriInfo) {
+    if (serviceFactory == null) {
+      return null;
+    }
+    switch (uriInfo.getUriType()) {
+    case URI0:
+    case URI8:
+    case URI9:
+    case URI10:
+    case URI11:
+    case URI12:
+    case URI13:
+    case URI14:
+      return null;
+    default:
+      return serviceFactory.getCallback(ODataResponseCache.class);
+    }
+  }
+
+  /**
+   * Collects the entity sets a response depends on: the start and target entity sets, the entity sets of all
+   * navigation segments and of all expanded navigation properties; for modifying requests also the entity sets
+   * associated to the target entity set.
+   */
+  private static Map<String, EdmEntitySet> getDependentEntitySets(final UriInfoImpl uriInfo,
+      final boolean withAssociatedEntitySets) throws EdmException {
+    Map<String, EdmEntitySet> entitySets = new LinkedHashMap<String, EdmEntitySet>();
+    addEntitySet(entitySets, uriInfo.getStartEntitySet());
+    for (final NavigationSegment navigationSegment : uriInfo.getNavigationSegments()) {
+      addEntitySet(entitySets, navigationSegment.getEntitySet());
+    }
+    final EdmEntitySet targetEntitySet = uriInfo.getTargetEntitySet();
+    addEntitySet(entitySets, targetEntitySet);
+    for (final List<NavigationPropertySegment> expandPath : uriInfo.getExpand()) {
+      for (final NavigationPropertySegment segment : expandPath) {
+        addEntitySet(entitySets, segment.getTargetEntitySet());
+      }
+    }
+    if (withAssociatedEntitySets && targetEntitySet != null) {
+      final EdmEntityType entityType = targetEntitySet.getEntityType();
+      for (final String navigationPropertyName : entityType.getNavigationPropertyNames()) {
+        addEntitySet(entitySets, targetEntitySet.getRelatedEntitySet(
+            (EdmNavigationProperty) entityType.getProperty(navigationPropertyName)));
+      }
+    }
+    return entitySets;
+  }
+
+  private static void addEntitySet(final Map<String, EdmEntitySet> entitySets, final EdmEntitySet entitySet)
+      throws EdmException {
+    if (entitySet != null) {
+      entitySets.put(entitySet.getName(), entitySet);
+    }
+  }
+
+  private void invalidate(final ODataResponseCache responseCache, final Set<String> entitySetNames) {
+    if (deferredInvalidations == null) {
+      for (final String entitySetName : entitySetNames) {
+        responseCache.invalidate(entitySetName);
+      }
+    } else {
+      deferredInvalidations.addAll(entitySetNames);
+    }
+  }
+
+  private boolean isCacheable(final UriInfoImpl uriInfo, final Map<String, EdmEntitySet> entitySets)
+      throws ODataException {
+    // media resources are neither buffered nor cached
+    if (entitySets.isEmpty() || uriInfo.getUriType() == UriType.URI17 || context.isInDebugMode()
+        || context.getRequestHeader(HttpHeaders.IF_MATCH) != null
+        || context.getRequestHeader(HttpHeaders.IF_NONE_MATCH) != null
+        || context.getRequestHeader(HttpHeaders.IF_MODIFIED_SINCE) != null
+        || context.getRequestHeader(HttpHeaders.IF_UNMODIFIED_SINCE) != null) {
+      return false;
+    }
+    final ODataProcessor processor = service.getProcessor();
+    if (processor instanceof CacheableResponse) {
+      for (final EdmEntitySet entitySet : entitySets.values()) {
+        if (!((CacheableResponse) processor).isResponseCacheable(entitySet)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates the cache key out of service root, resource path, sorted query options,
+   * the negotiated content type, the accepted languages of localized texts, and the user:
+   * the authenticated principal and a digest of the <code>Authorization</code> header.
+   */
+  private String createCacheKey(final ODataRequest request, final ContentType acceptContentType)
+      throws ODataException {
+    StringBuilder key = new StringBuilder(context.getPathInfo().getServiceRoot().toASCIIString());
+    for (final PathSegment segment : context.getPathInfo().getODataSegments()) {
+      key.append('/').append(segment.getPath());
+    }
+    key.append('?');
+    final Map<String, List<String>> queryParameters =
+        new TreeMap<String, List<String>>(request.getAllQueryParameters());
+    for (final Map.Entry<String, List<String>> queryParameter : queryParameters.entrySet()) {
+      key.append(queryParameter.getKey()).append('=').append(queryParameter.getValue()).append('&');
+    }
+    key.append(' ').append(acceptContentType.toContentTypeString());
+    final String acceptLanguage = context.getRequestHeader(HttpHeaders.ACCEPT_LANGUAGE);
+    if (acceptLanguage != null) {
+      key.append(" language=").append(acceptLanguage);
+    }
+    final Object httpRequest = context.getParameter(ODataContext.HTTP_SERVLET_REQUEST_OBJECT);
+    final Principal principal = httpRequest instanceof HttpServletRequest ?
+        ((HttpServletRequest) httpRequest).getUserPrincipal() : null;
+    if (principal != null) {
+      key.append(" user=").append(principal.getName());
+    }
+    final String authorization = context.getRequestHeader(HttpHeaders.AUTHORIZATION);
+    if (authorization != null) {
+      key.append(" authorization=").append(digest(authorization));
+    }
+    return key.toString();
+  }
+
+  /** Cache keys must not hold credentials, so only a digest of them is used. */
+  private static String digest(final String value) {
+    try {
+      final byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(value.getBytes(ContentNegotiator.DEFAULT_CHARSET));
+      StringBuilder hex = new StringBuilder(2 * hash.length);
+      for (final byte b : hash) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (final NoSuchAlgorithmException e) {
+      throw new ODataRuntimeException(e);
+    } catch (final UnsupportedEncodingException e) {
+      throw new ODataRuntimeException(e);
+    }
+  }
+
+  /**
+   * Stores a successful response in the cache; as its entity has to be consumed for this,
+   * a new response with the buffered entity is returned.
+   */
+  private static ODataResponse cacheResponse(final ODataResponseCache responseCache, final String cacheKey,
+      final Set<String> entitySetNames, final long generation, final ODataResponse response) throws IOException {
+    final Object entity = response.getEntity();
+    if (response.getStatus() != HttpStatusCodes.OK || entity == null) {
+      return response;
+    }
+    byte[] body;
+    if (entity instanceof InputStream) {
+      body = readAll((InputStream) entity);
+    } else if (entity instanceof String) {
+      body = ((String) entity).getBytes(ContentNegotiator.DEFAULT_CHARSET);
+    } else {
+      return response;
+    }
+    responseCache.put(cacheKey, entitySetNames, generation, response, body);
+    return ODataResponse.fromResponse(response).entity(new ByteArrayInputStream(body)).build();
+  }
+
+  private static byte[] readAll(final InputStream stream) throws IOException {
+    try {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      byte[] chunk = new byte[8192];
+      int read;
+      while ((read = stream.read(chunk)) != -1) {
+        buffer.write(chunk, 0, read);
+      }
+      return buffer.toByteArray();
+    } finally {
+      stream.close();
+    }
+  }
+
   private HttpStatusCodes getStatusCode(final ODataResponse odataResponse, final ODataHttpMethod method,
       final UriType uriType) {
     if (odataResponse.getStatus() == null) {
@@ -518,6 +778,67 @@ public class ODataRequestHandler {
     }
   }
 
+  /**
+   * Evaluates the conditions of the <code>If-Match</code> and <code>If-None-Match</code> headers
+   * if the processor can provide the current entity tag without reading the entity.
+   * @return the current entity tag if the entity has not been modified, i.e., if "304 Not Modified" is the
+   * response to a <code>GET</code> request, otherwise <code>null</code>
+   * @throws ODataPreconditionFailedException if a condition is not fulfilled
+   */
+  private String evaluateETag(final ODataHttpMethod method, final UriInfoImpl uriInfo,
+      final String ifMatch, final String ifNoneMatch) throws ODataException {
+    final ODataProcessor processor = service.getProcessor();
+    if (ifMatch == null && ifNoneMatch == null
+        || !(processor instanceof ETagSupport)
+        || !checkUriType(uriInfo.getUriType()) || uriInfo.getUriType() == UriType.URI17
+        || !uriInfo.getExpand().isEmpty()
+        || !hasConcurrencyControl(uriInfo.getTargetEntitySet().getEntityType())) {
+      return null;
+    }
+
+    final String eTag = ((ETagSupport) processor).readETag(uriInfo);
+    if (eTag == null) {
+      return null;
+    }
+    if (ifMatch != null && !matchesETag(ifMatch, eTag)) {
+      throw new ODataPreconditionFailedException(ODataPreconditionFailedException.COMMON);
+    }
+    if (ifNoneMatch != null && matchesETag(ifNoneMatch, eTag)) {
+      if (method == ODataHttpMethod.GET) {
+        return eTag;
+      }
+      throw new ODataPreconditionFailedException(ODataPreconditionFailedException.COMMON);
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether the entity tag is contained in the comma-separated list of entity tags
+   * of a conditional header; the comparison is weak, i.e., ignores the weakness indicator
+   * (RFC 2616, 13.3.3).
+   */
+  private static boolean matchesETag(final String headerValue, final String eTag) {
+    final String opaqueTag = getOpaqueTag(eTag);
+    int start = 0;
+    boolean quoted = false;
+    for (int index = 0; index <= headerValue.length(); index++) {
+      if (index == headerValue.length() || headerValue.charAt(index) == ',' && !quoted) {
+        final String tag = headerValue.substring(start, index).trim();
+        if ("*".equals(tag) || getOpaqueTag(tag).equals(opaqueTag)) {
+          return true;
+        }
+        start = index + 1;
+      } else if (headerValue.charAt(index) == '"') {
+        quoted = !quoted;
+      }
+    }
+    return false;
+  }
+
+  private static String getOpaqueTag(final String eTag) {
+    return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+  }
+
   private static boolean checkUriType(UriType uriType) {
     return uriType == UriType.URI2 || uriType == UriType.URI6A || uriType == UriType.URI3
          || uriType == UriType.URI4 || uriType == UriType.URI5 || uriType == UriType.URI17;
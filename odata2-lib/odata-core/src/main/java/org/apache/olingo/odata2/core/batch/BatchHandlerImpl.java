@@ -22,9 +22,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
@@ -37,6 +39,7 @@ import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.uri.PathSegment;
 import org.apache.olingo.odata2.core.ODataContextImpl;
 import org.apache.olingo.odata2.core.ODataPathSegmentImpl;
@@ -48,6 +51,7 @@ public class BatchHandlerImpl implements BatchHandler {
   private ODataServiceFactory factory;
   private ODataService service;
   private Map<String, String> contentIdMap;
+  private Set<String> changeSetInvalidations;
   private static final String BATCH_ODATA_REQUEST_HEADERS = "batchODataRequestHeaders";
 
   public BatchHandlerImpl(final ODataServiceFactory factory, final ODataService service) {
@@ -60,7 +64,13 @@ public class BatchHandlerImpl implements BatchHandler {
     if (batchPart.isChangeSet()) {
       List<ODataRequest> changeSetRequests = batchPart.getRequests();
       contentIdMap = new HashMap<String, String>();
-      return service.getBatchProcessor().executeChangeSet(this, changeSetRequests);
+      changeSetInvalidations = new LinkedHashSet<String>();
+      try {
+        return service.getBatchProcessor().executeChangeSet(this, changeSetRequests);
+      } finally {
+        // cached responses are invalidated once the change set has been committed (or rolled back)
+        invalidateChangeSet();
+      }
     } else {
       if (batchPart.getRequests().size() != 1) {
         throw new ODataException("Query Operation should contain one request");
@@ -93,6 +103,9 @@ public class BatchHandlerImpl implements BatchHandler {
       request = suppliedRequest;
     }
     ODataRequestHandler handler = createHandler(request);
+    if (changeSetInvalidations != null) {
+      handler.deferInvalidations(changeSetInvalidations);
+    }
     ODataResponse response = handler.handle(request);
     if (response.getStatus().getStatusCode() < BAD_REQUEST) {
       response = setContentIdHeader(response, mimeHeaderContentId, requestHeaderContentId);
@@ -108,6 +121,16 @@ public class BatchHandlerImpl implements BatchHandler {
     return response;
   }
 
+  private void invalidateChangeSet() {
+    final ODataResponseCache responseCache = factory == null ? null : factory.getCallback(ODataResponseCache.class);
+    if (responseCache != null) {
+      for (final String entitySetName : changeSetInvalidations) {
+        responseCache.invalidate(entitySetName);
+      }
+    }
+    changeSetInvalidations = null;
+  }
+
   private void fillContentIdMap(final ODataResponse response, final String contentId, final String baseUri) {
     String location = response.getHeader(HttpHeaders.LOCATION);
     if (location != null) {
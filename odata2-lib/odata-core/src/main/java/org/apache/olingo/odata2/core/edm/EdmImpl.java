@@ -21,6 +21,8 @@ package org.apache.olingo.odata2.core.edm;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmAssociation;
@@ -35,50 +37,50 @@ import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.exception.ODataException;
 
 /**
- *  
+ * Base implementation of the entity data model which caches all created elements.
+ * <p>The caches are safe for concurrent use so that one instance can be shared between requests;
+ * after {@link #freeze()} the instance only answers from its caches and no longer calls the
+ * underlying metadata source.</p>
  */
 public abstract class EdmImpl implements Edm {
 
-  private Map<String, EdmEntityContainer> edmEntityContainers;
-  private Map<FullQualifiedName, EdmEntityType> edmEntityTypes;
-  private Map<FullQualifiedName, EdmComplexType> edmComplexTypes;
-  private Map<FullQualifiedName, EdmAssociation> edmAssociations;
-  private Map<String, String> aliasToNamespaceInfo;
-  private List<EdmEntitySet> edmEntitySets;
-  private List<EdmFunctionImport> edmFunctionImports;
+  private ConcurrentMap<String, EdmEntityContainer> edmEntityContainers;
+  private ConcurrentMap<FullQualifiedName, EdmEntityType> edmEntityTypes;
+  private ConcurrentMap<FullQualifiedName, EdmComplexType> edmComplexTypes;
+  private ConcurrentMap<FullQualifiedName, EdmAssociation> edmAssociations;
+  private volatile EdmEntityContainer defaultEntityContainer;
+  private volatile Map<String, String> aliasToNamespaceInfo;
+  private volatile List<EdmEntitySet> edmEntitySets;
+  private volatile List<EdmFunctionImport> edmFunctionImports;
+  private volatile boolean frozen;
 
   protected EdmServiceMetadata edmServiceMetadata;
 
   public EdmImpl(final EdmServiceMetadata edmServiceMetadata) {
-    edmEntityContainers = new HashMap<String, EdmEntityContainer>();
-    edmEntityTypes = new HashMap<FullQualifiedName, EdmEntityType>();
-    edmComplexTypes = new HashMap<FullQualifiedName, EdmComplexType>();
-    edmAssociations = new HashMap<FullQualifiedName, EdmAssociation>();
+    edmEntityContainers = new ConcurrentHashMap<String, EdmEntityContainer>();
+    edmEntityTypes = new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
+    edmComplexTypes = new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
+    edmAssociations = new ConcurrentHashMap<FullQualifiedName, EdmAssociation>();
     this.edmServiceMetadata = edmServiceMetadata;
   }
 
   @Override
   public EdmEntityContainer getEntityContainer(final String name) throws EdmException {
-    if (edmEntityContainers.containsKey(name)) {
-      return edmEntityContainers.get(name);
+    EdmEntityContainer edmEntityContainer = name == null ? defaultEntityContainer : edmEntityContainers.get(name);
+    if (edmEntityContainer != null || frozen) {
+      return edmEntityContainer;
     }
 
-    EdmEntityContainer edmEntityContainer = null;
-
     try {
       edmEntityContainer = createEntityContainer(name);
       if (edmEntityContainer != null) {
-        if (name == null && edmEntityContainers.containsKey(edmEntityContainer.getName())) {
-          // ensure that the same default entity container is stored in the HashMap under null and its name
-          edmEntityContainer = edmEntityContainers.get(edmEntityContainer.getName());
-          edmEntityContainers.put(name, edmEntityContainer);
-        } else if (edmEntityContainers.containsKey(null) && edmEntityContainers.get(null) != null
-            && name.equals(edmEntityContainers.get(null).getName())) {
-          // ensure that the same default entity container is stored in the HashMap under null and its name
-          edmEntityContainer = edmEntityContainers.get(null);
-          edmEntityContainers.put(name, edmEntityContainer);
-        } else {
-          edmEntityContainers.put(name, edmEntityContainer);
+        // ensure that the same default entity container is cached as default and under its name
+        final String containerName = edmEntityContainer.getName();
+        if (containerName != null) {
+          edmEntityContainer = putIfAbsent(edmEntityContainers, containerName, edmEntityContainer);
+        }
+        if (name == null) {
+          defaultEntityContainer = edmEntityContainer;
         }
       }
     } catch (EdmException e) {
@@ -95,16 +97,15 @@ public abstract class EdmImpl implements Edm {
     String finalNamespace = getNamespaceForAlias(namespaceOrAlias);
 
     FullQualifiedName fqName = new FullQualifiedName(finalNamespace, name);
-    if (edmEntityTypes.containsKey(fqName)) {
-      return edmEntityTypes.get(fqName);
+    EdmEntityType edmEntityType = edmEntityTypes.get(fqName);
+    if (edmEntityType != null || frozen) {
+      return edmEntityType;
     }
 
-    EdmEntityType edmEntityType = null;
-
     try {
       edmEntityType = createEntityType(fqName);
       if (edmEntityType != null) {
-        edmEntityTypes.put(fqName, edmEntityType);
+        edmEntityType = putIfAbsent(edmEntityTypes, fqName, edmEntityType);
       }
     } catch (EdmException e) {
       throw e;
@@ -116,12 +117,14 @@ public abstract class EdmImpl implements Edm {
   }
 
   private String getNamespaceForAlias(final String namespaceOrAlias) throws EdmException {
+    Map<String, String> aliasToNamespaceInfo = this.aliasToNamespaceInfo;
     if (aliasToNamespaceInfo == null) {
       try {
         aliasToNamespaceInfo = createAliasToNamespaceInfo();
         if (aliasToNamespaceInfo == null) {
           aliasToNamespaceInfo = new HashMap<String, String>();
         }
+        this.aliasToNamespaceInfo = aliasToNamespaceInfo;
       } catch (EdmException e) {
         throw e;
       } catch (ODataException e) {
@@ -140,16 +143,15 @@ public abstract class EdmImpl implements Edm {
   public EdmComplexType getComplexType(final String namespaceOrAlias, final String name) throws EdmException {
     String finalNamespace = getNamespaceForAlias(namespaceOrAlias);
     FullQualifiedName fqName = new FullQualifiedName(finalNamespace, name);
-    if (edmComplexTypes.containsKey(fqName)) {
-      return edmComplexTypes.get(fqName);
+    EdmComplexType edmComplexType = edmComplexTypes.get(fqName);
+    if (edmComplexType != null || frozen) {
+      return edmComplexType;
     }
 
-    EdmComplexType edmComplexType = null;
-
     try {
       edmComplexType = createComplexType(fqName);
       if (edmComplexType != null) {
-        edmComplexTypes.put(fqName, edmComplexType);
+        edmComplexType = putIfAbsent(edmComplexTypes, fqName, edmComplexType);
       }
     } catch (EdmException e) {
       throw e;
@@ -164,16 +166,15 @@ public abstract class EdmImpl implements Edm {
   public EdmAssociation getAssociation(final String namespaceOrAlias, final String name) throws EdmException {
     String finalNamespace = getNamespaceForAlias(namespaceOrAlias);
     FullQualifiedName fqName = new FullQualifiedName(finalNamespace, name);
-    if (edmAssociations.containsKey(fqName)) {
-      return edmAssociations.get(fqName);
+    EdmAssociation edmAssociation = edmAssociations.get(fqName);
+    if (edmAssociation != null || frozen) {
+      return edmAssociation;
     }
 
-    EdmAssociation edmAssociation = null;
-
     try {
       edmAssociation = createAssociation(fqName);
       if (edmAssociation != null) {
-        edmAssociations.put(fqName, edmAssociation);
+        edmAssociation = putIfAbsent(edmAssociations, fqName, edmAssociation);
       }
     } catch (EdmException e) {
       throw e;
@@ -222,6 +223,46 @@ public abstract class EdmImpl implements Edm {
     return edmFunctionImports;
   }
 
+  /**
+   * Resolves all elements of the entity data model eagerly and afterwards answers every lookup from the caches;
+   * names unknown at that point are reported as not existing without consulting the metadata source again.
+   * A frozen instance is read-only and can be shared between threads.
+   * @throws EdmException if the metadata source could not be read completely
+   */
+  public void freeze() throws EdmException {
+    if (frozen) {
+      return;
+    }
+    getNamespaceForAlias(null);
+    try {
+      resolveAll();
+    } catch (EdmException e) {
+      throw e;
+    } catch (ODataException e) {
+      throw new EdmException(EdmException.COMMON, e);
+    }
+    getDefaultEntityContainer();
+    getEntitySets();
+    getFunctionImports();
+    frozen = true;
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Resolves every element known to the metadata source, including the lazily built parts
+   * of the elements, so that {@link #freeze()} leaves nothing to be created later.
+   * @throws ODataException
+   */
+  protected void resolveAll() throws ODataException {}
+
+  private static <K, V> V putIfAbsent(final ConcurrentMap<K, V> map, final K key, final V value) {
+    final V previous = map.putIfAbsent(key, value);
+    return previous == null ? value : previous;
+  }
+
   protected abstract EdmEntityContainer createEntityContainer(String name) throws ODataException;
 
   protected abstract EdmEntityType createEntityType(FullQualifiedName fqName) throws ODataException;
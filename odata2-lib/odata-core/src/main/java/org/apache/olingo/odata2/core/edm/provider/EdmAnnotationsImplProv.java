@@ -29,16 +29,20 @@ import org.apache.olingo.odata2.api.edm.provider.AnnotationElement;
 
 public class EdmAnnotationsImplProv implements EdmAnnotations {
 
-  private List<EdmAnnotationAttribute> annotationAttributes;
-  private List<EdmAnnotationElement> annotationElements;
+  private final List<EdmAnnotationAttribute> annotationAttributes;
+  private final List<EdmAnnotationElement> annotationElements;
 
   public EdmAnnotationsImplProv(final List<AnnotationAttribute> annotationAttributes,
       final List<AnnotationElement> annotationElements) {
-    if (annotationAttributes != null) {
+    if (annotationAttributes == null) {
+      this.annotationAttributes = null;
+    } else {
       this.annotationAttributes = new ArrayList<EdmAnnotationAttribute>();
       this.annotationAttributes.addAll(annotationAttributes);
     }
-    if (annotationElements != null) {
+    if (annotationElements == null) {
+      this.annotationElements = null;
+    } else {
       this.annotationElements = new ArrayList<EdmAnnotationElement>();
       for (AnnotationElement element : annotationElements) {
         EdmAnnotationElement edmElement = new EdmAnnotationElementImplProv(element);
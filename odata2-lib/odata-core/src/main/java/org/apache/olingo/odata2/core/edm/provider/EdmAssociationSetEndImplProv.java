@@ -30,7 +30,7 @@ public class EdmAssociationSetEndImplProv implements EdmAssociationSetEnd, EdmAn
   private EdmEntitySet entitySet;
   private String role;
   private AssociationSetEnd end;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmAssociationSetEndImplProv(final AssociationSetEnd end, final EdmEntitySet entitySet) throws EdmException {
     this.end = end;
@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.odata2.api.edm.EdmAnnotatable;
 import org.apache.olingo.odata2.api.edm.EdmAnnotations;
@@ -47,22 +49,22 @@ import org.apache.olingo.odata2.api.exception.ODataException;
 public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnotatable {
 
   private EdmImplProv edm;
-  private List<EntityContainer> entityContainerHierachy;
+  private volatile List<EntityContainer> entityContainerHierachy;
   private EntityContainerInfo entityContainerInfo;
-  private Map<String, EdmEntitySet> edmEntitySets;
+  private ConcurrentMap<String, EdmEntitySet> edmEntitySets;
   private Map<String, EdmAssociationSet> edmAssociationSets;
   private Map<String, EdmFunctionImport> edmFunctionImports;
   private EdmEntityContainer edmExtendedEntityContainer;
   private boolean isDefaultContainer;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmEntityContainerImplProv(final EdmImplProv edm, final EntityContainerInfo entityContainerInfo)
       throws EdmException {
     this.edm = edm;
     this.entityContainerInfo = entityContainerInfo;
-    edmEntitySets = new HashMap<String, EdmEntitySet>();
-    edmAssociationSets = new HashMap<String, EdmAssociationSet>();
-    edmFunctionImports = new HashMap<String, EdmFunctionImport>();
+    edmEntitySets = new ConcurrentHashMap<String, EdmEntitySet>();
+    edmAssociationSets = new ConcurrentHashMap<String, EdmAssociationSet>();
+    edmFunctionImports = new ConcurrentHashMap<String, EdmFunctionImport>();
     isDefaultContainer = entityContainerInfo.isDefaultEntityContainer();
 
     if (entityContainerInfo.getExtendz() != null) {
@@ -80,8 +82,8 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
 
   @Override
   public EdmEntitySet getEntitySet(final String name) throws EdmException {
-    EdmEntitySet edmEntitySet = edmEntitySets.get(name);
-    if (edmEntitySet != null) {
+    EdmEntitySet edmEntitySet = name == null ? null : edmEntitySets.get(name);
+    if (edmEntitySet != null || edm.isFrozen()) {
       return edmEntitySet;
     }
 
@@ -96,7 +98,7 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
       edmEntitySet = createEntitySet(entitySet);
     } else if (edmExtendedEntityContainer != null) {
       edmEntitySet = edmExtendedEntityContainer.getEntitySet(name);
-      if (edmEntitySet != null) {
+      if (edmEntitySet != null && name != null) {
         edmEntitySets.put(name, edmEntitySet);
       }
     }
@@ -106,8 +108,8 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
 
   @Override
   public EdmFunctionImport getFunctionImport(final String name) throws EdmException {
-    EdmFunctionImport edmFunctionImport = edmFunctionImports.get(name);
-    if (edmFunctionImport != null) {
+    EdmFunctionImport edmFunctionImport = name == null ? null : edmFunctionImports.get(name);
+    if (edmFunctionImport != null || edm.isFrozen()) {
       return edmFunctionImport;
     }
 
@@ -120,10 +122,12 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
 
     if (functionImport != null) {
       edmFunctionImport = createFunctionImport(functionImport);
-      edmFunctionImports.put(name, edmFunctionImport);
+      if (name != null) {
+        edmFunctionImports.put(name, edmFunctionImport);
+      }
     } else if (edmExtendedEntityContainer != null) {
       edmFunctionImport = edmExtendedEntityContainer.getFunctionImport(name);
-      if (edmFunctionImport != null) {
+      if (edmFunctionImport != null && name != null) {
         edmFunctionImports.put(name, edmFunctionImport);
       }
     }
@@ -144,6 +148,8 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
     EdmAssociationSet edmAssociationSet = edmAssociationSets.get(key);
     if (edmAssociationSet != null) {
       return edmAssociationSet;
+    } else if (edm.isFrozen()) {
+      throw new EdmException(EdmException.COMMON);
     }
 
     AssociationSet associationSet;
@@ -163,7 +169,9 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
       return edmAssociationSet;
     } else if (edmExtendedEntityContainer != null) {
       edmAssociationSet = edmExtendedEntityContainer.getAssociationSet(sourceEntitySet, navigationProperty);
-      edmAssociationSets.put(key, edmAssociationSet);
+      if (edmAssociationSet != null) {
+        edmAssociationSets.put(key, edmAssociationSet);
+      }
       return edmAssociationSet;
     } else {
       throw new EdmException(EdmException.COMMON);
@@ -179,8 +187,17 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
    * @throws EdmException
    */
   private EdmEntitySet createEntitySet(final EntitySet entitySet) throws EdmException {
-    EdmEntitySet edmEntitySet = new EdmEntitySetImplProv(edm, entitySet, this);
-    edmEntitySets.put(entitySet.getName(), edmEntitySet);
+    if (entitySet.getName() == null) {
+      return new EdmEntitySetImplProv(edm, entitySet, this);
+    }
+    EdmEntitySet edmEntitySet = edmEntitySets.get(entitySet.getName());
+    if (edmEntitySet == null) {
+      edmEntitySet = new EdmEntitySetImplProv(edm, entitySet, this);
+      final EdmEntitySet previous = edmEntitySets.putIfAbsent(entitySet.getName(), edmEntitySet);
+      if (previous != null) {
+        edmEntitySet = previous;
+      }
+    }
     return edmEntitySet;
   }
 
@@ -213,6 +230,9 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
       List<EntityContainer> entityContainerHierachy = getEntityContainerHierachy();
       for (EntityContainer entityContainer : entityContainerHierachy) {
         List<EntitySet> entitySets = entityContainer.getEntitySets();
+        if (entitySets == null) {
+          continue;
+        }
         for (EntitySet entitySet : entitySets) {
           EdmEntitySet ees = createEntitySet(entitySet);
           edmEntitySets.add(ees);
@@ -231,6 +251,9 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
       List<EdmAssociationSet> edmAssociationSets = new ArrayList<EdmAssociationSet>();
       for (EntityContainer entityContainer : containers) {
         List<AssociationSet> associationSets = entityContainer.getAssociationSets();
+        if (associationSets == null) {
+          continue;
+        }
         for (AssociationSet associationSet : associationSets) {
           EdmAssociationSet eas = createAssociationSet(associationSet);
           edmAssociationSets.add(eas);
@@ -245,7 +268,7 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
 
   private Map<String, EntityContainer> getEntityContainerMap() throws ODataException {
     Map<String, EntityContainer> name2Container = new HashMap<String, EntityContainer>();
-    List<Schema> schemas = edm.edmProvider.getSchemas();
+    List<Schema> schemas = edm.getSchemas();
     for (Schema schema : schemas) {
       List<EntityContainer> containers = schema.getEntityContainers();
       for (EntityContainer container : containers) {
@@ -256,6 +279,7 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
   }
 
   private List<EntityContainer> getEntityContainerHierachy() throws ODataException {
+    List<EntityContainer> entityContainerHierachy = this.entityContainerHierachy;
     if (entityContainerHierachy != null) {
       return entityContainerHierachy;
     }
@@ -272,6 +296,7 @@ public class EdmEntityContainerImplProv implements EdmEntityContainer, EdmAnnota
     if (entityContainerHierachy.isEmpty()) {
       throw new EdmException(EdmException.PROVIDERPROBLEM, "No container at all found.");
     }
+    this.entityContainerHierachy = entityContainerHierachy;
     return entityContainerHierachy;
   }
 }
@@ -36,7 +36,7 @@ public class EdmEntitySetImplProv extends EdmNamedImplProv implements EdmEntityS
   private EntitySet entitySet;
   private EdmEntityContainer edmEntityContainer;
   private EdmEntityType edmEntityType;
-  private EdmAnnotationsImplProv annotations;
+  private volatile EdmAnnotationsImplProv annotations;
 
   public EdmEntitySetImplProv(final EdmImplProv edm, final EntitySet entitySet,
       final EdmEntityContainer edmEntityContainer) throws EdmException {
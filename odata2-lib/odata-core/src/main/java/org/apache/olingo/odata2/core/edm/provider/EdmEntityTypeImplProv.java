@@ -37,12 +37,11 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
 
   private EntityType entityType;
 
-  private Map<String, EdmProperty> keyProperties;
-  private List<EdmProperty> edmKeyProperties;
-  private List<String> edmKeyPropertyNames;
+  private volatile List<EdmProperty> edmKeyProperties;
+  private volatile List<String> edmKeyPropertyNames;
 
   private Map<String, NavigationProperty> navigationProperties;
-  private List<String> edmNavigationPropertyNames;
+  private volatile List<String> edmNavigationPropertyNames;
 
   public EdmEntityTypeImplProv(final EdmImplProv edm, final EntityType entityType, final String namespace)
       throws EdmException {
@@ -64,6 +63,7 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
 
   @Override
   public List<String> getKeyPropertyNames() throws EdmException {
+    List<String> edmKeyPropertyNames = this.edmKeyPropertyNames;
     if (edmKeyPropertyNames == null) {
       if (edmBaseType != null) {
         return ((EdmEntityType) edmBaseType).getKeyPropertyNames();
@@ -79,6 +79,7 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
         // Entity Type does not define a key
         throw new EdmException(EdmException.COMMON);
       }
+      this.edmKeyPropertyNames = edmKeyPropertyNames;
     }
 
     return edmKeyPropertyNames;
@@ -86,25 +87,22 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
 
   @Override
   public List<EdmProperty> getKeyProperties() throws EdmException {
+    List<EdmProperty> edmKeyProperties = this.edmKeyProperties;
     if (edmKeyProperties == null) {
       if (edmBaseType != null) {
         return ((EdmEntityType) edmBaseType).getKeyProperties();
       }
 
-      if (keyProperties == null) {
-        keyProperties = new HashMap<String, EdmProperty>();
-        edmKeyProperties = new ArrayList<EdmProperty>();
-
-        for (String keyPropertyName : getKeyPropertyNames()) {
-          final EdmTyped edmProperty = getProperty(keyPropertyName);
-          if (edmProperty != null && edmProperty instanceof EdmProperty) {
-            keyProperties.put(keyPropertyName, (EdmProperty) edmProperty);
-            edmKeyProperties.add((EdmProperty) edmProperty);
-          } else {
-            throw new EdmException(EdmException.COMMON);
-          }
+      edmKeyProperties = new ArrayList<EdmProperty>();
+      for (String keyPropertyName : getKeyPropertyNames()) {
+        final EdmTyped edmProperty = getProperty(keyPropertyName);
+        if (edmProperty != null && edmProperty instanceof EdmProperty) {
+          edmKeyProperties.add((EdmProperty) edmProperty);
+        } else {
+          throw new EdmException(EdmException.COMMON);
         }
       }
+      this.edmKeyProperties = edmKeyProperties;
     }
 
     return edmKeyProperties;
@@ -122,6 +120,7 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
 
   @Override
   public List<String> getNavigationPropertyNames() throws EdmException {
+    List<String> edmNavigationPropertyNames = this.edmNavigationPropertyNames;
     if (edmNavigationPropertyNames == null) {
       edmNavigationPropertyNames = new ArrayList<String>();
       if (edmBaseType != null) {
@@ -132,6 +131,7 @@ public class EdmEntityTypeImplProv extends EdmStructuralTypeImplProv implements
           edmNavigationPropertyNames.add(navigationProperty.getName());
         }
       }
+      this.edmNavigationPropertyNames = edmNavigationPropertyNames;
     }
     return edmNavigationPropertyNames;
   }
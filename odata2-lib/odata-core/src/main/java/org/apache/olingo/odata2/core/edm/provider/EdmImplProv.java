@@ -28,7 +28,10 @@ import org.apache.olingo.odata2.api.edm.EdmComplexType;
 import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmStructuralType;
 import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.edm.provider.AliasInfo;
 import org.apache.olingo.odata2.api.edm.provider.Association;
@@ -47,7 +50,7 @@ import org.apache.olingo.odata2.core.edm.EdmImpl;
 public class EdmImplProv extends EdmImpl implements EdmProviderAccessor {
 
   protected EdmProvider edmProvider;
-  private List<Schema> schemas;
+  private volatile List<Schema> schemas;
 
   public EdmImplProv(final EdmProvider edmProvider) {
     super(new EdmServiceMetadataImplProv(edmProvider));
@@ -99,13 +102,16 @@ public class EdmImplProv extends EdmImpl implements EdmProviderAccessor {
   @Override
   protected List<EdmEntitySet> createEntitySets() throws ODataException {
     List<EdmEntitySet> edmEntitySets = new ArrayList<EdmEntitySet>();
-    if (schemas == null) {
-      schemas = edmProvider.getSchemas();
-    }
-    for (Schema schema : schemas) {
+    for (Schema schema : getSchemas()) {
+      if (schema.getEntityContainers() == null) {
+        continue;
+      }
       for (EntityContainer entityContainer : schema.getEntityContainers()) {
+        if (entityContainer.getEntitySets() == null) {
+          continue;
+        }
+        EdmEntityContainer edmEntityContainer = getEntityContainer(entityContainer.getName());
         for (EntitySet entitySet : entityContainer.getEntitySets()) {
-          EdmEntityContainer edmEntityContainer = createEntityContainer(entityContainer.getName());
           edmEntitySets.add(new EdmEntitySetImplProv(this, entitySet, edmEntityContainer));
         }
       }
@@ -116,13 +122,16 @@ public class EdmImplProv extends EdmImpl implements EdmProviderAccessor {
   @Override
   protected List<EdmFunctionImport> createFunctionImports() throws ODataException {
     List<EdmFunctionImport> edmFunctionImports = new ArrayList<EdmFunctionImport>();
-    if (schemas == null) {
-      schemas = edmProvider.getSchemas();
-    }
-    for (Schema schema : schemas) {
+    for (Schema schema : getSchemas()) {
+      if (schema.getEntityContainers() == null) {
+        continue;
+      }
       for (EntityContainer entityContainer : schema.getEntityContainers()) {
+        if (entityContainer.getFunctionImports() == null) {
+          continue;
+        }
+        EdmEntityContainer edmEntityContainer = getEntityContainer(entityContainer.getName());
         for (FunctionImport functionImport : entityContainer.getFunctionImports()) {
-          EdmEntityContainer edmEntityContainer = createEntityContainer(entityContainer.getName());
           edmFunctionImports.add(new EdmFunctionImportImplProv(this, functionImport, edmEntityContainer));
         }
       }
@@ -130,6 +139,126 @@ public class EdmImplProv extends EdmImpl implements EdmProviderAccessor {
     return edmFunctionImports;
   }
 
+  List<Schema> getSchemas() throws ODataException {
+    List<Schema> schemas = this.schemas;
+    if (schemas == null) {
+      schemas = edmProvider.getSchemas();
+      this.schemas = schemas;
+    }
+    return schemas;
+  }
+
+  @Override
+  protected void resolveAll() throws ODataException {
+    for (Schema schema : getSchemas()) {
+      final String namespace = schema.getNamespace();
+      if (schema.getComplexTypes() != null) {
+        for (ComplexType complexType : schema.getComplexTypes()) {
+          resolveStructuralType(getComplexType(namespace, complexType.getName()));
+        }
+      }
+      if (schema.getEntityTypes() != null) {
+        for (EntityType entityType : schema.getEntityTypes()) {
+          resolveStructuralType(getEntityType(namespace, entityType.getName()));
+        }
+      }
+      if (schema.getAssociations() != null) {
+        for (Association association : schema.getAssociations()) {
+          getAssociation(namespace, association.getName());
+        }
+      }
+    }
+    for (Schema schema : getSchemas()) {
+      if (schema.getEntityContainers() == null) {
+        continue;
+      }
+      for (EntityContainer entityContainer : schema.getEntityContainers()) {
+        final EdmEntityContainer edmEntityContainer = getEntityContainer(entityContainer.getName());
+        if (edmEntityContainer != null) {
+          edmEntityContainer.getEntitySets();
+          edmEntityContainer.getAssociationSets();
+          // members inherited through extendz must be cached in the extending container as well
+          for (EntityContainer container : getEntityContainerHierarchy(entityContainer)) {
+            resolveEntitySets(edmEntityContainer, container);
+            resolveFunctionImports(edmEntityContainer, container);
+          }
+        }
+      }
+    }
+  }
+
+  private List<EntityContainer> getEntityContainerHierarchy(final EntityContainer entityContainer)
+      throws ODataException {
+    Map<String, EntityContainer> nameToContainer = new HashMap<String, EntityContainer>();
+    for (Schema schema : getSchemas()) {
+      if (schema.getEntityContainers() != null) {
+        for (EntityContainer container : schema.getEntityContainers()) {
+          nameToContainer.put(container.getName(), container);
+        }
+      }
+    }
+    List<EntityContainer> hierarchy = new ArrayList<EntityContainer>();
+    EntityContainer current = entityContainer;
+    while (current != null && !hierarchy.contains(current)) {
+      hierarchy.add(current);
+      current = current.getExtendz() == null ? null : nameToContainer.get(current.getExtendz());
+    }
+    return hierarchy;
+  }
+
+  private void resolveStructuralType(final EdmStructuralType edmStructuralType) throws EdmException {
+    if (edmStructuralType == null) {
+      return;
+    }
+    for (String propertyName : edmStructuralType.getPropertyNames()) {
+      edmStructuralType.getProperty(propertyName);
+    }
+    if (edmStructuralType instanceof EdmEntityType) {
+      final EdmEntityType edmEntityType = (EdmEntityType) edmStructuralType;
+      edmEntityType.getKeyProperties();
+      for (String navigationPropertyName : edmEntityType.getNavigationPropertyNames()) {
+        edmEntityType.getProperty(navigationPropertyName);
+      }
+    }
+  }
+
+  private void resolveEntitySets(final EdmEntityContainer edmEntityContainer,
+      final EntityContainer entityContainer) throws EdmException {
+    if (entityContainer.getEntitySets() == null) {
+      return;
+    }
+    for (EntitySet entitySet : entityContainer.getEntitySets()) {
+      final EdmEntitySet edmEntitySet = edmEntityContainer.getEntitySet(entitySet.getName());
+      final EdmEntityType edmEntityType = edmEntitySet == null ? null : edmEntitySet.getEntityType();
+      if (edmEntityType != null) {
+        for (String navigationPropertyName : edmEntityType.getNavigationPropertyNames()) {
+          try {
+            edmEntityContainer.getAssociationSet(edmEntitySet,
+                (EdmNavigationProperty) edmEntityType.getProperty(navigationPropertyName));
+          } catch (EdmException e) {
+            // navigation property without association set in this container; nothing to cache
+          }
+        }
+      }
+    }
+  }
+
+  private void resolveFunctionImports(final EdmEntityContainer edmEntityContainer,
+      final EntityContainer entityContainer) throws EdmException {
+    if (entityContainer.getFunctionImports() == null) {
+      return;
+    }
+    for (FunctionImport functionImport : entityContainer.getFunctionImports()) {
+      final EdmFunctionImport edmFunctionImport = edmEntityContainer.getFunctionImport(functionImport.getName());
+      if (edmFunctionImport != null) {
+        edmFunctionImport.getReturnType();
+        for (String parameterName : edmFunctionImport.getParameterNames()) {
+          edmFunctionImport.getParameter(parameterName);
+        }
+      }
+    }
+  }
+
   @Override
   protected Map<String, String> createAliasToNamespaceInfo() throws ODataException {
     List<AliasInfo> aliasInfos = edmProvider.getAliasInfos();
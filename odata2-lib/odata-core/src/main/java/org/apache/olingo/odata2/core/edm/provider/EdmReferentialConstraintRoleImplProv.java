@@ -31,7 +31,7 @@ import org.apache.olingo.odata2.api.edm.provider.ReferentialConstraintRole;
 public class EdmReferentialConstraintRoleImplProv implements EdmReferentialConstraintRole, EdmAnnotatable {
   private ReferentialConstraintRole role;
   private List<String> refNames;
-  private EdmAnnotations annotations;
+  private volatile EdmAnnotations annotations;
 
   public EdmReferentialConstraintRoleImplProv(final ReferentialConstraintRole role) throws EdmException {
     this.role = role;
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmAnnotatable;
@@ -48,8 +49,8 @@ public abstract class EdmStructuralTypeImplProv extends EdmNamedImplProv impleme
   protected String namespace;
   protected Map<String, EdmTyped> edmProperties;
   private Map<String, Property> properties;
-  private List<String> edmPropertyNames;
-  private EdmAnnotations annotations;
+  private volatile List<String> edmPropertyNames;
+  private volatile EdmAnnotations annotations;
 
   public EdmStructuralTypeImplProv(final EdmImplProv edm, final ComplexType structuralType,
       final EdmTypeKind edmTypeKind, final String namespace) throws EdmException {
@@ -62,7 +63,7 @@ public abstract class EdmStructuralTypeImplProv extends EdmNamedImplProv impleme
 
     buildPropertiesInternal();
 
-    edmProperties = new HashMap<String, EdmTyped>();
+    edmProperties = new ConcurrentHashMap<String, EdmTyped>();
   }
 
   private void resolveBaseType() throws EdmException {
@@ -96,8 +97,8 @@ public abstract class EdmStructuralTypeImplProv extends EdmNamedImplProv impleme
 
   @Override
   public EdmTyped getProperty(final String name) throws EdmException {
-    EdmTyped property = edmProperties.get(name);
-    if (property == null) {
+    EdmTyped property = name == null ? null : edmProperties.get(name);
+    if (property == null && !edm.isFrozen()) {
       property = getPropertyInternal(name);
       if (property == null && edmBaseType != null) {
         property = edmBaseType.getProperty(name);
@@ -19,8 +19,12 @@
 package org.apache.olingo.odata2.core.edm.provider;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.stream.XMLStreamReader;
 
@@ -28,6 +32,7 @@ import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.edm.provider.AliasInfo;
 import org.apache.olingo.odata2.api.edm.provider.Association;
 import org.apache.olingo.odata2.api.edm.provider.AssociationSet;
+import org.apache.olingo.odata2.api.edm.provider.AssociationSetEnd;
 import org.apache.olingo.odata2.api.edm.provider.ComplexType;
 import org.apache.olingo.odata2.api.edm.provider.DataServices;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
@@ -40,133 +45,169 @@ import org.apache.olingo.odata2.api.edm.provider.Schema;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.core.commons.XmlHelper;
+import org.apache.olingo.odata2.core.ep.consumer.BinaryMetadataConsumer;
 import org.apache.olingo.odata2.core.ep.consumer.XmlMetadataConsumer;
+import org.apache.olingo.odata2.core.ep.producer.BinaryMetadataProducer;
 
+/**
+ * Provider for metadata read from a metadata document or from its binary form.
+ * <p>All elements are indexed by name once the metadata has been read, so that every lookup
+ * is a hash access instead of a scan over all schemas and containers.</p>
+ */
 public class EdmxProvider extends EdmProvider {
   private DataServices dataServices;
 
+  private EntityContainer defaultEntityContainer;
+  private Map<String, EntityContainer> entityContainers;
+  private Map<FullQualifiedName, EntityType> entityTypes;
+  private Map<FullQualifiedName, ComplexType> complexTypes;
+  private Map<FullQualifiedName, Association> associations;
+  private Map<String, EntitySet> entitySets;
+  private Map<String, AssociationSet> associationSets;
+  private Map<String, FunctionImport> functionImports;
+
   public EdmxProvider parse(final InputStream in, final boolean validate) throws EntityProviderException {
     XmlMetadataConsumer parser = new XmlMetadataConsumer();
     XMLStreamReader streamReader = XmlHelper.createStreamReader(in);
     dataServices = parser.readMetadata(streamReader, validate);
+    buildIndexes();
     return this;
   }
 
-  @Override
-  public EntityContainerInfo getEntityContainerInfo(final String name) throws ODataException {
-    if (name != null) {
-      for (Schema schema : dataServices.getSchemas()) {
-        for (EntityContainer container : schema.getEntityContainers()) {
-          if (container.getName().equals(name)) {
-            return container;
-          }
+  /**
+   * Reads metadata previously written with {@link #writeBinary(OutputStream)}.
+   * @param in binary metadata
+   * @return this provider
+   * @throws EntityProviderException if the input is not in the expected binary format
+   */
+  public EdmxProvider parseBinary(final InputStream in) throws EntityProviderException {
+    dataServices = new BinaryMetadataConsumer().readMetadata(in);
+    buildIndexes();
+    return this;
+  }
+
+  /**
+   * Writes the metadata of this provider in a compact binary form which can be cached
+   * and read again with {@link #parseBinary(InputStream)} without parsing the metadata document.
+   * @param out target of the binary metadata
+   * @throws EntityProviderException if writing fails
+   */
+  public void writeBinary(final OutputStream out) throws EntityProviderException {
+    new BinaryMetadataProducer().writeMetadata(dataServices, out);
+  }
+
+  private void buildIndexes() {
+    defaultEntityContainer = null;
+    entityContainers = new HashMap<String, EntityContainer>();
+    entityTypes = new HashMap<FullQualifiedName, EntityType>();
+    complexTypes = new HashMap<FullQualifiedName, ComplexType>();
+    associations = new HashMap<FullQualifiedName, Association>();
+    entitySets = new HashMap<String, EntitySet>();
+    associationSets = new HashMap<String, AssociationSet>();
+    functionImports = new HashMap<String, FunctionImport>();
+
+    for (Schema schema : dataServices.getSchemas()) {
+      final String namespace = schema.getNamespace();
+      if (schema.getEntityTypes() != null) {
+        for (EntityType entityType : schema.getEntityTypes()) {
+          putFirst(entityTypes, new FullQualifiedName(namespace, entityType.getName()), entityType);
         }
       }
-    } else {
-      for (Schema schema : dataServices.getSchemas()) {
+      if (schema.getComplexTypes() != null) {
+        for (ComplexType complexType : schema.getComplexTypes()) {
+          putFirst(complexTypes, new FullQualifiedName(namespace, complexType.getName()), complexType);
+        }
+      }
+      if (schema.getAssociations() != null) {
+        for (Association association : schema.getAssociations()) {
+          putFirst(associations, new FullQualifiedName(namespace, association.getName()), association);
+        }
+      }
+      if (schema.getEntityContainers() != null) {
         for (EntityContainer container : schema.getEntityContainers()) {
-          if (container.isDefaultEntityContainer()) {
-            return container;
-          }
+          indexEntityContainer(container);
         }
       }
     }
-    return null;
   }
 
-  @Override
-  public EntityType getEntityType(final FullQualifiedName edmFQName) throws ODataException {
-    for (Schema schema : dataServices.getSchemas()) {
-      if (schema.getNamespace().equals(edmFQName.getNamespace())) {
-        for (EntityType entityType : schema.getEntityTypes()) {
-          if (entityType.getName().equals(edmFQName.getName())) {
-            return entityType;
+  private void indexEntityContainer(final EntityContainer container) {
+    final String containerName = container.getName();
+    putFirst(entityContainers, containerName, container);
+    if (defaultEntityContainer == null && container.isDefaultEntityContainer()) {
+      defaultEntityContainer = container;
+    }
+    if (container.getEntitySets() != null) {
+      for (EntitySet entitySet : container.getEntitySets()) {
+        putFirst(entitySets, getKey(containerName, entitySet.getName()), entitySet);
+      }
+    }
+    if (container.getAssociationSets() != null) {
+      for (AssociationSet associationSet : container.getAssociationSets()) {
+        for (AssociationSetEnd end : Arrays.asList(associationSet.getEnd1(), associationSet.getEnd2())) {
+          if (end != null) {
+            putFirst(associationSets, getKey(containerName, String.valueOf(associationSet.getAssociation()),
+                end.getEntitySet(), end.getRole()), associationSet);
           }
         }
       }
     }
-    return null;
+    if (container.getFunctionImports() != null) {
+      for (FunctionImport functionImport : container.getFunctionImports()) {
+        putFirst(functionImports, getKey(containerName, functionImport.getName()), functionImport);
+      }
+    }
+  }
+
+  private static <K, V> void putFirst(final Map<K, V> index, final K key, final V value) {
+    if (!index.containsKey(key)) {
+      index.put(key, value);
+    }
+  }
+
+  private static String getKey(final String... parts) {
+    StringBuilder key = new StringBuilder();
+    for (String part : parts) {
+      key.append(part).append(">>");
+    }
+    return key.toString();
+  }
+
+  @Override
+  public EntityContainerInfo getEntityContainerInfo(final String name) throws ODataException {
+    return name == null ? defaultEntityContainer : entityContainers.get(name);
+  }
+
+  @Override
+  public EntityType getEntityType(final FullQualifiedName edmFQName) throws ODataException {
+    return entityTypes.get(edmFQName);
   }
 
   @Override
   public ComplexType getComplexType(final FullQualifiedName edmFQName) throws ODataException {
-    for (Schema schema : dataServices.getSchemas()) {
-      if (schema.getNamespace().equals(edmFQName.getNamespace())) {
-        for (ComplexType complexType : schema.getComplexTypes()) {
-          if (complexType.getName().equals(edmFQName.getName())) {
-            return complexType;
-          }
-        }
-      }
-    }
-    return null;
+    return complexTypes.get(edmFQName);
   }
 
   @Override
   public Association getAssociation(final FullQualifiedName edmFQName) throws ODataException {
-    for (Schema schema : dataServices.getSchemas()) {
-      if (schema.getNamespace().equals(edmFQName.getNamespace())) {
-        for (Association association : schema.getAssociations()) {
-          if (association.getName().equals(edmFQName.getName())) {
-            return association;
-          }
-        }
-      }
-    }
-    return null;
+    return associations.get(edmFQName);
   }
 
   @Override
   public EntitySet getEntitySet(final String entityContainer, final String name) throws ODataException {
-    for (Schema schema : dataServices.getSchemas()) {
-      for (EntityContainer container : schema.getEntityContainers()) {
-        if (container.getName().equals(entityContainer)) {
-          for (EntitySet entitySet : container.getEntitySets()) {
-            if (entitySet.getName().equals(name)) {
-              return entitySet;
-            }
-          }
-        }
-      }
-    }
-    return null;
+    return entitySets.get(getKey(entityContainer, name));
   }
 
   @Override
   public AssociationSet getAssociationSet(final String entityContainer, final FullQualifiedName association,
       final String sourceEntitySetName, final String sourceEntitySetRole) throws ODataException {
-    for (Schema schema : dataServices.getSchemas()) {
-      for (EntityContainer container : schema.getEntityContainers()) {
-        if (container.getName().equals(entityContainer)) {
-          for (AssociationSet associationSet : container.getAssociationSets()) {
-            if (associationSet.getAssociation().equals(association)
-                && ((associationSet.getEnd1().getEntitySet().equals(sourceEntitySetName) && associationSet.getEnd1()
-                    .getRole().equals(sourceEntitySetRole))
-                || (associationSet.getEnd2().getEntitySet().equals(sourceEntitySetName) && associationSet.getEnd2()
-                    .getRole().equals(sourceEntitySetRole)))) {
-              return associationSet;
-            }
-          }
-        }
-      }
-    }
-    return null;
+    return associationSets.get(getKey(entityContainer, String.valueOf(association), sourceEntitySetName,
+        sourceEntitySetRole));
   }
 
   @Override
   public FunctionImport getFunctionImport(final String entityContainer, final String name) throws ODataException {
-    for (Schema schema : dataServices.getSchemas()) {
-      for (EntityContainer container : schema.getEntityContainers()) {
-        if (container.getName().equals(entityContainer)) {
-          for (FunctionImport function : container.getFunctionImports()) {
-            if (function.getName().equals(name)) {
-              return function;
-            }
-          }
-        }
-      }
-    }
-    return null;
+    return functionImports.get(getKey(entityContainer, name));
   }
 
   @Override
@@ -18,6 +18,8 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.ep;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -43,7 +45,9 @@ import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.EntryPublisher;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -60,6 +64,7 @@ import org.apache.olingo.odata2.core.ep.consumer.XmlErrorDocumentConsumer;
 import org.apache.olingo.odata2.core.ep.producer.AtomEntryEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.AtomFeedProducer;
 import org.apache.olingo.odata2.core.ep.producer.AtomServiceDocumentProducer;
+import org.apache.olingo.odata2.core.ep.producer.PublishedFeedInputStream;
 import org.apache.olingo.odata2.core.ep.producer.XmlCollectionEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.XmlErrorDocumentProducer;
 import org.apache.olingo.odata2.core.ep.producer.XmlLinkEntityProducer;
@@ -76,6 +81,7 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
   /** Default used charset for writer and response content header */
   private static final String DEFAULT_CHARSET = ContentType.CHARSET_UTF_8;
   private static final String XML_VERSION = "1.0";
+  private static final ErrorDocumentCache ERROR_DOCUMENTS = new ErrorDocumentCache();
 
   public AtomEntityProvider() throws EntityProviderException {
     this(ODataFormat.ATOM);
@@ -98,29 +104,36 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
    * @param locale the {@link Locale} that should be used to format the error message
    * @param innerError the inner error for this message. If it is null or an empty String no inner error tag is shown
    * inside the response xml
+   * @param cacheable whether the serialized message may be reused for recurring errors; only messages without
+   * request-specific replacements should be cached
    * @return an {@link ODataResponse} containing the serialized error message
    */
   @Override
   public ODataResponse writeErrorDocument(final HttpStatusCodes status, final String errorCode, final String message,
-      final Locale locale, final String innerError) {
-    CircleStreamBuffer csb = new CircleStreamBuffer();
-
+      final Locale locale, final String innerError, final boolean cacheable) {
     try {
-      OutputStream outStream = csb.getOutputStream();
-      XMLStreamWriter writer = XmlHelper.getXMLOutputFactory().createXMLStreamWriter(outStream, DEFAULT_CHARSET);
-
-      XmlErrorDocumentProducer producer = new XmlErrorDocumentProducer();
-      producer.writeErrorDocument(writer, errorCode, message, locale, innerError);
-
-      writer.flush();
-      csb.closeWrite();
+      final List<Object> cacheKey =
+          cacheable && innerError == null ? ErrorDocumentCache.createKey(errorCode, message, locale) : null;
+      byte[] document = cacheKey == null ? null : ERROR_DOCUMENTS.get(cacheKey);
+      if (document == null) {
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        XMLStreamWriter writer = XmlHelper.getXMLOutputFactory().createXMLStreamWriter(outStream, DEFAULT_CHARSET);
+
+        XmlErrorDocumentProducer producer = new XmlErrorDocumentProducer();
+        producer.writeErrorDocument(writer, errorCode, message, locale, innerError);
+
+        writer.flush();
+        document = outStream.toByteArray();
+        if (cacheKey != null) {
+          ERROR_DOCUMENTS.put(cacheKey, document);
+        }
+      }
 
-      ODataResponseBuilder response = ODataResponse.entity(csb.getInputStream())
+      ODataResponseBuilder response = ODataResponse.entity(new ByteArrayInputStream(document))
           .header(ODataHttpHeaders.DATASERVICEVERSION, ODataServiceVersion.V10)
           .status(status);
       return response.build();
     } catch (Exception e) {
-      csb.close();
       throw new ODataRuntimeException(e);
     }
   }
@@ -247,6 +260,51 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
     }
   }
 
+  @Override
+  public ODataResponse writePublishedFeed(final EdmEntitySet entitySet, final EntryPublisher publisher,
+      final EntityProviderWriteProperties properties) throws EntityProviderException {
+    final EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet, properties.getExpandSelectTree());
+    final AtomFeedProducer atomFeedProvider = new AtomFeedProducer(properties);
+    return ODataResponse.entity(new PublishedFeedInputStream(publisher, properties.getPublisherTimeout()) {
+      private XMLStreamWriter writer;
+
+      @Override
+      protected void writeStart() throws EntityProviderException {
+        try {
+          writer = XmlHelper.getXMLOutputFactory().createXMLStreamWriter(getOutput(), DEFAULT_CHARSET);
+          writer.writeStartDocument(DEFAULT_CHARSET, XML_VERSION);
+          atomFeedProvider.appendStart(writer, eia, false);
+          writer.flush();
+        } catch (XMLStreamException e) {
+          throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e
+              .getClass().getSimpleName()), e);
+        }
+      }
+
+      @Override
+      protected void writeEntry(final Map<String, Object> entryData) throws EntityProviderException {
+        try {
+          atomFeedProvider.appendEntry(writer, eia, entryData);
+          writer.flush();
+        } catch (XMLStreamException e) {
+          throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e
+              .getClass().getSimpleName()), e);
+        }
+      }
+
+      @Override
+      protected void writeEnd() throws EntityProviderException {
+        try {
+          atomFeedProvider.appendEnd(writer, eia, false);
+          writer.flush();
+        } catch (XMLStreamException e) {
+          throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e
+              .getClass().getSimpleName()), e);
+        }
+      }
+    }).build();
+  }
+
   @Override
   public ODataResponse writeLink(final EdmEntitySet entitySet, final Map<String, Object> data,
       final EntityProviderWriteProperties properties) throws EntityProviderException {
@@ -366,6 +424,12 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
     return xec.readFeed(entitySet, content, properties);
   }
 
+  @Override
+  public ODataFeedStream readFeedAsStream(final EdmEntitySet entitySet, final InputStream content,
+      final EntityProviderReadProperties properties) throws EntityProviderException {
+    return new XmlEntityConsumer().readFeedAsStream(entitySet, content, properties);
+  }
+
   @Override
   public ODataEntry readEntry(final EdmEntitySet entitySet, final InputStream content,
       final EntityProviderReadProperties properties) throws EntityProviderException {
@@ -21,11 +21,16 @@ package org.apache.olingo.odata2.core.ep;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +41,7 @@ import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.olingo.odata2.api.ODataServiceVersion;
 import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.commons.ODataHttpHeaders;
 import org.apache.olingo.odata2.api.edm.EdmException;
@@ -53,6 +59,7 @@ import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
 import org.apache.olingo.odata2.core.commons.XmlHelper;
 import org.apache.olingo.odata2.core.ep.producer.XmlMetadataProducer;
+import org.apache.olingo.odata2.core.ep.util.ChannelInputStream;
 import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
 
 /**
@@ -62,6 +69,8 @@ public class BasicEntityProvider {
 
   /** Default used charset for writer and response content header */
   private static final String DEFAULT_CHARSET = "utf-8";
+  /** Range unit advertised for binary content which supports partial requests */
+  private static final String RANGE_UNIT_BYTES = "bytes";
 
   /**
    * Reads binary data from an input stream.
@@ -229,6 +238,71 @@ public class BasicEntityProvider {
     return builder.build();
   }
 
+  /**
+   * Write binary content with content type header set to given <code>mime type</code> parameter.
+   * The given stream is set as response entity without buffering its content.
+   * @param mimeType MIME type which is written and used as content type header information
+   * @param data stream which is written to {@link ODataResponse}
+   * @return resulting {@link ODataResponse} with binary content
+   * @throws EntityProviderException
+   */
+  public ODataResponse writeBinaryStream(final String mimeType, final InputStream data) throws EntityProviderException {
+    ODataResponseBuilder builder = ODataResponse.newBuilder();
+    if (data != null) {
+      builder.contentHeader(mimeType);
+      builder.entity(data);
+      if (data instanceof FileInputStream) {
+        builder.header(HttpHeaders.ACCEPT_RANGES, RANGE_UNIT_BYTES);
+      }
+    } else {
+      builder.status(HttpStatusCodes.NO_CONTENT);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Write binary content with content type header set to given <code>mime type</code> parameter.
+   * The given channel is set (wrapped as {@link ChannelInputStream}) as response entity without buffering
+   * its content.
+   * @param mimeType MIME type which is written and used as content type header information
+   * @param data channel which is written to {@link ODataResponse}
+   * @return resulting {@link ODataResponse} with binary content
+   * @throws EntityProviderException
+   */
+  public ODataResponse writeBinaryChannel(final String mimeType, final ReadableByteChannel data)
+      throws EntityProviderException {
+    ODataResponseBuilder builder = ODataResponse.newBuilder();
+    if (data != null) {
+      builder.contentHeader(mimeType);
+      builder.entity(new ChannelInputStream(data));
+      if (data instanceof FileChannel) {
+        builder.header(HttpHeaders.ACCEPT_RANGES, RANGE_UNIT_BYTES);
+      }
+    } else {
+      builder.status(HttpStatusCodes.NO_CONTENT);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Write the content of the given file with content type header set to given <code>mime type</code> parameter.
+   * @param mimeType MIME type which is written and used as content type header information
+   * @param file file whose content is written to {@link ODataResponse}
+   * @return resulting {@link ODataResponse} with binary content
+   * @throws EntityProviderException
+   */
+  public ODataResponse writeBinaryFile(final String mimeType, final File file) throws EntityProviderException {
+    if (file == null) {
+      return writeBinaryStream(mimeType, null);
+    }
+    try {
+      return writeBinaryStream(mimeType, new FileInputStream(file));
+    } catch (FileNotFoundException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
   /**
    * Writes the metadata in XML format. Predefined namespaces is of type Map{@literal <}prefix,namespace{@literal >} and
    * may be null or an empty Map.
@@ -32,7 +32,9 @@ import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.EntryPublisher;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -64,6 +66,9 @@ public interface ContentTypeBasedEntityProvider {
   ODataResponse writeFeed(EdmEntitySet entitySet, List<Map<String, Object>> data,
       EntityProviderWriteProperties properties) throws EntityProviderException;
 
+  ODataResponse writePublishedFeed(EdmEntitySet entitySet, EntryPublisher publisher,
+      EntityProviderWriteProperties properties) throws EntityProviderException;
+
   ODataResponse writeEntry(EdmEntitySet entitySet, Map<String, Object> data, EntityProviderWriteProperties properties)
       throws EntityProviderException;
 
@@ -79,13 +84,16 @@ public interface ContentTypeBasedEntityProvider {
       EntityProviderWriteProperties properties) throws EntityProviderException;
 
   ODataResponse writeErrorDocument(HttpStatusCodes status, String errorCode, String message, Locale locale,
-      String innerError);
+      String innerError, boolean cacheable);
 
   ServiceDocument readServiceDocument(InputStream serviceDocument) throws EntityProviderException;
 
   ODataDeltaFeed readDeltaFeed(EdmEntitySet entitySet, InputStream content, EntityProviderReadProperties properties)
       throws EntityProviderException;
 
+  ODataFeedStream readFeedAsStream(EdmEntitySet entitySet, InputStream content,
+      EntityProviderReadProperties properties) throws EntityProviderException;
+
   ODataErrorContext readErrorDocument(InputStream errorDocument) throws EntityProviderException;
 
   Object readFunctionImport(EdmFunctionImport functionImport, InputStream content,
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Serialized error documents without inner error, reused for recurring errors.
+ * Only messages without replacements are cached, so the number of documents is limited by the message keys.
+ * Such documents only depend on error code, message, and language, and clients
+ * running into errors (crawlers, outdated clients) tend to run into the same ones again and again.
+ */
+class ErrorDocumentCache {
+
+  private static final int MAX_CACHED_DOCUMENTS = 256;
+
+  private final Map<List<Object>, byte[]> documents =
+      Collections.synchronizedMap(new LinkedHashMap<List<Object>, byte[]>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<List<Object>, byte[]> eldest) {
+          return size() > MAX_CACHED_DOCUMENTS;
+        }
+      });
+
+  static List<Object> createKey(final String errorCode, final String message, final Locale locale) {
+    return Arrays.<Object> asList(errorCode, message, locale);
+  }
+
+  byte[] get(final List<Object> key) {
+    return documents.get(key);
+  }
+
+  void put(final List<Object> key, final byte[] document) {
+    documents.put(key, document);
+  }
+}
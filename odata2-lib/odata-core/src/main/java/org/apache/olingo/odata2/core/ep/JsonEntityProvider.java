@@ -19,6 +19,9 @@
 package org.apache.olingo.odata2.core.ep;
 
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -41,7 +44,9 @@ import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.EntryPublisher;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -60,6 +65,7 @@ import org.apache.olingo.odata2.core.ep.producer.JsonLinkEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.JsonLinksEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.JsonPropertyEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.JsonServiceDocumentProducer;
+import org.apache.olingo.odata2.core.ep.producer.PublishedFeedInputStream;
 import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
@@ -69,6 +75,7 @@ import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
 
   private static final String DEFAULT_CHARSET = "UTF-8";
+  private static final ErrorDocumentCache ERROR_DOCUMENTS = new ErrorDocumentCache();
 
   /**
    * <p>Serializes an error message according to the OData standard.</p>
@@ -80,25 +87,33 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
    * @param locale the {@link Locale} that should be used to format the error message
    * @param innerError the inner error for this message; if it is null or an empty String
    * no inner error tag is shown inside the response structure
+   * @param cacheable whether the serialized message may be reused for recurring errors; only messages without
+   * request-specific replacements should be cached
    * @return an {@link ODataResponse} containing the serialized error message
    */
   @Override
   public ODataResponse writeErrorDocument(final HttpStatusCodes status, final String errorCode, final String message,
-      final Locale locale, final String innerError) {
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
-
+      final Locale locale, final String innerError, final boolean cacheable) {
     try {
-      BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(buffer.getOutputStream(), DEFAULT_CHARSET));
-      new JsonErrorDocumentProducer().writeErrorDocument(writer, errorCode, message, locale, innerError);
-      writer.flush();
-      buffer.closeWrite();
+      final List<Object> cacheKey =
+          cacheable && innerError == null ? ErrorDocumentCache.createKey(errorCode, message, locale) : null;
+      byte[] document = cacheKey == null ? null : ERROR_DOCUMENTS.get(cacheKey);
+      if (document == null) {
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outStream, DEFAULT_CHARSET));
+        new JsonErrorDocumentProducer().writeErrorDocument(writer, errorCode, message, locale, innerError);
+        writer.flush();
+        document = outStream.toByteArray();
+        if (cacheKey != null) {
+          ERROR_DOCUMENTS.put(cacheKey, document);
+        }
+      }
 
       return ODataResponse.status(status)
-          .entity(buffer.getInputStream())
+          .entity(new ByteArrayInputStream(document))
           .header(ODataHttpHeaders.DATASERVICEVERSION, ODataServiceVersion.V10)
           .build();
     } catch (Exception e) {
-      buffer.close();
       throw new ODataRuntimeException(e);
     }
   }
@@ -209,6 +224,49 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
     }
   }
 
+  @Override
+  public ODataResponse writePublishedFeed(final EdmEntitySet entitySet, final EntryPublisher publisher,
+      final EntityProviderWriteProperties properties) throws EntityProviderException {
+    final EntityInfoAggregator entityInfo = EntityInfoAggregator.create(entitySet, properties.getExpandSelectTree());
+    final JsonFeedEntityProducer producer = new JsonFeedEntityProducer(properties);
+    return ODataResponse.entity(new PublishedFeedInputStream(publisher, properties.getPublisherTimeout()) {
+      private BufferedWriter writer;
+
+      @Override
+      protected void writeStart() throws EntityProviderException {
+        try {
+          writer = new BufferedWriter(new OutputStreamWriter(getOutput(), DEFAULT_CHARSET));
+        } catch (IOException e) {
+          throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e
+              .getClass().getSimpleName()), e);
+        }
+        producer.appendStart(writer, true);
+        flush();
+      }
+
+      @Override
+      protected void writeEntry(final Map<String, Object> entryData) throws EntityProviderException {
+        producer.appendEntry(writer, entityInfo, entryData);
+        flush();
+      }
+
+      @Override
+      protected void writeEnd() throws EntityProviderException {
+        producer.appendEnd(writer, entityInfo, true);
+        flush();
+      }
+
+      private void flush() throws EntityProviderException {
+        try {
+          writer.flush();
+        } catch (IOException e) {
+          throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e
+              .getClass().getSimpleName()), e);
+        }
+      }
+    }).build();
+  }
+
   @Override
   public ODataResponse writeLink(final EdmEntitySet entitySet, final Map<String, Object> data,
       final EntityProviderWriteProperties properties) throws EntityProviderException {
@@ -362,6 +420,12 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
     return new JsonEntityConsumer().readDeltaFeed(entitySet, content, properties);
   }
 
+  @Override
+  public ODataFeedStream readFeedAsStream(final EdmEntitySet entitySet, final InputStream content,
+      final EntityProviderReadProperties properties) throws EntityProviderException {
+    return new JsonEntityConsumer().readFeedAsStream(entitySet, content, properties);
+  }
+
   @Override
   public ODataErrorContext readErrorDocument(final InputStream errorDocument) throws EntityProviderException {
     return new JsonErrorDocumentConsumer().readError(errorDocument);
@@ -18,7 +18,9 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.ep;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 import java.util.Map;
 
@@ -40,8 +42,14 @@ import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.EntryPublisher;
+import org.apache.olingo.odata2.api.ep.feed.FeedPageFetcher;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.exception.MessageReference;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.exception.ODataMessageException;
 import org.apache.olingo.odata2.api.exception.ODataNotAcceptableException;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -52,6 +60,7 @@ import org.apache.olingo.odata2.core.batch.v2.BatchParser;
 import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.edm.provider.EdmImplProv;
 import org.apache.olingo.odata2.core.edm.provider.EdmxProvider;
+import org.apache.olingo.odata2.core.ep.feed.PagedFeedStreamImpl;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
 /**
@@ -88,12 +97,36 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
   public ODataResponse writeErrorDocument(final ODataErrorContext context) {
     try {
       return create(context.getContentType()).writeErrorDocument(context.getHttpStatus(), context.getErrorCode(),
-          context.getMessage(), context.getLocale(), context.getInnerError());
+          context.getMessage(), context.getLocale(), context.getInnerError(), isCacheable(context.getException()));
     } catch (EntityProviderException e) {
       throw new ODataRuntimeException(e);
     }
   }
 
+  /*
+   * Only documents of messages without replacements are cached; replacements like key values or URIs
+   * differ from request to request and would just displace the recurring documents.
+   * The handled exception is determined as in the exception wrappers.
+   */
+  static boolean isCacheable(final Exception exception) {
+    Exception handledException = exception;
+    if (exception instanceof ODataException) {
+      final ODataException oDataException = (ODataException) exception;
+      if (oDataException.isCausedByApplicationException()) {
+        handledException = oDataException.getApplicationExceptionCause();
+      } else if (oDataException.isCausedByHttpException()) {
+        handledException = oDataException.getHttpExceptionCause();
+      } else if (oDataException.isCausedByMessageException()) {
+        handledException = oDataException.getMessageExceptionCause();
+      }
+    }
+    if (!(handledException instanceof ODataMessageException)) {
+      return false;
+    }
+    final MessageReference messageReference = ((ODataMessageException) handledException).getMessageReference();
+    return messageReference != null && messageReference.getContent().isEmpty();
+  }
+
   @Override
   public ODataResponse writeServiceDocument(final String contentType, final Edm edm, final String serviceRoot)
       throws EntityProviderException {
@@ -116,6 +149,23 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
     return create().writeBinary(mimeType, data);
   }
 
+  @Override
+  public ODataResponse writeBinaryStream(final String mimeType, final InputStream data)
+      throws EntityProviderException {
+    return create().writeBinaryStream(mimeType, data);
+  }
+
+  @Override
+  public ODataResponse writeBinaryChannel(final String mimeType, final ReadableByteChannel data)
+      throws EntityProviderException {
+    return create().writeBinaryChannel(mimeType, data);
+  }
+
+  @Override
+  public ODataResponse writeBinaryFile(final String mimeType, final File file) throws EntityProviderException {
+    return create().writeBinaryFile(mimeType, file);
+  }
+
   @Override
   public ODataResponse writeFeed(final String contentType, final EdmEntitySet entitySet,
       final List<Map<String, Object>> data, final EntityProviderWriteProperties properties)
@@ -123,6 +173,13 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
     return create(contentType).writeFeed(entitySet, data, properties);
   }
 
+  @Override
+  public ODataResponse writePublishedFeed(final String contentType, final EdmEntitySet entitySet,
+      final EntryPublisher publisher, final EntityProviderWriteProperties properties)
+      throws EntityProviderException {
+    return create(contentType).writePublishedFeed(entitySet, publisher, properties);
+  }
+
   @Override
   public ODataResponse writeEntry(final String contentType, final EdmEntitySet entitySet,
       final Map<String, Object> data, final EntityProviderWriteProperties properties) throws EntityProviderException {
@@ -173,6 +230,25 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
     return create(contentType).readDeltaFeed(entitySet, content, properties);
   }
 
+  @Override
+  public ODataFeedStream readFeedAsStream(final String contentType, final EdmEntitySet entitySet,
+      final InputStream content, final EntityProviderReadProperties properties) throws EntityProviderException {
+    return create(contentType).readFeedAsStream(entitySet, content, properties);
+  }
+
+  @Override
+  public ODataFeedStream readPagedFeed(final String contentType, final EdmEntitySet entitySet,
+      final InputStream content, final EntityProviderReadProperties properties, final FeedPageFetcher fetcher,
+      final int prefetchPages) throws EntityProviderException {
+    final ContentTypeBasedEntityProvider provider = create(contentType);
+    return new PagedFeedStreamImpl(content, fetcher, prefetchPages, properties.getPageHandOverTimeout()) {
+      @Override
+      protected ODataDeltaFeed readPage(final InputStream pageContent) throws EntityProviderException {
+        return provider.readDeltaFeed(entitySet, pageContent, properties);
+      }
+    }.start();
+  }
+
   @Override
   public ODataEntry readEntry(final String contentType, final EdmEntitySet entitySet, final InputStream content,
       final EntityProviderReadProperties properties) throws EntityProviderException {
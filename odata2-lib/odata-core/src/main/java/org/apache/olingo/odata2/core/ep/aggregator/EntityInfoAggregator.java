@@ -44,6 +44,7 @@ import org.apache.olingo.odata2.api.edm.EdmType;
 import org.apache.olingo.odata2.api.edm.EdmTypeKind;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
+import org.apache.olingo.odata2.core.ep.entry.EntryPropertyMap;
 
 /**
  * Aggregator to get easy and fast access to all for serialization and de-serialization necessary {@link EdmEntitySet}
@@ -81,6 +82,7 @@ public class EntityInfoAggregator {
   private List<String> selectedPropertyNames;
   private List<String> selectedNavigationPropertyNames;
   private List<String> expandedNavigationPropertyNames;
+  private EntryPropertyMap.Layout propertyLayout;
 
   private Map<String, EntityPropertyInfo> targetPath2EntityPropertyInfo = new HashMap<String, EntityPropertyInfo>();
   private List<String> noneSyndicationTargetPaths = new ArrayList<String>();
@@ -255,6 +257,18 @@ public class EntityInfoAggregator {
     return Collections.unmodifiableList(propertyNames);
   }
 
+  /**
+   * @return layout of all property and navigation property names for {@link EntryPropertyMap} instances
+   */
+  public EntryPropertyMap.Layout getPropertyLayout() {
+    if (propertyLayout == null) {
+      List<String> names = new ArrayList<String>(propertyNames);
+      names.addAll(navigationPropertyNames);
+      propertyLayout = new EntryPropertyMap.Layout(names);
+    }
+    return propertyLayout;
+  }
+
   /**
    * @return unmodifiable set of selected property names.
    */
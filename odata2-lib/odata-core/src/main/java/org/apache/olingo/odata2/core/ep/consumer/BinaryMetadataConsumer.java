@@ -0,0 +1,519 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.consumer;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.odata2.api.edm.EdmAction;
+import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
+import org.apache.olingo.odata2.api.edm.EdmContentKind;
+import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.FullQualifiedName;
+import org.apache.olingo.odata2.api.edm.provider.AnnotationAttribute;
+import org.apache.olingo.odata2.api.edm.provider.AnnotationElement;
+import org.apache.olingo.odata2.api.edm.provider.Association;
+import org.apache.olingo.odata2.api.edm.provider.AssociationEnd;
+import org.apache.olingo.odata2.api.edm.provider.AssociationSet;
+import org.apache.olingo.odata2.api.edm.provider.AssociationSetEnd;
+import org.apache.olingo.odata2.api.edm.provider.ComplexProperty;
+import org.apache.olingo.odata2.api.edm.provider.ComplexType;
+import org.apache.olingo.odata2.api.edm.provider.CustomizableFeedMappings;
+import org.apache.olingo.odata2.api.edm.provider.DataServices;
+import org.apache.olingo.odata2.api.edm.provider.Documentation;
+import org.apache.olingo.odata2.api.edm.provider.EntityContainer;
+import org.apache.olingo.odata2.api.edm.provider.EntitySet;
+import org.apache.olingo.odata2.api.edm.provider.EntityType;
+import org.apache.olingo.odata2.api.edm.provider.Facets;
+import org.apache.olingo.odata2.api.edm.provider.FunctionImport;
+import org.apache.olingo.odata2.api.edm.provider.FunctionImportParameter;
+import org.apache.olingo.odata2.api.edm.provider.Key;
+import org.apache.olingo.odata2.api.edm.provider.Mapping;
+import org.apache.olingo.odata2.api.edm.provider.NavigationProperty;
+import org.apache.olingo.odata2.api.edm.provider.OnDelete;
+import org.apache.olingo.odata2.api.edm.provider.Property;
+import org.apache.olingo.odata2.api.edm.provider.PropertyRef;
+import org.apache.olingo.odata2.api.edm.provider.ReferentialConstraint;
+import org.apache.olingo.odata2.api.edm.provider.ReferentialConstraintRole;
+import org.apache.olingo.odata2.api.edm.provider.ReturnType;
+import org.apache.olingo.odata2.api.edm.provider.Schema;
+import org.apache.olingo.odata2.api.edm.provider.SimpleProperty;
+import org.apache.olingo.odata2.api.edm.provider.Using;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.core.ep.producer.BinaryMetadataProducer;
+
+/**
+ * Reads the provider metadata model ({@link DataServices}) from the binary form written by
+ * {@link BinaryMetadataProducer}.
+ */
+public class BinaryMetadataConsumer {
+
+  private final List<String> stringTable = new ArrayList<String>();
+  private DataInputStream in;
+
+  public DataServices readMetadata(final InputStream inputStream) throws EntityProviderException {
+    try {
+      in = new DataInputStream(inputStream);
+      if (in.readInt() != BinaryMetadataProducer.MAGIC || in.readByte() != BinaryMetadataProducer.VERSION) {
+        throw new EntityProviderException(EntityProviderException.ILLEGAL_ARGUMENT
+            .addContent("Unsupported binary metadata format."));
+      }
+      DataServices dataServices = new DataServices();
+      dataServices.setDataServiceVersion(readString());
+      dataServices.setCustomEdmxVersion(readString());
+      dataServices.setAnnotationElements(readAnnotationElements());
+      final int schemaCount = readSize();
+      if (schemaCount >= 0) {
+        List<Schema> schemas = new ArrayList<Schema>(schemaCount);
+        for (int i = 0; i < schemaCount; i++) {
+          schemas.add(readSchema());
+        }
+        dataServices.setSchemas(schemas);
+      }
+      return dataServices;
+    } catch (IOException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    } catch (IllegalArgumentException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    } finally {
+      stringTable.clear();
+    }
+  }
+
+  private Schema readSchema() throws IOException {
+    Schema schema = new Schema();
+    schema.setNamespace(readString());
+    schema.setAlias(readString());
+    final int usingCount = readSize();
+    if (usingCount >= 0) {
+      List<Using> usings = new ArrayList<Using>(usingCount);
+      for (int i = 0; i < usingCount; i++) {
+        Using using = new Using().setNamespace(readString()).setAlias(readString());
+        using.setDocumentation(readDocumentation());
+        using.setAnnotationAttributes(readAnnotationAttributes());
+        using.setAnnotationElements(readAnnotationElements());
+        usings.add(using);
+      }
+      schema.setUsings(usings);
+    }
+    final int entityTypeCount = readSize();
+    if (entityTypeCount >= 0) {
+      List<EntityType> entityTypes = new ArrayList<EntityType>(entityTypeCount);
+      for (int i = 0; i < entityTypeCount; i++) {
+        entityTypes.add(readEntityType());
+      }
+      schema.setEntityTypes(entityTypes);
+    }
+    final int complexTypeCount = readSize();
+    if (complexTypeCount >= 0) {
+      List<ComplexType> complexTypes = new ArrayList<ComplexType>(complexTypeCount);
+      for (int i = 0; i < complexTypeCount; i++) {
+        ComplexType complexType = new ComplexType();
+        readComplexType(complexType);
+        complexTypes.add(complexType);
+      }
+      schema.setComplexTypes(complexTypes);
+    }
+    final int associationCount = readSize();
+    if (associationCount >= 0) {
+      List<Association> associations = new ArrayList<Association>(associationCount);
+      for (int i = 0; i < associationCount; i++) {
+        associations.add(readAssociation());
+      }
+      schema.setAssociations(associations);
+    }
+    final int containerCount = readSize();
+    if (containerCount >= 0) {
+      List<EntityContainer> entityContainers = new ArrayList<EntityContainer>(containerCount);
+      for (int i = 0; i < containerCount; i++) {
+        entityContainers.add(readEntityContainer());
+      }
+      schema.setEntityContainers(entityContainers);
+    }
+    schema.setAnnotationAttributes(readAnnotationAttributes());
+    schema.setAnnotationElements(readAnnotationElements());
+    return schema;
+  }
+
+  private EntityType readEntityType() throws IOException {
+    EntityType entityType = new EntityType();
+    readComplexType(entityType);
+    entityType.setHasStream(in.readBoolean());
+    entityType.setCustomizableFeedMappings(readCustomizableFeedMappings());
+    if (in.readBoolean()) {
+      Key key = new Key().setKeys(readPropertyRefs());
+      key.setAnnotationAttributes(readAnnotationAttributes());
+      key.setAnnotationElements(readAnnotationElements());
+      entityType.setKey(key);
+    }
+    final int navigationPropertyCount = readSize();
+    if (navigationPropertyCount >= 0) {
+      List<NavigationProperty> navigationProperties = new ArrayList<NavigationProperty>(navigationPropertyCount);
+      for (int i = 0; i < navigationPropertyCount; i++) {
+        NavigationProperty navigationProperty = new NavigationProperty().setName(readString())
+            .setRelationship(readFullQualifiedName()).setFromRole(readString()).setToRole(readString());
+        navigationProperty.setMapping(readMapping());
+        navigationProperty.setDocumentation(readDocumentation());
+        navigationProperty.setAnnotationAttributes(readAnnotationAttributes());
+        navigationProperty.setAnnotationElements(readAnnotationElements());
+        navigationProperties.add(navigationProperty);
+      }
+      entityType.setNavigationProperties(navigationProperties);
+    }
+    return entityType;
+  }
+
+  private void readComplexType(final ComplexType complexType) throws IOException {
+    complexType.setName(readString());
+    complexType.setBaseType(readFullQualifiedName());
+    complexType.setAbstract(in.readBoolean());
+    final int propertyCount = readSize();
+    if (propertyCount >= 0) {
+      List<Property> properties = new ArrayList<Property>(propertyCount);
+      for (int i = 0; i < propertyCount; i++) {
+        properties.add(readProperty());
+      }
+      complexType.setProperties(properties);
+    }
+    complexType.setMapping(readMapping());
+    complexType.setDocumentation(readDocumentation());
+    complexType.setAnnotationAttributes(readAnnotationAttributes());
+    complexType.setAnnotationElements(readAnnotationElements());
+  }
+
+  private Property readProperty() throws IOException {
+    Property property;
+    final byte kind = in.readByte();
+    if (kind == BinaryMetadataProducer.SIMPLE_PROPERTY) {
+      property = new SimpleProperty().setType(readEnum(EdmSimpleTypeKind.class));
+    } else if (kind == BinaryMetadataProducer.COMPLEX_PROPERTY) {
+      property = new ComplexProperty().setType(readFullQualifiedName());
+    } else {
+      throw new IOException("Unknown property kind " + kind);
+    }
+    property.setName(readString());
+    property.setFacets(readFacets());
+    property.setCustomizableFeedMappings(readCustomizableFeedMappings());
+    property.setMimeType(readString());
+    property.setMapping(readMapping());
+    property.setDocumentation(readDocumentation());
+    property.setAnnotationAttributes(readAnnotationAttributes());
+    property.setAnnotationElements(readAnnotationElements());
+    return property;
+  }
+
+  private Association readAssociation() throws IOException {
+    Association association = new Association().setName(readString());
+    association.setEnd1(readAssociationEnd());
+    association.setEnd2(readAssociationEnd());
+    if (in.readBoolean()) {
+      ReferentialConstraint constraint = new ReferentialConstraint();
+      constraint.setPrincipal(readReferentialConstraintRole());
+      constraint.setDependent(readReferentialConstraintRole());
+      constraint.setDocumentation(readDocumentation());
+      constraint.setAnnotationAttributes(readAnnotationAttributes());
+      constraint.setAnnotationElements(readAnnotationElements());
+      association.setReferentialConstraint(constraint);
+    }
+    association.setDocumentation(readDocumentation());
+    association.setAnnotationAttributes(readAnnotationAttributes());
+    association.setAnnotationElements(readAnnotationElements());
+    return association;
+  }
+
+  private AssociationEnd readAssociationEnd() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    AssociationEnd end = new AssociationEnd().setType(readFullQualifiedName()).setRole(readString())
+        .setMultiplicity(readEnum(EdmMultiplicity.class));
+    if (in.readBoolean()) {
+      OnDelete onDelete = new OnDelete().setAction(readEnum(EdmAction.class));
+      onDelete.setDocumentation(readDocumentation());
+      onDelete.setAnnotationAttributes(readAnnotationAttributes());
+      onDelete.setAnnotationElements(readAnnotationElements());
+      end.setOnDelete(onDelete);
+    }
+    end.setDocumentation(readDocumentation());
+    end.setAnnotationAttributes(readAnnotationAttributes());
+    end.setAnnotationElements(readAnnotationElements());
+    return end;
+  }
+
+  private ReferentialConstraintRole readReferentialConstraintRole() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    ReferentialConstraintRole role = new ReferentialConstraintRole().setRole(readString());
+    role.setPropertyRefs(readPropertyRefs());
+    role.setAnnotationAttributes(readAnnotationAttributes());
+    role.setAnnotationElements(readAnnotationElements());
+    return role;
+  }
+
+  private List<PropertyRef> readPropertyRefs() throws IOException {
+    final int count = readSize();
+    if (count < 0) {
+      return null;
+    }
+    List<PropertyRef> propertyRefs = new ArrayList<PropertyRef>(count);
+    for (int i = 0; i < count; i++) {
+      PropertyRef propertyRef = new PropertyRef().setName(readString());
+      propertyRef.setAnnotationAttributes(readAnnotationAttributes());
+      propertyRef.setAnnotationElements(readAnnotationElements());
+      propertyRefs.add(propertyRef);
+    }
+    return propertyRefs;
+  }
+
+  private EntityContainer readEntityContainer() throws IOException {
+    EntityContainer entityContainer = new EntityContainer();
+    entityContainer.setName(readString());
+    entityContainer.setExtendz(readString());
+    entityContainer.setDefaultEntityContainer(in.readBoolean());
+    final int entitySetCount = readSize();
+    if (entitySetCount >= 0) {
+      List<EntitySet> entitySets = new ArrayList<EntitySet>(entitySetCount);
+      for (int i = 0; i < entitySetCount; i++) {
+        EntitySet entitySet = new EntitySet().setName(readString()).setEntityType(readFullQualifiedName());
+        entitySet.setMapping(readMapping());
+        entitySet.setDocumentation(readDocumentation());
+        entitySet.setAnnotationAttributes(readAnnotationAttributes());
+        entitySet.setAnnotationElements(readAnnotationElements());
+        entitySets.add(entitySet);
+      }
+      entityContainer.setEntitySets(entitySets);
+    }
+    final int associationSetCount = readSize();
+    if (associationSetCount >= 0) {
+      List<AssociationSet> associationSets = new ArrayList<AssociationSet>(associationSetCount);
+      for (int i = 0; i < associationSetCount; i++) {
+        AssociationSet associationSet = new AssociationSet().setName(readString())
+            .setAssociation(readFullQualifiedName());
+        associationSet.setEnd1(readAssociationSetEnd());
+        associationSet.setEnd2(readAssociationSetEnd());
+        associationSet.setDocumentation(readDocumentation());
+        associationSet.setAnnotationAttributes(readAnnotationAttributes());
+        associationSet.setAnnotationElements(readAnnotationElements());
+        associationSets.add(associationSet);
+      }
+      entityContainer.setAssociationSets(associationSets);
+    }
+    final int functionImportCount = readSize();
+    if (functionImportCount >= 0) {
+      List<FunctionImport> functionImports = new ArrayList<FunctionImport>(functionImportCount);
+      for (int i = 0; i < functionImportCount; i++) {
+        functionImports.add(readFunctionImport());
+      }
+      entityContainer.setFunctionImports(functionImports);
+    }
+    entityContainer.setDocumentation(readDocumentation());
+    entityContainer.setAnnotationAttributes(readAnnotationAttributes());
+    entityContainer.setAnnotationElements(readAnnotationElements());
+    return entityContainer;
+  }
+
+  private AssociationSetEnd readAssociationSetEnd() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    AssociationSetEnd end = new AssociationSetEnd().setRole(readString()).setEntitySet(readString());
+    end.setDocumentation(readDocumentation());
+    end.setAnnotationAttributes(readAnnotationAttributes());
+    end.setAnnotationElements(readAnnotationElements());
+    return end;
+  }
+
+  private FunctionImport readFunctionImport() throws IOException {
+    FunctionImport functionImport = new FunctionImport().setName(readString());
+    if (in.readBoolean()) {
+      functionImport.setReturnType(new ReturnType().setTypeName(readFullQualifiedName())
+          .setMultiplicity(readEnum(EdmMultiplicity.class)));
+    }
+    functionImport.setEntitySet(readString());
+    functionImport.setHttpMethod(readString());
+    final int parameterCount = readSize();
+    if (parameterCount >= 0) {
+      List<FunctionImportParameter> parameters = new ArrayList<FunctionImportParameter>(parameterCount);
+      for (int i = 0; i < parameterCount; i++) {
+        FunctionImportParameter parameter = new FunctionImportParameter().setName(readString())
+            .setMode(readString()).setType(readEnum(EdmSimpleTypeKind.class));
+        parameter.setFacets(readFacets());
+        parameter.setMapping(readMapping());
+        parameter.setDocumentation(readDocumentation());
+        parameter.setAnnotationAttributes(readAnnotationAttributes());
+        parameter.setAnnotationElements(readAnnotationElements());
+        parameters.add(parameter);
+      }
+      functionImport.setParameters(parameters);
+    }
+    functionImport.setMapping(readMapping());
+    functionImport.setDocumentation(readDocumentation());
+    functionImport.setAnnotationAttributes(readAnnotationAttributes());
+    functionImport.setAnnotationElements(readAnnotationElements());
+    return functionImport;
+  }
+
+  private Facets readFacets() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return new Facets()
+        .setNullable(readBoolean())
+        .setDefaultValue(readString())
+        .setMaxLength(readInteger())
+        .setFixedLength(readBoolean())
+        .setPrecision(readInteger())
+        .setScale(readInteger())
+        .setUnicode(readBoolean())
+        .setCollation(readString())
+        .setConcurrencyMode(readEnum(EdmConcurrencyMode.class));
+  }
+
+  private CustomizableFeedMappings readCustomizableFeedMappings() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return new CustomizableFeedMappings()
+        .setFcKeepInContent(readBoolean())
+        .setFcContentKind(readEnum(EdmContentKind.class))
+        .setFcNsPrefix(readString())
+        .setFcNsUri(readString())
+        .setFcSourcePath(readString())
+        .setFcTargetPath(readString());
+  }
+
+  private Mapping readMapping() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return new Mapping()
+        .setInternalName(readString())
+        .setMediaResourceSourceKey(readString())
+        .setMediaResourceMimeTypeKey(readString());
+  }
+
+  private Documentation readDocumentation() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return new Documentation()
+        .setSummary(readString())
+        .setLongDescription(readString())
+        .setAnnotationAttributes(readAnnotationAttributes())
+        .setAnnotationElements(readAnnotationElements());
+  }
+
+  private List<AnnotationAttribute> readAnnotationAttributes() throws IOException {
+    final int count = readSize();
+    if (count < 0) {
+      return null;
+    }
+    List<AnnotationAttribute> attributes = new ArrayList<AnnotationAttribute>(count);
+    for (int i = 0; i < count; i++) {
+      attributes.add(new AnnotationAttribute()
+          .setNamespace(readString())
+          .setPrefix(readString())
+          .setName(readString())
+          .setText(readString()));
+    }
+    return attributes;
+  }
+
+  private List<AnnotationElement> readAnnotationElements() throws IOException {
+    final int count = readSize();
+    if (count < 0) {
+      return null;
+    }
+    List<AnnotationElement> elements = new ArrayList<AnnotationElement>(count);
+    for (int i = 0; i < count; i++) {
+      AnnotationElement element = new AnnotationElement()
+          .setNamespace(readString())
+          .setPrefix(readString())
+          .setName(readString())
+          .setText(readString());
+      element.setChildElements(readAnnotationElements());
+      element.setAttributes(readAnnotationAttributes());
+      elements.add(element);
+    }
+    return elements;
+  }
+
+  private FullQualifiedName readFullQualifiedName() throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    final String namespace = readString();
+    return new FullQualifiedName(namespace, readString());
+  }
+
+  private <T extends Enum<T>> T readEnum(final Class<T> enumType) throws IOException {
+    final String name = readString();
+    return name == null ? null : Enum.valueOf(enumType, name);
+  }
+
+  private Boolean readBoolean() throws IOException {
+    final byte value = in.readByte();
+    return value == BinaryMetadataProducer.NULL ? null : Boolean.valueOf(value == 2);
+  }
+
+  private Integer readInteger() throws IOException {
+    return in.readBoolean() ? Integer.valueOf(in.readInt()) : null;
+  }
+
+  /** Reads a collection size; <code>-1</code> stands for <code>null</code>. */
+  private int readSize() throws IOException {
+    return readNumber() - 1;
+  }
+
+  private String readString() throws IOException {
+    final int code = readNumber();
+    if (code == BinaryMetadataProducer.NULL) {
+      return null;
+    } else if (code == BinaryMetadataProducer.NEW_STRING) {
+      final byte[] bytes = new byte[readNumber()];
+      in.readFully(bytes);
+      final String value = new String(bytes, BinaryMetadataProducer.UTF_8);
+      stringTable.add(value);
+      return value;
+    } else if (code - BinaryMetadataProducer.STRING_REFERENCE_OFFSET < stringTable.size()) {
+      return stringTable.get(code - BinaryMetadataProducer.STRING_REFERENCE_OFFSET);
+    } else {
+      throw new IOException("Unknown string reference " + code);
+    }
+  }
+
+  private int readNumber() throws IOException {
+    int number = 0;
+    int shift = 0;
+    int current;
+    do {
+      current = in.readUnsignedByte();
+      number |= (current & 0x7F) << shift;
+      shift += 7;
+    } while ((current & 0x80) != 0);
+    return number;
+  }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.consumer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
+
+/**
+ * Plan for reading the inline content of a navigation property: the information about the related entity set,
+ * the read properties for the inline entries, and the plans for their own inline content.
+ * The entry consumers keep their plans per navigation property name and reuse them for all sibling entries,
+ * so that the metadata of a navigation path is aggregated once per document instead of once per entry.
+ */
+class InlineReadPlan {
+
+  private final EntityInfoAggregator parentEntityInfo;
+  private final EdmNavigationProperty navigationProperty;
+  private final EntityInfoAggregator entityInfo;
+  private final Map<String, InlineReadPlan> inlinePlans = new HashMap<String, InlineReadPlan>();
+  private EntityProviderReadProperties parentReadProperties;
+  private EntityProviderReadProperties readProperties;
+
+  private InlineReadPlan(final EntityInfoAggregator parentEntityInfo, final EdmNavigationProperty navigationProperty,
+      final EntityInfoAggregator entityInfo) {
+    this.parentEntityInfo = parentEntityInfo;
+    this.navigationProperty = navigationProperty;
+    this.entityInfo = entityInfo;
+  }
+
+  /**
+   * Gets the plan for the given navigation property of entries described by <code>eia</code>
+   * from <code>plans</code>, creating it on first use.
+   */
+  static InlineReadPlan get(final Map<String, InlineReadPlan> plans, final EntityInfoAggregator eia,
+      final String navigationPropertyName) throws EdmException, EntityProviderException {
+    InlineReadPlan plan = plans.get(navigationPropertyName);
+    if (plan == null || plan.parentEntityInfo != eia) {
+      final EdmNavigationProperty navigationProperty =
+          (EdmNavigationProperty) eia.getEntityType().getProperty(navigationPropertyName);
+      final EdmEntitySet entitySet = eia.getEntitySet().getRelatedEntitySet(navigationProperty);
+      plan = new InlineReadPlan(eia, navigationProperty, EntityInfoAggregator.create(entitySet));
+      plans.put(navigationPropertyName, plan);
+    }
+    return plan;
+  }
+
+  public EdmNavigationProperty getNavigationProperty() {
+    return navigationProperty;
+  }
+
+  public EntityInfoAggregator getEntityInfo() {
+    return entityInfo;
+  }
+
+  public Map<String, InlineReadPlan> getInlinePlans() {
+    return inlinePlans;
+  }
+
+  /**
+   * Gets the read properties for the inline entries if they have already been derived
+   * from the given read properties of the parent entry.
+   * @return the read properties or <code>null</code>
+   */
+  public EntityProviderReadProperties getReadProperties(final EntityProviderReadProperties parentReadProperties) {
+    return parentReadProperties == this.parentReadProperties ? readProperties : null;
+  }
+
+  public void setReadProperties(final EntityProviderReadProperties parentReadProperties,
+      final EntityProviderReadProperties readProperties) {
+    this.parentReadProperties = parentReadProperties;
+    this.readProperties = readProperties;
+  }
+}
@@ -32,6 +32,7 @@ import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
 
@@ -81,6 +82,18 @@ public class JsonEntityConsumer {
     return readDeltaFeed(entitySet, content, readProperties);
   }
 
+  public ODataFeedStream readFeedAsStream(final EdmEntitySet entitySet, final InputStream content,
+      final EntityProviderReadProperties readProperties) throws EntityProviderException {
+    try {
+      EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet);
+      JsonReader reader = createJsonReader(content);
+      return new JsonFeedConsumer(reader, eia, readProperties).readFeedAsStream();
+    } catch (UnsupportedEncodingException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
   public ODataDeltaFeed readDeltaFeed(final EdmEntitySet entitySet, final InputStream content,
       final EntityProviderReadProperties readProperties) throws EntityProviderException {
 
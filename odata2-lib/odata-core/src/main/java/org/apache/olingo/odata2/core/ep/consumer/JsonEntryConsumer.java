@@ -25,7 +25,6 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.edm.Edm;
-import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
 import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
@@ -45,6 +44,7 @@ import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
 import org.apache.olingo.odata2.core.ep.aggregator.NavigationPropertyInfo;
 import org.apache.olingo.odata2.core.ep.entry.DeletedEntryMetadataImpl;
 import org.apache.olingo.odata2.core.ep.entry.EntryMetadataImpl;
+import org.apache.olingo.odata2.core.ep.entry.EntryPropertyMap;
 import org.apache.olingo.odata2.core.ep.entry.MediaMetadataImpl;
 import org.apache.olingo.odata2.core.ep.entry.ODataEntryImpl;
 import org.apache.olingo.odata2.core.ep.feed.JsonFeedEntry;
@@ -71,13 +71,20 @@ public class JsonEntryConsumer {
   private ExpandSelectTreeNodeImpl expandSelectTree;
 
   private DeletedEntryMetadataImpl resultDeletedEntry;
+  private final Map<String, InlineReadPlan> inlinePlans;
 
   public JsonEntryConsumer(final JsonReader reader, final EntityInfoAggregator eia,
       final EntityProviderReadProperties readProperties) {
+    this(reader, eia, readProperties, new HashMap<String, InlineReadPlan>());
+  }
+
+  JsonEntryConsumer(final JsonReader reader, final EntityInfoAggregator eia,
+      final EntityProviderReadProperties readProperties, final Map<String, InlineReadPlan> inlinePlans) {
     typeMappings = readProperties.getTypeMappings();
     this.eia = eia;
     this.readProperties = readProperties;
     this.reader = reader;
+    this.inlinePlans = inlinePlans;
   }
 
   public ODataEntry readSingleEntry() throws EntityProviderException {
@@ -138,7 +145,7 @@ public class JsonEntryConsumer {
    */
   private void ensureODataEntryExists() {
     if (resultEntry == null) {
-      properties = new HashMap<String, Object>();
+      properties = new EntryPropertyMap(eia.getPropertyLayout());
       mediaMetadata = new MediaMetadataImpl();
       entryMetadata = new EntryMetadataImpl();
       expandSelectTree = new ExpandSelectTreeNodeImpl();
@@ -294,26 +301,14 @@ public class JsonEntryConsumer {
         }
         reader.endObject();
       } else {
-        EdmNavigationProperty navigationProperty =
-            (EdmNavigationProperty) eia.getEntityType().getProperty(navigationPropertyName);
-        EdmEntitySet inlineEntitySet = eia.getEntitySet().getRelatedEntitySet(navigationProperty);
-        EntityInfoAggregator inlineEia = EntityInfoAggregator.create(inlineEntitySet);
-        EntityProviderReadProperties inlineReadProperties;
+        final InlineReadPlan plan = InlineReadPlan.get(inlinePlans, eia, navigationPropertyName);
+        final EdmNavigationProperty navigationProperty = plan.getNavigationProperty();
+        final EntityProviderReadProperties inlineReadProperties = getInlineReadProperties(plan);
         OnReadInlineContent callback = readProperties.getCallback();
         try {
-          if (callback == null) {
-            inlineReadProperties =
-                EntityProviderReadProperties.init()
-                    .mergeSemantic(readProperties.getMergeSemantic())
-                    .isValidatingFacets(readProperties.isValidatingFacets())
-                    .build();
-
-          } else {
-            inlineReadProperties = callback.receiveReadProperties(readProperties, navigationProperty);
-          }
-
           if (navigationProperty.getMultiplicity() == EdmMultiplicity.MANY) {
-            JsonFeedConsumer inlineConsumer = new JsonFeedConsumer(reader, inlineEia, inlineReadProperties);
+            JsonFeedConsumer inlineConsumer = new JsonFeedConsumer(reader, plan.getEntityInfo(), inlineReadProperties,
+                plan.getInlinePlans());
             ODataFeed feed = inlineConsumer.readStartedInlineFeed(name);
             updateExpandSelectTree(navigationPropertyName, feed);
             if (callback == null) {
@@ -325,7 +320,8 @@ public class JsonEntryConsumer {
               callback.handleReadFeed(result);
             }
           } else {
-            JsonEntryConsumer inlineConsumer = new JsonEntryConsumer(reader, inlineEia, inlineReadProperties);
+            JsonEntryConsumer inlineConsumer = new JsonEntryConsumer(reader, plan.getEntityInfo(), inlineReadProperties,
+                plan.getInlinePlans());
             ODataEntry entry = inlineConsumer.readInlineEntry(name);
             updateExpandSelectTree(navigationPropertyName, entry);
             if (callback == null) {
@@ -347,27 +343,12 @@ public class JsonEntryConsumer {
     } else if (peek == JsonToken.NULL) {
       reader.nextNull();
     } else {
-      final EdmNavigationProperty navigationProperty =
-          (EdmNavigationProperty) eia.getEntityType().getProperty(navigationPropertyName);
-      final EdmEntitySet inlineEntitySet = eia.getEntitySet().getRelatedEntitySet(navigationProperty);
-      final EntityInfoAggregator inlineInfo = EntityInfoAggregator.create(inlineEntitySet);
+      final InlineReadPlan plan = InlineReadPlan.get(inlinePlans, eia, navigationPropertyName);
+      final EdmNavigationProperty navigationProperty = plan.getNavigationProperty();
+      final EntityProviderReadProperties inlineReadProperties = getInlineReadProperties(plan);
       OnReadInlineContent callback = readProperties.getCallback();
-      EntityProviderReadProperties inlineReadProperties;
-      if (callback == null) {
-        inlineReadProperties =
-            EntityProviderReadProperties.init()
-                .mergeSemantic(readProperties.getMergeSemantic())
-                .isValidatingFacets(readProperties.isValidatingFacets())
-                .build();
-      } else {
-        try {
-          inlineReadProperties = callback.receiveReadProperties(readProperties, navigationProperty);
-        } catch (final ODataApplicationException e) {
-          throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
-              .getSimpleName()), e);
-        }
-      }
-      ODataFeed feed = new JsonFeedConsumer(reader, inlineInfo, inlineReadProperties).readInlineFeedStandalone();
+      ODataFeed feed = new JsonFeedConsumer(reader, plan.getEntityInfo(), inlineReadProperties, plan.getInlinePlans())
+          .readInlineFeedStandalone();
       updateExpandSelectTree(navigationPropertyName, feed);
       if (callback == null) {
         properties.put(navigationPropertyName, feed);
@@ -385,6 +366,33 @@ public class JsonEntryConsumer {
     }
   }
 
+  /**
+   * Gets the read properties for the inline entries of a navigation property.
+   * Without callback they are derived once per navigation path and reused for all sibling entries.
+   */
+  private EntityProviderReadProperties getInlineReadProperties(final InlineReadPlan plan)
+      throws EntityProviderException {
+    final OnReadInlineContent callback = readProperties.getCallback();
+    if (callback == null) {
+      EntityProviderReadProperties inlineReadProperties = plan.getReadProperties(readProperties);
+      if (inlineReadProperties == null) {
+        inlineReadProperties =
+            EntityProviderReadProperties.init()
+                .mergeSemantic(readProperties.getMergeSemantic())
+                .isValidatingFacets(readProperties.isValidatingFacets())
+                .build();
+        plan.setReadProperties(readProperties, inlineReadProperties);
+      }
+      return inlineReadProperties;
+    }
+    try {
+      return callback.receiveReadProperties(readProperties, plan.getNavigationProperty());
+    } catch (final ODataApplicationException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
   private void updateExpandSelectTree(final String navigationPropertyName, final ODataFeed feed) {
     List<ODataEntry> entries = feed.getEntries();
     if (entries.size() > 0) {
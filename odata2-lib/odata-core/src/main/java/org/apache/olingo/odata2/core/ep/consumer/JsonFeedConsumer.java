@@ -20,7 +20,9 @@ package org.apache.olingo.odata2.core.ep.consumer;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
@@ -29,10 +31,12 @@ import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.feed.FeedMetadataImpl;
 import org.apache.olingo.odata2.core.ep.feed.JsonFeedEntry;
 import org.apache.olingo.odata2.core.ep.feed.ODataDeltaFeedImpl;
+import org.apache.olingo.odata2.core.ep.feed.ODataFeedStreamImpl;
 import org.apache.olingo.odata2.core.ep.util.FormatJson;
 
 import com.google.gson.stream.JsonReader;
@@ -50,12 +54,23 @@ public class JsonFeedConsumer {
   private List<ODataEntry> entries = new ArrayList<ODataEntry>();
   private FeedMetadataImpl feedMetadata = new FeedMetadataImpl();
   private boolean resultsArrayPresent = false;
+  private boolean streamStarted = false;
+  private boolean streamInArray = false;
+  private boolean streamInFeedContent = false;
+  private int streamObjectDepth = 0;
+  private final Map<String, InlineReadPlan> inlinePlans;
 
   public JsonFeedConsumer(final JsonReader reader, final EntityInfoAggregator eia,
       final EntityProviderReadProperties readProperties) {
+    this(reader, eia, readProperties, new HashMap<String, InlineReadPlan>());
+  }
+
+  JsonFeedConsumer(final JsonReader reader, final EntityInfoAggregator eia,
+      final EntityProviderReadProperties readProperties, final Map<String, InlineReadPlan> inlinePlans) {
     this.reader = reader;
     this.eia = eia;
     this.readProperties = readProperties;
+    this.inlinePlans = inlinePlans;
   }
 
   public ODataDeltaFeed readFeedStandalone() throws EntityProviderException {
@@ -81,6 +96,115 @@ public class JsonFeedConsumer {
     return new ODataDeltaFeedImpl(entries, feedMetadata, deletedEntries);
   }
 
+  /**
+   * Returns an {@link ODataFeedStream} which reads the feed entries one by one while it is iterated.
+   * Inline count, next link and delta link are taken over into the feed metadata when they are passed;
+   * closing the stream closes the underlying reader.
+   * @return {@link ODataFeedStream} object
+   */
+  public ODataFeedStream readFeedAsStream() {
+    return new ODataFeedStreamImpl(feedMetadata, deletedEntries) {
+      @Override
+      protected ODataEntry readNextEntry() throws EntityProviderException {
+        try {
+          return readNextStreamedEntry();
+        } catch (IOException e) {
+          throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+              .getSimpleName()), e);
+        } catch (EdmException e) {
+          throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+              .getSimpleName()), e);
+        } catch (IllegalStateException e) {
+          throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+              .getSimpleName()), e);
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        reader.close();
+      }
+    };
+  }
+
+  /**
+   * Reads the same structures as {@link #readFeedStandalone()} but stops after each entry.
+   * @return the next entry or <code>null</code> at the end of the feed
+   */
+  private ODataEntry readNextStreamedEntry() throws IOException, EdmException, EntityProviderException {
+    if (!streamStarted) {
+      streamStarted = true;
+      startStreamedFeed();
+    }
+    while (true) {
+      if (streamInArray) {
+        if (reader.hasNext()) {
+          final JsonFeedEntry entry = new JsonEntryConsumer(reader, eia, readProperties, inlinePlans).readFeedEntry();
+          if (entry.isODataEntry()) {
+            return entry.getODataEntry();
+          }
+          deletedEntries.add(entry.getDeletedEntryMetadata());
+          continue;
+        }
+        reader.endArray();
+        streamInArray = false;
+      }
+      if (streamInFeedContent && reader.hasNext()) {
+        handleStreamedName(reader.nextName());
+        continue;
+      }
+      break;
+    }
+
+    if (streamInFeedContent && !resultsArrayPresent) {
+      throw new EntityProviderException(EntityProviderException.MISSING_RESULTS_ARRAY);
+    }
+    streamInFeedContent = false;
+    for (; streamObjectDepth > 0; streamObjectDepth--) {
+      reader.endObject();
+    }
+    if (reader.peek() != JsonToken.END_DOCUMENT) {
+      throw new EntityProviderException(EntityProviderException.END_DOCUMENT_EXPECTED.addContent(reader.peek()
+          .toString()));
+    }
+    return null;
+  }
+
+  private void startStreamedFeed() throws IOException, EdmException, EntityProviderException {
+    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+      reader.beginArray();
+      streamInArray = true;
+    } else {
+      reader.beginObject();
+      streamObjectDepth = 1;
+      final String nextName = reader.nextName();
+      if (FormatJson.D.equals(nextName)) {
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+          reader.beginArray();
+          streamInArray = true;
+        } else {
+          reader.beginObject();
+          streamObjectDepth = 2;
+          streamInFeedContent = true;
+        }
+      } else {
+        streamInFeedContent = true;
+        handleStreamedName(nextName);
+      }
+    }
+  }
+
+  private void handleStreamedName(final String nextName) throws IOException, EdmException,
+      EntityProviderException {
+    if (FormatJson.RESULTS.equals(nextName)) {
+      resultsArrayPresent = true;
+      reader.beginArray();
+      streamInArray = true;
+    } else {
+      handleName(nextName);
+    }
+  }
+
   private void readFeed() throws IOException, EdmException, EntityProviderException {
     JsonToken peek = reader.peek();
     if (peek == JsonToken.BEGIN_ARRAY) {
@@ -150,7 +274,7 @@ public class JsonFeedConsumer {
   private void readArrayContent() throws IOException, EdmException, EntityProviderException {
     reader.beginArray();
     while (reader.hasNext()) {
-      final JsonFeedEntry entry = new JsonEntryConsumer(reader, eia, readProperties).readFeedEntry();
+      final JsonFeedEntry entry = new JsonEntryConsumer(reader, eia, readProperties, inlinePlans).readFeedEntry();
       if (entry.isODataEntry()) {
         entries.add(entry.getODataEntry());
       } else {
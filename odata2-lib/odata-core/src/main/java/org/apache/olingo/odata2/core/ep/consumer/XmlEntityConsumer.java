@@ -34,6 +34,7 @@ import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties.EntityProviderReadPropertiesBuilder;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.core.commons.XmlHelper;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
@@ -79,6 +80,26 @@ public class XmlEntityConsumer {
     }
   }
 
+  public ODataFeedStream readFeedAsStream(final EdmEntitySet entitySet, final InputStream content,
+      final EntityProviderReadProperties properties) throws EntityProviderException {
+    XMLStreamReader reader = null;
+    try {
+      reader = XmlHelper.createStreamReader(content);
+      EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet);
+      ODataFeedStream feedStream = new XmlFeedConsumer().readFeedAsStream(reader, eia, properties, content);
+      reader = null;
+      return feedStream;
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          // the original exception is more relevant than the failed close
+        }
+      }
+    }
+  }
+
   public ODataEntry readEntry(final EdmEntitySet entitySet, final InputStream content,
       final EntityProviderReadProperties properties) throws EntityProviderException {
     XMLStreamReader reader = null;
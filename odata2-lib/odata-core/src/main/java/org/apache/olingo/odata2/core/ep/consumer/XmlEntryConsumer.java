@@ -29,7 +29,6 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 import org.apache.olingo.odata2.api.edm.Edm;
-import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
 import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
@@ -49,6 +48,7 @@ import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityTypeMapping;
 import org.apache.olingo.odata2.core.ep.entry.EntryMetadataImpl;
+import org.apache.olingo.odata2.core.ep.entry.EntryPropertyMap;
 import org.apache.olingo.odata2.core.ep.entry.MediaMetadataImpl;
 import org.apache.olingo.odata2.core.ep.entry.ODataEntryImpl;
 import org.apache.olingo.odata2.core.ep.feed.FeedMetadataImpl;
@@ -73,11 +73,20 @@ public class XmlEntryConsumer {
   private ExpandSelectTreeNodeImpl expandSelectTree;
   private EntityTypeMapping typeMappings;
   private String currentHandledStartTagName;
+  private final Map<String, InlineReadPlan> inlinePlans;
+
+  public XmlEntryConsumer() {
+    this(new HashMap<String, InlineReadPlan>());
+  }
+
+  XmlEntryConsumer(final Map<String, InlineReadPlan> inlinePlans) {
+    this.inlinePlans = inlinePlans;
+  }
 
   public ODataEntry readEntry(final XMLStreamReader reader, final EntityInfoAggregator eia,
       final EntityProviderReadProperties readProperties, final boolean isInline) throws EntityProviderException {
     try {
-      initialize(readProperties);
+      initialize(eia, readProperties);
 
       if (isInline) {
         setETag(reader);
@@ -108,11 +117,13 @@ public class XmlEntryConsumer {
 
   /**
    * Initializes the {@link XmlEntryConsumer} to be ready for reading an entry.
+   * @param eia
    * @param readProperties
    * @throws EntityProviderException
    */
-  private void initialize(final EntityProviderReadProperties readProperties) throws EntityProviderException {
-    properties = new HashMap<String, Object>();
+  private void initialize(final EntityInfoAggregator eia, final EntityProviderReadProperties readProperties)
+      throws EntityProviderException {
+    properties = new EntryPropertyMap(eia.getPropertyLayout());
     mediaMetadata = new MediaMetadataImpl();
     entryMetadata = new EntryMetadataImpl();
     expandSelectTree = new ExpandSelectTreeNodeImpl();
@@ -274,28 +285,25 @@ public class XmlEntryConsumer {
       final String atomLinkType, final String atomLinkRel)
       throws XMLStreamException, EntityProviderException, EdmException {
 
-    //
     String navigationPropertyName = atomLinkRel.substring(Edm.NAMESPACE_REL_2007_08.length());
 
-    EdmNavigationProperty navigationProperty =
-        (EdmNavigationProperty) eia.getEntityType().getProperty(navigationPropertyName);
-    EdmEntitySet entitySet = eia.getEntitySet().getRelatedEntitySet(navigationProperty);
-    EntityInfoAggregator inlineEia = EntityInfoAggregator.create(entitySet);
-
-    final EntityProviderReadProperties inlineProperties = createInlineProperties(readProperties, navigationProperty);
+    // the plan is shared with the sibling entries of this entry
+    final InlineReadPlan plan = InlineReadPlan.get(inlinePlans, eia, navigationPropertyName);
+    final EdmNavigationProperty navigationProperty = plan.getNavigationProperty();
+    final EntityProviderReadProperties inlineProperties = createInlineProperties(readProperties, plan);
 
     // validations
     boolean isFeed = isInlineFeedValidated(reader, eia, atomLinkType, navigationProperty);
 
     List<ODataEntry> inlineEntries = new ArrayList<ODataEntry>();
+    XmlEntryConsumer xec = new XmlEntryConsumer(plan.getInlinePlans());
 
     while (!(reader.isEndElement() && Edm.NAMESPACE_M_2007_08.equals(reader.getNamespaceURI()) && FormatXml.M_INLINE
         .equals(reader.getLocalName()))) {
 
       if (reader.isStartElement() && Edm.NAMESPACE_ATOM_2005.equals(reader.getNamespaceURI())
           && FormatXml.ATOM_ENTRY.equals(reader.getLocalName())) {
-        XmlEntryConsumer xec = new XmlEntryConsumer();
-        ODataEntry inlineEntry = xec.readEntry(reader, inlineEia, inlineProperties, true);
+        ODataEntry inlineEntry = xec.readEntry(reader, plan.getEntityInfo(), inlineProperties, true);
         inlineEntries.add(inlineEntry);
       }
       // next tag
@@ -424,21 +432,28 @@ public class XmlEntryConsumer {
    * links within
    * this current read entry.
    * 
+   * Without callback they are derived once per navigation path and reused for all sibling entries.
+   * 
    * @param readProperties
-   * @param navigationProperty
+   * @param plan
    * @return
    * @throws EntityProviderException
    */
   private EntityProviderReadProperties createInlineProperties(final EntityProviderReadProperties readProperties,
-      final EdmNavigationProperty navigationProperty) throws EntityProviderException {
+      final InlineReadPlan plan) throws EntityProviderException {
     final OnReadInlineContent callback = readProperties.getCallback();
 
-    EntityProviderReadProperties currentReadProperties = EntityProviderReadProperties.initFrom(readProperties).build();
     if (callback == null) {
-      return currentReadProperties;
+      EntityProviderReadProperties inlineProperties = plan.getReadProperties(readProperties);
+      if (inlineProperties == null) {
+        inlineProperties = EntityProviderReadProperties.initFrom(readProperties).build();
+        plan.setReadProperties(readProperties, inlineProperties);
+      }
+      return inlineProperties;
     } else {
       try {
-        return callback.receiveReadProperties(currentReadProperties, navigationProperty);
+        return callback.receiveReadProperties(EntityProviderReadProperties.initFrom(readProperties).build(),
+            plan.getNavigationProperty());
       } catch (ODataApplicationException e) {
         throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
             .getSimpleName()), e);
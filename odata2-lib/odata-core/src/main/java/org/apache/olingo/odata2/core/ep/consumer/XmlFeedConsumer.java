@@ -18,6 +18,8 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.ep.consumer;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -36,11 +38,13 @@ import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.core.edm.EdmDateTimeOffset;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.entry.DeletedEntryMetadataImpl;
 import org.apache.olingo.odata2.core.ep.feed.FeedMetadataImpl;
 import org.apache.olingo.odata2.core.ep.feed.ODataDeltaFeedImpl;
+import org.apache.olingo.odata2.core.ep.feed.ODataFeedStreamImpl;
 import org.apache.olingo.odata2.core.ep.util.FormatXml;
 
 /**
@@ -65,17 +69,7 @@ public class XmlFeedConsumer {
   public ODataDeltaFeed readFeed(final XMLStreamReader reader, final EntityInfoAggregator eia,
       final EntityProviderReadProperties readProperties) throws EntityProviderException {
     try {
-      // read xml tag
-      reader.require(XMLStreamConstants.START_DOCUMENT, null, null);
-      reader.nextTag();
-
-      // read feed tag
-      reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_ATOM_2005, FormatXml.ATOM_FEED);
-      Map<String, String> foundPrefix2NamespaceUri = extractNamespacesFromTag(reader);
-      foundPrefix2NamespaceUri.putAll(readProperties.getValidatedPrefixNamespaceUris());
-      checkAllMandatoryNamespacesAvailable(foundPrefix2NamespaceUri);
-      EntityProviderReadProperties entryReadProperties =
-          EntityProviderReadProperties.initFrom(readProperties).addValidatedPrefixes(foundPrefix2NamespaceUri).build();
+      EntityProviderReadProperties entryReadProperties = readFeedStart(reader, readProperties);
 
       // read feed data (metadata and entries)
       return readFeedData(reader, eia, entryReadProperties);
@@ -85,6 +79,72 @@ public class XmlFeedConsumer {
     }
   }
 
+  /**
+   * Reads the feed start and returns an {@link ODataFeedStream} which reads the feed entries
+   * one by one while it is iterated.
+   * 
+   * @param reader xml stream reader with xml content to be read
+   * @param eia entity infos for validation and mapping
+   * @param readProperties properties which are used for read of feed
+   * @param content underlying content of the reader which is closed together with the returned stream
+   * @return {@link ODataFeedStream} object
+   * @throws EntityProviderException if reading of the feed start fails
+   */
+  public ODataFeedStream readFeedAsStream(final XMLStreamReader reader, final EntityInfoAggregator eia,
+      final EntityProviderReadProperties readProperties, final Closeable content) throws EntityProviderException {
+    final EntityProviderReadProperties entryReadProperties;
+    try {
+      entryReadProperties = readFeedStart(reader, readProperties);
+    } catch (XMLStreamException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+    final XmlEntryConsumer xec = new XmlEntryConsumer();
+
+    return new ODataFeedStreamImpl() {
+      @Override
+      protected ODataEntry readNextEntry() throws EntityProviderException {
+        try {
+          return XmlFeedConsumer.this.readNextEntry(reader, eia, entryReadProperties, xec, metadata, deletedEntries);
+        } catch (XMLStreamException e) {
+          throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+              .getSimpleName()), e);
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          throw new IOException(e.getMessage(), e);
+        } finally {
+          content.close();
+        }
+      }
+    };
+  }
+
+  /**
+   * Reads the <code>feed</code> start tag and validates the mandatory namespaces.
+   * 
+   * @return properties to be used for reading the entries of the feed
+   */
+  private EntityProviderReadProperties readFeedStart(final XMLStreamReader reader,
+      final EntityProviderReadProperties readProperties) throws XMLStreamException, EntityProviderException {
+    // read xml tag
+    reader.require(XMLStreamConstants.START_DOCUMENT, null, null);
+    reader.nextTag();
+
+    // read feed tag
+    reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_ATOM_2005, FormatXml.ATOM_FEED);
+    Map<String, String> foundPrefix2NamespaceUri = extractNamespacesFromTag(reader);
+    foundPrefix2NamespaceUri.putAll(readProperties.getValidatedPrefixNamespaceUris());
+    checkAllMandatoryNamespacesAvailable(foundPrefix2NamespaceUri);
+    return EntityProviderReadProperties.initFrom(readProperties).addValidatedPrefixes(foundPrefix2NamespaceUri)
+        .build();
+  }
+
   /**
    * Read all feed specific data (like <code>inline count</code> and <code>next link</code>) as well as all feed entries
    * (<code>entry</code>) and delta feed extensions (tombstones).
@@ -104,10 +164,29 @@ public class XmlFeedConsumer {
     List<ODataEntry> results = new ArrayList<ODataEntry>();
     List<DeletedEntryMetadata> deletedEntries = new ArrayList<DeletedEntryMetadata>();
 
+    ODataEntry entry = readNextEntry(reader, eia, entryReadProperties, xec, metadata, deletedEntries);
+    while (entry != null) {
+      results.add(entry);
+      entry = readNextEntry(reader, eia, entryReadProperties, xec, metadata, deletedEntries);
+    }
+    return new ODataDeltaFeedImpl(results, metadata, deletedEntries);
+  }
+
+  /**
+   * Reads the feed up to and including the next <code>entry</code>; all feed specific data and tombstones
+   * found before it are collected into <code>metadata</code> and <code>deletedEntries</code>.
+   * 
+   * @return the read entry or <code>null</code> if the end of the feed has been reached
+   */
+  private ODataEntry readNextEntry(final XMLStreamReader reader, final EntityInfoAggregator eia,
+      final EntityProviderReadProperties entryReadProperties, final XmlEntryConsumer xec,
+      final FeedMetadataImpl metadata, final List<DeletedEntryMetadata> deletedEntries)
+      throws XMLStreamException, EntityProviderException {
     while (reader.hasNext() && !isFeedEndTag(reader)) {
       if (FormatXml.ATOM_ENTRY.equals(reader.getLocalName())) {
         ODataEntry entry = xec.readEntry(reader, eia, entryReadProperties, true);
-        results.add(entry);
+        readTillNextStartTag(reader);
+        return entry;
       } else if (FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY.equals(reader.getLocalName())) {
         reader.require(XMLStreamConstants.START_ELEMENT, FormatXml.ATOM_TOMBSTONE_NAMESPACE,
             FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY);
@@ -135,7 +214,7 @@ public class XmlFeedConsumer {
       }
       readTillNextStartTag(reader);
     }
-    return new ODataDeltaFeedImpl(results, metadata, deletedEntries);
+    return null;
   }
 
   private DeletedEntryMetadataImpl readDeletedEntryMetadata(final XMLStreamReader reader)
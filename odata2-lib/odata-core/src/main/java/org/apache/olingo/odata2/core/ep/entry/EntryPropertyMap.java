@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.entry;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Property values of one entry.
+ * <p>Values of the properties known from the entity type are stored in a flat array at the index the
+ * property has in the {@link Layout}, which is shared by all entries of the same type.
+ * Further keys (e.g., added by an application) are kept in an additional map which is only created when needed.
+ * The class is a complete {@link Map} so it can be used everywhere a property map is expected.</p>
+ */
+public class EntryPropertyMap extends AbstractMap<String, Object> {
+
+  /**
+   * Assignment of property names to array indexes; immutable and therefore shareable.
+   */
+  public static final class Layout {
+
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+
+    public Layout(final Collection<String> names) {
+      indexes = new HashMap<String, Integer>(names.size() * 4 / 3 + 1);
+      for (String name : names) {
+        if (name != null && !indexes.containsKey(name)) {
+          indexes.put(name, indexes.size());
+        }
+      }
+      this.names = new String[indexes.size()];
+      for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+        this.names[entry.getValue()] = entry.getKey();
+      }
+    }
+
+    /**
+     * @return index of the property or <code>-1</code> if the property is not part of the layout
+     */
+    public int indexOf(final String name) {
+      final Integer index = name == null ? null : indexes.get(name);
+      return index == null ? -1 : index.intValue();
+    }
+
+    public String getName(final int index) {
+      return names[index];
+    }
+
+    public int size() {
+      return names.length;
+    }
+  }
+
+  /** Marks a slot which holds the value <code>null</code> in contrast to an unset slot. */
+  private static final Object NULL_VALUE = new Object();
+
+  private final Layout layout;
+  private final Object[] values;
+  private int setSlots;
+  private Map<String, Object> additional;
+  private transient Set<Map.Entry<String, Object>> entrySet;
+
+  public EntryPropertyMap(final Layout layout) {
+    this.layout = layout;
+    values = new Object[layout.size()];
+  }
+
+  public Layout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Returns the value at the given layout index without a name lookup.
+   * @param index index of the property in the {@link Layout}
+   * @return the value or <code>null</code> if it is not set
+   */
+  public Object getValue(final int index) {
+    return unmask(values[index]);
+  }
+
+  /**
+   * Sets the value at the given layout index without a name lookup.
+   * @param index index of the property in the {@link Layout}
+   * @param value the value (can be <code>null</code>)
+   * @return the previous value
+   */
+  public Object setValue(final int index, final Object value) {
+    final Object previous = values[index];
+    if (previous == null) {
+      setSlots++;
+    }
+    values[index] = value == null ? NULL_VALUE : value;
+    return unmask(previous);
+  }
+
+  @Override
+  public Object get(final Object key) {
+    final int index = indexOf(key);
+    if (index >= 0) {
+      return unmask(values[index]);
+    }
+    return additional == null ? null : additional.get(key);
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    final int index = indexOf(key);
+    if (index >= 0) {
+      return values[index] != null;
+    }
+    return additional != null && additional.containsKey(key);
+  }
+
+  @Override
+  public Object put(final String key, final Object value) {
+    final int index = layout.indexOf(key);
+    if (index >= 0) {
+      return setValue(index, value);
+    }
+    if (additional == null) {
+      additional = new LinkedHashMap<String, Object>();
+    }
+    return additional.put(key, value);
+  }
+
+  @Override
+  public Object remove(final Object key) {
+    final int index = indexOf(key);
+    if (index >= 0) {
+      return removeSlot(index);
+    }
+    return additional == null ? null : additional.remove(key);
+  }
+
+  @Override
+  public int size() {
+    return setSlots + (additional == null ? 0 : additional.size());
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < values.length; i++) {
+      values[i] = null;
+    }
+    setSlots = 0;
+    additional = null;
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return EntryPropertyMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+          EntryPropertyMap.this.clear();
+        }
+      };
+    }
+    return entrySet;
+  }
+
+  private int indexOf(final Object key) {
+    return key instanceof String ? layout.indexOf((String) key) : -1;
+  }
+
+  private Object removeSlot(final int index) {
+    final Object previous = values[index];
+    if (previous != null) {
+      values[index] = null;
+      setSlots--;
+    }
+    return unmask(previous);
+  }
+
+  private static Object unmask(final Object value) {
+    return value == NULL_VALUE ? null : value;
+  }
+
+  private class SlotEntry implements Map.Entry<String, Object> {
+    private final int index;
+
+    SlotEntry(final int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return layout.getName(index);
+    }
+
+    @Override
+    public Object getValue() {
+      return EntryPropertyMap.this.getValue(index);
+    }
+
+    @Override
+    public Object setValue(final Object value) {
+      return EntryPropertyMap.this.setValue(index, value);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Map.Entry)) {
+        return false;
+      }
+      final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+      final Object value = getValue();
+      return getKey().equals(other.getKey())
+          && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      final Object value = getValue();
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * Iterates first over the set slots in layout order and then over the additional entries.
+   */
+  private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+    private int nextSlot = findSlot(0);
+    private int lastSlot = -1;
+    private Iterator<Map.Entry<String, Object>> additionalIterator;
+
+    private int findSlot(final int start) {
+      int index = start;
+      while (index < values.length && values[index] == null) {
+        index++;
+      }
+      return index;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (nextSlot < values.length) {
+        return true;
+      }
+      if (additionalIterator == null && additional != null) {
+        additionalIterator = additional.entrySet().iterator();
+      }
+      return additionalIterator != null && additionalIterator.hasNext();
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (nextSlot < values.length) {
+        lastSlot = nextSlot;
+        nextSlot = findSlot(nextSlot + 1);
+        return new SlotEntry(lastSlot);
+      }
+      lastSlot = -1;
+      return additionalIterator.next();
+    }
+
+    @Override
+    public void remove() {
+      if (lastSlot >= 0) {
+        removeSlot(lastSlot);
+        lastSlot = -1;
+      } else if (additionalIterator != null) {
+        additionalIterator.remove();
+      } else {
+        throw new IllegalStateException();
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.feed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
+
+/**
+ * Base class for format specific {@link ODataFeedStream} implementations.
+ * Buffers at most one entry which was read ahead by {@link #hasNext()}.
+ */
+public abstract class ODataFeedStreamImpl implements ODataFeedStream {
+
+  protected final FeedMetadataImpl metadata;
+  protected final List<DeletedEntryMetadata> deletedEntries;
+  private ODataEntry nextEntry;
+  private boolean finished;
+
+  public ODataFeedStreamImpl() {
+    this(new FeedMetadataImpl(), new ArrayList<DeletedEntryMetadata>());
+  }
+
+  public ODataFeedStreamImpl(final FeedMetadataImpl metadata, final List<DeletedEntryMetadata> deletedEntries) {
+    this.metadata = metadata;
+    this.deletedEntries = deletedEntries;
+  }
+
+  @Override
+  public boolean hasNext() throws EntityProviderException {
+    if (nextEntry == null && !finished) {
+      nextEntry = readNextEntry();
+      finished = nextEntry == null;
+    }
+    return nextEntry != null;
+  }
+
+  @Override
+  public ODataEntry next() throws EntityProviderException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    ODataEntry entry = nextEntry;
+    nextEntry = null;
+    return entry;
+  }
+
+  @Override
+  public FeedMetadata getFeedMetadata() {
+    return metadata;
+  }
+
+  @Override
+  public List<DeletedEntryMetadata> getDeletedEntries() {
+    return deletedEntries;
+  }
+
+  /**
+   * Reads the content up to and including the next entry of the feed and collects all feed metadata
+   * and deleted entries found on the way.
+   * @return the next entry or <code>null</code> if the end of the feed has been reached
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   */
+  protected abstract ODataEntry readNextEntry() throws EntityProviderException;
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.feed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
+import org.apache.olingo.odata2.api.ep.feed.FeedPageFetcher;
+import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+
+/**
+ * {@link org.apache.olingo.odata2.api.ep.feed.ODataFeedStream} over all pages of a feed.
+ * <p>A background thread reads the pages one after the other, following the next links,
+ * and hands them over through a bounded queue; so fetching and parsing of the next pages overlaps
+ * with the processing of the current page by the caller.
+ * The next link of a page is known only after the page has been read completely,
+ * therefore the pages are read in sequence and each page is kept in memory until it has been iterated.</p>
+ * <p>The background thread waits for the caller to take a page until the stream is closed. With a hand-over
+ * timeout, it stops reading if the caller neither takes a page nor closes the stream in time;
+ * the caller then gets an exception instead of the further pages.</p>
+ */
+public abstract class PagedFeedStreamImpl extends ODataFeedStreamImpl {
+
+  private static final Object END_OF_FEED = new Object();
+  private static final long POLL_INTERVAL = 100;
+
+  private final FeedPageFetcher fetcher;
+  private final BlockingQueue<Object> pages;
+  private final long handOverTimeout;
+  private final Thread worker;
+  private volatile boolean closed;
+  // set by the background thread if the consumer has not taken a page in time
+  private boolean abandoned;
+  private boolean firstPage = true;
+  private boolean endOfFeed;
+  private Iterator<ODataEntry> currentEntries = Collections.<ODataEntry> emptyList().iterator();
+
+  /**
+   * Creates the stream; reading starts with {@link #start()}.
+   * @param content content of the first page
+   * @param fetcher fetcher for the further pages
+   * @param prefetchPages maximum number of pages read ahead
+   * @param handOverTimeout maximum time in milliseconds to wait for the caller to take a page;
+   * <code>0</code> waits until the stream is closed
+   * @throws EntityProviderException if <code>fetcher</code> is missing or <code>prefetchPages</code> is too small
+   */
+  protected PagedFeedStreamImpl(final InputStream content, final FeedPageFetcher fetcher, final int prefetchPages,
+      final long handOverTimeout) throws EntityProviderException {
+    if (fetcher == null) {
+      throw new EntityProviderException(EntityProviderException.ILLEGAL_ARGUMENT.addContent("fetcher is null"));
+    }
+    if (prefetchPages < 1) {
+      throw new EntityProviderException(EntityProviderException.ILLEGAL_ARGUMENT
+          .addContent("prefetchPages must be at least 1"));
+    }
+    this.fetcher = fetcher;
+    pages = new ArrayBlockingQueue<Object>(prefetchPages);
+    this.handOverTimeout = handOverTimeout;
+    worker = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        readPages(content);
+      }
+    }, "ODataFeedPrefetch");
+    worker.setDaemon(true);
+  }
+
+  /**
+   * Starts reading the pages in the background; must be called once after construction.
+   * @return this stream
+   */
+  public PagedFeedStreamImpl start() {
+    worker.start();
+    return this;
+  }
+
+  /**
+   * Reads one page of the feed.
+   * @param content content of the page
+   * @return the read page
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   */
+  protected abstract ODataDeltaFeed readPage(InputStream content) throws EntityProviderException;
+
+  @Override
+  protected ODataEntry readNextEntry() throws EntityProviderException {
+    while (!currentEntries.hasNext()) {
+      if (endOfFeed || closed) {
+        return null;
+      }
+      Object page;
+      try {
+        page = pages.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        if (page == null && !worker.isAlive()) {
+          page = pages.poll();
+          if (page == null) {
+            endOfFeed = true;
+            throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED
+                .addContent("reading of further pages stopped"));
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+            .getSimpleName()), e);
+      }
+      if (page == null) {
+        continue;
+      } else if (page == END_OF_FEED) {
+        endOfFeed = true;
+        metadata.setNextLink(null);
+      } else if (page instanceof EntityProviderException) {
+        endOfFeed = true;
+        throw (EntityProviderException) page;
+      } else if (page instanceof Throwable) {
+        endOfFeed = true;
+        throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(page.getClass()
+            .getSimpleName()), (Throwable) page);
+      } else {
+        takeOver((ODataDeltaFeed) page);
+      }
+    }
+    return currentEntries.next();
+  }
+
+  private void takeOver(final ODataDeltaFeed page) {
+    final FeedMetadata pageMetadata = page.getFeedMetadata();
+    if (firstPage) {
+      metadata.setInlineCount(pageMetadata.getInlineCount());
+      firstPage = false;
+    }
+    metadata.setNextLink(pageMetadata.getNextLink());
+    if (pageMetadata.getDeltaLink() != null) {
+      metadata.setDeltaLink(pageMetadata.getDeltaLink());
+    }
+    if (page.getDeletedEntries() != null) {
+      deletedEntries.addAll(page.getDeletedEntries());
+    }
+    currentEntries = page.getEntries().iterator();
+  }
+
+  private void readPages(final InputStream firstContent) {
+    InputStream content = firstContent;
+    boolean terminated = false;
+    try {
+      while (content != null && !closed) {
+        final ODataDeltaFeed page = readPage(content);
+        content.close();
+        content = null;
+        if (!handOver(page)) {
+          break;
+        }
+        final String nextLink = page.getFeedMetadata().getNextLink();
+        content = nextLink == null || closed ? null : fetcher.fetchPage(nextLink);
+      }
+      terminated = true;
+    } catch (final InterruptedException e) {
+      // closed by the consumer
+      terminated = true;
+    } catch (final Exception e) {
+      terminated = true;
+      // closed before the consumer learns about the exception
+      closeQuietly(content);
+      content = null;
+      handOverQuietly(e);
+    } finally {
+      closeQuietly(content);
+      // errors are not caught; the consumer must learn about them nevertheless
+      if (!terminated) {
+        handOverQuietly(new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED
+            .addContent("reading of further pages failed")));
+      }
+      handOverQuietly(END_OF_FEED);
+    }
+  }
+
+  private void handOverQuietly(final Object object) {
+    try {
+      handOver(object);
+    } catch (final InterruptedException e) {
+      // closed by the consumer
+    }
+  }
+
+  /**
+   * Hands an object over to the consumer.
+   * @return <code>false</code> if the consumer has closed the stream or has not taken the object in time
+   */
+  private boolean handOver(final Object object) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + handOverTimeout;
+    while (!closed && !abandoned) {
+      if (pages.offer(object, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      abandoned = handOverTimeout > 0 && System.currentTimeMillis() > deadline;
+    }
+    return false;
+  }
+
+  private static void closeQuietly(final InputStream content) {
+    if (content != null) {
+      try {
+        content.close();
+      } catch (final IOException e) {
+        // nothing more to read from it
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    worker.interrupt();
+  }
+}
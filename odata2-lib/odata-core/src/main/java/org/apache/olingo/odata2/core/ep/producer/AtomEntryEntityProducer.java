@@ -71,9 +71,14 @@ public class AtomEntryEntityProducer {
   private String etag;
   private String location;
   private final EntityProviderWriteProperties properties;
+  private final XmlPropertyEntityProducer propertyProducer;
+  /** Content properties of the last written entity type; a feed reuses them for all of its entries. */
+  private EntityInfoAggregator contentPropertiesEia;
+  private List<EntityPropertyInfo> contentPropertyInfos;
 
   public AtomEntryEntityProducer(final EntityProviderWriteProperties properties) throws EntityProviderException {
     this.properties = properties == null ? EntityProviderWriteProperties.serviceRoot(null).build() : properties;
+    propertyProducer = new XmlPropertyEntityProducer(this.properties);
   }
 
   public void append(final XMLStreamWriter writer, final EntityInfoAggregator eia, final Map<String, Object> data,
@@ -174,8 +179,7 @@ public class AtomEntryEntityProducer {
     for (String tpName : noneSyndicationTargetPaths) {
       EntityPropertyInfo info = eia.getTargetPathInfo(tpName);
       final String name = info.getName();
-      XmlPropertyEntityProducer aps = new XmlPropertyEntityProducer(properties);
-      aps.appendCustomProperty(writer, name, info, data.get(name));
+      propertyProducer.appendCustomProperty(writer, name, info, data.get(name));
     }
   }
 
@@ -631,8 +635,9 @@ public class AtomEntryEntityProducer {
         if (!propertyNames.isEmpty()) {
           writer.writeStartElement(Edm.NAMESPACE_M_2007_08, FormatXml.M_PROPERTIES);
 
-          for (String propertyName : propertyNames) {
-            appendPropertyNameValue(writer, eia, data, propertyName);
+          for (EntityPropertyInfo propertyInfo : getContentPropertyInfos(eia)) {
+            final String name = propertyInfo.getName();
+            propertyProducer.append(writer, name, propertyInfo, data.get(name));
           }
           writer.writeEndElement();
         }
@@ -654,10 +659,33 @@ public class AtomEntryEntityProducer {
     EntityPropertyInfo propertyInfo = eia.getPropertyInfo(propertyName);
     if (isNotMappedViaCustomMapping(propertyInfo)) {
       Object value = data.get(propertyName);
-      XmlPropertyEntityProducer aps = new XmlPropertyEntityProducer(properties);
-      aps.append(writer, propertyInfo.getName(), propertyInfo, value);
+      propertyProducer.append(writer, propertyInfo.getName(), propertyInfo, value);
     }
   }
+
+  /**
+   * Returns the information of the selected properties which are written inside the
+   * properties element, i.e., which are not moved out of the content via a custom mapping.
+   * The result is computed once per entity type.
+   * @param eia the information about the entity
+   * @return list of property information
+   * @throws EntityProviderException
+   */
+  private List<EntityPropertyInfo> getContentPropertyInfos(final EntityInfoAggregator eia)
+      throws EntityProviderException {
+    if (eia != contentPropertiesEia) {
+      List<EntityPropertyInfo> propertyInfos = new ArrayList<EntityPropertyInfo>();
+      for (String propertyName : eia.getSelectedPropertyNames()) {
+        EntityPropertyInfo propertyInfo = eia.getPropertyInfo(propertyName);
+        if (isNotMappedViaCustomMapping(propertyInfo)) {
+          propertyInfos.add(propertyInfo);
+        }
+      }
+      contentPropertyInfos = propertyInfos;
+      contentPropertiesEia = eia;
+    }
+    return contentPropertyInfos;
+  }
   
   private boolean isNotMappedViaCustomMapping(final EntityPropertyInfo propertyInfo) {
     EdmCustomizableFeedMappings customMapping = propertyInfo.getCustomMapping();
@@ -48,6 +48,7 @@ import org.apache.olingo.odata2.core.ep.util.FormatXml;
 public class AtomFeedProducer {
 
   private final EntityProviderWriteProperties properties;
+  private AtomEntryEntityProducer entryProducer;
 
   public AtomFeedProducer(final EntityProviderWriteProperties properties) {
     this.properties = properties == null ? EntityProviderWriteProperties.serviceRoot(null).build() : properties;
@@ -55,15 +56,27 @@ public class AtomFeedProducer {
 
   public void append(final XMLStreamWriter writer, final EntityInfoAggregator eia,
       final List<Map<String, Object>> data, final boolean isInline) throws EntityProviderException {
+    appendStart(writer, eia, isInline);
+    for (Map<String, Object> singleEntryData : data) {
+      appendEntry(writer, eia, singleEntryData);
+    }
+    appendEnd(writer, eia, isInline);
+  }
+
+  /**
+   * Writes the start of the feed up to the first entry.
+   * Together with {@link #appendEntry} and {@link #appendEnd} a feed can be written
+   * without having all entries at hand.
+   */
+  public void appendStart(final XMLStreamWriter writer, final EntityInfoAggregator eia, final boolean isInline)
+      throws EntityProviderException {
     try {
       writer.writeStartElement(FormatXml.ATOM_FEED);
-      TombstoneCallback callback = null;
       if (!isInline) {
         writer.writeDefaultNamespace(Edm.NAMESPACE_ATOM_2005);
         writer.writeNamespace(Edm.PREFIX_M, Edm.NAMESPACE_M_2007_08);
         writer.writeNamespace(Edm.PREFIX_D, Edm.NAMESPACE_D_2007_08);
-        callback = getTombstoneCallback();
-        if (callback != null) {
+        if (getTombstoneCallback() != null) {
           writer.writeNamespace(TombstoneCallback.PREFIX_TOMBSTONE, TombstoneCallback.NAMESPACE_TOMBSTONE);
         }
       }
@@ -76,9 +89,21 @@ public class AtomFeedProducer {
       if (properties.getInlineCountType() == InlineCount.ALLPAGES) {
         appendInlineCount(writer, properties.getInlineCount());
       }
+      entryProducer = new AtomEntryEntityProducer(properties);
+    } catch (XMLStreamException e) {
+      throw new EntityProviderProducerException(EntityProviderException.COMMON, e);
+    }
+  }
 
-      appendEntries(writer, eia, data);
+  public void appendEntry(final XMLStreamWriter writer, final EntityInfoAggregator eia,
+      final Map<String, Object> entryData) throws EntityProviderException {
+    entryProducer.append(writer, eia, entryData, false, true);
+  }
 
+  public void appendEnd(final XMLStreamWriter writer, final EntityInfoAggregator eia, final boolean isInline)
+      throws EntityProviderException {
+    try {
+      TombstoneCallback callback = isInline ? null : getTombstoneCallback();
       if (callback != null) {
         appendDeletedEntries(writer, eia, callback);
       }
@@ -137,14 +162,6 @@ public class AtomFeedProducer {
     }
   }
 
-  private void appendEntries(final XMLStreamWriter writer, final EntityInfoAggregator eia,
-      final List<Map<String, Object>> data) throws EntityProviderException {
-    AtomEntryEntityProducer entryProvider = new AtomEntryEntityProducer(properties);
-    for (Map<String, Object> singleEntryData : data) {
-      entryProvider.append(writer, eia, singleEntryData, false, true);
-    }
-  }
-
   private void appendInlineCount(final XMLStreamWriter writer, final Integer inlineCount)
       throws EntityProviderException {
     if (inlineCount == null || inlineCount < 0) {
@@ -0,0 +1,461 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.producer;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmFacets;
+import org.apache.olingo.odata2.api.edm.FullQualifiedName;
+import org.apache.olingo.odata2.api.edm.provider.AnnotationAttribute;
+import org.apache.olingo.odata2.api.edm.provider.AnnotationElement;
+import org.apache.olingo.odata2.api.edm.provider.Association;
+import org.apache.olingo.odata2.api.edm.provider.AssociationEnd;
+import org.apache.olingo.odata2.api.edm.provider.AssociationSet;
+import org.apache.olingo.odata2.api.edm.provider.AssociationSetEnd;
+import org.apache.olingo.odata2.api.edm.provider.ComplexProperty;
+import org.apache.olingo.odata2.api.edm.provider.ComplexType;
+import org.apache.olingo.odata2.api.edm.provider.CustomizableFeedMappings;
+import org.apache.olingo.odata2.api.edm.provider.DataServices;
+import org.apache.olingo.odata2.api.edm.provider.Documentation;
+import org.apache.olingo.odata2.api.edm.provider.EntityContainer;
+import org.apache.olingo.odata2.api.edm.provider.EntitySet;
+import org.apache.olingo.odata2.api.edm.provider.EntityType;
+import org.apache.olingo.odata2.api.edm.provider.FunctionImport;
+import org.apache.olingo.odata2.api.edm.provider.FunctionImportParameter;
+import org.apache.olingo.odata2.api.edm.provider.Key;
+import org.apache.olingo.odata2.api.edm.provider.Mapping;
+import org.apache.olingo.odata2.api.edm.provider.NavigationProperty;
+import org.apache.olingo.odata2.api.edm.provider.OnDelete;
+import org.apache.olingo.odata2.api.edm.provider.Property;
+import org.apache.olingo.odata2.api.edm.provider.PropertyRef;
+import org.apache.olingo.odata2.api.edm.provider.ReferentialConstraint;
+import org.apache.olingo.odata2.api.edm.provider.ReferentialConstraintRole;
+import org.apache.olingo.odata2.api.edm.provider.ReturnType;
+import org.apache.olingo.odata2.api.edm.provider.Schema;
+import org.apache.olingo.odata2.api.edm.provider.SimpleProperty;
+import org.apache.olingo.odata2.api.edm.provider.Using;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.core.ep.EntityProviderProducerException;
+
+/**
+ * Writes the provider metadata model ({@link DataServices}) in a compact binary form
+ * which can be read again with {@link org.apache.olingo.odata2.core.ep.consumer.BinaryMetadataConsumer}
+ * much faster than the XML metadata document can be parsed.
+ * <p>Every distinct string is written only once; later occurrences refer to it by index.
+ * Mapping objects are not written since they are not part of the metadata document.</p>
+ */
+public class BinaryMetadataProducer {
+
+  /** Marks the start of the binary form ("OD2M"). */
+  public static final int MAGIC = 0x4F44324D;
+  public static final int VERSION = 1;
+
+  public static final int NULL = 0;
+  public static final int NEW_STRING = 1;
+  public static final int STRING_REFERENCE_OFFSET = 2;
+
+  public static final String UTF_8 = "UTF-8";
+
+  public static final int SIMPLE_PROPERTY = 1;
+  public static final int COMPLEX_PROPERTY = 2;
+
+  private final Map<String, Integer> stringTable = new HashMap<String, Integer>();
+  private DataOutputStream out;
+
+  public void writeMetadata(final DataServices metadata, final OutputStream outputStream)
+      throws EntityProviderException {
+    try {
+      out = new DataOutputStream(outputStream);
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      writeString(metadata.getDataServiceVersion());
+      writeString(metadata.getCustomEdmxVersion());
+      writeAnnotationElements(metadata.getAnnotationElements());
+      writeSize(metadata.getSchemas());
+      if (metadata.getSchemas() != null) {
+        for (Schema schema : metadata.getSchemas()) {
+          writeSchema(schema);
+        }
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    } finally {
+      stringTable.clear();
+    }
+  }
+
+  private void writeSchema(final Schema schema) throws IOException {
+    writeString(schema.getNamespace());
+    writeString(schema.getAlias());
+    writeSize(schema.getUsings());
+    if (schema.getUsings() != null) {
+      for (Using using : schema.getUsings()) {
+        writeString(using.getNamespace());
+        writeString(using.getAlias());
+        writeDocumentation(using.getDocumentation());
+        writeAnnotations(using.getAnnotationAttributes(), using.getAnnotationElements());
+      }
+    }
+    writeSize(schema.getEntityTypes());
+    if (schema.getEntityTypes() != null) {
+      for (EntityType entityType : schema.getEntityTypes()) {
+        writeEntityType(entityType);
+      }
+    }
+    writeSize(schema.getComplexTypes());
+    if (schema.getComplexTypes() != null) {
+      for (ComplexType complexType : schema.getComplexTypes()) {
+        writeComplexType(complexType);
+      }
+    }
+    writeSize(schema.getAssociations());
+    if (schema.getAssociations() != null) {
+      for (Association association : schema.getAssociations()) {
+        writeAssociation(association);
+      }
+    }
+    writeSize(schema.getEntityContainers());
+    if (schema.getEntityContainers() != null) {
+      for (EntityContainer entityContainer : schema.getEntityContainers()) {
+        writeEntityContainer(entityContainer);
+      }
+    }
+    writeAnnotations(schema.getAnnotationAttributes(), schema.getAnnotationElements());
+  }
+
+  private void writeEntityType(final EntityType entityType) throws IOException {
+    writeComplexType(entityType);
+    out.writeBoolean(entityType.isHasStream());
+    writeCustomizableFeedMappings(entityType.getCustomizableFeedMappings());
+    final Key key = entityType.getKey();
+    out.writeBoolean(key != null);
+    if (key != null) {
+      writePropertyRefs(key.getKeys());
+      writeAnnotations(key.getAnnotationAttributes(), key.getAnnotationElements());
+    }
+    writeSize(entityType.getNavigationProperties());
+    if (entityType.getNavigationProperties() != null) {
+      for (NavigationProperty navigationProperty : entityType.getNavigationProperties()) {
+        writeString(navigationProperty.getName());
+        writeFullQualifiedName(navigationProperty.getRelationship());
+        writeString(navigationProperty.getFromRole());
+        writeString(navigationProperty.getToRole());
+        writeMapping(navigationProperty.getMapping());
+        writeDocumentation(navigationProperty.getDocumentation());
+        writeAnnotations(navigationProperty.getAnnotationAttributes(), navigationProperty.getAnnotationElements());
+      }
+    }
+  }
+
+  private void writeComplexType(final ComplexType complexType) throws IOException {
+    writeString(complexType.getName());
+    writeFullQualifiedName(complexType.getBaseType());
+    out.writeBoolean(complexType.isAbstract());
+    writeSize(complexType.getProperties());
+    if (complexType.getProperties() != null) {
+      for (Property property : complexType.getProperties()) {
+        writeProperty(property);
+      }
+    }
+    writeMapping(complexType.getMapping());
+    writeDocumentation(complexType.getDocumentation());
+    writeAnnotations(complexType.getAnnotationAttributes(), complexType.getAnnotationElements());
+  }
+
+  private void writeProperty(final Property property) throws IOException {
+    if (property instanceof SimpleProperty) {
+      out.writeByte(SIMPLE_PROPERTY);
+      writeEnum(((SimpleProperty) property).getType());
+    } else {
+      out.writeByte(COMPLEX_PROPERTY);
+      writeFullQualifiedName(((ComplexProperty) property).getType());
+    }
+    writeString(property.getName());
+    writeFacets(property.getFacets());
+    writeCustomizableFeedMappings(property.getCustomizableFeedMappings());
+    writeString(property.getMimeType());
+    writeMapping(property.getMapping());
+    writeDocumentation(property.getDocumentation());
+    writeAnnotations(property.getAnnotationAttributes(), property.getAnnotationElements());
+  }
+
+  private void writeAssociation(final Association association) throws IOException {
+    writeString(association.getName());
+    writeAssociationEnd(association.getEnd1());
+    writeAssociationEnd(association.getEnd2());
+    final ReferentialConstraint constraint = association.getReferentialConstraint();
+    out.writeBoolean(constraint != null);
+    if (constraint != null) {
+      writeReferentialConstraintRole(constraint.getPrincipal());
+      writeReferentialConstraintRole(constraint.getDependent());
+      writeDocumentation(constraint.getDocumentation());
+      writeAnnotations(constraint.getAnnotationAttributes(), constraint.getAnnotationElements());
+    }
+    writeDocumentation(association.getDocumentation());
+    writeAnnotations(association.getAnnotationAttributes(), association.getAnnotationElements());
+  }
+
+  private void writeAssociationEnd(final AssociationEnd end) throws IOException {
+    out.writeBoolean(end != null);
+    if (end != null) {
+      writeFullQualifiedName(end.getType());
+      writeString(end.getRole());
+      writeEnum(end.getMultiplicity());
+      final OnDelete onDelete = end.getOnDelete();
+      out.writeBoolean(onDelete != null);
+      if (onDelete != null) {
+        writeEnum(onDelete.getAction());
+        writeDocumentation(onDelete.getDocumentation());
+        writeAnnotations(onDelete.getAnnotationAttributes(), onDelete.getAnnotationElements());
+      }
+      writeDocumentation(end.getDocumentation());
+      writeAnnotations(end.getAnnotationAttributes(), end.getAnnotationElements());
+    }
+  }
+
+  private void writeReferentialConstraintRole(final ReferentialConstraintRole role) throws IOException {
+    out.writeBoolean(role != null);
+    if (role != null) {
+      writeString(role.getRole());
+      writePropertyRefs(role.getPropertyRefs());
+      writeAnnotations(role.getAnnotationAttributes(), role.getAnnotationElements());
+    }
+  }
+
+  private void writePropertyRefs(final Collection<PropertyRef> propertyRefs) throws IOException {
+    writeSize(propertyRefs);
+    if (propertyRefs != null) {
+      for (PropertyRef propertyRef : propertyRefs) {
+        writeString(propertyRef.getName());
+        writeAnnotations(propertyRef.getAnnotationAttributes(), propertyRef.getAnnotationElements());
+      }
+    }
+  }
+
+  private void writeEntityContainer(final EntityContainer entityContainer) throws IOException {
+    writeString(entityContainer.getName());
+    writeString(entityContainer.getExtendz());
+    out.writeBoolean(entityContainer.isDefaultEntityContainer());
+    writeSize(entityContainer.getEntitySets());
+    if (entityContainer.getEntitySets() != null) {
+      for (EntitySet entitySet : entityContainer.getEntitySets()) {
+        writeString(entitySet.getName());
+        writeFullQualifiedName(entitySet.getEntityType());
+        writeMapping(entitySet.getMapping());
+        writeDocumentation(entitySet.getDocumentation());
+        writeAnnotations(entitySet.getAnnotationAttributes(), entitySet.getAnnotationElements());
+      }
+    }
+    writeSize(entityContainer.getAssociationSets());
+    if (entityContainer.getAssociationSets() != null) {
+      for (AssociationSet associationSet : entityContainer.getAssociationSets()) {
+        writeString(associationSet.getName());
+        writeFullQualifiedName(associationSet.getAssociation());
+        writeAssociationSetEnd(associationSet.getEnd1());
+        writeAssociationSetEnd(associationSet.getEnd2());
+        writeDocumentation(associationSet.getDocumentation());
+        writeAnnotations(associationSet.getAnnotationAttributes(), associationSet.getAnnotationElements());
+      }
+    }
+    writeSize(entityContainer.getFunctionImports());
+    if (entityContainer.getFunctionImports() != null) {
+      for (FunctionImport functionImport : entityContainer.getFunctionImports()) {
+        writeFunctionImport(functionImport);
+      }
+    }
+    writeDocumentation(entityContainer.getDocumentation());
+    writeAnnotations(entityContainer.getAnnotationAttributes(), entityContainer.getAnnotationElements());
+  }
+
+  private void writeAssociationSetEnd(final AssociationSetEnd end) throws IOException {
+    out.writeBoolean(end != null);
+    if (end != null) {
+      writeString(end.getRole());
+      writeString(end.getEntitySet());
+      writeDocumentation(end.getDocumentation());
+      writeAnnotations(end.getAnnotationAttributes(), end.getAnnotationElements());
+    }
+  }
+
+  private void writeFunctionImport(final FunctionImport functionImport) throws IOException {
+    writeString(functionImport.getName());
+    final ReturnType returnType = functionImport.getReturnType();
+    out.writeBoolean(returnType != null);
+    if (returnType != null) {
+      writeFullQualifiedName(returnType.getTypeName());
+      writeEnum(returnType.getMultiplicity());
+    }
+    writeString(functionImport.getEntitySet());
+    writeString(functionImport.getHttpMethod());
+    writeSize(functionImport.getParameters());
+    if (functionImport.getParameters() != null) {
+      for (FunctionImportParameter parameter : functionImport.getParameters()) {
+        writeString(parameter.getName());
+        writeString(parameter.getMode());
+        writeEnum(parameter.getType());
+        writeFacets(parameter.getFacets());
+        writeMapping(parameter.getMapping());
+        writeDocumentation(parameter.getDocumentation());
+        writeAnnotations(parameter.getAnnotationAttributes(), parameter.getAnnotationElements());
+      }
+    }
+    writeMapping(functionImport.getMapping());
+    writeDocumentation(functionImport.getDocumentation());
+    writeAnnotations(functionImport.getAnnotationAttributes(), functionImport.getAnnotationElements());
+  }
+
+  private void writeFacets(final EdmFacets facets) throws IOException {
+    out.writeBoolean(facets != null);
+    if (facets != null) {
+      writeBoolean(facets.isNullable());
+      writeString(facets.getDefaultValue());
+      writeInteger(facets.getMaxLength());
+      writeBoolean(facets.isFixedLength());
+      writeInteger(facets.getPrecision());
+      writeInteger(facets.getScale());
+      writeBoolean(facets.isUnicode());
+      writeString(facets.getCollation());
+      writeEnum(facets.getConcurrencyMode());
+    }
+  }
+
+  private void writeCustomizableFeedMappings(final CustomizableFeedMappings mappings) throws IOException {
+    out.writeBoolean(mappings != null);
+    if (mappings != null) {
+      writeBoolean(mappings.getFcKeepInContent());
+      writeEnum(mappings.getFcContentKind());
+      writeString(mappings.getFcNsPrefix());
+      writeString(mappings.getFcNsUri());
+      writeString(mappings.getFcSourcePath());
+      writeString(mappings.getFcTargetPath());
+    }
+  }
+
+  private void writeMapping(final Mapping mapping) throws IOException {
+    out.writeBoolean(mapping != null);
+    if (mapping != null) {
+      writeString(mapping.getInternalName());
+      writeString(mapping.getMediaResourceSourceKey());
+      writeString(mapping.getMediaResourceMimeTypeKey());
+    }
+  }
+
+  private void writeDocumentation(final Documentation documentation) throws IOException {
+    out.writeBoolean(documentation != null);
+    if (documentation != null) {
+      writeString(documentation.getSummary());
+      writeString(documentation.getLongDescription());
+      writeAnnotations(documentation.getAnnotationAttributes(), documentation.getAnnotationElements());
+    }
+  }
+
+  private void writeAnnotations(final Collection<AnnotationAttribute> attributes,
+      final Collection<AnnotationElement> elements) throws IOException {
+    writeAnnotationAttributes(attributes);
+    writeAnnotationElements(elements);
+  }
+
+  private void writeAnnotationAttributes(final Collection<AnnotationAttribute> attributes) throws IOException {
+    writeSize(attributes);
+    if (attributes != null) {
+      for (AnnotationAttribute attribute : attributes) {
+        writeString(attribute.getNamespace());
+        writeString(attribute.getPrefix());
+        writeString(attribute.getName());
+        writeString(attribute.getText());
+      }
+    }
+  }
+
+  private void writeAnnotationElements(final Collection<AnnotationElement> elements) throws IOException {
+    writeSize(elements);
+    if (elements != null) {
+      for (AnnotationElement element : elements) {
+        writeString(element.getNamespace());
+        writeString(element.getPrefix());
+        writeString(element.getName());
+        writeString(element.getText());
+        writeAnnotationElements(element.getChildElements());
+        writeAnnotationAttributes(element.getAttributes());
+      }
+    }
+  }
+
+  private void writeFullQualifiedName(final FullQualifiedName name) throws IOException {
+    out.writeBoolean(name != null);
+    if (name != null) {
+      writeString(name.getNamespace());
+      writeString(name.getName());
+    }
+  }
+
+  private void writeEnum(final Enum<?> value) throws IOException {
+    writeString(value == null ? null : value.name());
+  }
+
+  private void writeBoolean(final Boolean value) throws IOException {
+    out.writeByte(value == null ? NULL : value ? 2 : 1);
+  }
+
+  private void writeInteger(final Integer value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeInt(value);
+    }
+  }
+
+  /** Writes the size of a collection increased by one; zero stands for <code>null</code>. */
+  private void writeSize(final Collection<?> collection) throws IOException {
+    writeNumber(collection == null ? NULL : collection.size() + 1);
+  }
+
+  private void writeString(final String value) throws IOException {
+    if (value == null) {
+      writeNumber(NULL);
+    } else {
+      final Integer index = stringTable.get(value);
+      if (index == null) {
+        stringTable.put(value, stringTable.size());
+        final byte[] bytes = value.getBytes(UTF_8);
+        writeNumber(NEW_STRING);
+        writeNumber(bytes.length);
+        out.write(bytes);
+      } else {
+        writeNumber(index + STRING_REFERENCE_OFFSET);
+      }
+    }
+  }
+
+  /** Writes a non-negative number in as few bytes as possible (seven bits per byte). */
+  private void writeNumber(final int number) throws IOException {
+    int remaining = number;
+    while ((remaining & ~0x7F) != 0) {
+      out.writeByte((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    out.writeByte(remaining);
+  }
+}
@@ -40,6 +40,9 @@ import org.apache.olingo.odata2.core.ep.util.JsonStreamWriter;
 public class JsonFeedEntityProducer {
 
   private final EntityProviderWriteProperties properties;
+  private JsonStreamWriter feedWriter;
+  private JsonEntryEntityProducer entryProducer;
+  private int entryCount;
 
   public JsonFeedEntityProducer(final EntityProviderWriteProperties properties) throws EntityProviderException {
     this.properties = properties == null ? EntityProviderWriteProperties.serviceRoot(null).build() : properties;
@@ -48,42 +51,76 @@ public class JsonFeedEntityProducer {
   public void appendAsObject(final Writer writer, final EntityInfoAggregator entityInfo,
                              final List<Map<String, Object>> data,
                              final boolean isRootElement) throws EntityProviderException {
-    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
-
-    TombstoneCallback callback = getTombstoneCallback();
+    appendStart(writer, isRootElement);
+    for (final Map<String, Object> entryData : data) {
+      appendEntry(writer, entityInfo, entryData);
+    }
+    appendEnd(writer, entityInfo, isRootElement);
+  }
 
+  /**
+   * Writes the start of the feed object up to the first entry.
+   * Together with {@link #appendEntry} and {@link #appendEnd} a feed can be written
+   * without having all entries at hand.
+   */
+  public void appendStart(final Writer writer, final boolean isRootElement) throws EntityProviderException {
+    feedWriter = new JsonStreamWriter(writer);
+    entryProducer = new JsonEntryEntityProducer(properties);
+    entryCount = 0;
     try {
-      jsonStreamWriter.beginObject();
+      feedWriter.beginObject();
 
       if (isRootElement) {
-        jsonStreamWriter.name(FormatJson.D)
+        feedWriter.name(FormatJson.D)
             .beginObject();
       }
 
       if (properties.getInlineCountType() == InlineCount.ALLPAGES) {
         final int inlineCount = properties.getInlineCount() == null ? 0 : properties.getInlineCount();
-        jsonStreamWriter.namedStringValueRaw(FormatJson.COUNT, String.valueOf(inlineCount)).separator();
+        feedWriter.namedStringValueRaw(FormatJson.COUNT, String.valueOf(inlineCount)).separator();
       }
 
-      jsonStreamWriter.name(FormatJson.RESULTS)
+      feedWriter.name(FormatJson.RESULTS)
           .beginArray();
+    } catch (final IOException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
 
-      appendEntries(writer, entityInfo, data, jsonStreamWriter);
+  public void appendEntry(final Writer writer, final EntityInfoAggregator entityInfo,
+      final Map<String, Object> entryData) throws EntityProviderException {
+    try {
+      if (entryCount > 0) {
+        feedWriter.separator();
+      }
+      entryProducer.append(writer, entityInfo, entryData, false);
+      entryCount++;
+    } catch (final IOException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
+  public void appendEnd(final Writer writer, final EntityInfoAggregator entityInfo, final boolean isRootElement)
+      throws EntityProviderException {
+    TombstoneCallback callback = getTombstoneCallback();
 
+    try {
       if (callback != null) {
-        appendDeletedEntries(writer, entityInfo, data, callback);
+        appendDeletedEntries(writer, entityInfo, entryCount == 0, callback);
       }
 
-      jsonStreamWriter.endArray();
+      feedWriter.endArray();
 
-      appendNextLink(jsonStreamWriter);
-      appendDeltaLink(callback, jsonStreamWriter);
+      appendNextLink(feedWriter);
+      appendDeltaLink(callback, feedWriter);
 
       if (isRootElement) {
-        jsonStreamWriter.endObject();
+        feedWriter.endObject();
       }
 
-      jsonStreamWriter.endObject();
+      feedWriter.endObject();
     } catch (final IOException e) {
       throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
           .getSimpleName()), e);
@@ -104,12 +141,12 @@ public class JsonFeedEntityProducer {
   }
 
   private void appendDeletedEntries(final Writer writer, final EntityInfoAggregator entityInfo,
-      final List<Map<String, Object>> data, TombstoneCallback callback) throws EntityProviderException {
+      final boolean noEntriesWritten, final TombstoneCallback callback) throws EntityProviderException {
     JsonDeletedEntryEntityProducer deletedEntryProducer = new JsonDeletedEntryEntityProducer(properties);
     TombstoneCallbackResult callbackResult = callback.getTombstoneCallbackResult();
     List<Map<String, Object>> deletedEntries = callbackResult.getDeletedEntriesData();
     if (deletedEntries != null) {
-      deletedEntryProducer.append(writer, entityInfo, deletedEntries, data.isEmpty());
+      deletedEntryProducer.append(writer, entityInfo, deletedEntries, noEntriesWritten);
     }
   }
 
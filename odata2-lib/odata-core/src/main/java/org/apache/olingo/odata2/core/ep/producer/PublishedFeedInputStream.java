@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.producer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.feed.EntryPublisher;
+import org.apache.olingo.odata2.api.ep.feed.EntrySubscriber;
+import org.apache.olingo.odata2.api.ep.feed.EntrySubscription;
+
+/**
+ * Feed content which is produced while it is read from the entries of an {@link EntryPublisher}.
+ * <p>The subscription happens with the first read. Entries are requested in portions of
+ * {@link #REQUEST_SIZE}, and the next portion only after half of the previous one has been written;
+ * so at most {@link #REQUEST_SIZE} entries are buffered, independent of the size of the feed.
+ * Only the serialized form of the current entry is held in memory.</p>
+ * <p>The content is pulled by the thread which writes the response, i.e., with the servlet 2.5 API of this
+ * library a request thread waits while the publisher produces the next entry; there is no integration with
+ * asynchronous servlet output. The wait for each signal of the publisher is bounded: if the publisher stays
+ * silent for longer than the timeout, the subscription is cancelled and reading fails with an
+ * {@link IOException}, which aborts the response.</p>
+ * <p>Subclasses write the format-specific parts of the feed to {@link #getOutput()}.</p>
+ */
+public abstract class PublishedFeedInputStream extends InputStream implements EntrySubscriber {
+
+  /** Maximum number of requested but not yet written entries. */
+  public static final int REQUEST_SIZE = 32;
+
+  /** Default maximum time in milliseconds to wait for the next signal of the publisher. */
+  public static final long DEFAULT_PUBLISHER_TIMEOUT = 60000;
+
+  private static final Object COMPLETE = new Object();
+
+  private final EntryPublisher publisher;
+  private final long timeout;
+  private final BlockingQueue<Object> signals = new LinkedBlockingQueue<Object>();
+  private final SegmentBuffer segment = new SegmentBuffer();
+  private volatile EntrySubscription subscription;
+  private int position;
+  private boolean started;
+  private boolean finished;
+  private int written;
+
+  protected PublishedFeedInputStream(final EntryPublisher publisher) throws EntityProviderException {
+    this(publisher, DEFAULT_PUBLISHER_TIMEOUT);
+  }
+
+  /**
+   * @param publisher source of the entries
+   * @param timeout maximum time in milliseconds to wait for the next signal of the publisher;
+   * not positive values select {@link #DEFAULT_PUBLISHER_TIMEOUT}
+   */
+  protected PublishedFeedInputStream(final EntryPublisher publisher, final long timeout)
+      throws EntityProviderException {
+    if (publisher == null) {
+      throw new EntityProviderException(EntityProviderException.ILLEGAL_ARGUMENT.addContent("publisher is null"));
+    }
+    this.publisher = publisher;
+    this.timeout = timeout > 0 ? timeout : DEFAULT_PUBLISHER_TIMEOUT;
+  }
+
+  /** Writes everything before the first entry. */
+  protected abstract void writeStart() throws EntityProviderException;
+
+  /** Writes a single entry. */
+  protected abstract void writeEntry(Map<String, Object> entryData) throws EntityProviderException;
+
+  /** Writes everything after the last entry and flushes all pending output. */
+  protected abstract void writeEnd() throws EntityProviderException;
+
+  /**
+   * Target of the subclass writers; its content is handed out by the read methods.
+   * Writers must be flushed after each part.
+   */
+  protected OutputStream getOutput() {
+    return segment;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return segment.byteAt(position++) & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    final int count = Math.min(len, segment.size() - position);
+    segment.copyTo(position, b, off, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return segment.size() - position;
+  }
+
+  @Override
+  public void close() {
+    if (!finished) {
+      finished = true;
+      if (subscription != null) {
+        subscription.cancel();
+      }
+    }
+    signals.clear();
+  }
+
+  @Override
+  public void onSubscribe(final EntrySubscription subscription) {
+    this.subscription = subscription;
+    subscription.request(REQUEST_SIZE);
+  }
+
+  @Override
+  public void onNext(final Map<String, Object> entryData) {
+    signals.add(entryData);
+  }
+
+  @Override
+  public void onError(final Throwable error) {
+    signals.add(error);
+  }
+
+  @Override
+  public void onComplete() {
+    signals.add(COMPLETE);
+  }
+
+  /** Produces further parts of the feed until there is something to read; returns false at the end. */
+  private boolean fill() throws IOException {
+    while (position >= segment.size()) {
+      if (finished) {
+        return false;
+      }
+      segment.reset();
+      position = 0;
+      produce();
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void produce() throws IOException {
+    try {
+      if (!started) {
+        started = true;
+        writeStart();
+        publisher.subscribe(this);
+        return;
+      }
+      final Object signal = signals.poll(timeout, TimeUnit.MILLISECONDS);
+      if (signal == null) {
+        close();
+        throw new IOException("publisher did not signal within " + timeout + " ms");
+      } else if (signal == COMPLETE) {
+        finished = true;
+        writeEnd();
+      } else if (signal instanceof Throwable) {
+        finished = true;
+        throw new IOException("publisher failed: " + signal, (Throwable) signal);
+      } else {
+        if (subscription == null) {
+          throw new EntityProviderException(EntityProviderException.ILLEGAL_ARGUMENT
+              .addContent("publisher signaled an entry without subscription"));
+        }
+        writeEntry((Map<String, Object>) signal);
+        if (++written >= REQUEST_SIZE / 2) {
+          subscription.request(written);
+          written = 0;
+        }
+      }
+    } catch (final EntityProviderException e) {
+      close();
+      throw new IOException(e.getMessage(), e);
+    } catch (final InterruptedException e) {
+      close();
+      Thread.currentThread().interrupt();
+      throw new IOException("interrupted while waiting for entries", e);
+    }
+  }
+
+  /** Growing byte buffer which is reused for all parts of the feed. */
+  private static class SegmentBuffer extends ByteArrayOutputStream {
+
+    private byte byteAt(final int index) {
+      return buf[index];
+    }
+
+    private void copyTo(final int index, final byte[] target, final int offset, final int length) {
+      System.arraycopy(buf, index, target, offset, length);
+    }
+  }
+}
@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.ep.producer;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +32,7 @@ import org.apache.olingo.odata2.api.edm.EdmFacets;
 import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
 import org.apache.olingo.odata2.api.edm.EdmSimpleType;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
+import org.apache.olingo.odata2.api.edm.EdmType;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
 import org.apache.olingo.odata2.core.ep.EntityProviderProducerException;
@@ -47,6 +49,8 @@ public class XmlPropertyEntityProducer {
   private final boolean includeSimplePropertyType;
   private final boolean validateFacets;
   private boolean isDataBasedPropertySerialization = false;
+  /** Full qualified type names, computed once per type for the lifetime of this producer. */
+  private final Map<EdmType, String> fqnTypeNames = new HashMap<EdmType, String>();
 
   public XmlPropertyEntityProducer(final EntityProviderWriteProperties writeProperties) {
     this(writeProperties.isIncludeSimplePropertyType(), writeProperties.isValidatingFacets());
@@ -165,7 +169,16 @@ public class XmlPropertyEntityProducer {
    * @return Full qualified name
    */
   private String getFqnTypeName(final EntityComplexPropertyInfo propertyInfo) throws EdmException {
-    return propertyInfo.getType().getNamespace() + Edm.DELIMITER + propertyInfo.getType().getName();
+    return getFqnTypeName(propertyInfo.getType());
+  }
+
+  private String getFqnTypeName(final EdmType type) throws EdmException {
+    String fqnTypeName = fqnTypeNames.get(type);
+    if (fqnTypeName == null) {
+      fqnTypeName = type.getNamespace() + Edm.DELIMITER + type.getName();
+      fqnTypeNames.put(type, fqnTypeName);
+    }
+    return fqnTypeName;
   }
 
   /**
@@ -210,8 +223,7 @@ public class XmlPropertyEntityProducer {
 
     final EdmSimpleType type = (EdmSimpleType) prop.getType();
     if (includeSimplePropertyType) {
-      String fqnTypeName = type.getNamespace() + Edm.DELIMITER + type.getName();
-      writer.writeAttribute(Edm.NAMESPACE_M_2007_08, FormatXml.ATOM_TYPE, fqnTypeName);
+      writer.writeAttribute(Edm.NAMESPACE_M_2007_08, FormatXml.ATOM_TYPE, getFqnTypeName(type));
     }
 
     final EdmFacets facets = validateFacets ? prop.getFacets() : null;
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of the byte buffers used by {@link CircleStreamBuffer}.
+ * Buffers are pooled in power-of-two size classes between a minimum and a maximum capacity; buffers of other
+ * capacities are neither pooled nor served from the pool. Each pool holds at most {@link #MAX_POOLED_BYTES} bytes.
+ * The pool also keeps a capacity hint learned from the sizes of the recently written contents.
+ * <p>The library owns a fixed number of pools, one per stripe of threads chosen via {@link #get()}, so that the
+ * buffers and the capacity hint carry over from request to request without thread-local state; container threads
+ * therefore never keep the library's classes from being unloaded. {@link #clearAll()} empties all pools.
+ * Instances are thread safe.</p>
+ */
+final class ByteBufferPool {
+
+  static final int MIN_CAPACITY = 8192;
+  static final int MAX_CAPACITY = MIN_CAPACITY * 32;
+  static final int MAX_POOLED_BYTES = MAX_CAPACITY * 2;
+  static final int MAX_CAPACITY_HINT = MIN_CAPACITY * 8;
+
+  private static final int MIN_CAPACITY_SHIFT = Integer.numberOfTrailingZeros(MIN_CAPACITY);
+  private static final int STRIPES =
+      Integer.highestOneBit(Math.min(16, Math.max(1, Runtime.getRuntime().availableProcessors())) * 2 - 1);
+  private static final ByteBufferPool[] POOLS = new ByteBufferPool[STRIPES];
+  static {
+    for (int i = 0; i < STRIPES; i++) {
+      POOLS[i] = new ByteBufferPool();
+    }
+  }
+
+  private final ArrayDeque<ByteBuffer>[] sizeClasses;
+  private int pooledBytes = 0;
+  private int capacityHint = MIN_CAPACITY;
+
+  @SuppressWarnings("unchecked")
+  ByteBufferPool() {
+    sizeClasses = new ArrayDeque[Integer.numberOfTrailingZeros(MAX_CAPACITY) - MIN_CAPACITY_SHIFT + 1];
+    for (int i = 0; i < sizeClasses.length; i++) {
+      sizeClasses[i] = new ArrayDeque<ByteBuffer>();
+    }
+  }
+
+  /**
+   * Gets the pool of the stripe of the current thread.
+   */
+  static ByteBufferPool get() {
+    return POOLS[(int) (Thread.currentThread().getId() & (STRIPES - 1))];
+  }
+
+  /**
+   * Drops the buffers and the capacity hints of all pools.
+   */
+  static void clearAll() {
+    for (final ByteBufferPool pool : POOLS) {
+      pool.clear();
+    }
+  }
+
+  synchronized void clear() {
+    for (final ArrayDeque<ByteBuffer> sizeClass : sizeClasses) {
+      sizeClass.clear();
+    }
+    pooledBytes = 0;
+    capacityHint = MIN_CAPACITY;
+  }
+
+  /**
+   * Gets a cleared buffer with the given capacity, from the pool if one is available.
+   */
+  synchronized ByteBuffer allocate(final int capacity) {
+    final int sizeClass = getSizeClass(capacity);
+    if (sizeClass >= 0) {
+      final ByteBuffer buffer = sizeClasses[sizeClass].poll();
+      if (buffer != null) {
+        pooledBytes -= capacity;
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocate(capacity);
+  }
+
+  /**
+   * Returns a buffer to the pool. The caller must not use the buffer afterwards.
+   */
+  synchronized void release(final ByteBuffer buffer) {
+    final int capacity = buffer.capacity();
+    final int sizeClass = getSizeClass(capacity);
+    if (sizeClass >= 0 && !buffer.isReadOnly() && pooledBytes + capacity <= MAX_POOLED_BYTES) {
+      buffer.clear();
+      sizeClasses[sizeClass].push(buffer);
+      pooledBytes += capacity;
+    }
+  }
+
+  /**
+   * Gets the initial capacity suggested for the next content written by the threads of this pool.
+   */
+  synchronized int getCapacityHint() {
+    return capacityHint;
+  }
+
+  /**
+   * Records the size of a completely written content. The capacity hint is doubled for a larger content
+   * and halved for a content fitting into half of it, within {@link #MIN_CAPACITY} and {@link #MAX_CAPACITY_HINT};
+   * so a single large content does not make the following small contents start with large buffers.
+   * Larger contents grow their buffers while being written.
+   */
+  synchronized void recordContentSize(final long size) {
+    if (size > capacityHint) {
+      capacityHint = Math.min(capacityHint * 2, MAX_CAPACITY_HINT);
+    } else if (size <= capacityHint / 2) {
+      capacityHint = Math.max(capacityHint / 2, MIN_CAPACITY);
+    }
+  }
+
+  synchronized int getPooledBytes() {
+    return pooledBytes;
+  }
+
+  /* index of the size class of the given capacity or -1 if buffers of this capacity are not pooled */
+  private static int getSizeClass(final int capacity) {
+    if (capacity < MIN_CAPACITY || capacity > MAX_CAPACITY || Integer.bitCount(capacity) != 1) {
+      return -1;
+    }
+    return Integer.numberOfTrailingZeros(capacity) - MIN_CAPACITY_SHIFT;
+  }
+}
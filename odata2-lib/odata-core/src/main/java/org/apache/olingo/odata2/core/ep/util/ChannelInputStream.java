@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * {@link InputStream} view on a {@link ReadableByteChannel} which keeps the underlying channel accessible,
+ * so that a response writer can use channel based transfers (e.g. {@link FileChannel#transferTo}) instead of
+ * copying the content through a heap buffer.
+ */
+public class ChannelInputStream extends InputStream {
+
+  private static final int READ_EOF = -1;
+
+  private final ReadableByteChannel channel;
+  private ByteBuffer singleByte;
+
+  public ChannelInputStream(final ReadableByteChannel channel) {
+    if (channel == null) {
+      throw new IllegalArgumentException("Channel must not be null.");
+    }
+    this.channel = channel;
+  }
+
+  /**
+   * @return the wrapped channel
+   */
+  public ReadableByteChannel getChannel() {
+    return channel;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (singleByte == null) {
+      singleByte = ByteBuffer.allocate(1);
+    }
+    singleByte.clear();
+    int read = 0;
+    while (read == 0) {
+      read = channel.read(singleByte);
+    }
+    return read == READ_EOF ? READ_EOF : singleByte.get(0) & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+    int read = 0;
+    while (read == 0) {
+      read = channel.read(buffer);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(final long n) throws IOException {
+    if (n <= 0) {
+      return 0;
+    }
+    if (channel instanceof FileChannel) {
+      final FileChannel fileChannel = (FileChannel) channel;
+      final long position = fileChannel.position();
+      final long skipped = Math.min(n, Math.max(0, fileChannel.size() - position));
+      fileChannel.position(position + skipped);
+      return skipped;
+    }
+    return super.skip(n);
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (channel instanceof FileChannel) {
+      final FileChannel fileChannel = (FileChannel) channel;
+      return (int) Math.min(Integer.MAX_VALUE, Math.max(0, fileChannel.size() - fileChannel.position()));
+    }
+    return 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
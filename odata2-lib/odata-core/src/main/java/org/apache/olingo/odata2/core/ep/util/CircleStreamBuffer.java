@@ -22,21 +22,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Circular stream buffer to write/read into/from one single buffer.
  * With support of {@link InputStream} and {@link OutputStream} access to buffered data.
- * 
+ * <p>The internal byte buffers are taken from and returned to the {@link ByteBufferPool} of the current thread;
+ * buffers are returned as soon as they have been read out or the read part is closed.
+ * The pooled buffers are dropped with {@link #releasePooledBuffers()}.
+ * Writing and reading have to happen on one thread at a time; the buffer is not thread safe.</p>
  * 
  */
 public class CircleStreamBuffer {
 
   private static final int NEW_BUFFER_RESIZE_FACTOR = 2;
   private static final int READ_EOF = -1;
-  private static final int DEFAULT_CAPACITY = 8192;
-  private static final int MAX_CAPACITY = DEFAULT_CAPACITY * 32;
+  private static final int DEFAULT_CAPACITY = ByteBufferPool.MIN_CAPACITY;
+  private static final int MAX_CAPACITY = ByteBufferPool.MAX_CAPACITY;
 
   private int currentAllocateCapacity = DEFAULT_CAPACITY;
 
@@ -44,17 +47,18 @@ public class CircleStreamBuffer {
   private boolean writeClosed = false;
   private boolean readClosed = false;
 
-  private Queue<ByteBuffer> bufferQueue = new LinkedBlockingQueue<ByteBuffer>();
+  private Queue<ByteBuffer> bufferQueue = new ArrayDeque<ByteBuffer>();
   private ByteBuffer currentWriteBuffer;
+  private long writtenBytes = 0;
 
   private InternalInputStream inStream;
   private InternalOutputStream outStream;
 
   /**
-   * Creates a {@link CircleStreamBuffer} with default buffer size.
+   * Creates a {@link CircleStreamBuffer} with a buffer size fitting the contents recently written on this thread.
    */
   public CircleStreamBuffer() {
-    this(DEFAULT_CAPACITY);
+    this(ByteBufferPool.get().getCapacityHint());
   }
 
   /**
@@ -87,6 +91,14 @@ public class CircleStreamBuffer {
     return outStream;
   }
 
+  /**
+   * Releases all pooled byte buffers together with the learned buffer sizes.
+   * To be called when the service is shut down, e.g., when the servlet is destroyed.
+   */
+  public static void releasePooledBuffers() {
+    ByteBufferPool.clearAll();
+  }
+
   // #############################################
   // #
   // # Common parts
@@ -98,7 +110,10 @@ public class CircleStreamBuffer {
    * After this call the buffer can only be read out.
    */
   public void closeWrite() {
-    writeClosed = true;
+    if (!writeClosed) {
+      writeClosed = true;
+      ByteBufferPool.get().recordContentSize(writtenBytes);
+    }
   }
 
   /**
@@ -107,10 +122,15 @@ public class CircleStreamBuffer {
    */
   public void closeRead() {
     readClosed = true;
-    // clear references to byte buffers
+    // return the byte buffers to the pool; the current write buffer may still be written into
+    final ByteBufferPool pool = ByteBufferPool.get();
     ByteBuffer buffer = bufferQueue.poll();
     while (buffer != null) {
-      buffer.clear();
+      if (buffer == currentWriteBuffer) {
+        buffer.clear();
+      } else {
+        pool.release(buffer);
+      }
       buffer = bufferQueue.poll();
     }
   }
@@ -154,7 +174,10 @@ public class CircleStreamBuffer {
     } else {
       tmp = bufferQueue.peek();
       if (tmp != null && !tmp.hasRemaining()) {
-        tmp = bufferQueue.poll();
+        bufferQueue.poll();
+        if (tmp != currentWriteBuffer) {
+          ByteBufferPool.get().release(tmp);
+        }
         next = true;
       }
     }
@@ -202,6 +225,7 @@ public class CircleStreamBuffer {
   private void write(final byte[] data, final int off, final int len) throws IOException {
     ByteBuffer writeBuffer = getWriteBuffer(len);
     writeBuffer.put(data, off, len);
+    writtenBytes += len;
   }
 
   private ByteBuffer getWriteBuffer(final int size) throws IOException {
@@ -224,6 +248,7 @@ public class CircleStreamBuffer {
   private void write(final int b) throws IOException {
     ByteBuffer writeBuffer = getWriteBuffer(1);
     writeBuffer.put((byte) b);
+    writtenBytes++;
   }
 
   private void createNewWriteBuffer() {
@@ -244,7 +269,7 @@ public class CircleStreamBuffer {
   }
 
   /**
-   * Allocate a new buffer with requested capacity
+   * Allocate a new buffer with requested capacity, from the {@link ByteBufferPool} if possible
    *
    * @param requestedCapacity minimal capacity of new buffer
    * @return the buffer
@@ -252,7 +277,7 @@ public class CircleStreamBuffer {
   private ByteBuffer allocateBuffer(final int requestedCapacity) {
     if (requestedCapacity > MAX_CAPACITY) {
       currentAllocateCapacity = MAX_CAPACITY;
-      return ByteBuffer.allocate(requestedCapacity);
+      return ByteBufferPool.get().allocate(requestedCapacity);
     }
 
     if (requestedCapacity <= currentAllocateCapacity) {
@@ -264,7 +289,7 @@ public class CircleStreamBuffer {
       currentAllocateCapacity = requestedCapacity;
     }
 
-    return ByteBuffer.allocate(currentAllocateCapacity);
+    return ByteBufferPool.get().allocate(currentAllocateCapacity);
   }
 
   // #############################################
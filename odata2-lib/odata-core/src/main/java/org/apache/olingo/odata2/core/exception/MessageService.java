@@ -22,13 +22,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Formatter;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingFormatArgumentException;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.odata2.api.exception.MessageReference;
 
@@ -41,7 +41,11 @@ public class MessageService {
   private final ResourceBundle resourceBundle;
   private final Locale requestedLocale;
 
-  private static final Map<Locale, MessageService> LOCALE_2_MESSAGE_SERVICE = new HashMap<Locale, MessageService>();
+  private static final Map<Locale, MessageService> LOCALE_2_MESSAGE_SERVICE =
+      new ConcurrentHashMap<Locale, MessageService>();
+
+  /** Formatted messages without replacements; their number is limited by the keys in the resource bundle. */
+  private final Map<String, Message> messagesWithoutReplacements = new ConcurrentHashMap<String, Message>();
 
   private MessageService(final Locale locale) {
     requestedLocale = locale;
@@ -120,6 +124,9 @@ public class MessageService {
   }
 
   public static MessageService getInstance(final Locale locale) {
+    if (locale == null) {
+      return new MessageService(null);
+    }
     MessageService messagesInstance = LOCALE_2_MESSAGE_SERVICE.get(locale);
     if (messagesInstance == null) {
       messagesInstance = new MessageService(locale);
@@ -194,6 +201,18 @@ public class MessageService {
    * @return the message
    */
   private Message getMessage(final String key, final Object... replacements) {
+    if (key != null && replacements != null && replacements.length == 0) {
+      Message message = messagesWithoutReplacements.get(key);
+      if (message == null) {
+        message = formatMessage(key, replacements);
+        messagesWithoutReplacements.put(key, message);
+      }
+      return message;
+    }
+    return formatMessage(key, replacements);
+  }
+
+  private Message formatMessage(final String key, final Object... replacements) {
     String message = null;
 
     try {
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.processor;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
+
+/**
+ * {@link ODataResponseCache} bounded by the total size of the cached responses which evicts the least recently
+ * used response first. The responses are indexed by the entity sets they depend on for invalidation.
+ */
+public class ODataResponseCacheImpl implements ODataResponseCache {
+
+  /** Estimated size in bytes of a cache entry besides its key, headers, and body. */
+  private static final int ENTRY_OVERHEAD = 128;
+
+  private final long maximumBytes;
+  private long bytes;
+  private long sequence;
+  private long clearedGeneration;
+  private final Map<String, CacheEntry> entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+  private final Map<String, Set<String>> keysByEntitySet = new HashMap<String, Set<String>>();
+  private final Map<String, Long> generations = new HashMap<String, Long>();
+
+  public ODataResponseCacheImpl(final long maximumBytes) {
+    if (maximumBytes <= 0) {
+      throw new IllegalArgumentException("Maximum size of response cache must be positive.");
+    }
+    this.maximumBytes = maximumBytes;
+  }
+
+  @Override
+  public ODataResponse get(final String key) {
+    final CacheEntry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+    }
+    if (entry == null) {
+      return null;
+    }
+    ODataResponseBuilder builder = ODataResponse.status(entry.status);
+    for (Map.Entry<String, String> header : entry.headers.entrySet()) {
+      builder.header(header.getKey(), header.getValue());
+    }
+    return builder.entity(new ByteArrayInputStream(entry.body)).build();
+  }
+
+  @Override
+  public synchronized long getGeneration(final Set<String> entitySetNames) {
+    long generation = clearedGeneration;
+    for (final String entitySetName : entitySetNames) {
+      final Long entitySetGeneration = generations.get(entitySetName);
+      if (entitySetGeneration != null && entitySetGeneration.longValue() > generation) {
+        generation = entitySetGeneration.longValue();
+      }
+    }
+    return generation;
+  }
+
+  @Override
+  public void put(final String key, final Set<String> entitySetNames, final long generation,
+      final ODataResponse response, final byte[] body) {
+    Map<String, String> headers = new HashMap<String, String>();
+    long size = ENTRY_OVERHEAD + 2L * key.length() + body.length;
+    for (final String name : response.getHeaderNames()) {
+      final String value = response.getHeader(name);
+      headers.put(name, value);
+      size += 2L * (name.length() + (value == null ? 0 : value.length()));
+    }
+    if (size > maximumBytes) {
+      return;
+    }
+    final CacheEntry entry = new CacheEntry(response.getStatus(), headers, body,
+        new HashSet<String>(entitySetNames), size);
+    synchronized (this) {
+      // an entity set has been invalidated while the response was read
+      if (getGeneration(entry.entitySetNames) != generation) {
+        return;
+      }
+      remove(key);
+      entries.put(key, entry);
+      bytes += size;
+      for (final String entitySetName : entry.entitySetNames) {
+        Set<String> keys = keysByEntitySet.get(entitySetName);
+        if (keys == null) {
+          keys = new HashSet<String>();
+          keysByEntitySet.put(entitySetName, keys);
+        }
+        keys.add(key);
+      }
+      final Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+      while (bytes > maximumBytes && iterator.hasNext()) {
+        final Map.Entry<String, CacheEntry> eldest = iterator.next();
+        iterator.remove();
+        bytes -= eldest.getValue().size;
+        unindex(eldest.getKey(), eldest.getValue());
+      }
+    }
+  }
+
+  @Override
+  public synchronized void invalidate(final String entitySetName) {
+    generations.put(entitySetName, ++sequence);
+    final Set<String> keys = keysByEntitySet.get(entitySetName);
+    if (keys != null) {
+      for (final String key : new HashSet<String>(keys)) {
+        remove(key);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    clearedGeneration = ++sequence;
+    entries.clear();
+    keysByEntitySet.clear();
+    bytes = 0;
+  }
+
+  /**
+   * @return the number of cached responses
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the estimated size of all cached responses in bytes
+   */
+  public synchronized long getByteSize() {
+    return bytes;
+  }
+
+  private void remove(final String key) {
+    final CacheEntry entry = entries.remove(key);
+    if (entry != null) {
+      bytes -= entry.size;
+      unindex(key, entry);
+    }
+  }
+
+  private void unindex(final String key, final CacheEntry entry) {
+    for (final String entitySetName : entry.entitySetNames) {
+      final Set<String> keys = keysByEntitySet.get(entitySetName);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          keysByEntitySet.remove(entitySetName);
+        }
+      }
+    }
+  }
+
+  private static class CacheEntry {
+    private final HttpStatusCodes status;
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final Set<String> entitySetNames;
+    private final long size;
+
+    public CacheEntry(final HttpStatusCodes status, final Map<String, String> headers, final byte[] body,
+        final Set<String> entitySetNames, final long size) {
+      this.status = status;
+      this.headers = headers;
+      this.body = body;
+      this.entitySetNames = entitySetNames;
+      this.size = size;
+    }
+  }
+}
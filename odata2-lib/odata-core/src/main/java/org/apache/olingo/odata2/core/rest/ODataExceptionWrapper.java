@@ -198,7 +198,9 @@ public class ODataExceptionWrapper {
     }
     errorContext.setException(exception);
     errorContext.setErrorCode(null);
-    errorContext.setMessage(exception.getMessage());
+    // message exceptions get their localized message later on; no need to resolve the default one
+    errorContext.setMessage(exception instanceof ODataMessageException
+        && ((ODataMessageException) exception).getMessageReference() != null ? null : exception.getMessage());
     errorContext.setLocale(DEFAULT_RESPONSE_LOCALE);
 
     if (httpRequestHeaders != null) {
@@ -27,6 +27,7 @@ import org.apache.olingo.odata2.api.client.batch.BatchChangeSet.BatchChangeSetBu
 import org.apache.olingo.odata2.api.client.batch.BatchChangeSetPart.BatchChangeSetPartBuilder;
 import org.apache.olingo.odata2.api.client.batch.BatchQueryPart.BatchQueryPartBuilder;
 import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmSimpleType;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeFacade;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
@@ -36,6 +37,7 @@ import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.exception.ODataMessageException;
 import org.apache.olingo.odata2.api.processor.ODataRequest.ODataRequestBuilder;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
 import org.apache.olingo.odata2.api.rt.RuntimeDelegate.RuntimeDelegateInstance;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode.ExpandSelectTreeNodeBuilder;
@@ -52,6 +54,7 @@ import org.apache.olingo.odata2.core.edm.provider.EdmxProvider;
 import org.apache.olingo.odata2.core.ep.ProviderFacadeImpl;
 import org.apache.olingo.odata2.core.exception.MessageService;
 import org.apache.olingo.odata2.core.exception.MessageService.Message;
+import org.apache.olingo.odata2.core.processor.ODataResponseCacheImpl;
 import org.apache.olingo.odata2.core.processor.ODataSingleProcessorService;
 import org.apache.olingo.odata2.core.uri.ExpandSelectTreeNodeImpl;
 import org.apache.olingo.odata2.core.uri.UriParserImpl;
@@ -87,6 +90,13 @@ public class RuntimeDelegateImpl extends RuntimeDelegateInstance {
     return new EdmImplProv(provider);
   }
 
+  @Override
+  protected Edm createFrozenEdm(final EdmProvider provider) throws EdmException {
+    final EdmImplProv edm = new EdmImplProv(provider);
+    edm.freeze();
+    return edm;
+  }
+
   @Override
   protected EntityProviderInterface createEntityProvider() {
     return new ProviderFacadeImpl();
@@ -98,6 +108,11 @@ public class RuntimeDelegateImpl extends RuntimeDelegateInstance {
     return new ODataSingleProcessorService(provider, processor);
   }
 
+  @Override
+  protected ODataService createODataSingleProcessorService(final Edm edm, final ODataSingleProcessor processor) {
+    return new ODataSingleProcessorService(edm, processor);
+  }
+
   @Override
   protected EdmProvider createEdmProvider(final InputStream metadataXml, final boolean validate)
       throws EntityProviderException {
@@ -141,6 +156,11 @@ public class RuntimeDelegateImpl extends RuntimeDelegateInstance {
     return expandSelectTreeNode.new ExpandSelectTreeNodeBuilderImpl();
   }
 
+  @Override
+  protected ODataResponseCache createResponseCache(final long maximumBytes) {
+    return new ODataResponseCacheImpl(maximumBytes);
+  }
+
   @Override
   public String extractExceptionMessage(final ODataMessageException exception) {
     Message msg = MessageService.getMessage(Locale.ENGLISH, exception.getMessageReference());
@@ -35,14 +35,22 @@ import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.core.ODataContextImpl;
 import org.apache.olingo.odata2.core.ODataRequestHandler;
+import org.apache.olingo.odata2.core.ep.util.ChannelInputStream;
+import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 public class ODataServlet extends HttpServlet {
 
@@ -60,6 +68,8 @@ public class ODataServlet extends HttpServlet {
   private static final long serialVersionUID = 1L;
   private static final int DEFAULT_BUFFER_SIZE = 32768;
   private static final String DEFAULT_READ_CHARSET = "utf-8";
+  private static final String RANGE_UNIT_BYTES = "bytes";
+  private static final long[] UNSATISFIABLE_RANGE = new long[0];
 
   @Override
   protected void service(final HttpServletRequest req, final HttpServletResponse resp) throws IOException {
@@ -88,6 +98,13 @@ public class ODataServlet extends HttpServlet {
     }
   }
 
+  @Override
+  public void destroy() {
+    // drops the pooled buffers of the response streams
+    CircleStreamBuffer.releasePooledBuffers();
+    super.destroy();
+  }
+
   /**
    * Get the service factory instance which is used for creation of the
    * <code>ODataService</code> which handles the processing of the request.
@@ -215,7 +232,7 @@ public class ODataServlet extends HttpServlet {
         final ODataResponse odataResponse = requestHandler.handle(odataRequest);
         //
         boolean omitResponseBody = HTTP_METHOD_HEAD.equals(req.getMethod());
-        createResponse(resp, odataResponse, omitResponseBody);
+        createResponse(req, resp, odataResponse, omitResponseBody);
       }
     } catch (Exception e) {
       ODataExceptionWrapper wrapper = new ODataExceptionWrapper(req, serviceFactory);
@@ -265,24 +282,68 @@ public class ODataServlet extends HttpServlet {
   protected void createResponse(final HttpServletResponse resp, final ODataResponse response,
                                 final boolean omitResponseBody)
       throws IOException {
+    createResponse(null, resp, response, omitResponseBody);
+  }
+
+  /**
+   * Writes the given OData response into the servlet response.
+   * If the request is given and the response entity is a media resource which accepts byte ranges
+   * (see {@link HttpHeaders#ACCEPT_RANGES}), a <code>Range</code> header (with an optional
+   * <code>If-Range</code> precondition) of the request is honored.
+   *
+   * @param req the http request (can be <code>null</code>, then no range is evaluated)
+   * @param resp the http response to write into
+   * @param response the OData response
+   * @param omitResponseBody <code>true</code> if only status and headers are written
+   * @throws IOException
+   */
+  protected void createResponse(final HttpServletRequest req, final HttpServletResponse resp,
+      final ODataResponse response, final boolean omitResponseBody) throws IOException {
+
+    final Object entity = response.getEntity();
+    final long entityLength = getEntityLength(entity);
+    final long[] range = omitResponseBody ? null : getRequestedRange(req, response, entityLength);
+
+    if (range == UNSATISFIABLE_RANGE) {
+      closeEntity(entity);
+      resp.setStatus(HttpStatusCodes.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode());
+      resp.setHeader(HttpHeaders.CONTENT_RANGE, RANGE_UNIT_BYTES + " */" + entityLength);
+      resp.setContentLength(0);
+      return;
+    }
 
-    resp.setStatus(response.getStatus().getStatusCode());
+    resp.setStatus(range == null ?
+        response.getStatus().getStatusCode() : HttpStatusCodes.PARTIAL_CONTENT.getStatusCode());
     resp.setContentType(response.getContentHeader());
     for (String headerName : response.getHeaderNames()) {
       resp.setHeader(headerName, response.getHeader(headerName));
     }
 
     if(omitResponseBody) {
+      closeEntity(entity);
       return;
     }
 
-    Object entity = response.getEntity();
     if (entity != null) {
       ServletOutputStream out = resp.getOutputStream();
-      int contentLength;
+      long contentLength;
 
       if (entity instanceof InputStream) {
-        contentLength = handleStream((InputStream) entity, out);
+        if (range != null) {
+          resp.setHeader(HttpHeaders.CONTENT_RANGE,
+              RANGE_UNIT_BYTES + " " + range[0] + "-" + range[1] + "/" + entityLength);
+          setContentLength(resp, range[1] - range[0] + 1);
+          contentLength = handleStream((InputStream) entity, out, range[0], range[1] - range[0] + 1);
+        } else if (entityLength >= 0 && !(entity instanceof ByteArrayInputStream)) {
+          // known length of a streamed media resource: send it upfront to avoid chunked transfer
+          setContentLength(resp, entityLength);
+          handleStream((InputStream) entity, out, 0, -1);
+          out.flush();
+          out.close();
+          return;
+        } else {
+          contentLength = handleStream((InputStream) entity, out, 0, -1);
+        }
       } else if (entity instanceof String) {
         String body = (String) entity;
         final byte[] entityBytes = body.getBytes(DEFAULT_READ_CHARSET);
@@ -292,30 +353,163 @@ public class ODataServlet extends HttpServlet {
         throw new IOException("Illegal entity object in ODataResponse of type '" + entity.getClass() + "'.");
       }
 
-      if (response.getHeader(HttpHeaders.CONTENT_LENGTH) != null) {
-        // Override content length
-        try {
-          contentLength = Integer.parseInt(response.getHeader(HttpHeaders.CONTENT_LENGTH));
-        } catch (NumberFormatException e) {
-          // Ignore
+      if (range == null) {
+        if (response.getHeader(HttpHeaders.CONTENT_LENGTH) != null) {
+          // Override content length
+          try {
+            contentLength = Long.parseLong(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+          } catch (NumberFormatException e) {
+            // Ignore
+          }
         }
+        setContentLength(resp, contentLength);
       }
-
-      resp.setContentLength(contentLength);
       out.flush();
       out.close();
     }
   }
 
-  private int handleStream(InputStream stream, ServletOutputStream out) throws IOException {
-    int contentLength = 0;
-    byte[] buffer = getBuffer();
+  private void setContentLength(final HttpServletResponse resp, final long contentLength) {
+    if (contentLength <= Integer.MAX_VALUE) {
+      resp.setContentLength((int) contentLength);
+    } else {
+      resp.setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(contentLength));
+    }
+  }
 
+  /**
+   * Evaluates the <code>Range</code> and <code>If-Range</code> request headers for a single byte range.
+   * @return <code>null</code> if the complete entity has to be sent, {@link #UNSATISFIABLE_RANGE} if the
+   * range can not be satisfied, otherwise the first and last (inclusive) byte position
+   */
+  private long[] getRequestedRange(final HttpServletRequest req, final ODataResponse response,
+      final long entityLength) {
+    if (req == null || entityLength < 0
+        || !ODataHttpMethod.GET.name().equals(req.getMethod())
+        || response.getStatus() != HttpStatusCodes.OK
+        || !RANGE_UNIT_BYTES.equals(response.getHeader(HttpHeaders.ACCEPT_RANGES))) {
+      return null;
+    }
+    final String rangeHeader = req.getHeader(HttpHeaders.RANGE);
+    if (rangeHeader == null || !rangeHeader.startsWith(RANGE_UNIT_BYTES + "=")
+        || !isIfRangeFulfilled(req.getHeader(HttpHeaders.IF_RANGE), response)) {
+      return null;
+    }
+    final String rangeSpec = rangeHeader.substring(RANGE_UNIT_BYTES.length() + 1).trim();
+    final int separator = rangeSpec.indexOf('-');
+    // multiple ranges are not supported; according to RFC 7233 the complete entity is sent instead
+    if (separator < 0 || rangeSpec.indexOf(',') >= 0) {
+      return null;
+    }
     try {
-      int len;
-      while ((len = stream.read(buffer)) != -1) {
-        contentLength += len;
-        out.write(buffer, 0, len);
+      final String first = rangeSpec.substring(0, separator).trim();
+      final String last = rangeSpec.substring(separator + 1).trim();
+      long start;
+      long end;
+      if (first.length() == 0) {
+        final long suffixLength = Long.parseLong(last);
+        if (suffixLength <= 0) {
+          return UNSATISFIABLE_RANGE;
+        }
+        start = Math.max(0, entityLength - suffixLength);
+        end = entityLength - 1;
+      } else {
+        start = Long.parseLong(first);
+        end = last.length() == 0 ? Long.MAX_VALUE : Long.parseLong(last);
+        if (start < 0 || end < start) {
+          return null;
+        } else if (start >= entityLength) {
+          return UNSATISFIABLE_RANGE;
+        }
+        end = Math.min(end, entityLength - 1);
+      }
+      return new long[] { start, end };
+    } catch (NumberFormatException e) {
+      // syntactically invalid ranges are ignored
+      return null;
+    }
+  }
+
+  private boolean isIfRangeFulfilled(final String ifRange, final ODataResponse response) {
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      // only strong entity tags are allowed for a range request
+      return !ifRange.startsWith("W/") && ifRange.equals(response.getETag());
+    }
+    return ifRange.equals(response.getHeader(HttpHeaders.LAST_MODIFIED));
+  }
+
+  /**
+   * Determines the remaining length of an entity if it can be done without reading it.
+   * @return the length or <code>-1</code> if unknown
+   */
+  private long getEntityLength(final Object entity) throws IOException {
+    final FileChannel fileChannel = getFileChannel(entity);
+    if (fileChannel != null) {
+      return Math.max(0, fileChannel.size() - fileChannel.position());
+    } else if (entity instanceof ByteArrayInputStream) {
+      return ((ByteArrayInputStream) entity).available();
+    }
+    return -1;
+  }
+
+  private FileChannel getFileChannel(final Object entity) {
+    if (entity instanceof FileInputStream) {
+      return ((FileInputStream) entity).getChannel();
+    } else if (entity instanceof ChannelInputStream
+        && ((ChannelInputStream) entity).getChannel() instanceof FileChannel) {
+      return (FileChannel) ((ChannelInputStream) entity).getChannel();
+    }
+    return null;
+  }
+
+  private void closeEntity(final Object entity) throws IOException {
+    if (entity instanceof Closeable) {
+      ((Closeable) entity).close();
+    }
+  }
+
+  /**
+   * Writes <code>count</code> bytes (or all remaining bytes if <code>count</code> is negative)
+   * starting at <code>offset</code> from the stream into the output stream.
+   * File based streams are transferred via {@link FileChannel#transferTo} to avoid copying through the heap.
+   */
+  private long handleStream(final InputStream stream, final ServletOutputStream out, final long offset,
+      final long count) throws IOException {
+    long contentLength = 0;
+    try {
+      final FileChannel fileChannel = getFileChannel(stream);
+      if (fileChannel != null) {
+        long position = fileChannel.position() + offset;
+        final long end = count < 0 ? fileChannel.size() : Math.min(fileChannel.size(), position + count);
+        final WritableByteChannel target = Channels.newChannel(out);
+        while (position < end) {
+          final long transferred = fileChannel.transferTo(position, end - position, target);
+          if (transferred <= 0) {
+            break;
+          }
+          position += transferred;
+          contentLength += transferred;
+        }
+      } else {
+        long toSkip = offset;
+        while (toSkip > 0) {
+          final long skipped = stream.skip(toSkip);
+          if (skipped <= 0) {
+            break;
+          }
+          toSkip -= skipped;
+        }
+        byte[] buffer = getBuffer();
+        int len;
+        while ((count < 0 || contentLength < count)
+            && (len = stream.read(buffer, 0,
+                count < 0 ? buffer.length : (int) Math.min(buffer.length, count - contentLength))) != -1) {
+          contentLength += len;
+          out.write(buffer, 0, len);
+        }
       }
     } finally {
       stream.close();
@@ -30,7 +30,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -48,27 +47,14 @@ import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.commons.Decoder;
 
 public class RestUtil {
-  // RFC 2616, 4.2: linear white space
-  private static final String REG_EX_OPTIONAL_WHITESPACE = "\\s*";
-  private static final String REG_EX_FIELD_VALUE_SEPARATOR = "," + REG_EX_OPTIONAL_WHITESPACE;
-
-  // RFC 2616, 3.9: qvalue = ("0"["." 0*3DIGIT]) | ("1"["." 0*3("0")])
-  private static final String REG_EX_QVALUE = "q=((?:1(?:\\.0{0,3})?)|(?:0(?:\\.[0-9]{0,3})?))";
-
-  // RFC 2616, 14.1: the media-range parameters
-  private static final String REG_EX_PARAMETER = "(?:;\\s*(?:(?:[^qQ].*)|(?:[qQ]\\s*=\\s*(?:[^01].*))))*";
-  private static final Pattern REG_EX_ACCEPT =
-      Pattern.compile("([a-z\\*\\s]+/[a-zA-Z\\+\\*\\-=\\s]+" + REG_EX_PARAMETER + ")");
-  private static final Pattern REG_EX_ACCEPT_WITH_Q_FACTOR =
-      Pattern.compile(REG_EX_ACCEPT + "(?:" + REG_EX_OPTIONAL_WHITESPACE + REG_EX_QVALUE + ")?");
+  private static final Pattern REG_EX_MATRIX_PARAMETER = Pattern.compile("([^=]*)(?:=(.*))?");
 
+  private static final char QUERY_PARAMETER_SEPARATOR = '&';
+  private static final char ELEMENT_SEPARATOR = ',';
+  private static final char PARAMETER_SEPARATOR = ';';
+  private static final char QUOTE = '"';
   // RFC 2616, 14.4: language-range = ((1*8ALPHA *("-" 1*8ALPHA)) | "*")
-  private static final Pattern REG_EX_ACCEPT_LANGUAGES =
-      Pattern.compile("((?:\\*)|(?:[a-z]{1,8}(?:\\-[a-zA-Z]{1,8})?))");
-  private static final Pattern REG_EX_ACCEPT_LANGUAGES_WITH_Q_FACTOR =
-      Pattern.compile(REG_EX_ACCEPT_LANGUAGES + "(?:;" + REG_EX_OPTIONAL_WHITESPACE + REG_EX_QVALUE + ")?");
-
-  private static final Pattern REG_EX_MATRIX_PARAMETER = Pattern.compile("([^=]*)(?:=(.*))?");
+  private static final int MAX_LANGUAGE_SUBTAG_LENGTH = 8;
 
   public static ContentType extractRequestContentType(final String contentType)
       throws ODataUnsupportedMediaTypeException {
@@ -93,9 +79,8 @@ public class RestUtil {
   public static Map<String, String> extractQueryParameters(final String queryString) {
     Map<String, String> queryParametersMap = new HashMap<String, String>();
     if (queryString != null && queryString.length() > 0) {
-      // At first the queryString will be decoded.
-      List<String> queryParameters = Arrays.asList(queryString.split("\\&"));
-      for (String param : queryParameters) {
+      for (final String param : splitQueryString(queryString)) {
+        // At first the query parameter will be decoded.
         String decodedParam = Decoder.decode(param);
         int indexOfEqualSign = decodedParam.indexOf("=");
         if (indexOfEqualSign < 0) {
@@ -113,9 +98,8 @@ public class RestUtil {
     Map<String, List<String>> allQueryParameterMap = new HashMap<String, List<String>>();
 
     if (queryString != null && queryString.length() > 0) {
-      // At first the queryString will be decoded.
-      List<String> queryParameters = Arrays.asList(queryString.split("\\&"));
-      for (String param : queryParameters) {
+      for (final String param : splitQueryString(queryString)) {
+        // At first the query parameter will be decoded.
         String decodedParam = Decoder.decode(param);
         int indexOfEqualSign = decodedParam.indexOf("=");
 
@@ -145,19 +129,7 @@ public class RestUtil {
    */
   public static List<Locale> extractAcceptableLanguage(final String acceptableLanguageHeader) {
     List<Locale> acceptLanguages = new ArrayList<Locale>();
-    TreeSet<Accept> acceptTree = getAcceptTree();
-    if (acceptableLanguageHeader != null && !acceptableLanguageHeader.isEmpty()) {
-      List<String> list = Arrays.asList(acceptableLanguageHeader.split(REG_EX_FIELD_VALUE_SEPARATOR));
-      for (String acceptLanguage : list) {
-        Matcher matcher = REG_EX_ACCEPT_LANGUAGES_WITH_Q_FACTOR.matcher(acceptLanguage);
-        if (matcher.find()) {
-          String language = matcher.group(1);
-          double qualityFactor = matcher.group(2) != null ? Double.parseDouble(matcher.group(2)) : 1d;
-          acceptTree.add(new Accept(language, qualityFactor));
-        }
-      }
-    }
-    for (Accept accept : acceptTree) {
+    for (Accept accept : parseQualifiedValues(acceptableLanguageHeader, true)) {
       String languageRange = accept.getValue();
       // The languageRange has to be splitted in language tag and country tag
       int indexOfMinus = languageRange.indexOf("-");
@@ -167,7 +139,9 @@ public class RestUtil {
         locale = new Locale(languageRange);
       } else {
         String language = languageRange.substring(0, indexOfMinus);
-        String country = languageRange.substring(indexOfMinus + 1);
+        int indexOfNextMinus = languageRange.indexOf('-', indexOfMinus + 1);
+        String country = indexOfNextMinus < 0 ? languageRange.substring(indexOfMinus + 1)
+            : languageRange.substring(indexOfMinus + 1, indexOfNextMinus);
         locale = new Locale(language, country);
       }
       acceptLanguages.add(locale);
@@ -179,20 +153,8 @@ public class RestUtil {
    * Parses Accept header. Returns a list of media ranges sorted by quality parameter
    */
   public static List<String> extractAcceptHeaders(final String acceptHeader) {
-    TreeSet<Accept> acceptTree = getAcceptTree();
     List<String> acceptHeaders = new ArrayList<String>();
-    if (acceptHeader != null && !acceptHeader.isEmpty()) {
-      List<String> list = Arrays.asList(acceptHeader.split(REG_EX_FIELD_VALUE_SEPARATOR));
-      for (String accept : list) {
-        Matcher matcher = REG_EX_ACCEPT_WITH_Q_FACTOR.matcher(accept);
-        if (matcher.find()) {
-          String headerValue = matcher.group(1);
-          double qualityFactor = matcher.group(2) != null ? Double.parseDouble(matcher.group(2)) : 1d;
-          acceptTree.add(new Accept(headerValue, qualityFactor));
-        }
-      }
-    }
-    for (Accept accept : acceptTree) {
+    for (Accept accept : parseQualifiedValues(acceptHeader, false)) {
       acceptHeaders.add(accept.getValue());
     }
     return acceptHeaders;
@@ -378,18 +340,131 @@ public class RestUtil {
     return pathInfoString;
   }
 
-  private static TreeSet<Accept> getAcceptTree() {
-    TreeSet<Accept> treeSet = new TreeSet<Accept>(new Comparator<Accept>() {
+  private static List<String> splitQueryString(final String queryString) {
+    List<String> queryParameters = new ArrayList<String>();
+    int start = 0;
+    while (start <= queryString.length()) {
+      int end = queryString.indexOf(QUERY_PARAMETER_SEPARATOR, start);
+      if (end < 0) {
+        end = queryString.length();
+      }
+      if (end > start) {
+        queryParameters.add(queryString.substring(start, end));
+      }
+      start = end + 1;
+    }
+    return queryParameters;
+  }
+
+  /*
+   * Tokenizes the comma-separated elements of an Accept or Accept-Language header in one pass.
+   * Elements without media range or with invalid language range are skipped; the result is sorted by
+   * quality parameter while elements with equal quality keep their order.
+   */
+  private static List<Accept> parseQualifiedValues(final String header, final boolean languageRanges) {
+    List<Accept> values = new ArrayList<Accept>();
+    if (header == null) {
+      return values;
+    }
+    final int length = header.length();
+    int start = 0;
+    while (start < length) {
+      int end = start;
+      boolean quoted = false;
+      while (end < length && (quoted || header.charAt(end) != ELEMENT_SEPARATOR)) {
+        if (header.charAt(end) == QUOTE) {
+          quoted = !quoted;
+        }
+        end++;
+      }
+      final Accept accept = parseQualifiedValue(header.substring(start, end).trim(), languageRanges);
+      if (accept != null) {
+        values.add(accept);
+      }
+      start = end + 1;
+    }
+    // the sort is stable
+    Collections.sort(values, new Comparator<Accept>() {
       @Override
       public int compare(final Accept header1, final Accept header2) {
-        if (header1.getQuality() <= header2.getQuality()) {
-          return 1;
-        } else {
-          return -1;
-        }
+        return Double.compare(header2.getQuality(), header1.getQuality());
       }
     });
-    return treeSet;
+    return values;
+  }
+
+  private static Accept parseQualifiedValue(final String element, final boolean languageRange) {
+    int index = element.indexOf(PARAMETER_SEPARATOR);
+    final String range = (index < 0 ? element : element.substring(0, index)).trim();
+    if (languageRange ? !isLanguageRange(range) : !isMediaRange(range)) {
+      return null;
+    }
+    StringBuilder value = new StringBuilder(range);
+    double quality = 1d;
+    while (index >= 0) {
+      final int start = index + 1;
+      index = element.indexOf(PARAMETER_SEPARATOR, start);
+      final String parameter = (index < 0 ? element.substring(start) : element.substring(start, index)).trim();
+      final Double qualityFactor = parseQualityFactor(parameter);
+      if (qualityFactor != null) {
+        // RFC 2616, 14.1: the parameters following the quality parameter are accept-extensions
+        quality = qualityFactor;
+        break;
+      } else if (!languageRange && parameter.length() > 0) {
+        value.append(PARAMETER_SEPARATOR).append(parameter);
+      }
+    }
+    return new Accept(value.toString(), quality);
+  }
+
+  /*
+   * Only checks the type/subtype structure; the media range is validated in content negotiation
+   * so that invalid media ranges result in a "Bad Request" response.
+   */
+  private static boolean isMediaRange(final String range) {
+    final int slash = range.indexOf('/');
+    return slash > 0 && slash < range.length() - 1;
+  }
+
+  private static boolean isLanguageRange(final String range) {
+    if ("*".equals(range)) {
+      return true;
+    }
+    boolean primarySubtag = true;
+    int subtagLength = 0;
+    for (int i = 0; i < range.length(); i++) {
+      final char c = range.charAt(i);
+      if (c == '-' && subtagLength > 0) {
+        primarySubtag = false;
+        subtagLength = 0;
+      } else if ((c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || !primarySubtag && c >= '0' && c <= '9')
+          && subtagLength < MAX_LANGUAGE_SUBTAG_LENGTH) {
+        subtagLength++;
+      } else {
+        return false;
+      }
+    }
+    return subtagLength > 0;
+  }
+
+  // RFC 2616, 3.9: qvalue = ("0"["." 0*3DIGIT]) | ("1"["." 0*3("0")])
+  private static Double parseQualityFactor(final String parameter) {
+    final int equalSign = parameter.indexOf('=');
+    if (equalSign < 0 || !"q".equalsIgnoreCase(parameter.substring(0, equalSign).trim())) {
+      return null;
+    }
+    final String value = parameter.substring(equalSign + 1).trim();
+    if (value.length() == 0 || value.length() > 5 || (value.charAt(0) != '0' && value.charAt(0) != '1')
+        || value.length() > 1 && value.charAt(1) != '.') {
+      return null;
+    }
+    for (int i = 2; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (value.charAt(0) == '1' ? c != '0' : c < '0' || c > '9') {
+        return null;
+      }
+    }
+    return Double.valueOf(value);
   }
 
   /*
@@ -60,6 +60,7 @@ import org.apache.olingo.odata2.api.uri.UriNotMatchingException;
 import org.apache.olingo.odata2.api.uri.UriParser;
 import org.apache.olingo.odata2.api.uri.UriSyntaxException;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionParserException;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionParserLimits;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
 import org.apache.olingo.odata2.core.ODataPathSegmentImpl;
@@ -85,6 +86,7 @@ public class UriParserImpl extends UriParser {
 
   private final Edm edm;
   private final EdmSimpleTypeFacade simpleTypeFacade;
+  private final ExpressionParserLimits expressionParserLimits;
   private List<String> pathSegments;
   private String currentPathSegment;
   private UriInfoImpl uriResult;
@@ -92,7 +94,17 @@ public class UriParserImpl extends UriParser {
   private Map<String, String> otherQueryParameters;
 
   public UriParserImpl(final Edm edm) {
+    this(edm, null);
+  }
+
+  /**
+   * Creates a URI parser.
+   * @param edm the entity data model
+   * @param expressionParserLimits limits for $filter and $orderby expressions; <code>null</code> for the defaults
+   */
+  public UriParserImpl(final Edm edm, final ExpressionParserLimits expressionParserLimits) {
     this.edm = edm;
+    this.expressionParserLimits = expressionParserLimits;
     simpleTypeFacade = new EdmSimpleTypeFacadeImpl();
   }
 
@@ -692,7 +704,8 @@ public class UriParserImpl extends UriParser {
     final EdmType targetType = uriResult.getTargetType();
     if (targetType instanceof EdmEntityType) {
       try {
-        uriResult.setFilter(new FilterParserImpl((EdmEntityType) targetType).parseFilterString(filter, true));
+        uriResult.setFilter(new FilterParserImpl((EdmEntityType) targetType, expressionParserLimits)
+            .parseFilterString(filter, true));
       } catch (ExpressionParserException e) {
         throw new UriSyntaxException(UriSyntaxException.INVALIDFILTEREXPRESSION.addContent(filter), e);
       } catch (ODataMessageException e) {
@@ -944,13 +957,13 @@ public class UriParserImpl extends UriParser {
   @Override
   public FilterExpression parseFilterString(final EdmEntityType entityType, final String expression)
       throws ODataMessageException {
-    return new FilterParserImpl(entityType).parseFilterString(expression);
+    return new FilterParserImpl(entityType, expressionParserLimits).parseFilterString(expression);
   }
 
   @Override
   public OrderByExpression parseOrderByString(final EdmEntityType entityType, final String expression)
       throws ODataMessageException {
-    return new OrderByParserImpl(entityType).parseOrderByString(expression);
+    return new OrderByParserImpl(entityType, expressionParserLimits).parseOrderByString(expression);
   }
 
   @Override
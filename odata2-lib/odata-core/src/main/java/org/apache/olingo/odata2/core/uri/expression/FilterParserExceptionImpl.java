@@ -211,6 +211,26 @@ public class FilterParserExceptionImpl extends ExpressionParserException {
     return new ExpressionParserException(msgRef);
   }
 
+  public static ExpressionParserException createEXPRESSION_TOO_LONG(final int length, final int maxLength) {
+    MessageReference msgRef = ExpressionParserException.EXPRESSION_TOO_LONG.create();
+
+    msgRef.addContent(length);
+    msgRef.addContent(maxLength);
+
+    return new ExpressionParserException(msgRef);
+  }
+
+  public static ExpressionParserException createEXPRESSION_TOO_COMPLEX(final int maxNodeCount, final Token token,
+      final String expression) {
+    MessageReference msgRef = ExpressionParserException.EXPRESSION_TOO_COMPLEX.create();
+
+    msgRef.addContent(maxNodeCount);
+    msgRef.addContent(token == null ? expression.length() : token.getPosition() + 1);
+    msgRef.addContent(expression);
+
+    return new ExpressionParserException(msgRef);
+  }
+
   public static ExpressionParserException
       createTOKEN_UNDETERMINATED_STRING(final int position, final String expression) {
     MessageReference msgRef = ExpressionParserException.TOKEN_UNDETERMINATED_STRING.create();
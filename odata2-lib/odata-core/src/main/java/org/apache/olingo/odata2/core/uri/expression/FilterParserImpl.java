@@ -39,6 +39,7 @@ import org.apache.olingo.odata2.api.uri.expression.BinaryOperator;
 import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionParserException;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionParserLimits;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.LiteralExpression;
 import org.apache.olingo.odata2.api.uri.expression.MethodExpression;
@@ -65,13 +66,26 @@ public class FilterParserImpl implements FilterParser {
   protected EdmEntityType resourceEntityType = null;
   protected TokenList tokenList = null;
   protected String curExpression;
+  protected ExpressionParserLimits limits;
+  protected int nodeCount;
+  protected int nestingDepth;
 
   /**
    * Creates a new FilterParser implementation
    * @param resourceEntityType EntityType of the resource on which the filter is applied
    */
   public FilterParserImpl(final EdmEntityType resourceEntityType) {
+    this(resourceEntityType, null);
+  }
+
+  /**
+   * Creates a new FilterParser implementation
+   * @param resourceEntityType EntityType of the resource on which the filter is applied
+   * @param limits limits on length and size of parsed expressions; <code>null</code> for the defaults
+   */
+  public FilterParserImpl(final EdmEntityType resourceEntityType, final ExpressionParserLimits limits) {
     this.resourceEntityType = resourceEntityType;
+    this.limits = limits == null ? new ExpressionParserLimits() : limits;
   }
 
   @Override
@@ -84,15 +98,9 @@ public class FilterParserImpl implements FilterParser {
       throws ExpressionParserException, ExpressionParserInternalError {
     CommonExpression node = null;
     curExpression = filterExpression;
-    try {
-      // Throws TokenizerException and FilterParserException. FilterParserException is caught somewhere above
-      tokenList = new Tokenizer(filterExpression).tokenize();
-      if (!tokenList.hasTokens()) {
-        return new FilterExpressionImpl(filterExpression);
-      }
-    } catch (TokenizerException tokenizerException) {
-      // Tested with TestParserExceptions.TestPMparseFilterString
-      throw FilterParserExceptionImpl.createERROR_IN_TOKENIZER(tokenizerException, curExpression);
+    tokenList = tokenize(filterExpression);
+    if (!tokenList.hasTokens()) {
+      return new FilterExpressionImpl(filterExpression);
     }
 
     try {
@@ -124,6 +132,60 @@ public class FilterParserImpl implements FilterParser {
     return new FilterExpressionImpl(filterExpression, node);
   }
 
+  /**
+   * Checks the expression against the configured maximum length, resets the node count and the nesting depth,
+   * and tokenizes the expression.
+   * @param expression the expression to be parsed
+   * @return the list of tokens
+   * @throws ExpressionParserException if the expression is too long or could not be tokenized
+   */
+  protected TokenList tokenize(final String expression) throws ExpressionParserException {
+    if (expression.length() > limits.getMaxExpressionLength()) {
+      throw FilterParserExceptionImpl.createEXPRESSION_TOO_LONG(expression.length(), limits.getMaxExpressionLength());
+    }
+    nodeCount = 0;
+    nestingDepth = 0;
+    try {
+      // Throws TokenizerException and FilterParserException. FilterParserException is caught somewhere above
+      return new Tokenizer(expression).tokenize();
+    } catch (TokenizerException tokenizerException) {
+      // Tested with TestParserExceptions.TestPMparseFilterString
+      throw FilterParserExceptionImpl.createERROR_IN_TOKENIZER(tokenizerException, curExpression);
+    }
+  }
+
+  /**
+   * Counts one more node of the expression tree and checks the count against the configured maximum.
+   * @param token the token at which the node starts
+   * @throws ExpressionParserException if the expression has too many nodes
+   */
+  protected void countNode(final Token token) throws ExpressionParserException {
+    if (++nodeCount > limits.getMaxNodeCount()) {
+      throw FilterParserExceptionImpl.createEXPRESSION_TOO_COMPLEX(limits.getMaxNodeCount(), token, curExpression);
+    }
+  }
+
+  /**
+   * Enters one more nesting level (parenthesis, method call, or unary operator) and checks the depth against the
+   * configured maximum, so that deeply nested expressions are rejected before the recursive descent parser
+   * overflows the stack.
+   * Each call must be paired with a call of {@link #leaveNesting()}.
+   * @param token the token at which the nesting level starts
+   * @throws ExpressionParserException if the expression is nested too deeply
+   */
+  protected void enterNesting(final Token token) throws ExpressionParserException {
+    if (++nestingDepth > limits.getMaxNestingDepth()) {
+      throw FilterParserExceptionImpl.createEXPRESSION_TOO_COMPLEX(limits.getMaxNestingDepth(), token, curExpression);
+    }
+  }
+
+  /**
+   * Leaves a nesting level entered with {@link #enterNesting(Token)}.
+   */
+  protected void leaveNesting() {
+    nestingDepth--;
+  }
+
   protected CommonExpression readElements(final CommonExpression leftExpression, final int priority)
       throws ExpressionParserException, ExpressionParserInternalError {
     CommonExpression leftNode = leftExpression;
@@ -134,6 +196,7 @@ public class FilterParserImpl implements FilterParser {
     ActualBinaryOperator nextOperator;
 
     while ((operator != null) && (operator.getOP().getPriority() >= priority)) {
+      countNode(operator.getToken());
       tokenList.next(); // eat the operator
       rightNode = readElement(leftNode, operator); // throws FilterParserException, FilterParserInternalError
       if (rightNode == null) {
@@ -202,8 +265,10 @@ public class FilterParserImpl implements FilterParser {
     // The existing of a '(' is verified BEFORE this method is called --> so it's a internal error
     Token openParenthesis = tokenList.expectToken(TokenKind.OPENPAREN, true);
 
+    enterNesting(openParenthesis);
     CommonExpression firstExpression = readElement(null);
     CommonExpression parenthesisExpression = readElements(firstExpression, 0);
+    leaveNesting();
 
     // check for ')'
     try {
@@ -245,6 +310,8 @@ public class FilterParserImpl implements FilterParser {
       throw FilterParserExceptionImpl.createEXPRESSION_EXPECTED_AFTER_POS(openParenthesis, curExpression);
     }
 
+    enterNesting(openParenthesis);
+
     while (token.getKind() != TokenKind.CLOSEPAREN) {
       if (readComma == false) {
         // Tested with TestParserExceptions.TestPMreadParameters CASE 12 e.g. "$filter=concat('a' 'b')"
@@ -287,6 +354,7 @@ public class FilterParserImpl implements FilterParser {
     // because the while loop above only exits if a ')' has been found it is an
     // internal error if there is not ')'
     tokenList.expectToken(TokenKind.CLOSEPAREN, true);
+    leaveNesting();
 
     // ---check parameter count
     int count = methodExpression.getParameters().size();
@@ -331,6 +399,14 @@ public class FilterParserImpl implements FilterParser {
       return null;
     }
 
+    switch (lookToken.getKind()) {
+    case CLOSEPAREN:
+    case COMMA:
+      break;
+    default:
+      countNode(lookToken);
+    }
+
     switch (lookToken.getKind()) {
     case OPENPAREN:
       node = readParenthesis();
@@ -382,7 +458,9 @@ public class FilterParserImpl implements FilterParser {
       throws ExpressionParserException, ExpressionParserInternalError {
     tokenList.expectToken(lookToken.getUriLiteral(), true);
 
+    enterNesting(lookToken);
     CommonExpression operand = readElement(null);
+    leaveNesting();
     UnaryExpression unaryExpression = new UnaryExpressionImpl(unaryOperator, operand);
     validateUnaryOperatorTypes(unaryExpression); // throws ExpressionInvalidOperatorTypeException
 
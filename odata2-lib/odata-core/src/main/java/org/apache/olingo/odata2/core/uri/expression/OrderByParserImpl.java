@@ -21,6 +21,7 @@ package org.apache.olingo.odata2.core.uri.expression;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionParserException;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionParserLimits;
 import org.apache.olingo.odata2.api.uri.expression.OrderByExpression;
 import org.apache.olingo.odata2.api.uri.expression.SortOrder;
 
@@ -29,17 +30,17 @@ public class OrderByParserImpl extends FilterParserImpl implements OrderByParser
     super(resourceEntityType);
   }
 
+  public OrderByParserImpl(final EdmEntityType resourceEntityType, final ExpressionParserLimits limits) {
+    super(resourceEntityType, limits);
+  }
+
   @Override
   public OrderByExpression parseOrderByString(final String orderByExpression) throws ExpressionParserException,
       ExpressionParserInternalError {
     curExpression = orderByExpression;
     OrderByExpressionImpl orderCollection = new OrderByExpressionImpl(curExpression);
 
-    try {
-      tokenList = new Tokenizer(orderByExpression).tokenize(); // throws TokenizerMessage
-    } catch (TokenizerException tokenizerException) {
-      throw FilterParserExceptionImpl.createERROR_IN_TOKENIZER(tokenizerException, curExpression);
-    }
+    tokenList = tokenize(orderByExpression);
 
     while (true) {
       CommonExpression node = null;
@@ -18,9 +18,6 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.uri.expression;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import org.apache.olingo.odata2.api.edm.EdmLiteral;
 import org.apache.olingo.odata2.api.edm.EdmLiteralException;
 import org.apache.olingo.odata2.api.edm.EdmSimpleTypeFacade;
@@ -30,19 +27,25 @@ import org.apache.olingo.odata2.core.edm.EdmSimpleTypeFacadeImpl;
 
 /**
  * Expression tokenizer
+ * <p>The expression is scanned once from left to right; tokens are taken from the expression
+ * by their start and end positions, so the effort grows linearly with the length of the expression.</p>
  * 
  */
 public class Tokenizer {
 
-  // Pattern OTHER_LIT = Pattern.compile("^([[A-Za-z0-9]._~%!$&*+;:@-]+)");
-  private static final Pattern OTHER_LIT = Pattern.compile("(?:\\p{L}|\\p{Digit}|[-._~%!$&*+;:@])+");
-  private static final Pattern FUNK =
-      Pattern
-          .compile("^(startswith|endswith|substring|substring|substringof|indexof|replace|tolower|toupper" +
-              "|trim|concat|length|year|mounth|day|hour|minute|second|round|ceiling|floor)( *)\\(");
-  private static final Pattern AND_SUB1 = Pattern.compile("^(add|sub|mul|div|mod|not) ");
-  private static final Pattern AND_SUB = Pattern.compile("^(and|or|eq|ne|lt|gt|le|ge) ");
-  private static final Pattern prefix = Pattern.compile("^(X|binary|guid|datetime|datetimeoffset|time)'");
+  /** Binary operators; recognized only if followed by a blank */
+  private static final String[] BINARY_OPERATORS = { "and", "or", "eq", "ne", "lt", "gt", "le", "ge" };
+  /** Arithmetic operators and 'not'; recognized only if followed by a blank */
+  private static final String[] MATH_OPERATORS = { "add", "sub", "mul", "div", "mod", "not" };
+  /** Prefixes of typed literals; recognized only if followed by an apostrophe */
+  private static final String[] LITERAL_PREFIXES = { "X", "binary", "guid", "datetime", "datetimeoffset", "time" };
+  /** Method names; recognized only if followed by an opening parenthesis (blanks in between are allowed) */
+  private static final String[] METHODS = { "startswith", "endswith", "substring", "substringof", "indexof",
+      "replace", "tolower", "toupper", "trim", "concat", "length", "year", "month", "day", "hour", "minute",
+      "second", "round", "ceiling", "floor" };
+  /** Characters besides letters and digits allowed in other literals */
+  private static final String OTHER_LITERAL_CHARACTERS = "-._~%!$&*+;:@";
+
   private boolean flagIncludeWhitespace = false;
   private EdmSimpleTypeFacade typeDectector = null;
 
@@ -76,7 +79,6 @@ public class Tokenizer {
     curPosition = 0;
     int oldPosition;
     char curCharacter;
-    String token = "";
 
     while (curPosition < expressionLength) {
       oldPosition = curPosition;
@@ -100,9 +102,7 @@ public class Tokenizer {
         break;
 
       case '\'':
-        token = "";
-        readLiteral(curCharacter);
-
+        readLiteral(curPosition);
         break;
 
       case ',':
@@ -120,87 +120,88 @@ public class Tokenizer {
         break;
 
       default:
-        String rem_expr = expression.substring(curPosition); // remaining expression
-
-        boolean isBinary = checkForBinary(oldPosition, rem_expr);
-        if (isBinary) {
+        if (checkForKeyword(BINARY_OPERATORS)) {
           break;
         }
 
         // check for prefixes like X, binary, guid, datetime
-        boolean isPrefix = checkForPrefix(rem_expr);
-        if (isPrefix) {
+        if (checkForPrefix()) {
           break;
         }
 
         // check for math
-        boolean isMath = checkForMath(oldPosition, rem_expr);
-        if (isMath) {
+        if (checkForKeyword(MATH_OPERATORS)) {
           break;
         }
 
         // check for function
-        boolean isFunction = checkForMethod(oldPosition, rem_expr);
-        if (isFunction) {
+        if (checkForMethod()) {
           break;
         }
 
-        boolean isBoolean = checkForBoolean(oldPosition, rem_expr);
-        if (isBoolean) {
+        if (checkForBoolean()) {
           break;
         }
 
-        boolean isLiteral = checkForLiteral(oldPosition, curCharacter, rem_expr);
-        if (isLiteral) {
+        if (checkForLiteral(curCharacter)) {
           break;
         }
 
-        token = new Character(curCharacter).toString();
-        throw TokenizerException.createUNKNOWN_CHARACTER(oldPosition, token, expression);
+        throw TokenizerException.createUNKNOWN_CHARACTER(oldPosition, Character.toString(curCharacter), expression);
       }
     }
     return tokens;
   }
 
-  private boolean checkForLiteral(final int oldPosition, final char curCharacter, final String rem_expr) {
-    final Matcher matcher = OTHER_LIT.matcher(rem_expr);
-    boolean isLiteral = false;
-    if (matcher.lookingAt()) {
-      String token = matcher.group();
-      try {
-        EdmLiteral edmLiteral = typeDectector.parseUriLiteral(token);
-        curPosition = curPosition + token.length();
-        // It is a simple type.
-        tokens.appendEdmTypedToken(oldPosition, TokenKind.SIMPLE_TYPE, token, edmLiteral);
-        isLiteral = true;
-      } catch (EdmLiteralException e) {
-        // We treat it as normal untyped literal.
-
-        // The '-' is checked here (and not in the switch statement) because it may be
-        // part of a negative number.
-        if (curCharacter == '-') {
-          curPosition = curPosition + 1;
-          tokens.appendToken(oldPosition, TokenKind.SYMBOL, curCharacter);
-          isLiteral = true;
-        } else {
-          curPosition = curPosition + token.length();
-          tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-          isLiteral = true;
-        }
+  private boolean checkForLiteral(final char curCharacter) {
+    final int oldPosition = curPosition;
+    int end = curPosition;
+    while (end < expressionLength) {
+      final int codePoint = expression.codePointAt(end);
+      if (Character.isLetter(codePoint) || (codePoint >= '0' && codePoint <= '9')
+          || OTHER_LITERAL_CHARACTERS.indexOf(codePoint) >= 0) {
+        end += Character.charCount(codePoint);
+      } else {
+        break;
       }
     }
-    return isLiteral;
+    if (end == oldPosition) {
+      return false;
+    }
+
+    final String token = expression.substring(oldPosition, end);
+    try {
+      EdmLiteral edmLiteral = typeDectector.parseUriLiteral(token);
+      curPosition = end;
+      // It is a simple type.
+      tokens.appendEdmTypedToken(oldPosition, TokenKind.SIMPLE_TYPE, token, edmLiteral);
+    } catch (EdmLiteralException e) {
+      // We treat it as normal untyped literal.
+
+      // The '-' is checked here (and not in the switch statement) because it may be
+      // part of a negative number.
+      if (curCharacter == '-') {
+        curPosition = curPosition + 1;
+        tokens.appendToken(oldPosition, TokenKind.SYMBOL, curCharacter);
+      } else {
+        curPosition = end;
+        tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
+      }
+    }
+    return true;
   }
 
-  private boolean checkForBoolean(final int oldPosition, final String rem_expr) {
-    boolean isBoolean = false;
-    if (rem_expr.equals("true") || rem_expr.equals("false")) {
-      curPosition = curPosition + rem_expr.length();
-      tokens.appendEdmTypedToken(oldPosition, TokenKind.SIMPLE_TYPE, rem_expr, new EdmLiteral(EdmSimpleTypeFacadeImpl
-          .getEdmSimpleType(EdmSimpleTypeKind.Boolean), rem_expr));
-      isBoolean = true;
+  private boolean checkForBoolean() {
+    final int remainingLength = expressionLength - curPosition;
+    for (final String value : new String[] { "true", "false" }) {
+      if (remainingLength == value.length() && expression.startsWith(value, curPosition)) {
+        tokens.appendEdmTypedToken(curPosition, TokenKind.SIMPLE_TYPE, value, new EdmLiteral(EdmSimpleTypeFacadeImpl
+            .getEdmSimpleType(EdmSimpleTypeKind.Boolean), value));
+        curPosition = expressionLength;
+        return true;
+      }
     }
-    return isBoolean;
+    return false;
   }
 
   private void eatWhiteSpaces(final int oldPosition, char curCharacter) {
@@ -221,93 +222,75 @@ public class Tokenizer {
     }
   }
 
-  private boolean checkForMethod(final int oldPosition, final String rem_expr) {
-    boolean isMethod = false;
-    Matcher matcher = FUNK.matcher(rem_expr);
-    if (matcher.find()) {
-      String token = matcher.group(1);
-      curPosition = curPosition + token.length();
-      tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-      isMethod = true;
-    }
-    return isMethod;
+  /**
+   * Checks whether the expression continues at the current position with the given word followed by the given
+   * character.
+   */
+  private boolean isFollowedBy(final String word, final char next) {
+    final int end = curPosition + word.length();
+    return end < expressionLength && expression.charAt(end) == next && expression.startsWith(word, curPosition);
   }
 
-  private boolean checkForMath(final int oldPosition, final String rem_expr) {
-    boolean isMath = false;
-    Matcher matcher1 = AND_SUB1.matcher(rem_expr);
-    if (matcher1.find()) {
-      String token = matcher1.group(1);
-      curPosition = curPosition + token.length();
-      tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-      isMath = true;
+  private boolean checkForMethod() {
+    for (final String method : METHODS) {
+      if (expression.startsWith(method, curPosition)) {
+        int end = curPosition + method.length();
+        while (end < expressionLength && expression.charAt(end) == ' ') {
+          end++;
+        }
+        if (end < expressionLength && expression.charAt(end) == '(') {
+          tokens.appendToken(curPosition, TokenKind.LITERAL, method);
+          curPosition = curPosition + method.length();
+          return true;
+        }
+      }
     }
-    return isMath;
+    return false;
   }
 
-  private boolean checkForBinary(final int oldPosition, final String rem_expr) {
-    boolean isBinary = false;
-    Matcher matcher1 = AND_SUB.matcher(rem_expr);
-    if (matcher1.find()) {
-      String token = matcher1.group(1);
-      curPosition = curPosition + token.length();
-      tokens.appendToken(oldPosition, TokenKind.LITERAL, token);
-      isBinary = true;
+  private boolean checkForKeyword(final String[] keywords) {
+    for (final String keyword : keywords) {
+      if (isFollowedBy(keyword, ' ')) {
+        tokens.appendToken(curPosition, TokenKind.LITERAL, keyword);
+        curPosition = curPosition + keyword.length();
+        return true;
+      }
     }
-    return isBinary;
+    return false;
   }
 
-  private boolean checkForPrefix(final String rem_expr) throws ExpressionParserException, TokenizerException {
-    boolean isPrefix = false;
-    Matcher matcher = prefix.matcher(rem_expr);
-    String token = "";
-    char curCharacter;
-
-    if (matcher.find()) {
-      token = matcher.group(1);
-      curPosition = curPosition + token.length();
-      curCharacter = expression.charAt(curPosition); // "should be '
-      readLiteral(curCharacter, token);
-      isPrefix = true;
+  private boolean checkForPrefix() throws ExpressionParserException, TokenizerException {
+    for (final String prefix : LITERAL_PREFIXES) {
+      if (isFollowedBy(prefix, '\'')) {
+        final int oldPosition = curPosition;
+        curPosition = curPosition + prefix.length();
+        readLiteral(oldPosition);
+        return true;
+      }
     }
-    return isPrefix;
-  }
-
-  private void readLiteral(final char curCharacter) throws ExpressionParserException, TokenizerException {
-    readLiteral(curCharacter, "");
+    return false;
   }
 
   /**
    * Read up to single ' and move pointer to the following char and tries a type detection
-   * @param curCharacter
-   * @param token
+   * @param tokenStart start of the token, i.e., of the prefix or of the leading ' if there is no prefix;
+   * the current position must be at the leading '
    * @throws ExpressionParserException
    * @throws TokenizerException
    */
-  private void readLiteral(char curCharacter, String token) throws ExpressionParserException, TokenizerException {
-    int offsetPos = -token.length();
+  private void readLiteral(final int tokenStart) throws ExpressionParserException, TokenizerException {
     int oldPosition = curPosition;
-    token = token + Character.toString(curCharacter);
     curPosition = curPosition + 1;
 
     boolean wasApostroph = false; // leading ' does not count
     while (curPosition < expressionLength) {
-      curCharacter = expression.charAt(curPosition);
-
-      if (curCharacter != '\'') {
+      if (expression.charAt(curPosition) != '\'') {
         if (wasApostroph == true) {
           break;
         }
-
-        token = token + curCharacter;
-        wasApostroph = false;
       } else {
-        if (wasApostroph) {
-          wasApostroph = false; // a double ' is a normal character '
-        } else {
-          wasApostroph = true;
-        }
-        token = token + curCharacter;
+        // a double ' is a normal character '
+        wasApostroph = !wasApostroph;
       }
       curPosition = curPosition + 1;
     }
@@ -317,9 +300,10 @@ public class Tokenizer {
       throw FilterParserExceptionImpl.createTOKEN_UNDETERMINATED_STRING(oldPosition, expression);
     }
 
+    final String token = expression.substring(tokenStart, curPosition);
     try {
       EdmLiteral edmLiteral = typeDectector.parseUriLiteral(token);
-      tokens.appendEdmTypedToken(oldPosition + offsetPos, TokenKind.SIMPLE_TYPE, token, edmLiteral);
+      tokens.appendEdmTypedToken(tokenStart, TokenKind.SIMPLE_TYPE, token, edmLiteral);
     } catch (EdmLiteralException ex) {
       throw TokenizerException.createTYPEDECTECTION_FAILED_ON_STRING(ex, oldPosition, token);
     }
@@ -195,6 +195,47 @@ public class ContentNegotiatorTest {
     negotiateContentTypeCharset("application/xml; charset=utf-8", "application/xml;charset=utf-8", true);
   }
 
+  @Test
+  public void memoizedContentNegotiation() throws Exception {
+    final List<String> supportedContentTypes =
+        Arrays.asList("application/atom+xml;charset=utf-8;type=feed", "application/json");
+    final List<String> otherSupportedContentTypes = Arrays.asList("application/json");
+    final ContentType contentType =
+        negotiate(Arrays.asList("application/atom+xml", "*/*"), null, UriType.URI1, supportedContentTypes);
+    assertEquals("application/atom+xml;charset=utf-8;type=feed", contentType.toContentTypeString());
+    assertEquals(contentType,
+        negotiate(Arrays.asList("application/atom+xml", "*/*"), null, UriType.URI1, supportedContentTypes));
+    assertEquals("application/json",
+        negotiate(Arrays.asList("application/atom+xml", "*/*"), null, UriType.URI1, otherSupportedContentTypes)
+            .toContentTypeString());
+    assertEquals("application/json",
+        negotiate(Arrays.asList("application/json"), null, UriType.URI1, supportedContentTypes)
+            .toContentTypeString());
+    assertEquals("application/atom+xml;charset=utf-8;type=feed",
+        negotiate(null, "atom", UriType.URI1, supportedContentTypes).toContentTypeString());
+    assertEquals("application/json",
+        negotiate(null, "json", UriType.URI1, supportedContentTypes).toContentTypeString());
+  }
+
+  @Test(expected = ODataNotAcceptableException.class)
+  public void memoizedContentNegotiationDependsOnUriType() throws Exception {
+    final List<String> supportedContentTypes =
+        Arrays.asList("application/atom+xml;charset=utf-8;type=feed");
+    negotiate(null, "atom", UriType.URI1, supportedContentTypes);
+    negotiate(null, "atom", UriType.URI2, supportedContentTypes);
+  }
+
+  private ContentType negotiate(final List<String> acceptedContentTypes, final String format, final UriType uriType,
+      final List<String> supportedContentTypes) throws ODataException {
+    UriInfoImpl uriInfo = Mockito.mock(UriInfoImpl.class);
+    Mockito.when(uriInfo.getUriType()).thenReturn(uriType);
+    Mockito.when(uriInfo.getFormat()).thenReturn(format);
+    ODataRequest request = Mockito.mock(ODataRequest.class);
+    Mockito.when(request.getMethod()).thenReturn(ODataHttpMethod.GET);
+    Mockito.when(request.getAcceptHeaders()).thenReturn(acceptedContentTypes);
+    return new ContentNegotiator().doContentNegotiation(request, uriInfo, supportedContentTypes);
+  }
+
   private void
       negotiateContentTypeCharset(final String requestType, final String supportedType, final boolean asFormat)
           throws ODataException {
@@ -19,7 +19,10 @@
 package org.apache.olingo.odata2.core.batch;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -45,6 +48,7 @@ import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.processor.part.BatchProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityMediaProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityProcessor;
@@ -67,6 +71,8 @@ import org.junit.Test;
 public class BatchHandlerTest {
 
   private BatchHandler handler;
+  private ODataServiceFactory factory;
+  private ODataResponseCache responseCache;
   private static final String CONTENT_TYPE = HttpContentType.MULTIPART_MIXED + "; boundary=batch_123";
   private static final String CRLF = "\r\n";
   private static String SERVICE_BASE = "http://localhost/odata/";
@@ -87,7 +93,8 @@ public class BatchHandlerTest {
     when(serviceMock.getSupportedContentTypes(EntityMediaProcessor.class)).thenReturn(supportedContentTypes);
     when(serviceMock.getSupportedContentTypes(EntityProcessor.class)).thenReturn(supportedContentTypes);
     when(serviceMock.getSupportedContentTypes(EntitySimplePropertyProcessor.class)).thenReturn(supportedContentTypes);
-    handler = new BatchHandlerImpl(mock(ODataServiceFactory.class), serviceMock);
+    factory = mock(ODataServiceFactory.class);
+    handler = new BatchHandlerImpl(factory, serviceMock);
   }
 
   @Test
@@ -107,6 +114,24 @@ public class BatchHandlerTest {
     handler.handleBatchPart(parsedRequest.get(0));
   }
 
+  @Test
+  public void cachedResponsesInvalidatedAfterChangeSet() throws Exception {
+    responseCache = mock(ODataResponseCache.class);
+    when(factory.getCallback(ODataResponseCache.class)).thenReturn(responseCache);
+    SERVICE_ROOT = SERVICE_BASE;
+    PathInfoImpl pathInfo = new PathInfoImpl();
+    pathInfo.setServiceRoot(new URI(SERVICE_ROOT));
+    pathInfo.setODataPathSegment(Collections.<PathSegment> singletonList(
+        new ODataPathSegmentImpl("$batch", null)));
+    EntityProviderBatchProperties properties = EntityProviderBatchProperties.init().pathInfo(pathInfo).build();
+    InputStream content = readFile("/batchContentIdReferencing.batch");
+    List<BatchRequestPart> parsedRequest = EntityProvider.parseBatchRequest(CONTENT_TYPE, content, properties);
+
+    // the change set's processor checks that nothing has been invalidated before the change set is completed
+    handler.handleBatchPart(parsedRequest.get(0));
+    verify(responseCache).invalidate("Employees");
+  }
+
   @Test
   public void contentIdReferencingWithAdditionalSegments() throws Exception {
     SERVICE_ROOT = SERVICE_BASE + "seg1/seg2/";
@@ -192,6 +217,9 @@ public class BatchHandlerTest {
       assertEquals(HttpStatusCodes.OK, response.getStatus());
       responses.add(response);
 
+      if (responseCache != null) {
+        verify(responseCache, never()).invalidate(anyString());
+      }
       return BatchResponsePart.responses(responses).changeSet(true).build();
     }
 
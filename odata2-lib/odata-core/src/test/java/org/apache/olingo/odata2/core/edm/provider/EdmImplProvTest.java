@@ -19,24 +19,40 @@
 package org.apache.olingo.odata2.core.edm.provider;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.olingo.odata2.api.edm.EdmAssociation;
 import org.apache.olingo.odata2.api.edm.EdmComplexType;
+import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
 import org.apache.olingo.odata2.api.edm.FullQualifiedName;
 import org.apache.olingo.odata2.api.edm.provider.AliasInfo;
 import org.apache.olingo.odata2.api.edm.provider.Association;
 import org.apache.olingo.odata2.api.edm.provider.ComplexType;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
+import org.apache.olingo.odata2.api.edm.provider.EntityContainer;
 import org.apache.olingo.odata2.api.edm.provider.EntityContainerInfo;
 import org.apache.olingo.odata2.api.edm.provider.EntityType;
+import org.apache.olingo.odata2.api.edm.provider.Schema;
+import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -132,4 +148,104 @@ public class EdmImplProvTest extends BaseTest {
   public void testDefaultEntityContainer() throws EdmException {
     assertEquals(edm.getEntityContainer("Container1"), edm.getDefaultEntityContainer());
   }
+
+  @Test
+  public void frozenEdmAnswersWithoutProvider() throws Exception {
+    EdmProvider edmProvider = spy(new EdmTestProvider());
+    EdmImplProv frozenEdm = new EdmImplProv(edmProvider);
+    frozenEdm.freeze();
+    assertTrue(frozenEdm.isFrozen());
+    reset(edmProvider);
+
+    EdmEntityContainer container = frozenEdm.getDefaultEntityContainer();
+    assertSame(container, frozenEdm.getEntityContainer("Container1"));
+    EdmEntitySet employees = container.getEntitySet("Employees");
+    EdmEntityType employee = employees.getEntityType();
+    assertSame(employee, frozenEdm.getEntityType("Self", "Employee"));
+    assertEquals("EmployeeId", employee.getKeyProperties().get(0).getName());
+    for (String propertyName : employee.getPropertyNames()) {
+      assertNotNull(employee.getProperty(propertyName));
+    }
+    for (String navigationPropertyName : employee.getNavigationPropertyNames()) {
+      EdmNavigationProperty navigationProperty = (EdmNavigationProperty) employee.getProperty(navigationPropertyName);
+      assertNotNull(container.getAssociationSet(employees, navigationProperty));
+    }
+    assertNotNull(frozenEdm.getComplexType(EdmTestProvider.NAMESPACE_1, "c_Location"));
+    EdmFunctionImport functionImport = container.getFunctionImport("EmployeeSearch");
+    assertNotNull(functionImport.getParameter("q"));
+    assertEquals(6, frozenEdm.getEntitySets().size());
+
+    assertNull(frozenEdm.getEntityType(EdmTestProvider.NAMESPACE_1, "Unknown"));
+    assertNull(container.getEntitySet("Unknown"));
+    assertNull(employee.getProperty("Unknown"));
+    verifyZeroInteractions(edmProvider);
+  }
+
+  @Test
+  public void frozenEdmNavigatesWithoutProvider() throws Exception {
+    EdmProvider edmProvider = spy(new EdmTestProvider());
+    EdmImplProv frozenEdm = new EdmImplProv(edmProvider);
+    frozenEdm.freeze();
+    reset(edmProvider);
+
+    EdmEntitySet employees = null;
+    for (EdmEntitySet entitySet : frozenEdm.getEntitySets()) {
+      if ("Employees".equals(entitySet.getName())) {
+        employees = entitySet;
+      }
+    }
+    assertNotNull(employees);
+    assertSame(frozenEdm.getDefaultEntityContainer(), employees.getEntityContainer());
+    EdmNavigationProperty navigationProperty =
+        (EdmNavigationProperty) employees.getEntityType().getProperty("ne_Manager");
+    assertEquals("Managers", employees.getRelatedEntitySet(navigationProperty).getName());
+
+    EdmEntityContainer container = frozenEdm.getDefaultEntityContainer();
+    assertEquals(5, container.getEntitySets().size());
+    assertEquals(4, container.getAssociationSets().size());
+    assertSame(container, frozenEdm.getFunctionImports().get(0).getEntityContainer());
+    verifyZeroInteractions(edmProvider);
+  }
+
+  @Test
+  public void frozenEdmResolvesInheritedMembers() throws Exception {
+    EdmProvider edmProvider = spy(new EdmTestProvider() {
+      @Override
+      public List<Schema> getSchemas() throws ODataException {
+        List<Schema> schemas = super.getSchemas();
+        EntityContainer entityContainer = new EntityContainer();
+        entityContainer.setName("ExtendingContainer");
+        entityContainer.setExtendz("Container1");
+        Schema schema = new Schema();
+        schema.setNamespace("ExtendingNamespace");
+        schema.setEntityContainers(Arrays.asList(entityContainer));
+        schemas.add(schema);
+        return schemas;
+      }
+
+      @Override
+      public EntityContainerInfo getEntityContainerInfo(final String name) throws ODataException {
+        return "ExtendingContainer".equals(name) ?
+            new EntityContainerInfo().setName(name).setExtendz("Container1") :
+            super.getEntityContainerInfo(name);
+      }
+    });
+    EdmImplProv frozenEdm = new EdmImplProv(edmProvider);
+    frozenEdm.freeze();
+    reset(edmProvider);
+
+    EdmEntityContainer container = frozenEdm.getEntityContainer("ExtendingContainer");
+    EdmEntitySet employees = container.getEntitySet("Employees");
+    assertNotNull(employees);
+    EdmEntityType employee = employees.getEntityType();
+    for (String navigationPropertyName : employee.getNavigationPropertyNames()) {
+      EdmNavigationProperty navigationProperty = (EdmNavigationProperty) employee.getProperty(navigationPropertyName);
+      assertNotNull(container.getAssociationSet(employees, navigationProperty));
+    }
+    EdmFunctionImport functionImport = container.getFunctionImport("EmployeeSearch");
+    assertNotNull(functionImport);
+    assertNotNull(functionImport.getParameter("q"));
+    assertNull(container.getFunctionImport("Unknown"));
+    verifyZeroInteractions(edmProvider);
+  }
 }
@@ -22,6 +22,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.List;
 
@@ -41,7 +43,9 @@ import org.apache.olingo.odata2.api.edm.provider.EntityContainerInfo;
 import org.apache.olingo.odata2.api.edm.provider.EntityType;
 import org.apache.olingo.odata2.api.edm.provider.Schema;
 import org.apache.olingo.odata2.api.ep.EntityProvider;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.testutil.helper.StringHelper;
 import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
 import org.junit.Test;
 
@@ -294,6 +298,32 @@ public class EdmxProviderTest {
     assertEquals(7, functionImports.size());
   }
 
+  @Test
+  public void binaryRoundTrip() throws Exception {
+    EdmProvider testProvider = new EdmTestProvider();
+    final String metadata = StringHelper.inputStreamToString(
+        (InputStream) EntityProvider.writeMetadata(testProvider.getSchemas(), null).getEntity());
+    EdmxProvider provider = new EdmxProvider().parse(new ByteArrayInputStream(metadata.getBytes("UTF-8")), true);
+
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    provider.writeBinary(binary);
+    EdmxProvider binaryProvider = new EdmxProvider().parseBinary(new ByteArrayInputStream(binary.toByteArray()));
+
+    assertEquals(metadata, StringHelper.inputStreamToString(
+        (InputStream) EntityProvider.writeMetadata(binaryProvider.getSchemas(), null).getEntity()));
+    assertNotNull(binaryProvider.getEntityType(new FullQualifiedName("RefScenario", "Employee")));
+    assertNotNull(binaryProvider.getAssociationSet("Container1",
+        new FullQualifiedName("RefScenario", "ManagerEmployees"), "Employees", "r_Employees"));
+    assertNotNull(binaryProvider.getFunctionImport("Container1", "EmployeeSearch"));
+    assertNull(binaryProvider.getEntitySet("Container1", "Photos"));
+    assertNotNull(binaryProvider.getEntitySet("Container2", "Photos"));
+  }
+
+  @Test(expected = EntityProviderException.class)
+  public void binaryWrongFormat() throws Exception {
+    new EdmxProvider().parseBinary(new ByteArrayInputStream("<edmx:Edmx/>".getBytes("UTF-8")));
+  }
+
   private Edm createEdm() throws Exception {
     EdmProvider testProvider = new EdmTestProvider();
     ODataResponse response = EntityProvider.writeMetadata(testProvider.getSchemas(), null);
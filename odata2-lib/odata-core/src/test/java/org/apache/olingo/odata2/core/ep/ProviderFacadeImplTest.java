@@ -23,12 +23,15 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -47,13 +50,23 @@ import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderWriteProperties;
 import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.EntryPublisher;
+import org.apache.olingo.odata2.api.ep.feed.EntrySubscriber;
+import org.apache.olingo.odata2.api.ep.feed.EntrySubscription;
+import org.apache.olingo.odata2.api.ep.feed.FeedPageFetcher;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
+import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.edm.EdmDateTimeOffset;
 import org.apache.olingo.odata2.core.ep.consumer.AbstractConsumerTest;
+import org.apache.olingo.odata2.core.ep.producer.PublishedFeedInputStream;
 import org.apache.olingo.odata2.testutil.helper.StringHelper;
 import org.apache.olingo.odata2.testutil.mock.MockFacade;
 import org.junit.Test;
@@ -161,6 +174,150 @@ public class ProviderFacadeImplTest extends AbstractConsumerTest {
     assertEquals(52, result.getProperties().get("Age"));
   }
 
+  @Test
+  public void readPagedFeed() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    final List<String> fetchedLinks = new ArrayList<String>();
+    FeedPageFetcher fetcher = new FeedPageFetcher() {
+      @Override
+      public InputStream fetchPage(final String nextLink) throws IOException {
+        fetchedLinks.add(nextLink);
+        return "Teams?$skiptoken=2".equals(nextLink) ?
+            createTeamsPage(3, 2, "Teams?$skiptoken=4") : createTeamsPage(5, 1, null);
+      }
+    };
+
+    ODataFeedStream feedStream = new ProviderFacadeImpl().readPagedFeed(HttpContentType.APPLICATION_JSON,
+        entitySet, createTeamsPage(1, 2, "Teams?$skiptoken=2"), EntityProviderReadProperties.init().build(),
+        fetcher, 1);
+    int id = 1;
+    while (feedStream.hasNext()) {
+      assertEquals(String.valueOf(id++), feedStream.next().getProperties().get("Id"));
+    }
+    feedStream.close();
+
+    assertEquals(6, id);
+    assertEquals(Integer.valueOf(5), feedStream.getFeedMetadata().getInlineCount());
+    assertNull(feedStream.getFeedMetadata().getNextLink());
+    assertEquals(Arrays.asList("Teams?$skiptoken=2", "Teams?$skiptoken=4"), fetchedLinks);
+  }
+
+  @Test
+  public void readPagedFeedFetchFails() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    FeedPageFetcher fetcher = new FeedPageFetcher() {
+      @Override
+      public InputStream fetchPage(final String nextLink) throws IOException {
+        throw new IOException("not reachable");
+      }
+    };
+
+    ODataFeedStream feedStream = new ProviderFacadeImpl().readPagedFeed(HttpContentType.APPLICATION_JSON,
+        entitySet, createTeamsPage(1, 1, "Teams?$skiptoken=1"), EntityProviderReadProperties.init().build(),
+        fetcher, 2);
+    assertEquals("1", feedStream.next().getProperties().get("Id"));
+    try {
+      feedStream.hasNext();
+      Assert.fail("Expected exception not thrown.");
+    } catch (EntityProviderException e) {
+      assertEquals(IOException.class, e.getCause().getClass());
+    } finally {
+      feedStream.close();
+    }
+  }
+
+  @Test
+  public void readPagedFeedFetcherError() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    FeedPageFetcher fetcher = new FeedPageFetcher() {
+      @Override
+      public InputStream fetchPage(final String nextLink) throws IOException {
+        throw new LinkageError("broken");
+      }
+    };
+
+    ODataFeedStream feedStream = new ProviderFacadeImpl().readPagedFeed(HttpContentType.APPLICATION_JSON,
+        entitySet, createTeamsPage(1, 1, "Teams?$skiptoken=1"), EntityProviderReadProperties.init().build(),
+        fetcher, 1);
+    assertEquals("1", feedStream.next().getProperties().get("Id"));
+    try {
+      feedStream.hasNext();
+      Assert.fail("Expected exception not thrown.");
+    } catch (EntityProviderException e) {
+      assertNotNull(e.getMessage());
+    } finally {
+      feedStream.close();
+    }
+  }
+
+  @Test
+  public void readPagedFeedClosesInvalidPage() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    final boolean[] closed = new boolean[1];
+    FeedPageFetcher fetcher = new FeedPageFetcher() {
+      @Override
+      public InputStream fetchPage(final String nextLink) throws IOException {
+        return new ByteArrayInputStream("{\"d\":".getBytes()) {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+      }
+    };
+
+    ODataFeedStream feedStream = new ProviderFacadeImpl().readPagedFeed(HttpContentType.APPLICATION_JSON,
+        entitySet, createTeamsPage(1, 1, "Teams?$skiptoken=1"), EntityProviderReadProperties.init().build(),
+        fetcher, 1);
+    assertEquals("1", feedStream.next().getProperties().get("Id"));
+    try {
+      feedStream.hasNext();
+      Assert.fail("Expected exception not thrown.");
+    } catch (EntityProviderException e) {
+      assertTrue(closed[0]);
+    } finally {
+      feedStream.close();
+    }
+  }
+
+  @Test
+  public void readPagedFeedStopsAfterHandOverTimeout() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    FeedPageFetcher fetcher = new FeedPageFetcher() {
+      @Override
+      public InputStream fetchPage(final String nextLink) throws IOException {
+        return createTeamsPage(2, 1, null);
+      }
+    };
+
+    ODataFeedStream feedStream = new ProviderFacadeImpl().readPagedFeed(HttpContentType.APPLICATION_JSON,
+        entitySet, createTeamsPage(1, 1, "Teams?$skiptoken=1"),
+        EntityProviderReadProperties.init().pageHandOverTimeout(50).build(), fetcher, 1);
+    try {
+      // the second page cannot be handed over while the first one is not taken
+      Thread.sleep(500);
+      assertEquals("1", feedStream.next().getProperties().get("Id"));
+      feedStream.hasNext();
+      Assert.fail("Expected exception not thrown.");
+    } catch (EntityProviderException e) {
+      assertEquals(EntityProviderException.EXCEPTION_OCCURRED.getKey(), e.getMessageReference().getKey());
+    } finally {
+      feedStream.close();
+    }
+  }
+
+  private InputStream createTeamsPage(final int firstId, final int count, final String nextLink) {
+    StringBuilder page = new StringBuilder("{\"d\":{\"__count\":\"5\",\"results\":[");
+    for (int id = firstId; id < firstId + count; id++) {
+      page.append(id == firstId ? "" : ",")
+          .append("{\"__metadata\":{\"id\":\"http://localhost:8080/ReferenceScenario.svc/Teams('").append(id)
+          .append("')\",\"type\":\"RefScenario.Team\"},\"Id\":\"").append(id)
+          .append("\",\"Name\":\"Team ").append(id).append("\",\"isScrumTeam\":false}");
+    }
+    page.append("]").append(nextLink == null ? "" : ",\"__next\":\"" + nextLink + "\"").append("}}");
+    return new ByteArrayInputStream(page.toString().getBytes());
+  }
+
   @Test
   public void readDeltaFeedJson() throws Exception {
 
@@ -348,6 +505,154 @@ public class ProviderFacadeImplTest extends AbstractConsumerTest {
     assertEquals("{\"d\":{\"results\":[]}}", StringHelper.inputStreamToString((InputStream) result.getEntity()));
   }
 
+  @Test
+  public void writePublishedFeed() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    List<Map<String, Object>> data = new ArrayList<Map<String, Object>>();
+    for (int i = 1; i <= 100; i++) {
+      Map<String, Object> team = new HashMap<String, Object>();
+      team.put("Id", String.valueOf(i));
+      team.put("Name", "Team " + i);
+      data.add(team);
+    }
+    final EntityProviderWriteProperties properties =
+        EntityProviderWriteProperties.serviceRoot(URI.create("http://root/")).build();
+
+    for (final String contentType : Arrays.asList(HttpContentType.APPLICATION_JSON,
+        HttpContentType.APPLICATION_ATOM_XML)) {
+      ListPublisher publisher = new ListPublisher(data);
+      InputStream content = (InputStream) new ProviderFacadeImpl()
+          .writePublishedFeed(contentType, entitySet, publisher, properties).getEntity();
+      assertEquals(0, publisher.delivered);
+      assertTrue(content.read() > 0);
+      assertTrue(publisher.delivered < data.size());
+
+      final String published = StringHelper.inputStreamToString(content);
+      final String expected = StringHelper.inputStreamToString((InputStream) new ProviderFacadeImpl()
+          .writeFeed(contentType, entitySet, data, properties).getEntity());
+      assertEquals(withoutTimestamps(expected).substring(1), withoutTimestamps(published));
+      assertEquals(data.size(), publisher.delivered);
+      assertTrue(publisher.maxDemand <= PublishedFeedInputStream.REQUEST_SIZE);
+      assertFalse(publisher.cancelled);
+    }
+  }
+
+  @Test
+  public void writePublishedFeedCancel() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    ListPublisher publisher = new ListPublisher(Collections.<Map<String, Object>> emptyList());
+    InputStream content = (InputStream) new ProviderFacadeImpl().writePublishedFeed(
+        HttpContentType.APPLICATION_JSON, entitySet, publisher,
+        EntityProviderWriteProperties.serviceRoot(URI.create("http://root/")).build()).getEntity();
+    content.close();
+    assertFalse(publisher.cancelled);
+
+    publisher = new ListPublisher(null);
+    content = (InputStream) new ProviderFacadeImpl().writePublishedFeed(
+        HttpContentType.APPLICATION_JSON, entitySet, publisher,
+        EntityProviderWriteProperties.serviceRoot(URI.create("http://root/")).build()).getEntity();
+    assertEquals('{', content.read());
+    content.close();
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  public void writePublishedFeedPublisherTimeout() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    final ListPublisher publisher = new ListPublisher(null);
+    final InputStream content = (InputStream) new ProviderFacadeImpl().writePublishedFeed(
+        HttpContentType.APPLICATION_ATOM_XML, entitySet, publisher,
+        EntityProviderWriteProperties.serviceRoot(URI.create("http://root/")).publisherTimeout(10).build())
+        .getEntity();
+    try {
+      StringHelper.inputStreamToString(content);
+      fail("Expected IOException");
+    } catch (final IOException e) {
+      assertTrue(e.getMessage().contains("10 ms"));
+    }
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test(expected = IOException.class)
+  public void writePublishedFeedPublisherFails() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    final EntryPublisher publisher = new EntryPublisher() {
+      @Override
+      public void subscribe(final EntrySubscriber subscriber) {
+        subscriber.onError(new IllegalStateException("data source not available"));
+      }
+    };
+    StringHelper.inputStreamToString((InputStream) new ProviderFacadeImpl().writePublishedFeed(
+        HttpContentType.APPLICATION_ATOM_XML, entitySet, publisher,
+        EntityProviderWriteProperties.serviceRoot(URI.create("http://root/")).build()).getEntity());
+  }
+
+  @Test
+  public void writePublishedFeedWithoutSubscription() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    final EntryPublisher publisher = new EntryPublisher() {
+      @Override
+      public void subscribe(final EntrySubscriber subscriber) {
+        Map<String, Object> team = new HashMap<String, Object>();
+        team.put("Id", "1");
+        subscriber.onNext(team);
+      }
+    };
+    try {
+      StringHelper.inputStreamToString((InputStream) new ProviderFacadeImpl().writePublishedFeed(
+          HttpContentType.APPLICATION_JSON, entitySet, publisher,
+          EntityProviderWriteProperties.serviceRoot(URI.create("http://root/")).build()).getEntity());
+      fail("Expected IOException");
+    } catch (final IOException e) {
+      assertTrue(e.getCause() instanceof EntityProviderException);
+    }
+  }
+
+  private static String withoutTimestamps(final String content) {
+    return content.replaceAll("<updated>[^<]*</updated>", "<updated/>");
+  }
+
+  /** Synchronous publisher which delivers the entries of a list as requested; <code>null</code> never completes. */
+  private static class ListPublisher implements EntryPublisher {
+    private final List<Map<String, Object>> data;
+    private int delivered;
+    private long demand;
+    private long maxDemand;
+    private boolean completed;
+    private boolean cancelled;
+
+    private ListPublisher(final List<Map<String, Object>> data) {
+      this.data = data;
+    }
+
+    @Override
+    public void subscribe(final EntrySubscriber subscriber) {
+      subscriber.onSubscribe(new EntrySubscription() {
+        @Override
+        public void request(final long count) {
+          demand += count;
+          maxDemand = Math.max(maxDemand, demand);
+          if (data == null) {
+            return;
+          }
+          while (demand > 0 && delivered < data.size()) {
+            demand--;
+            subscriber.onNext(data.get(delivered++));
+          }
+          if (delivered == data.size() && !completed) {
+            completed = true;
+            subscriber.onComplete();
+          }
+        }
+
+        @Override
+        public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+  }
+
   @Test
   public void writeEntry() throws Exception {
     final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
@@ -401,6 +706,18 @@ public class ProviderFacadeImplTest extends AbstractConsumerTest {
         StringHelper.inputStreamToString((InputStream) result.getEntity()));
   }
 
+  @Test
+  public void errorDocumentCacheableWithoutReplacements() throws Exception {
+    assertTrue(ProviderFacadeImpl.isCacheable(new ODataNotFoundException(ODataNotFoundException.ENTITY)));
+    assertTrue(ProviderFacadeImpl.isCacheable(
+        new ODataException(new ODataNotFoundException(ODataNotFoundException.ENTITY))));
+    assertFalse(ProviderFacadeImpl.isCacheable(
+        new ODataBadRequestException(ODataBadRequestException.INVALID_SYNTAX.addContent("$top=x"))));
+    assertFalse(ProviderFacadeImpl.isCacheable(new ODataApplicationException("Order 42 is locked", Locale.ENGLISH)));
+    assertFalse(ProviderFacadeImpl.isCacheable(new IllegalStateException("Order 42 is locked")));
+    assertFalse(ProviderFacadeImpl.isCacheable(null));
+  }
+
   @Test
   public void writeServiceDocument() throws Exception {
     final ODataResponse result =
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
+import org.apache.olingo.odata2.testutil.mock.MockFacade;
+import org.junit.Test;
+
+public class InlineReadPlanTest {
+
+  @Test
+  public void planSharedBySiblings() throws Exception {
+    final EntityInfoAggregator eia = createEntityInfo("Employees");
+    Map<String, InlineReadPlan> plans = new HashMap<String, InlineReadPlan>();
+
+    final InlineReadPlan plan = InlineReadPlan.get(plans, eia, "ne_Room");
+    assertEquals("ne_Room", plan.getNavigationProperty().getName());
+    assertEquals("Rooms", plan.getEntityInfo().getEntitySetName());
+    assertSame(plan, InlineReadPlan.get(plans, eia, "ne_Room"));
+    assertNotSame(plan, InlineReadPlan.get(plans, eia, "ne_Manager"));
+  }
+
+  @Test
+  public void planRenewedForOtherEntityInfo() throws Exception {
+    Map<String, InlineReadPlan> plans = new HashMap<String, InlineReadPlan>();
+
+    final InlineReadPlan plan = InlineReadPlan.get(plans, createEntityInfo("Employees"), "ne_Room");
+    assertNotSame(plan, InlineReadPlan.get(plans, createEntityInfo("Employees"), "ne_Room"));
+  }
+
+  @Test
+  public void readPropertiesDerivedFromParent() throws Exception {
+    final InlineReadPlan plan =
+        InlineReadPlan.get(new HashMap<String, InlineReadPlan>(), createEntityInfo("Employees"), "ne_Room");
+    final EntityProviderReadProperties parentReadProperties = EntityProviderReadProperties.init().build();
+    final EntityProviderReadProperties readProperties = EntityProviderReadProperties.init().build();
+
+    assertNull(plan.getReadProperties(parentReadProperties));
+    plan.setReadProperties(parentReadProperties, readProperties);
+    assertSame(readProperties, plan.getReadProperties(parentReadProperties));
+    assertNull(plan.getReadProperties(EntityProviderReadProperties.init().build()));
+  }
+
+  private EntityInfoAggregator createEntityInfo(final String entitySetName) throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet(entitySetName);
+    return EntityInfoAggregator.create(entitySet);
+  }
+}
@@ -19,8 +19,10 @@
 package org.apache.olingo.odata2.core.ep.consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
 import java.util.Date;
@@ -39,6 +41,7 @@ import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
 import org.apache.olingo.odata2.testutil.mock.MockFacade;
 import org.junit.Test;
@@ -399,6 +402,76 @@ public class JsonFeedConsumerTest extends AbstractConsumerTest {
     assertNull(deletedEntries.get(0).getWhen());
   }
 
+  @Test
+  public void readFeedAsStream() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    ODataFeed feed = new JsonEntityConsumer().readFeed(entitySet, getFileAsStream("JsonTeamsWithCount.json"),
+        DEFAULT_PROPERTIES);
+
+    ODataFeedStream feedStream = new JsonEntityConsumer().readFeedAsStream(entitySet,
+        getFileAsStream("JsonTeamsWithCount.json"), DEFAULT_PROPERTIES);
+    int index = 0;
+    while (feedStream.hasNext()) {
+      assertEquals(feed.getEntries().get(index).getProperties(), feedStream.next().getProperties());
+      index++;
+    }
+    feedStream.close();
+
+    assertEquals(2, index);
+    assertEquals(feed.getFeedMetadata().getInlineCount(), feedStream.getFeedMetadata().getInlineCount());
+  }
+
+  @Test
+  public void readFeedAsStreamAllFormats() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    for (String fileName : new String[] { "JsonTeams.json", "JsonTeamsWithoutD.json",
+        "JsonTeamsWithCountWithoutD.json" }) {
+      ODataFeedStream feedStream = new JsonEntityConsumer().readFeedAsStream(entitySet,
+          getFileAsStream(fileName), DEFAULT_PROPERTIES);
+      ODataFeed feed = new JsonEntityConsumer().readFeed(entitySet, getFileAsStream(fileName), DEFAULT_PROPERTIES);
+      for (ODataEntry entry : feed.getEntries()) {
+        assertEquals(entry.getProperties().get("Id"), feedStream.next().getProperties().get("Id"));
+      }
+      assertFalse(feedStream.hasNext());
+      feedStream.close();
+    }
+  }
+
+  @Test
+  public void readDeltaFeedAsStream() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    String content =
+        "{\"d\":{\"results\":[{\"__metadata\":{\"id\":\"http://localhost:8080/ReferenceScenario.svc/Teams('1')\"," +
+            "\"uri\":\"http://localhost:8080/ReferenceScenario.svc/Teams('1')\",\"type\":\"RefScenario.Team\"}," +
+            "\"Id\":\"1\",\"Name\":\"Team 1\",\"isScrumTeam\":false,\"nt_Employees\":{\"__deferred\":{" +
+            "\"uri\":\"http://localhost:8080/ReferenceScenario.svc/Teams('1')/nt_Employees\"}}}" +
+            ",{ \"@odata.context\":\"$metadata#Teams/$deletedEntity\",\"id\":\"/Teams('2')\"}" +
+            "],\"__next\":\"Teams?$skiptoken=2\"," +
+            "\"__delta\":\"http://localhost:8080/ReferenceScenario.svc/Teams?!deltatoken=4711\"}}";
+
+    ODataFeedStream feedStream = new JsonEntityConsumer().readFeedAsStream(entitySet,
+        createContentAsStream(content), DEFAULT_PROPERTIES);
+    assertTrue(feedStream.hasNext());
+    assertEquals("1", feedStream.next().getProperties().get("Id"));
+    assertNull(feedStream.getFeedMetadata().getNextLink());
+    assertFalse(feedStream.hasNext());
+    feedStream.close();
+
+    assertEquals("Teams?$skiptoken=2", feedStream.getFeedMetadata().getNextLink());
+    assertEquals("http://localhost:8080/ReferenceScenario.svc/Teams?!deltatoken=4711",
+        feedStream.getFeedMetadata().getDeltaLink());
+    assertEquals(1, feedStream.getDeletedEntries().size());
+    assertEquals("/Teams('2')", feedStream.getDeletedEntries().get(0).getUri());
+  }
+
+  @Test(expected = EntityProviderException.class)
+  public void readFeedAsStreamMissingResults() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    ODataFeedStream feedStream = new JsonEntityConsumer().readFeedAsStream(entitySet,
+        createContentAsStream("{\"d\":{\"__count\":\"1\"}}"), DEFAULT_PROPERTIES);
+    feedStream.hasNext();
+  }
+
   @Test
   public void feedWithTeamAndDeltaAndDeletedEntries() throws Exception {
     EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.core.ep.consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.InputStream;
@@ -37,6 +38,7 @@ import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.ep.feed.ODataFeedStream;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
 import org.apache.olingo.odata2.testutil.mock.MockFacade;
 import org.junit.Test;
@@ -183,6 +185,43 @@ public class XmlFeedConsumerTest extends AbstractXmlConsumerTest {
     assertEquals(1, deltaFeed.getEntries().size());
     assertEquals(1, deltaFeed.getDeletedEntries().size());
   }
+  @Test
+  public void readFeedAsStream() throws Exception {
+    String content = readFile("feed_employees_full.xml");
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Employees");
+    EntityProviderReadProperties consumerProperties = EntityProviderReadProperties.init()
+        .mergeSemantic(false).build();
+    ODataFeed feed = new XmlEntityConsumer().readFeed(entitySet, createContentAsStream(content), consumerProperties);
+
+    ODataFeedStream feedStream = EntityProvider.readFeedAsStream("application/atom+xml", entitySet,
+        createContentAsStream(content), consumerProperties);
+    int index = 0;
+    while (feedStream.hasNext()) {
+      ODataEntry entry = feedStream.next();
+      assertEquals(feed.getEntries().get(index).getProperties(), entry.getProperties());
+      assertEquals(feed.getEntries().get(index).getMetadata().getId(), entry.getMetadata().getId());
+      index++;
+    }
+    feedStream.close();
+
+    assertEquals(feed.getEntries().size(), index);
+    assertEquals(Integer.valueOf(6), feedStream.getFeedMetadata().getInlineCount());
+    assertEquals(feed.getFeedMetadata().getNextLink(), feedStream.getFeedMetadata().getNextLink());
+    assertEquals(0, feedStream.getDeletedEntries().size());
+  }
+
+  @Test
+  public void readDeltaFeedAsStream() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Rooms");
+    ODataFeedStream feedStream = new XmlEntityConsumer().readFeedAsStream(entitySet,
+        createContentAsStream(readFile("feed_with_deleted_entries.xml")), DEFAULT_PROPERTIES);
+
+    assertNotNull(feedStream.next());
+    assertFalse(feedStream.hasNext());
+    assertEquals(1, feedStream.getDeletedEntries().size());
+    feedStream.close();
+  }
+
   /**
    * Room has an Inline Feed Employees and Employee has an inline Entry Team
    * E.g: Rooms?$expand=nr_Employees/ne_Team
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.entry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class EntryPropertyMapTest {
+
+  private static final EntryPropertyMap.Layout LAYOUT =
+      new EntryPropertyMap.Layout(Arrays.asList("Id", "Name", "Age", "Name"));
+
+  @Test
+  public void layout() {
+    assertEquals(3, LAYOUT.size());
+    assertEquals(1, LAYOUT.indexOf("Name"));
+    assertEquals("Age", LAYOUT.getName(2));
+    assertEquals(-1, LAYOUT.indexOf("Unknown"));
+    assertEquals(-1, LAYOUT.indexOf(null));
+  }
+
+  @Test
+  public void behavesLikeHashMap() {
+    EntryPropertyMap map = new EntryPropertyMap(LAYOUT);
+    Map<String, Object> expected = new HashMap<String, Object>();
+    for (Map<String, Object> m : Arrays.asList(map, expected)) {
+      m.put("Name", "Walter");
+      m.put("Age", null);
+      m.put("Extra", 1);
+    }
+    assertEquals(expected, map);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertEquals(3, map.size());
+    assertTrue(map.containsKey("Age"));
+    assertFalse(map.containsKey("Id"));
+    assertNull(map.get("Id"));
+    assertEquals(1, map.get("Extra"));
+
+    assertEquals("Walter", map.remove("Name"));
+    assertEquals(2, map.size());
+    assertFalse(map.containsKey("Name"));
+    map.clear();
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void indexedAccess() {
+    EntryPropertyMap map = new EntryPropertyMap(LAYOUT);
+    assertNull(map.setValue(LAYOUT.indexOf("Id"), "1"));
+    assertEquals("1", map.get("Id"));
+    map.put("Age", 42);
+    assertEquals(42, map.getValue(2));
+  }
+
+  @Test
+  public void iteration() {
+    EntryPropertyMap map = new EntryPropertyMap(LAYOUT);
+    map.put("Extra", "x");
+    map.put("Age", 1);
+    map.put("Id", "1");
+
+    Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+    assertEquals("Id", iterator.next().getKey());
+    Map.Entry<String, Object> entry = iterator.next();
+    assertEquals("Age", entry.getKey());
+    entry.setValue(2);
+    iterator.remove();
+    assertEquals("Extra", iterator.next().getKey());
+    assertFalse(iterator.hasNext());
+
+    assertEquals(2, map.size());
+    assertFalse(map.containsKey("Age"));
+  }
+}
@@ -95,6 +95,21 @@ public class XmlErrorProducerTest extends AbstractXmlProducerTestHelper {
     verifyXml(null, "a", Locale.GERMAN, null, errorXml);
   }
 
+  @Test
+  public void repeatedErrorDocument() throws Exception {
+    final AtomEntityProvider provider = new AtomEntityProvider();
+    for (int i = 0; i < 2; i++) {
+      ODataResponse response = provider.writeErrorDocument(expectedStatus, "code", "repeated", Locale.GERMAN, null,
+          true);
+      verifyXml("code", "repeated", Locale.GERMAN, null, verifyResponse(response));
+    }
+    ODataResponse response = provider.writeErrorDocument(HttpStatusCodes.NOT_FOUND, "code", "repeated",
+        Locale.GERMAN, null, true);
+    assertEquals(HttpStatusCodes.NOT_FOUND, response.getStatus());
+    verifyXml("code", "repeated", Locale.GERMAN, null,
+        StringHelper.inputStreamToString((InputStream) response.getEntity()));
+  }
+
   @Test
   public void viaProviderFacadeImpl() throws Exception {
     String errorCode = null;
@@ -223,7 +238,7 @@ public class XmlErrorProducerTest extends AbstractXmlProducerTestHelper {
       serializeError(final String errorCode, final String message, final String innerError, final Locale locale)
           throws Exception {
     ODataResponse response =
-        new AtomEntityProvider().writeErrorDocument(expectedStatus, errorCode, message, locale, innerError);
+        new AtomEntityProvider().writeErrorDocument(expectedStatus, errorCode, message, locale, innerError, false);
     String errorXml = verifyResponse(response);
     verifyXml(errorCode, message, locale, innerError, errorXml);
   }
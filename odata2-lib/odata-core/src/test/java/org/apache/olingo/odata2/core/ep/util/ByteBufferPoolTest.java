@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class ByteBufferPoolTest {
+
+  @Test
+  public void releasedBufferReused() {
+    ByteBufferPool pool = new ByteBufferPool();
+    ByteBuffer buffer = pool.allocate(16384);
+    buffer.put((byte) 42);
+    pool.release(buffer);
+    assertEquals(16384, pool.getPooledBytes());
+
+    ByteBuffer reused = pool.allocate(16384);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(16384, reused.remaining());
+    assertEquals(0, pool.getPooledBytes());
+    assertNotSame(buffer, pool.allocate(16384));
+  }
+
+  @Test
+  public void onlySizeClassesPooled() {
+    ByteBufferPool pool = new ByteBufferPool();
+    pool.release(ByteBuffer.allocate(10000));
+    pool.release(ByteBuffer.allocate(ByteBufferPool.MIN_CAPACITY / 2));
+    pool.release(ByteBuffer.allocate(ByteBufferPool.MAX_CAPACITY * 2));
+    assertEquals(0, pool.getPooledBytes());
+  }
+
+  @Test
+  public void pooledBytesLimited() {
+    ByteBufferPool pool = new ByteBufferPool();
+    for (int i = 0; i < 3; i++) {
+      pool.release(ByteBuffer.allocate(ByteBufferPool.MAX_CAPACITY));
+    }
+    assertEquals(ByteBufferPool.MAX_POOLED_BYTES, pool.getPooledBytes());
+  }
+
+  @Test
+  public void capacityHint() {
+    ByteBufferPool pool = new ByteBufferPool();
+    assertEquals(ByteBufferPool.MIN_CAPACITY, pool.getCapacityHint());
+    // a single large content raises the hint by one step only
+    pool.recordContentSize(10000000);
+    assertEquals(ByteBufferPool.MIN_CAPACITY * 2, pool.getCapacityHint());
+    pool.recordContentSize(ByteBufferPool.MIN_CAPACITY * 2);
+    assertEquals(ByteBufferPool.MIN_CAPACITY * 2, pool.getCapacityHint());
+    for (int i = 0; i < 10; i++) {
+      pool.recordContentSize(10000000);
+    }
+    assertEquals(ByteBufferPool.MAX_CAPACITY_HINT, pool.getCapacityHint());
+    pool.recordContentSize(100);
+    assertEquals(ByteBufferPool.MAX_CAPACITY_HINT / 2, pool.getCapacityHint());
+    for (int i = 0; i < 10; i++) {
+      pool.recordContentSize(100);
+    }
+    assertEquals(ByteBufferPool.MIN_CAPACITY, pool.getCapacityHint());
+  }
+
+  @Test
+  public void poolsKeptAcrossContentsUntilCleared() {
+    ByteBufferPool pool = ByteBufferPool.get();
+    pool.release(ByteBuffer.allocate(ByteBufferPool.MIN_CAPACITY));
+    pool.recordContentSize(ByteBufferPool.MAX_CAPACITY);
+    assertSame(pool, ByteBufferPool.get());
+    assertTrue(pool.getPooledBytes() > 0);
+
+    CircleStreamBuffer.releasePooledBuffers();
+    assertSame(pool, ByteBufferPool.get());
+    assertEquals(0, pool.getPooledBytes());
+    assertEquals(ByteBufferPool.MIN_CAPACITY, pool.getCapacityHint());
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.core.ep.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -297,6 +298,27 @@ public class CircleStreamBufferTest extends BaseTest {
   // #
   // ###################################################
 
+  @Test
+  public void testBuffersReusedForNextContent() throws Exception {
+    CircleStreamBuffer.releasePooledBuffers();
+    for (int i = 0; i < 2; i++) {
+      CircleStreamBuffer csb = new CircleStreamBuffer();
+      OutputStream write = csb.getOutputStream();
+      final String testData = createTestString(100000);
+      final byte[] data = testData.getBytes(DEFAULT_CHARSET);
+      for (int off = 0; off < data.length; off += 4096) {
+        write.write(data, off, Math.min(4096, data.length - off));
+      }
+      write.close();
+
+      InputStream inStream = csb.getInputStream();
+      assertEquals(testData, readFrom(inStream));
+      inStream.close();
+      assertTrue(ByteBufferPool.get().getPooledBytes() > 0);
+    }
+    assertEquals(ByteBufferPool.MIN_CAPACITY * 4, ByteBufferPool.get().getCapacityHint());
+  }
+
   private String readFrom(final InputStream stream) throws IOException {
     return readFrom(stream, 128);
   }
@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.core.exception;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.Locale;
 
@@ -54,6 +55,13 @@ public class MessageServiceTest extends BaseTest {
     assertEquals("Common exception", ms.getText());
   }
 
+  @Test
+  public void cachedMessage() throws Exception {
+    MessageReference context = MessageReference.create(ODataMessageException.class, "COMMON");
+    assertSame(MessageService.getMessage(DEFAULT_LANGUAGE, context), MessageService.getMessage(DEFAULT_LANGUAGE,
+        context));
+  }
+
   @Test
   public void testParameter() throws Exception {
     MessageReference context =
@@ -34,6 +34,7 @@ import org.apache.olingo.odata2.api.exception.ODataConflictException;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataForbiddenException;
 import org.apache.olingo.odata2.api.exception.ODataHttpException;
+import org.apache.olingo.odata2.api.exception.ODataInternalServerErrorException;
 import org.apache.olingo.odata2.api.exception.ODataMessageException;
 import org.apache.olingo.odata2.api.exception.ODataMethodNotAllowedException;
 import org.apache.olingo.odata2.api.exception.ODataNotAcceptableException;
@@ -95,6 +96,22 @@ public class ODataExceptionTest extends BaseTest {
     assertTrue(exception.isCausedByHttpException());
   }
 
+  @Test
+  public void suppressedStackTrace() {
+    assertFalse(ODataHttpException.suppressStackTrace(true));
+    try {
+      assertEquals(0, new ODataNotFoundException(ODataNotFoundException.ENTITY).getStackTrace().length);
+      assertTrue(new ODataException("Some message.").getStackTrace().length > 0);
+      assertTrue(new ODataInternalServerErrorException(ODataInternalServerErrorException.NOSERVICE)
+          .getStackTrace().length > 0);
+      assertTrue(new ODataServiceUnavailableException(ODataServiceUnavailableException.COMMON)
+          .getStackTrace().length > 0);
+    } finally {
+      assertTrue(ODataHttpException.suppressStackTrace(false));
+    }
+    assertTrue(new ODataNotFoundException(ODataNotFoundException.ENTITY).getStackTrace().length > 0);
+  }
+
   // The following tests verify whether all fields of type {@link MessageReference} of
   // the tested (Exception) class are provided in the <b>i18n.properties</b> file.
   @Test
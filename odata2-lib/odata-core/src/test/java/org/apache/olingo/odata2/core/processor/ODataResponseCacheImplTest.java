@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.apache.olingo.odata2.testutil.helper.StringHelper;
+import org.junit.Test;
+
+/**
+ *  
+ */
+public class ODataResponseCacheImplTest extends BaseTest {
+
+  private static final Set<String> EMPLOYEES = Collections.singleton("Employees");
+
+  @Test
+  public void putAndGet() throws Exception {
+    ODataResponseCacheImpl cache = new ODataResponseCacheImpl(10000);
+    assertNull(cache.get("key"));
+
+    cache.put("key", EMPLOYEES, 0, createResponse(), "body".getBytes("UTF-8"));
+
+    final ODataResponse response = cache.get("key");
+    assertNotNull(response);
+    assertEquals(HttpStatusCodes.OK, response.getStatus());
+    assertEquals(HttpContentType.APPLICATION_XML, response.getContentHeader());
+    assertEquals("W/\"1\"", response.getHeader(HttpHeaders.ETAG));
+    assertEquals("body", StringHelper.inputStreamToString(response.getEntityAsStream()));
+    // every hit gets its own entity stream
+    assertEquals("body", StringHelper.inputStreamToString(cache.get("key").getEntityAsStream()));
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() throws Exception {
+    ODataResponseCacheImpl cache = new ODataResponseCacheImpl(10000);
+    cache.put("a", EMPLOYEES, 0, createResponse(), new byte[100]);
+    final long entrySize = cache.getByteSize();
+
+    cache = new ODataResponseCacheImpl(2 * entrySize);
+    cache.put("a", EMPLOYEES, 0, createResponse(), new byte[100]);
+    cache.put("b", EMPLOYEES, 0, createResponse(), new byte[100]);
+    assertNotNull(cache.get("a"));
+    cache.put("c", EMPLOYEES, 0, createResponse(), new byte[100]);
+
+    assertEquals(2, cache.size());
+    assertEquals(2 * entrySize, cache.getByteSize());
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+  }
+
+  @Test
+  public void tooLargeResponseNotCached() throws Exception {
+    ODataResponseCacheImpl cache = new ODataResponseCacheImpl(1000);
+    cache.put("a", EMPLOYEES, 0, createResponse(), new byte[1000]);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.getByteSize());
+  }
+
+  @Test
+  public void notCachedIfInvalidatedWhileRead() throws Exception {
+    ODataResponseCacheImpl cache = new ODataResponseCacheImpl(10000);
+    final Set<String> employeesWithRoom = new HashSet<String>(Arrays.asList("Employees", "Rooms"));
+    final long generation = cache.getGeneration(employeesWithRoom);
+    cache.invalidate("Teams");
+    assertEquals(generation, cache.getGeneration(employeesWithRoom));
+    cache.invalidate("Rooms");
+    cache.put("employeesWithRoom", employeesWithRoom, generation, createResponse(), new byte[0]);
+    assertNull(cache.get("employeesWithRoom"));
+
+    cache.put("employeesWithRoom", employeesWithRoom, cache.getGeneration(employeesWithRoom), createResponse(),
+        new byte[0]);
+    assertNotNull(cache.get("employeesWithRoom"));
+
+    final long beforeClear = cache.getGeneration(EMPLOYEES);
+    cache.clear();
+    cache.put("employees", EMPLOYEES, beforeClear, createResponse(), new byte[0]);
+    assertNull(cache.get("employees"));
+  }
+
+  @Test
+  public void invalidateByEntitySet() throws Exception {
+    ODataResponseCacheImpl cache = new ODataResponseCacheImpl(10000);
+    cache.put("employees", EMPLOYEES, 0, createResponse(), new byte[0]);
+    cache.put("employeesWithRoom", new HashSet<String>(Arrays.asList("Employees", "Rooms")), 0,
+        createResponse(), new byte[0]);
+    cache.put("rooms", Collections.singleton("Rooms"), 0, createResponse(), new byte[0]);
+
+    cache.invalidate("Rooms");
+    assertNotNull(cache.get("employees"));
+    assertNull(cache.get("employeesWithRoom"));
+    assertNull(cache.get("rooms"));
+
+    cache.invalidate("Teams");
+    assertEquals(1, cache.size());
+
+    cache.invalidate("Employees");
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void clear() throws Exception {
+    ODataResponseCacheImpl cache = new ODataResponseCacheImpl(10000);
+    cache.put("employees", EMPLOYEES, 0, createResponse(), new byte[0]);
+    cache.clear();
+    assertNull(cache.get("employees"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidMaximumSize() throws Exception {
+    new ODataResponseCacheImpl(0);
+  }
+
+  private ODataResponse createResponse() {
+    return ODataResponse.status(HttpStatusCodes.OK)
+        .contentHeader(HttpContentType.APPLICATION_XML)
+        .eTag("W/\"1\"")
+        .build();
+  }
+}
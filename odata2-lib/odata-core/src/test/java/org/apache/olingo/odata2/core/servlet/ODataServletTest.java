@@ -20,10 +20,14 @@ package org.apache.olingo.odata2.core.servlet;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.HashSet;
@@ -40,6 +44,7 @@ import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
 import org.apache.olingo.odata2.api.commons.HttpHeaders;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.ep.EntityProvider;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
@@ -222,6 +227,124 @@ public class ODataServletTest {
   }
 
 
+  @Test
+  public void rangeRequestOnFile() throws Exception {
+    final String content = "0123456789";
+    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    final HttpServletResponse servletResponse = prepareMediaResponse(bout);
+    Mockito.when(reqMock.getMethod()).thenReturn("GET");
+    Mockito.when(reqMock.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=2-5");
+
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+    servlet.createResponse(reqMock, servletResponse, createFileResponse(content, "\"1\""), false);
+
+    Mockito.verify(servletResponse).setStatus(HttpStatusCodes.PARTIAL_CONTENT.getStatusCode());
+    Mockito.verify(servletResponse).setHeader(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10");
+    Mockito.verify(servletResponse).setContentLength(4);
+    Assert.assertEquals("2345", new String(bout.toByteArray(), "utf-8"));
+  }
+
+  @Test
+  public void suffixRangeRequestOnChannel() throws Exception {
+    final String content = "0123456789";
+    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    final HttpServletResponse servletResponse = prepareMediaResponse(bout);
+    Mockito.when(reqMock.getMethod()).thenReturn("GET");
+    Mockito.when(reqMock.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=-3");
+
+    final File file = createTempFile(content);
+    final ODataResponse response = ODataResponse.fromResponse(
+        EntityProvider.writeBinaryChannel("image/png", new FileInputStream(file).getChannel()))
+        .status(HttpStatusCodes.OK).build();
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+    servlet.createResponse(reqMock, servletResponse, response, false);
+
+    Mockito.verify(servletResponse).setHeader(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10");
+    Assert.assertEquals("789", new String(bout.toByteArray(), "utf-8"));
+  }
+
+  @Test
+  public void rangeRequestWithOutdatedIfRange() throws Exception {
+    final String content = "0123456789";
+    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    final HttpServletResponse servletResponse = prepareMediaResponse(bout);
+    Mockito.when(reqMock.getMethod()).thenReturn("GET");
+    Mockito.when(reqMock.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=2-5");
+    Mockito.when(reqMock.getHeader(HttpHeaders.IF_RANGE)).thenReturn("\"0\"");
+
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+    servlet.createResponse(reqMock, servletResponse, createFileResponse(content, "\"1\""), false);
+
+    Mockito.verify(servletResponse).setStatus(HttpStatusCodes.OK.getStatusCode());
+    Mockito.verify(servletResponse).setContentLength(10);
+    Assert.assertEquals(content, new String(bout.toByteArray(), "utf-8"));
+  }
+
+  @Test
+  public void unsatisfiableRangeRequest() throws Exception {
+    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    final HttpServletResponse servletResponse = prepareMediaResponse(bout);
+    Mockito.when(reqMock.getMethod()).thenReturn("GET");
+    Mockito.when(reqMock.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=20-");
+
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+    servlet.createResponse(reqMock, servletResponse, createFileResponse("0123456789", null), false);
+
+    Mockito.verify(servletResponse).setStatus(HttpStatusCodes.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode());
+    Mockito.verify(servletResponse).setHeader(HttpHeaders.CONTENT_RANGE, "bytes */10");
+    Assert.assertEquals(0, bout.size());
+  }
+
+  @Test
+  public void headRequestClosesEntity() throws Exception {
+    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    final HttpServletResponse servletResponse = prepareMediaResponse(bout);
+    Mockito.when(reqMock.getMethod()).thenReturn("HEAD");
+
+    final FileChannel channel = new FileInputStream(createTempFile("0123456789")).getChannel();
+    final ODataResponse response = ODataResponse.fromResponse(
+        EntityProvider.writeBinaryChannel("image/png", channel)).status(HttpStatusCodes.OK).build();
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+    servlet.createResponse(reqMock, servletResponse, response, true);
+
+    Mockito.verify(servletResponse).setStatus(HttpStatusCodes.OK.getStatusCode());
+    Assert.assertEquals(0, bout.size());
+    Assert.assertFalse(channel.isOpen());
+  }
+
+  private HttpServletResponse prepareMediaResponse(final ByteArrayOutputStream bout) throws IOException {
+    HttpServletResponse servletResponse = Mockito.mock(HttpServletResponse.class);
+    Mockito.when(servletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(int i) throws IOException {
+        bout.write(i);
+      }
+    });
+    return servletResponse;
+  }
+
+  private ODataResponse createFileResponse(final String content, final String eTag) throws Exception {
+    return ODataResponse.fromResponse(EntityProvider.writeBinaryFile("image/png", createTempFile(content)))
+        .status(HttpStatusCodes.OK).eTag(eTag).build();
+  }
+
+  private File createTempFile(final String content) throws IOException {
+    File file = File.createTempFile("odata-media", ".bin");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(content.getBytes("utf-8"));
+    } finally {
+      out.close();
+    }
+    return file;
+  }
+
   private String testData(int amount) {
     StringBuilder result = new StringBuilder();
     Random r = new Random();
@@ -22,6 +22,7 @@ import junit.framework.Assert;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class RestUtilTest {
@@ -77,8 +78,41 @@ public class RestUtilTest {
     Assert.assertEquals(5, result.size());
     Assert.assertEquals("text/html", result.get(0));
     Assert.assertEquals("application/xhtml+xml", result.get(1));
-    Assert.assertEquals("application/xml", result.get(2));
-    Assert.assertEquals("image/webp", result.get(3));
+    Assert.assertEquals("image/webp", result.get(2));
+    Assert.assertEquals("application/xml", result.get(3));
     Assert.assertEquals("*/*", result.get(4));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void extractAcceptHeadersWithParameters() throws Exception {
+    List<String> result = RestUtil.extractAcceptHeaders(
+        "application/json;odata=verbose;q=0.5, text/plain;charset=\"a,b\";q=0.7,application/xml;Q=1.0;ext=1");
+    Assert.assertEquals(3, result.size());
+    Assert.assertEquals("application/xml", result.get(0));
+    Assert.assertEquals("text/plain;charset=\"a,b\"", result.get(1));
+    Assert.assertEquals("application/json;odata=verbose", result.get(2));
+
+    result = RestUtil.extractAcceptHeaders("invalid, text/plain;q=0, , */*;q=0.001");
+    Assert.assertEquals(2, result.size());
+    Assert.assertEquals("*/*", result.get(0));
+    Assert.assertEquals("text/plain", result.get(1));
+
+    Assert.assertTrue(RestUtil.extractAcceptHeaders(null).isEmpty());
+    Assert.assertTrue(RestUtil.extractAcceptHeaders("").isEmpty());
+  }
+
+  @Test
+  public void extractAcceptableLanguage() throws Exception {
+    List<Locale> result = RestUtil.extractAcceptableLanguage("de-DE;q=0.8, en, fr;q=0.9, *;q=0.1, 1a");
+    Assert.assertEquals(4, result.size());
+    Assert.assertEquals(new Locale("en"), result.get(0));
+    Assert.assertEquals(new Locale("fr"), result.get(1));
+    Assert.assertEquals(new Locale("de", "DE"), result.get(2));
+    Assert.assertEquals(new Locale("*"), result.get(3));
+
+    result = RestUtil.extractAcceptableLanguage("zh-Hant-TW");
+    Assert.assertEquals(new Locale("zh", "Hant"), result.get(0));
+
+    Assert.assertTrue(RestUtil.extractAcceptableLanguage(null).isEmpty());
+  }
+}
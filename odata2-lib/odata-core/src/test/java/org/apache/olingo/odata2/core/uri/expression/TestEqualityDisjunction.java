@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.uri.expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.EqualityDisjunctionVisitor;
+import org.apache.olingo.odata2.api.uri.expression.EqualityDisjunctionVisitor.EqualityDisjunction;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.api.uri.expression.LiteralExpression;
+import org.apache.olingo.odata2.api.uri.expression.MemberExpression;
+import org.junit.Test;
+
+/**
+ * Tests for the detection of disjunctions of equality comparisons.
+ */
+public class TestEqualityDisjunction extends TestBase {
+
+  private EqualityDisjunctionVisitor visit(final FilterExpression filter) throws Exception {
+    EqualityDisjunctionVisitor visitor = new EqualityDisjunctionVisitor();
+    filter.accept(visitor);
+    return visitor;
+  }
+
+  private FilterExpression parse(final String expression) throws Exception {
+    return new FilterParserImpl(edmInfo.getTypeEtAllTypes()).parseFilterString(expression);
+  }
+
+  @Test
+  public void longChain() throws Exception {
+    StringBuilder expression = new StringBuilder("Int32 eq 0");
+    for (int i = 1; i < 300; i++) {
+      expression.append(" or Int32 eq ").append(i);
+    }
+    final FilterExpression filter = parse(expression.toString());
+    final EqualityDisjunctionVisitor visitor = visit(filter);
+
+    final EqualityDisjunction disjunction = visitor.getDisjunction(filter.getExpression());
+    assertEquals(300, disjunction.getLiterals().size());
+    assertEquals("Int32", disjunction.getOperand().getUriLiteral());
+    assertEquals("0", disjunction.getLiterals().get(0).getUriLiteral());
+    assertEquals("299", disjunction.getLiterals().get(299).getUriLiteral());
+
+    // only the outermost "or" expression carries the disjunction
+    assertNull(visitor.getDisjunction(((BinaryExpression) filter.getExpression()).getLeftOperand()));
+  }
+
+  @Test
+  public void literalOnLeftSideAndMember() throws Exception {
+    final FilterExpression filter = parse("'a' eq Complex/String or Complex/String eq 'b'");
+    final EqualityDisjunction disjunction = visit(filter).getDisjunction(filter.getExpression());
+    assertEquals(ExpressionKind.MEMBER, disjunction.getOperand().getKind());
+    assertEquals("String", ((MemberExpression) disjunction.getOperand()).getProperty().getUriLiteral());
+    assertEquals(2, disjunction.getLiterals().size());
+    for (final LiteralExpression literal : disjunction.getLiterals()) {
+      assertTrue(literal.getUriLiteral().equals("'a'") || literal.getUriLiteral().equals("'b'"));
+    }
+  }
+
+  @Test
+  public void nestedChains() throws Exception {
+    final FilterExpression filter = parse("(Int32 eq 1 or Int32 eq 2) and (String eq 'a' or String eq 'b')");
+    final EqualityDisjunctionVisitor visitor = visit(filter);
+    final BinaryExpression and = (BinaryExpression) filter.getExpression();
+    assertNull(visitor.getDisjunction(and));
+    assertEquals("Int32", visitor.getDisjunction(and.getLeftOperand()).getOperand().getUriLiteral());
+    assertEquals("String", visitor.getDisjunction(and.getRightOperand()).getOperand().getUriLiteral());
+  }
+
+  @Test
+  public void noDisjunction() throws Exception {
+    assertFalse(visit(parse("Int32 eq 1 or String eq 'a'")).hasDisjunctions());
+    assertFalse(visit(parse("Int32 eq 1 or Int32 eq null")).hasDisjunctions());
+    assertFalse(visit(parse("Int32 eq 1 or Int32 gt 2")).hasDisjunctions());
+    assertFalse(visit(parse("Int32 eq 1 and Int32 eq 2")).hasDisjunctions());
+    assertFalse(visit(parse("Int32 eq Int16 or Int32 eq 2")).hasDisjunctions());
+    assertFalse(visit(parse("Int32 eq 1")).hasDisjunctions());
+  }
+
+  @Test
+  public void partOfLargerDisjunction() throws Exception {
+    final FilterExpression filter = parse("Int32 eq 1 or Int32 eq 2 or String eq 'a'");
+    final EqualityDisjunctionVisitor visitor = visit(filter);
+    final BinaryExpression or = (BinaryExpression) filter.getExpression();
+    assertNull(visitor.getDisjunction(or));
+    assertEquals(2, visitor.getDisjunction(or.getLeftOperand()).getLiterals().size());
+  }
+}
@@ -406,4 +406,15 @@ public class TestParser extends TestBase {
     GetPTF_noTEST(entityType, "navProperty lt null")
         .aExKey(ExpressionParserException.INVALID_TYPES_FOR_BINARY_OPERATOR);
   }
+
+  @Test
+  public void longOrChain() {
+    StringBuilder expression = new StringBuilder("1 eq 0");
+    StringBuilder serialized = new StringBuilder("{1 eq 0}");
+    for (int i = 1; i < 500; i++) {
+      expression.append(" or ").append(i).append(" eq ").append(i);
+      serialized.insert(0, '{').append(" or {").append(i).append(" eq ").append(i).append("}}");
+    }
+    GetPTF(expression.toString()).aSerialized(serialized.toString());
+  }
 }
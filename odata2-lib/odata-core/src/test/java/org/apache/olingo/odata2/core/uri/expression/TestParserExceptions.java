@@ -18,9 +18,15 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.uri.expression;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionParserException;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionParserLimits;
 import org.junit.Test;
 
 /**
@@ -455,4 +461,92 @@ public class TestParserExceptions extends TestBase {
     GetPTF_onlyBinary("1 add   ").aExMsgText("Expression expected after position 5 in \"1 add   \".");
   }
 
+  @Test
+  public void testExpressionLimits() throws Exception {
+    EdmEntityType edmEtAllTypes = edmInfo.getTypeEtAllTypes();
+    final ExpressionParserLimits limits = new ExpressionParserLimits(20, 5);
+
+    // within the limits
+    new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("1 eq 1");
+
+    try {
+      new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("String eq 'abcdefghijklmn'");
+      fail("Expected exception not thrown");
+    } catch (ExpressionParserException e) {
+      assertEquals(ExpressionParserException.EXPRESSION_TOO_LONG.getKey(), e.getMessageReference().getKey());
+      assertEquals(Arrays.asList(26, 20), e.getMessageReference().getContent());
+    }
+
+    try {
+      new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("1 eq 1 or 2 eq 2");
+      fail("Expected exception not thrown");
+    } catch (ExpressionParserException e) {
+      assertEquals(ExpressionParserException.EXPRESSION_TOO_COMPLEX.getKey(), e.getMessageReference().getKey());
+      assertEquals(Arrays.asList(5, 13, "1 eq 1 or 2 eq 2"), e.getMessageReference().getContent());
+    }
+
+    // nested parentheses count as well
+    try {
+      new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("((((((1 eq 1))))))");
+      fail("Expected exception not thrown");
+    } catch (ExpressionParserException e) {
+      assertEquals(ExpressionParserException.EXPRESSION_TOO_COMPLEX.getKey(), e.getMessageReference().getKey());
+    }
+
+    try {
+      new OrderByParserImpl(edmEtAllTypes, limits).parseOrderByString("String, Int32, Boolean, Byte, SByte, Int16");
+      fail("Expected exception not thrown");
+    } catch (ExpressionParserException e) {
+      assertEquals(ExpressionParserException.EXPRESSION_TOO_LONG.getKey(), e.getMessageReference().getKey());
+    }
+  }
+
+  @Test
+  public void testNestingDepthLimit() throws Exception {
+    EdmEntityType edmEtAllTypes = edmInfo.getTypeEtAllTypes();
+
+    // within the default limit
+    new FilterParserImpl(edmEtAllTypes).parseFilterString(nest(ExpressionParserLimits.DEFAULT_MAX_NESTING_DEPTH));
+
+    // deep enough to overflow the stack of the recursive descent parser without the limit
+    final String deeplyNested = nest(3000);
+    try {
+      new FilterParserImpl(edmEtAllTypes).parseFilterString(deeplyNested);
+      fail("Expected exception not thrown");
+    } catch (ExpressionParserException e) {
+      assertEquals(ExpressionParserException.EXPRESSION_TOO_COMPLEX.getKey(), e.getMessageReference().getKey());
+      assertEquals(Arrays.asList(ExpressionParserLimits.DEFAULT_MAX_NESTING_DEPTH,
+          ExpressionParserLimits.DEFAULT_MAX_NESTING_DEPTH + 1, deeplyNested), e.getMessageReference().getContent());
+    }
+
+    final ExpressionParserLimits limits = new ExpressionParserLimits(100, 100, 2);
+    new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("(tolower(String) eq 'a')");
+    new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("not (Boolean)");
+
+    // method calls and unary operators are nesting levels as well
+    try {
+      new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("(tolower(toupper(String)) eq 'a')");
+      fail("Expected exception not thrown");
+    } catch (ExpressionParserException e) {
+      assertEquals(ExpressionParserException.EXPRESSION_TOO_COMPLEX.getKey(), e.getMessageReference().getKey());
+    }
+    try {
+      new FilterParserImpl(edmEtAllTypes, limits).parseFilterString("not (not (Boolean))");
+      fail("Expected exception not thrown");
+    } catch (ExpressionParserException e) {
+      assertEquals(ExpressionParserException.EXPRESSION_TOO_COMPLEX.getKey(), e.getMessageReference().getKey());
+    }
+  }
+
+  private static String nest(final int depth) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      builder.append('(');
+    }
+    builder.append("1 eq 1");
+    for (int i = 0; i < depth; i++) {
+      builder.append(')');
+    }
+    return builder.toString();
+  }
 }
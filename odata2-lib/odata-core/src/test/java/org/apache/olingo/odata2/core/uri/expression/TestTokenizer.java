@@ -115,6 +115,32 @@ public class TestTokenizer {
     getTT("a eqotto b").at(1).aKind(TokenKind.LITERAL).aUriLiteral("eqotto");
   }
 
+  @Test
+  public void tokenizeKeywords() throws Exception {
+    // methods and operators are literals which are interpreted by the parser
+    getTT("substringof('a',b)").at(0).aKind(TokenKind.LITERAL).aUriLiteral("substringof").aPosition(0)
+        .at(1).aKind(TokenKind.OPENPAREN).aPosition(11)
+        .at(2).aKind(TokenKind.SIMPLE_TYPE).aUriLiteral("'a'").aPosition(12)
+        .at(3).aKind(TokenKind.COMMA).aPosition(15)
+        .at(4).aKind(TokenKind.LITERAL).aUriLiteral("b").aPosition(16);
+    getTT("month(a) eq 1").at(0).aKind(TokenKind.LITERAL).aUriLiteral("month")
+        .at(5).aKind(TokenKind.SIMPLE_TYPE).aUriLiteral("1").aPosition(12);
+    getTT("not a").at(0).aKind(TokenKind.LITERAL).aUriLiteral("not")
+        .at(1).aKind(TokenKind.LITERAL).aUriLiteral("a").aPosition(4);
+
+    // prefixed literals
+    getTT("datetimeoffset'2002-10-10T17:00:00Z'").aKind(TokenKind.SIMPLE_TYPE)
+        .aUriLiteral("datetimeoffset'2002-10-10T17:00:00Z'").aPosition(0);
+    getTT("binary'00' eq X'0a'").at(0).aKind(TokenKind.SIMPLE_TYPE).aUriLiteral("binary'00'")
+        .at(2).aKind(TokenKind.SIMPLE_TYPE).aUriLiteral("X'0a'").aPosition(14);
+    getTT("guid'12345678-1234-1234-1234-123456789012'").aKind(TokenKind.SIMPLE_TYPE).aPosition(0);
+
+    // trailing boolean literals
+    getTT("a eq true").at(2).aKind(TokenKind.SIMPLE_TYPE).aUriLiteral("true").aPosition(5);
+    getTT("a eq false").at(2).aKind(TokenKind.SIMPLE_TYPE).aUriLiteral("false").aPosition(5);
+    getTT("a eq trueish").at(2).aKind(TokenKind.LITERAL).aUriLiteral("trueish");
+  }
+
   @Test
   public void testExceptions() throws Exception {
     // http://services.odata.org/Northwind/Northwind.svc/Products(1)/Supplier?$filter='a
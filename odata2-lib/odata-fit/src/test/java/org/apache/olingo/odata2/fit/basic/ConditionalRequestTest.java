@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.fit.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.InputStream;
+import java.net.URI;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
+import org.apache.olingo.odata2.api.processor.feature.ETagSupport;
+import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
+import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import org.apache.olingo.odata2.testutil.helper.StringHelper;
+import org.apache.olingo.odata2.testutil.mock.EdmTestProvider;
+import org.apache.olingo.odata2.testutil.server.ServletType;
+import org.junit.Test;
+
+/**
+ * Tests the evaluation of conditional requests with a processor supporting {@link ETagSupport}.
+ */
+public class ConditionalRequestTest extends AbstractBasicTest {
+
+  private static final String CURRENT_ETAG = "W/\"2\"";
+
+  private ODataSingleProcessor processor;
+
+  public ConditionalRequestTest(final ServletType servletType) {
+    super(servletType);
+  }
+
+  @Override
+  protected ODataSingleProcessor createProcessor() throws ODataException {
+    processor = mock(ODataSingleProcessor.class, withSettings().extraInterfaces(ETagSupport.class));
+    when(((ETagSupport) processor).readETag(any(GetEntityUriInfo.class))).thenReturn(CURRENT_ETAG);
+    when(processor.readEntity(any(GetEntityUriInfo.class), anyString()))
+        .thenReturn(ODataResponse.entity("entity").eTag(CURRENT_ETAG).build());
+    when(processor.updateEntity(any(PutMergePatchUriInfo.class), any(InputStream.class), anyString(), anyBoolean(),
+        anyString())).thenReturn(ODataResponse.newBuilder().build());
+    when(processor.deleteEntity(any(DeleteUriInfo.class), anyString()))
+        .thenReturn(ODataResponse.newBuilder().build());
+    return processor;
+  }
+
+  @Override
+  protected EdmProvider createEdmProvider() {
+    return new EdmTestProvider();
+  }
+
+  @Test
+  public void notModified() throws Exception {
+    final HttpResponse response = execute(new HttpGet(), "Rooms('1')", HttpHeaders.IF_NONE_MATCH, "W/\"1\", \"2\"");
+    assertEquals(HttpStatusCodes.NOT_MODIFIED.getStatusCode(), response.getStatusLine().getStatusCode());
+    assertEquals(CURRENT_ETAG, response.getFirstHeader(HttpHeaders.ETAG).getValue());
+    assertNull(response.getEntity());
+    verify(processor, never()).readEntity(any(GetEntityUriInfo.class), anyString());
+  }
+
+  @Test
+  public void notModifiedProperty() throws Exception {
+    final HttpResponse response = execute(new HttpGet(), "Rooms('1')/Seats", HttpHeaders.IF_NONE_MATCH, "*");
+    assertEquals(HttpStatusCodes.NOT_MODIFIED.getStatusCode(), response.getStatusLine().getStatusCode());
+  }
+
+  @Test
+  public void modified() throws Exception {
+    final HttpResponse response = execute(new HttpGet(), "Rooms('1')", HttpHeaders.IF_NONE_MATCH, "W/\"1\"");
+    assertEquals(HttpStatusCodes.OK.getStatusCode(), response.getStatusLine().getStatusCode());
+    assertEquals("entity", StringHelper.httpEntityToString(response.getEntity()));
+  }
+
+  @Test
+  public void readFailedPrecondition() throws Exception {
+    final HttpResponse response = execute(new HttpGet(), "Rooms('1')", HttpHeaders.IF_MATCH, "W/\"1\"");
+    assertEquals(HttpStatusCodes.PRECONDITION_FAILED.getStatusCode(), response.getStatusLine().getStatusCode());
+    verify(processor, never()).readEntity(any(GetEntityUriInfo.class), anyString());
+  }
+
+  @Test
+  public void update() throws Exception {
+    HttpPut put = new HttpPut();
+    put.setEntity(new StringEntity("{\"Id\":\"1\"}"));
+    put.setHeader(HttpHeaders.CONTENT_TYPE, HttpContentType.APPLICATION_JSON);
+    HttpResponse response = execute(put, "Rooms('1')", HttpHeaders.IF_MATCH, CURRENT_ETAG);
+    assertEquals(HttpStatusCodes.NO_CONTENT.getStatusCode(), response.getStatusLine().getStatusCode());
+    verify(processor).updateEntity(any(PutMergePatchUriInfo.class), any(InputStream.class), anyString(),
+        anyBoolean(), anyString());
+
+    response = execute(put, "Rooms('1')", HttpHeaders.IF_MATCH, "W/\"1\"");
+    assertEquals(HttpStatusCodes.PRECONDITION_FAILED.getStatusCode(), response.getStatusLine().getStatusCode());
+  }
+
+  @Test
+  public void deleteFailedPrecondition() throws Exception {
+    final HttpResponse response = execute(new HttpDelete(), "Rooms('1')", HttpHeaders.IF_NONE_MATCH, "*");
+    assertEquals(HttpStatusCodes.PRECONDITION_FAILED.getStatusCode(), response.getStatusLine().getStatusCode());
+    verify(processor, never()).deleteEntity(any(DeleteUriInfo.class), anyString());
+  }
+
+  @Test
+  public void unknownETag() throws Exception {
+    when(((ETagSupport) processor).readETag(any(GetEntityUriInfo.class))).thenReturn(null);
+    final HttpResponse response = execute(new HttpGet(), "Rooms('1')", HttpHeaders.IF_MATCH, "W/\"1\"");
+    assertEquals(HttpStatusCodes.OK.getStatusCode(), response.getStatusLine().getStatusCode());
+  }
+
+  private HttpResponse execute(final HttpRequestBase request, final String uri, final String header,
+      final String headerValue) throws Exception {
+    request.setURI(URI.create(getEndpoint().toString() + uri));
+    request.setHeader(header, headerValue);
+    return getHttpClient().execute(request);
+  }
+}
@@ -161,6 +161,15 @@ public class FeedXmlReadOnlyTest extends AbstractRefXmlTest {
     assertXpathEvaluatesTo("1", "count(/atom:feed/atom:entry)", body);
     assertXpathEvaluatesTo(EMPLOYEE_5_NAME, "/atom:feed/atom:entry[1]/atom:title", body);
 
+    response = callUri("Employees?$filter=EmployeeId%20eq%20'1'%20or%20EmployeeId%20eq%20'3'"
+        + "%20or%20EmployeeId%20eq%20'9'%20or%20EmployeeId%20eq%20'5'");
+    body = getBody(response);
+    assertXpathEvaluatesTo("3", "count(/atom:feed/atom:entry)", body);
+    assertXpathEvaluatesTo(EMPLOYEE_5_NAME, "/atom:feed/atom:entry[3]/atom:title", body);
+
+    response = callUri("Employees?$filter=not(EmployeeId%20eq%20'1'%20or%20EmployeeId%20eq%20'3')");
+    assertXpathEvaluatesTo("4", "count(/atom:feed/atom:entry)", getBody(response));
+
     response = callUri("Employees?$filter=EntryDate%20gt%20datetime%272003-12-24T00%3A00%3A00%27");
     checkMediaType(response, HttpContentType.APPLICATION_ATOM_XML_UTF8 + ";type=feed");
     body = getBody(response);
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.fit.ref;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
+import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
+import org.apache.olingo.odata2.core.processor.ODataSingleProcessorService;
+import org.apache.olingo.odata2.ref.edm.ScenarioEdmProvider;
+import org.apache.olingo.odata2.ref.model.DataContainer;
+import org.apache.olingo.odata2.ref.processor.ListsProcessor;
+import org.apache.olingo.odata2.ref.processor.ScenarioDataSource;
+import org.apache.olingo.odata2.testutil.server.ServletType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests employing the reference scenario with a response cache provided by the service factory.
+ */
+public class ResponseCacheTest extends AbstractRefTest {
+
+  private DataContainer dataContainer;
+
+  public ResponseCacheTest(final ServletType servletType) {
+    super(servletType);
+  }
+
+  @Override
+  protected ODataSingleProcessorService createService() {
+    dataContainer = new DataContainer();
+    dataContainer.reset();
+    ODataSingleProcessor processor = new ListsProcessor(new ScenarioDataSource(dataContainer));
+    EdmProvider provider = new ScenarioEdmProvider();
+    return new ODataSingleProcessorService(provider, processor) {};
+  }
+
+  @Override
+  @Before
+  public void before() {
+    ResponseCacheServiceFactory.RESPONSE_CACHE.clear();
+    startCustomServer(ResponseCacheServiceFactory.class);
+  }
+
+  @Override
+  @After
+  public void after() {
+    stopCustomServer();
+  }
+
+  @Test
+  public void cachedUntilModified() throws Exception {
+    assertEquals(EMPLOYEE_2_NAME, getBody(callUri("Employees('2')/EmployeeName/$value")));
+
+    // A modification bypassing the OData service is not visible in cached responses.
+    dataContainer.getEmployees().get(1).setEmployeeName("Mister X");
+    assertEquals(EMPLOYEE_2_NAME, getBody(callUri("Employees('2')/EmployeeName/$value")));
+    // Different query options result in a different cache entry.
+    assertEquals("Mister X", getBody(callUri("Employees('2')/EmployeeName/$value?custom=value")));
+
+    putUri("Employees('2')/EmployeeName/$value", "Mister Y", HttpContentType.TEXT_PLAIN, HttpStatusCodes.NO_CONTENT);
+    assertEquals("Mister Y", getBody(callUri("Employees('2')/EmployeeName/$value")));
+  }
+
+  @Test
+  public void invalidatedByModificationOfRelatedEntitySet() throws Exception {
+    assertEquals(EMPLOYEE_2_NAME, getBody(callUri("Rooms('2')/nr_Employees('2')/EmployeeName/$value")));
+    dataContainer.getEmployees().get(1).setEmployeeName("Mister X");
+    assertEquals(EMPLOYEE_2_NAME, getBody(callUri("Rooms('2')/nr_Employees('2')/EmployeeName/$value")));
+
+    putUri("Employees('2')/EmployeeName/$value", "Mister Y", HttpContentType.TEXT_PLAIN, HttpStatusCodes.NO_CONTENT);
+    assertEquals("Mister Y", getBody(callUri("Rooms('2')/nr_Employees('2')/EmployeeName/$value")));
+  }
+
+  @Test
+  public void cachedPerAuthorization() throws Exception {
+    final String uri = "Employees('2')/EmployeeName/$value";
+    final String authorization = org.apache.http.HttpHeaders.AUTHORIZATION;
+    assertEquals(EMPLOYEE_2_NAME, getBody(callUri(uri, authorization, "Basic YWxpY2U6", HttpStatusCodes.OK)));
+    dataContainer.getEmployees().get(1).setEmployeeName("Mister X");
+    assertEquals(EMPLOYEE_2_NAME, getBody(callUri(uri, authorization, "Basic YWxpY2U6", HttpStatusCodes.OK)));
+    assertEquals("Mister X", getBody(callUri(uri, authorization, "Basic Ym9iOg==", HttpStatusCodes.OK)));
+    assertEquals("Mister X", getBody(callUri(uri)));
+  }
+
+  @Test
+  public void mediaResourceNotCached() throws Exception {
+    dataContainer.getEmployees().get(1).setImage("first".getBytes("UTF-8"));
+    assertEquals("first", getBody(callUri("Employees('2')/$value")));
+    dataContainer.getEmployees().get(1).setImage("second".getBytes("UTF-8"));
+    assertEquals("second", getBody(callUri("Employees('2')/$value")));
+  }
+
+  @Test
+  public void conditionalRequestNotServedFromCache() throws Exception {
+    assertEquals(EMPLOYEE_2_NAME, getBody(callUri("Employees('2')/EmployeeName/$value")));
+    dataContainer.getEmployees().get(1).setEmployeeName("Mister X");
+    assertEquals("Mister X", getBody(callUri("Employees('2')/EmployeeName/$value",
+        org.apache.http.HttpHeaders.IF_NONE_MATCH, "W/\"0\"", HttpStatusCodes.OK)));
+  }
+}
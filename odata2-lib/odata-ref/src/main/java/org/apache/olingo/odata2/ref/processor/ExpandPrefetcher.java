@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.ref.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
+import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
+
+/**
+ * Reads the related data of all expanded navigation properties before the response is serialized.
+ * <p>The expand tree is walked level by level. For each navigation property the related data is read
+ * once per distinct parent entry: the entries of a level are de-duplicated by their keys before the next level
+ * is read, and related data already read in another branch is reused. The data source offers no bulk read,
+ * so there is still one read per distinct parent entry and navigation property.</p>
+ * <p>Only the branches of the different navigation properties of the first level run concurrently if an
+ * executor is given; deeper levels are read in the thread of their branch.</p>
+ * <p>All prefetched data is kept until the response has been written, just as the serializer needs it.
+ * The write callbacks of the {@link ListsProcessor} then only look up the prefetched data.</p>
+ */
+class ExpandPrefetcher {
+
+  private static final Object NOT_FOUND = new Object();
+
+  private final ScenarioDataSource dataSource;
+  private final BeanPropertyAccess valueAccess;
+  private final ExecutorService executor;
+  private final Map<List<Object>, Object> relatedData = new ConcurrentHashMap<List<Object>, Object>();
+
+  /**
+   * @param executor executor for the independent branches or <code>null</code> to read them in the calling thread
+   */
+  ExpandPrefetcher(final ScenarioDataSource dataSource, final BeanPropertyAccess valueAccess,
+      final ExecutorService executor) {
+    this.dataSource = dataSource;
+    this.valueAccess = valueAccess;
+    this.executor = executor;
+  }
+
+  /**
+   * Reads the related data of all navigation properties expanded in <code>expandSelectTree</code>.
+   * @param entitySet entity set of the parent entries
+   * @param data parent entries
+   * @param expandSelectTree expand tree of the request
+   * @return <code>true</code> if anything has been expanded
+   */
+  boolean prefetch(final EdmEntitySet entitySet, final List<?> data, final ExpandSelectTreeNode expandSelectTree)
+      throws ODataException {
+    if (expandSelectTree == null || data.isEmpty()) {
+      return false;
+    }
+    List<Callable<Void>> branches = new ArrayList<Callable<Void>>();
+    for (final Map.Entry<String, ExpandSelectTreeNode> link : expandSelectTree.getLinks().entrySet()) {
+      if (link.getValue() != null) {
+        branches.add(new Callable<Void>() {
+          @Override
+          public Void call() throws ODataException {
+            resolve(entitySet, data, link.getKey(), link.getValue());
+            return null;
+          }
+        });
+      }
+    }
+    if (branches.isEmpty()) {
+      return false;
+    }
+
+    if (executor == null || branches.size() == 1) {
+      for (Callable<Void> branch : branches) {
+        call(branch);
+      }
+    } else {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (Callable<Void> branch : branches) {
+        futures.add(executor.submit(branch));
+      }
+      for (Future<Void> future : futures) {
+        waitFor(future);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the prefetched related data.
+   * @param entitySet entity set of the parent entry
+   * @param key key of the parent entry
+   * @param navigationPropertyName name of the navigation property
+   * @return the related data (a single entry or a list) or <code>null</code> if nothing has been prefetched
+   * @throws ODataNotFoundException if the data source reported that there is no related data
+   */
+  Object getRelatedData(final EdmEntitySet entitySet, final Map<String, Object> key,
+      final String navigationPropertyName) throws ODataNotFoundException, EdmException {
+    final Object result = relatedData.get(createKey(entitySet, key, navigationPropertyName));
+    if (result == NOT_FOUND) {
+      throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
+    }
+    return result;
+  }
+
+  private void resolve(final EdmEntitySet entitySet, final List<?> parents, final String navigationPropertyName,
+      final ExpandSelectTreeNode node) throws ODataException {
+    final EdmEntityType entityType = entitySet.getEntityType();
+    final EdmNavigationProperty navigationProperty =
+        (EdmNavigationProperty) entityType.getProperty(navigationPropertyName);
+    final EdmEntitySet targetEntitySet = entitySet.getRelatedEntitySet(navigationProperty);
+
+    final EdmEntityType targetEntityType = targetEntitySet.getEntityType();
+    Map<Map<String, Object>, Object> children = new LinkedHashMap<Map<String, Object>, Object>();
+    for (final Object parent : parents) {
+      final List<Object> key = createKey(entitySet, getKey(entityType, parent), navigationPropertyName);
+      Object related = relatedData.get(key);
+      if (related == null) {
+        try {
+          related = dataSource.readRelatedData(entitySet, parent, targetEntitySet,
+              Collections.<String, Object> emptyMap());
+        } catch (final ODataNotFoundException e) {
+          related = null;
+        }
+        relatedData.put(key, related == null ? NOT_FOUND : related);
+      }
+      if (related instanceof List) {
+        for (final Object child : (List<?>) related) {
+          addChild(children, targetEntityType, child);
+        }
+      } else if (related != null && related != NOT_FOUND) {
+        addChild(children, targetEntityType, related);
+      }
+    }
+
+    if (!children.isEmpty()) {
+      final List<Object> distinctChildren = new ArrayList<Object>(children.values());
+      for (final Map.Entry<String, ExpandSelectTreeNode> link : node.getLinks().entrySet()) {
+        if (link.getValue() != null) {
+          resolve(targetEntitySet, distinctChildren, link.getKey(), link.getValue());
+        }
+      }
+    }
+  }
+
+  private void addChild(final Map<Map<String, Object>, Object> children, final EdmEntityType entityType,
+      final Object child) throws ODataException {
+    final Map<String, Object> key = getKey(entityType, child);
+    if (!children.containsKey(key)) {
+      children.put(key, child);
+    }
+  }
+
+  private Map<String, Object> getKey(final EdmEntityType entityType, final Object data) throws ODataException {
+    Map<String, Object> key = new HashMap<String, Object>();
+    for (final EdmProperty keyProperty : entityType.getKeyProperties()) {
+      key.put(keyProperty.getName(), valueAccess.getPropertyValue(data, keyProperty));
+    }
+    return key;
+  }
+
+  private static List<Object> createKey(final EdmEntitySet entitySet, final Map<String, Object> key,
+      final String navigationPropertyName) throws EdmException {
+    return Arrays.<Object> asList(entitySet.getName(), key, navigationPropertyName);
+  }
+
+  private static void call(final Callable<Void> branch) throws ODataException {
+    try {
+      branch.call();
+    } catch (final ODataException e) {
+      throw e;
+    } catch (final RuntimeException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new ODataException(e);
+    }
+  }
+
+  private static void waitFor(final Future<Void> future) throws ODataException {
+    try {
+      future.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataException(e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof ODataException) {
+        throw (ODataException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ODataException(cause);
+    }
+  }
+}
@@ -24,10 +24,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.odata2.api.ODataCallback;
 import org.apache.olingo.odata2.api.batch.BatchHandler;
@@ -85,7 +89,10 @@ import org.apache.olingo.odata2.api.uri.NavigationSegment;
 import org.apache.olingo.odata2.api.uri.PathInfo;
 import org.apache.olingo.odata2.api.uri.UriParser;
 import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.BinaryOperator;
 import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
+import org.apache.olingo.odata2.api.uri.expression.EqualityDisjunctionVisitor;
+import org.apache.olingo.odata2.api.uri.expression.EqualityDisjunctionVisitor.EqualityDisjunction;
 import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
 import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
 import org.apache.olingo.odata2.api.uri.expression.LiteralExpression;
@@ -125,14 +132,27 @@ public class ListsProcessor extends ODataSingleProcessor {
   private static final int SERVER_PAGING_SIZE = 100;
   private final BeanPropertyAccess valueAccess;
   private final ScenarioDataSource dataSource;
+  private final ExecutorService expandExecutor;
 
   public ListsProcessor(final ScenarioDataSource dataSource) {
     this(dataSource, new BeanPropertyAccess());
   }
 
   public ListsProcessor(final ScenarioDataSource dataSource, final BeanPropertyAccess valueAccess) {
+    this(dataSource, valueAccess, null);
+  }
+
+  /**
+   * @param dataSource data source
+   * @param valueAccess access to the properties of the data objects
+   * @param expandExecutor executor on which the related data of independent expanded navigation properties is
+   * read concurrently; if <code>null</code>, it is read in the request thread
+   */
+  public ListsProcessor(final ScenarioDataSource dataSource, final BeanPropertyAccess valueAccess,
+      final ExecutorService expandExecutor) {
     this.dataSource = dataSource;
     this.valueAccess = valueAccess;
+    this.expandExecutor = expandExecutor;
   }
 
   @Override
@@ -195,12 +215,14 @@ public class ListsProcessor extends ODataSingleProcessor {
       values.add(getStructuralTypeValueMap(entryData, entityType));
     }
 
+    final ExpandSelectTreeNode expandSelectTree =
+        UriParser.createExpandSelectTree(uriInfo.getSelect(), uriInfo.getExpand());
     final EntityProviderWriteProperties feedProperties = EntityProviderWriteProperties
         .serviceRoot(context.getPathInfo().getServiceRoot())
         .inlineCountType(inlineCountType)
         .inlineCount(count)
-        .expandSelectTree(UriParser.createExpandSelectTree(uriInfo.getSelect(), uriInfo.getExpand()))
-        .callbacks(getCallbacks(data, entityType))
+        .expandSelectTree(expandSelectTree)
+        .callbacks(getCallbacks(data, entityType, prefetchExpandedData(entitySet, data, expandSelectTree)))
         .nextLink(nextLink)
         .build();
 
@@ -945,13 +967,13 @@ public class ListsProcessor extends ODataSingleProcessor {
     return eTag == null ? null : "W/\"" + eTag + "\"";
   }
 
-  private <T> Map<String, ODataCallback> getCallbacks(final T data, final EdmEntityType entityType)
-      throws EdmException {
+  private <T> Map<String, ODataCallback> getCallbacks(final T data, final EdmEntityType entityType,
+      final ExpandPrefetcher prefetcher) throws EdmException {
     final List<String> navigationPropertyNames = entityType.getNavigationPropertyNames();
     if (navigationPropertyNames.isEmpty()) {
       return null;
     } else {
-      final WriteCallback callback = new WriteCallback(data);
+      final WriteCallback callback = new WriteCallback(data, prefetcher);
       Map<String, ODataCallback> callbacks = new HashMap<String, ODataCallback>();
       for (final String name : navigationPropertyNames) {
         callbacks.put(name, callback);
@@ -960,11 +982,31 @@ public class ListsProcessor extends ODataSingleProcessor {
     }
   }
 
+  /**
+   * Reads the related data of all expanded navigation properties in advance.
+   * @return the prefetched data or <code>null</code> if nothing is expanded
+   */
+  private ExpandPrefetcher prefetchExpandedData(final EdmEntitySet entitySet, final List<?> data,
+      final ExpandSelectTreeNode expandSelectTree) throws ODataException {
+    ODataContext context = getContext();
+    final int timingHandle = context.startRuntimeMeasurement(getClass().getSimpleName(), "prefetchExpandedData");
+
+    ExpandPrefetcher prefetcher = new ExpandPrefetcher(dataSource, valueAccess, expandExecutor);
+    if (!prefetcher.prefetch(entitySet, data, expandSelectTree)) {
+      prefetcher = null;
+    }
+
+    context.stopRuntimeMeasurement(timingHandle);
+    return prefetcher;
+  }
+
   private class WriteCallback implements OnWriteEntryContent, OnWriteFeedContent {
     private final Object data;
+    private final ExpandPrefetcher prefetcher;
 
-    private <T> WriteCallback(final T data) {
+    private <T> WriteCallback(final T data, final ExpandPrefetcher prefetcher) {
       this.data = data;
+      this.prefetcher = prefetcher;
     }
 
     @Override
@@ -987,7 +1029,8 @@ public class ListsProcessor extends ODataSingleProcessor {
         result.setFeedData(values);
         EntityProviderWriteProperties inlineProperties =
             EntityProviderWriteProperties.serviceRoot(getContext().getPathInfo().getServiceRoot()).callbacks(
-                getCallbacks(relatedData, entityType)).expandSelectTree(context.getCurrentExpandSelectTreeNode())
+                getCallbacks(relatedData, entityType, prefetcher))
+                .expandSelectTree(context.getCurrentExpandSelectTreeNode())
                 .selfLink(context.getSelfLink()).build();
         result.setInlineProperties(inlineProperties);
         return result;
@@ -1017,7 +1060,8 @@ public class ListsProcessor extends ODataSingleProcessor {
 
           EntityProviderWriteProperties inlineProperties =
               EntityProviderWriteProperties.serviceRoot(getContext().getPathInfo().getServiceRoot()).callbacks(
-                  getCallbacks(relatedData, entityType)).expandSelectTree(context.getCurrentExpandSelectTreeNode())
+                  getCallbacks(relatedData, entityType, prefetcher))
+                  .expandSelectTree(context.getCurrentExpandSelectTreeNode())
                   .build();
           result.setInlineProperties(inlineProperties);
         }
@@ -1029,6 +1073,13 @@ public class ListsProcessor extends ODataSingleProcessor {
 
     private Object readRelatedData(final WriteCallbackContext context) throws ODataException {
       final EdmEntitySet entitySet = context.getSourceEntitySet();
+      if (prefetcher != null) {
+        final Object relatedData = prefetcher.getRelatedData(entitySet, context.extractKeyFromEntryData(),
+            context.getNavigationProperty().getName());
+        if (relatedData != null) {
+          return relatedData;
+        }
+      }
       return dataSource.readRelatedData(
           entitySet,
           data instanceof List ? readEntryData((List<?>) data, entitySet.getEntityType(), context
@@ -1064,7 +1115,8 @@ public class ListsProcessor extends ODataSingleProcessor {
     EntityProviderWriteProperties writeProperties = EntityProviderWriteProperties
         .serviceRoot(context.getPathInfo().getServiceRoot())
         .expandSelectTree(expandSelectTree)
-        .callbacks(getCallbacks(data, entityType))
+        .callbacks(getCallbacks(data, entityType,
+            prefetchExpandedData(entitySet, Collections.singletonList(data), expandSelectTree)))
         .build();
 
     final int timingHandle = context.startRuntimeMeasurement("EntityProvider", "writeEntry");
@@ -1181,10 +1233,11 @@ public class ListsProcessor extends ODataSingleProcessor {
     final int timingHandle = context.startRuntimeMeasurement(getClass().getSimpleName(), "applySystemQueryOptions");
 
     if (filter != null) {
+      final Disjunctions disjunctions = new Disjunctions(filter);
       // Remove all elements the filter does not apply for.
       // A for-each loop would not work with "remove", see Java documentation.
       for (Iterator<T> iterator = data.iterator(); iterator.hasNext();) {
-        if (!appliesFilter(entitySet, iterator.next(), filter)) {
+        if (!appliesFilter(entitySet, iterator.next(), filter, disjunctions)) {
           iterator.remove();
         }
       }
@@ -1232,8 +1285,8 @@ public class ListsProcessor extends ODataSingleProcessor {
         try {
           int result = 0;
           for (final OrderExpression expression : orderBy.getOrders()) {
-            String first = evaluateExpression(entitySet, entity1, expression.getExpression());
-            String second = evaluateExpression(entitySet, entity2, expression.getExpression());
+            String first = evaluateExpression(entitySet, entity1, expression.getExpression(), null);
+            String second = evaluateExpression(entitySet, entity2, expression.getExpression(), null);
 
             if (first != null && second != null) {
               result = first.compareTo(second);
@@ -1274,12 +1327,18 @@ public class ListsProcessor extends ODataSingleProcessor {
 
   private <T> boolean appliesFilter(final EdmEntitySet entitySet, final T data, final FilterExpression filter)
       throws ODataException {
+    return appliesFilter(entitySet, data, filter, filter == null ? null : new Disjunctions(filter));
+  }
+
+  private <T> boolean appliesFilter(final EdmEntitySet entitySet, final T data, final FilterExpression filter,
+      final Disjunctions disjunctions) throws ODataException {
     ODataContext context = getContext();
     final int timingHandle = context.startRuntimeMeasurement(getClass().getSimpleName(), "appliesFilter");
 
     try {
       return data != null
-          && (filter == null || evaluateExpression(entitySet, data, filter.getExpression()).equals("true"));
+          && (filter == null
+          || evaluateExpression(entitySet, data, filter.getExpression(), disjunctions).equals("true"));
     } catch (final RuntimeException e) {
       return false;
     } finally {
@@ -1287,12 +1346,12 @@ public class ListsProcessor extends ODataSingleProcessor {
     }
   }
 
-  private <T> String evaluateExpression(final EdmEntitySet entitySet, final T data, final CommonExpression expression)
-      throws ODataException {
+  private <T> String evaluateExpression(final EdmEntitySet entitySet, final T data, final CommonExpression expression,
+      final Disjunctions disjunctions) throws ODataException {
     switch (expression.getKind()) {
     case UNARY:
       final UnaryExpression unaryExpression = (UnaryExpression) expression;
-      final String operand = evaluateExpression(entitySet, data, unaryExpression.getOperand());
+      final String operand = evaluateExpression(entitySet, data, unaryExpression.getOperand(), disjunctions);
 
       switch (unaryExpression.getOperator()) {
       case NOT:
@@ -1305,9 +1364,16 @@ public class ListsProcessor extends ODataSingleProcessor {
 
     case BINARY:
       final BinaryExpression binaryExpression = (BinaryExpression) expression;
+      final EqualityDisjunction disjunction = binaryExpression.getOperator() == BinaryOperator.OR
+          && disjunctions != null ? disjunctions.visitor.getDisjunction(binaryExpression) : null;
+      if (disjunction != null) {
+        final String value = evaluateExpression(entitySet, data, disjunction.getOperand(), disjunctions);
+        return Boolean.toString(value != null
+            && getDisjunctionValues(entitySet, data, disjunction, disjunctions).contains(value));
+      }
       final EdmType type = binaryExpression.getLeftOperand().getEdmType();
-      final String left = evaluateExpression(entitySet, data, binaryExpression.getLeftOperand());
-      final String right = evaluateExpression(entitySet, data, binaryExpression.getRightOperand());
+      final String left = evaluateExpression(entitySet, data, binaryExpression.getLeftOperand(), disjunctions);
+      final String right = evaluateExpression(entitySet, data, binaryExpression.getRightOperand(), disjunctions);
 
       switch (binaryExpression.getOperator()) {
       case ADD:
@@ -1448,11 +1514,11 @@ public class ListsProcessor extends ODataSingleProcessor {
 
     case METHOD:
       final MethodExpression methodExpression = (MethodExpression) expression;
-      final String first = evaluateExpression(entitySet, data, methodExpression.getParameters().get(0));
+      final String first = evaluateExpression(entitySet, data, methodExpression.getParameters().get(0), disjunctions);
       final String second = methodExpression.getParameterCount() > 1 ?
-          evaluateExpression(entitySet, data, methodExpression.getParameters().get(1)) : "";
+          evaluateExpression(entitySet, data, methodExpression.getParameters().get(1), disjunctions) : "";
       final String third = methodExpression.getParameterCount() > 2 ?
-          evaluateExpression(entitySet, data, methodExpression.getParameters().get(2)) : "";
+          evaluateExpression(entitySet, data, methodExpression.getParameters().get(2), disjunctions) : "";
 
       switch (methodExpression.getMethod()) {
         case ENDSWITH:
@@ -1504,6 +1570,19 @@ public class ListsProcessor extends ODataSingleProcessor {
     }
   }
 
+  private <T> Set<String> getDisjunctionValues(final EdmEntitySet entitySet, final T data,
+      final EqualityDisjunction disjunction, final Disjunctions disjunctions) throws ODataException {
+    Set<String> values = disjunctions.values.get(disjunction);
+    if (values == null) {
+      values = new HashSet<String>();
+      for (final LiteralExpression literal : disjunction.getLiterals()) {
+        values.add(evaluateExpression(entitySet, data, literal, disjunctions));
+      }
+      disjunctions.values.put(disjunction, values);
+    }
+    return values;
+  }
+
   private <T> String getSkipToken(final EdmEntitySet entitySet, final T data) throws ODataException {
     String skipToken = "";
     for (final EdmProperty property : entitySet.getEntityType().getKeyProperties()) {
@@ -1660,4 +1739,18 @@ public class ListsProcessor extends ODataSingleProcessor {
     }
     return BatchResponsePart.responses(responses).changeSet(true).build();
   }
+
+  /**
+   * Chains of equality comparisons joined by "or" in a filter, evaluated by set lookup.
+   * Created for each evaluation of a filter, as the processor is shared between requests.
+   */
+  private static final class Disjunctions {
+    private final EqualityDisjunctionVisitor visitor = new EqualityDisjunctionVisitor();
+    private final Map<EqualityDisjunction, Set<String>> values =
+        new IdentityHashMap<EqualityDisjunction, Set<String>>();
+
+    private Disjunctions(final FilterExpression filter) throws ODataException {
+      filter.accept(visitor);
+    }
+  }
 }
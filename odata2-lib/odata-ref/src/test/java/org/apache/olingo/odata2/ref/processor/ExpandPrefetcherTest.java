@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.ref.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.olingo.odata2.api.edm.EdmEntityContainer;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
+import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode;
+import org.apache.olingo.odata2.ref.edm.ScenarioEdmProvider;
+import org.apache.olingo.odata2.ref.model.DataContainer;
+import org.apache.olingo.odata2.ref.model.Employee;
+import org.apache.olingo.odata2.ref.model.Room;
+import org.junit.Test;
+
+public class ExpandPrefetcherTest {
+
+  @Test
+  public void prefetchIndependentBranchesConcurrently() throws Exception {
+    final DataContainer dataContainer = new DataContainer();
+    dataContainer.init();
+    final ScenarioDataSource dataSource = new ScenarioDataSource(dataContainer);
+    final EdmEntityContainer container =
+        RuntimeDelegate.createEdm(new ScenarioEdmProvider()).getDefaultEntityContainer();
+    final EdmEntitySet rooms = container.getEntitySet("Rooms");
+    final EdmEntitySet buildings = container.getEntitySet("Buildings");
+    final EdmEntitySet employees = container.getEntitySet("Employees");
+
+    final ExpandSelectTreeNode expandSelectTree = ExpandSelectTreeNode.entitySet(rooms)
+        .expandedLinks(Arrays.asList("nr_Employees"))
+        .customExpandedLink("nr_Building",
+            ExpandSelectTreeNode.entitySet(buildings).expandedLinks(Arrays.asList("nb_Rooms")).build())
+        .build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      ExpandPrefetcher prefetcher = new ExpandPrefetcher(dataSource, new BeanPropertyAccess(), executor);
+      final List<?> data = dataSource.readData(rooms);
+      assertTrue(prefetcher.prefetch(rooms, data, expandSelectTree));
+
+      for (final Object room : data) {
+        final Map<String, Object> key = Collections.<String, Object> singletonMap("Id", ((Room) room).getId());
+        assertEquals(readRelatedData(dataSource, rooms, room, employees),
+            readPrefetchedData(prefetcher, rooms, key, "nr_Employees"));
+        final Object building = readRelatedData(dataSource, rooms, room, buildings);
+        assertEquals(building, readPrefetchedData(prefetcher, rooms, key, "nr_Building"));
+      }
+      assertEquals(dataSource.readRelatedData(buildings, dataContainer.getBuildings().iterator().next(), rooms,
+          Collections.<String, Object> emptyMap()),
+          prefetcher.getRelatedData(buildings, Collections.<String, Object> singletonMap("Id",
+              dataContainer.getBuildings().iterator().next().getId()), "nb_Rooms"));
+      assertNull(prefetcher.getRelatedData(employees, Collections.<String, Object> singletonMap("EmployeeId", "1"),
+          "ne_Team"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void readDistinctEntriesOnce() throws Exception {
+    final DataContainer dataContainer = new DataContainer();
+    dataContainer.init();
+    final Map<String, Integer> reads = new HashMap<String, Integer>();
+    final ScenarioDataSource dataSource = new ScenarioDataSource(dataContainer) {
+      @Override
+      public Object readRelatedData(final EdmEntitySet sourceEntitySet, final Object sourceData,
+          final EdmEntitySet targetEntitySet, final Map<String, Object> targetKeys)
+          throws ODataNotImplementedException, ODataNotFoundException, EdmException {
+        final Integer count = reads.get(targetEntitySet.getName());
+        reads.put(targetEntitySet.getName(), count == null ? 1 : count + 1);
+        return super.readRelatedData(sourceEntitySet, sourceData, targetEntitySet, targetKeys);
+      }
+    };
+    final EdmEntityContainer container =
+        RuntimeDelegate.createEdm(new ScenarioEdmProvider()).getDefaultEntityContainer();
+    final EdmEntitySet employees = container.getEntitySet("Employees");
+    final EdmEntitySet rooms = container.getEntitySet("Rooms");
+
+    final ExpandSelectTreeNode expandSelectTree = ExpandSelectTreeNode.entitySet(employees)
+        .customExpandedLink("ne_Room",
+            ExpandSelectTreeNode.entitySet(rooms).expandedLinks(Arrays.asList("nr_Building")).build())
+        .build();
+    final List<?> data = dataSource.readData(employees);
+    Set<Room> distinctRooms = new HashSet<Room>();
+    for (final Object employee : data) {
+      distinctRooms.add(((Employee) employee).getRoom());
+    }
+    assertTrue(distinctRooms.size() < data.size());
+
+    assertTrue(new ExpandPrefetcher(dataSource, new BeanPropertyAccess(), null)
+        .prefetch(employees, data, expandSelectTree));
+    assertEquals(Integer.valueOf(data.size()), reads.get("Rooms"));
+    assertEquals(Integer.valueOf(distinctRooms.size()), reads.get("Buildings"));
+  }
+
+  @Test
+  public void nothingExpanded() throws Exception {
+    final EdmEntitySet rooms =
+        RuntimeDelegate.createEdm(new ScenarioEdmProvider()).getDefaultEntityContainer().getEntitySet("Rooms");
+    ExpandPrefetcher prefetcher = new ExpandPrefetcher(null, new BeanPropertyAccess(), null);
+    assertFalse(prefetcher.prefetch(rooms, Arrays.asList(new Object()), null));
+    assertFalse(prefetcher.prefetch(rooms, Arrays.asList(new Object()),
+        ExpandSelectTreeNode.entitySet(rooms).selectedLinks(Arrays.asList("nr_Employees")).build()));
+  }
+
+  private Object readRelatedData(final ScenarioDataSource dataSource, final EdmEntitySet entitySet,
+      final Object data, final EdmEntitySet targetEntitySet) throws Exception {
+    try {
+      return dataSource.readRelatedData(entitySet, data, targetEntitySet, Collections.<String, Object> emptyMap());
+    } catch (ODataNotFoundException e) {
+      return null;
+    }
+  }
+
+  private Object readPrefetchedData(final ExpandPrefetcher prefetcher, final EdmEntitySet entitySet,
+      final Map<String, Object> key, final String navigationPropertyName) throws Exception {
+    try {
+      return prefetcher.getRelatedData(entitySet, key, navigationPropertyName);
+    } catch (ODataNotFoundException e) {
+      return null;
+    }
+  }
+}